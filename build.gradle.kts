@@ -100,6 +100,24 @@ repositories {
     codeMC()
 }
 
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+sourceSets {
+    test {
+        runtimeClasspath += vector.output
+    }
+    named("jmh") {
+        runtimeClasspath += vector.output
+    }
+}
+
+jmh {
+    jvmArgs.addAll("--add-modules", "jdk.incubator.vector")
+}
+
 dependencies {
     api(libs.jetbrains.annotations)
     implementation(libs.slf4j.api)
@@ -122,14 +140,27 @@ tasks {
         options.isIncremental = true
     }
 
+    named<JavaCompile>(vector.compileJavaTaskName) {
+        options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+    }
+
     withType<Test>().configureEach {
         useJUnitPlatform()
+        jvmArgs("--add-modules", "jdk.incubator.vector")
 
         maxHeapSize = "2G"
         ignoreFailures = false
         failFast = true
         maxParallelForks = (Runtime.getRuntime().availableProcessors() - 1).coerceAtLeast(1)
     }
+    jar {
+        from(vector.output)
+    }
+
+    named<Jar>("sourcesJar") {
+        from(vector.allSource)
+    }
+
     withType<Jar>().configureEach {
         dependsOn("dumpClasses")
         from(layout.buildDirectory.dir("tmp/META-INF")) {
@@ -24,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 public class CellularSamplerBenchmark {
 
     private NoiseFunction cellular;
+    private double[] grid;
 
     private long seed;
     private int startX;
@@ -41,6 +42,7 @@ public class CellularSamplerBenchmark {
         startZ = r.nextInt(10000);
 
         seed = r.nextLong();
+        grid = new double[16 * 384 * 16];
     }
 
     @Benchmark
@@ -85,4 +87,22 @@ public class CellularSamplerBenchmark {
         }
         return sum;
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 5)
+    public double[] benchmarkCellular3DGrid() {
+        cellular.getSampleGrid(seed, startX, startY, startZ, 1, 1, 1, 16, 384, 16, grid, 0);
+        return grid;
+    }
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 5)
+    public double[] benchmarkCellular2DGrid() {
+        cellular.getSampleGrid(seed, startX, startY, 1, 1, 16, 16, grid, 0);
+        return grid;
+    }
+}
@@ -21,6 +21,7 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class OpenSimplex2SamplerBenchmark {
     private NoiseFunction sampler;
+    private double[] grid;
 
     private long seed;
     private int startX;
@@ -37,6 +38,7 @@ public class OpenSimplex2SamplerBenchmark {
         startZ = r.nextInt(10000);
 
         seed = r.nextLong();
+        grid = new double[16 * 384 * 16];
     }
 
     @Benchmark
@@ -81,4 +83,22 @@ public class OpenSimplex2SamplerBenchmark {
         }
         return sum;
     }
-}
\ No newline at end of file
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 5)
+    public double[] benchmarkOS23DGrid() {
+        sampler.getSampleGrid(seed, startX, startY, startZ, 1, 1, 1, 16, 384, 16, grid, 0);
+        return grid;
+    }
+
+    @Benchmark
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 5)
+    public double[] benchmarkOS22DGrid() {
+        sampler.getSampleGrid(seed, startX, startY, 1, 1, 16, 16, grid, 0);
+        return grid;
+    }
+}
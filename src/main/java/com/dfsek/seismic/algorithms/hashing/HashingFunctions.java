@@ -72,6 +72,27 @@ public class HashingFunctions {
         return h;
     }
 
+    /**
+     * Computes the Murmur64 hash of every value in a range of an array.
+     * <p>
+     * Produces the same values as {@link #murmur64(long)}, using SIMD instructions where available.
+     *
+     * @param values the values to hash.
+     * @param out    the array to write the hashes to, may be {@code values} itself.
+     * @param offset index of the first value, in both arrays.
+     * @param length number of values to hash.
+     */
+    public static void murmur64(long[] values, long[] out, int offset, int length) {
+        HashingKernels kernels = HashingKernels.VECTORIZED;
+        if(kernels != null) {
+            kernels.murmur64(values, out, offset, length);
+            return;
+        }
+        for(int i = offset, end = offset + length; i < end; i++) {
+            out[i] = HashingFunctions.murmur64(values[i]);
+        }
+    }
+
     /**
      * Returns the SplitMix64 hash of a {@code long} value.
      *
@@ -0,0 +1,18 @@
+package com.dfsek.seismic.algorithms.hashing;
+
+import com.dfsek.seismic.util.VectorizationUtils;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Batch hashing kernels, producing output bit-identical to the scalar functions in {@link HashingFunctions}.
+ */
+interface HashingKernels {
+    /**
+     * The vectorized kernels, or {@code null} if the Vector API is unavailable on this VM.
+     */
+    @Nullable HashingKernels VECTORIZED = VectorizationUtils.load(HashingKernels.class,
+        "com.dfsek.seismic.algorithms.hashing.PanamaHashingKernels");
+
+    void murmur64(long[] values, long[] out, int offset, int length);
+}
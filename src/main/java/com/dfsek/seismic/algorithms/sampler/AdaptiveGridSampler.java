@@ -0,0 +1,278 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.algorithms.sampler.compiler.SamplerTape;
+import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Fills dense sample grids by evaluating a sampler only where linear interpolation would not be accurate enough.
+ * <p>
+ * The grid is split into cells of a fixed number of points, and only the corners of each cell are sampled at first. Where the estimated
+ * interpolation error of a cell exceeds the tolerance, the cell is split in half along each axis and its children are refined the same
+ * way, down to cells spanning a single step. The remaining points are interpolated from the corners of their cell, while every point
+ * that was sampled keeps its true sample.
+ * <p>
+ * For samplers which are {@link DerivativeSampler#isDifferentiable(Sampler) differentiable}, the error of a cell is estimated from the
+ * gradients at its corners, by bounding how far a cubic curve matching the samples and gradients at the ends of each cell edge deviates
+ * from the straight line between them. Noise functions report derivatives per unit of their frequency scaled coordinates, so the
+ * gradients are taken through a {@link SamplerTape} of the sampler, which applies the chain rule through every frequency and yields
+ * gradients per unit of the grid coordinates. Otherwise, the midpoints of the cell edges and the centre of the cell are sampled and
+ * compared with their interpolated values, and become corners of the child cells if the cell is split. Both are estimates, so features
+ * entirely contained within a cell may be missed; smaller cells make that less likely.
+ */
+public class AdaptiveGridSampler {
+    /**
+     * Maximum of {@code t * (1 - t)^2} over {@code [0, 1]}, which bounds the deviation of a cubic Hermite curve from its chord.
+     */
+    private static final double HERMITE_BOUND = 4d / 27;
+
+    private final Sampler sampler;
+    private final int cellSize;
+    private final double tolerance;
+    private final boolean useDerivatives;
+    /**
+     * Source of gradients in grid coordinates, if the sampler is differentiable.
+     */
+    private final SamplerTape derivatives;
+
+    /**
+     * @param sampler   the sampler to evaluate.
+     * @param cellSize  number of grid steps spanned by each axis of the initial cells.
+     * @param tolerance largest acceptable estimated interpolation error.
+     *
+     * @throws IllegalArgumentException if {@code cellSize} is not positive or {@code tolerance} is negative.
+     */
+    public AdaptiveGridSampler(Sampler sampler, int cellSize, double tolerance) {
+        if(cellSize <= 0) throw new IllegalArgumentException("Cell size must be positive, got " + cellSize);
+        if(!(tolerance >= 0)) throw new IllegalArgumentException("Tolerance must not be negative, got " + tolerance);
+        this.sampler = sampler;
+        this.cellSize = cellSize;
+        this.tolerance = tolerance;
+        this.derivatives = DerivativeSampler.isDifferentiable(sampler) ? new SamplerTape(sampler) : null;
+        this.useDerivatives = derivatives != null && derivatives.isDifferentiable();
+    }
+
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Fill a 2D lattice, laid out as {@link Sampler#getSampleGrid(long, double, double, double, double, int, int, double[], int)}.
+     *
+     * @return how many points were sampled.
+     */
+    public Statistics getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                                    int offset) {
+        return new Refinement(seed, false, x, y, 0, xStep, yStep, 0, xSize, ySize, 1, out, offset).run();
+    }
+
+    /**
+     * Fill a 3D lattice, laid out as
+     * {@link Sampler#getSampleGrid(long, double, double, double, double, double, double, int, int, int, double[], int)}.
+     *
+     * @return how many points were sampled.
+     */
+    public Statistics getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                    int ySize, int zSize, double[] out, int offset) {
+        return new Refinement(seed, true, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset).run();
+    }
+
+    /**
+     * @return the boundaries of the initial cells along an axis of {@code size} points.
+     */
+    private int[] bounds(int size) {
+        int cells = Math.max((size - 2) / cellSize + 1, 1);
+        int[] bounds = new int[cells + 1];
+        for(int i = 0; i < cells; i++) {
+            bounds[i] = i * cellSize;
+        }
+        bounds[cells] = Math.max(size - 1, 0);
+        return bounds;
+    }
+
+    private static double fraction(int i, int from, int to) {
+        return to == from ? 0 : (double) (i - from) / (to - from);
+    }
+
+
+    /**
+     * @param evaluations number of points which were sampled.
+     * @param points      number of points in the grid.
+     */
+    public record Statistics(int evaluations, int points) {
+        public double evaluatedFraction() {
+            return points == 0 ? 0 : (double) evaluations / points;
+        }
+    }
+
+
+    /**
+     * State of a single grid fill. 2D grids are filled as 3D grids of a single Z layer, whose first two axes are the 2D axes.
+     */
+    private final class Refinement {
+        private final long seed;
+        private final boolean is3D;
+        private final double x, y, z;
+        private final double xStep, yStep, zStep;
+        private final int xSize, ySize, zSize;
+        private final double[] out;
+        private final int offset;
+
+        private final boolean[] evaluated;
+        private final double[] gradients;
+        private final double[] derivative = new double[4];
+        private final List<int[]> cells = new ArrayList<>();
+        private int evaluations;
+
+        private Refinement(long seed, boolean is3D, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                           int ySize, int zSize, double[] out, int offset) {
+            this.seed = seed;
+            this.is3D = is3D;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.xStep = xStep;
+            this.yStep = yStep;
+            this.zStep = zStep;
+            this.xSize = xSize;
+            this.ySize = ySize;
+            this.zSize = zSize;
+            this.out = out;
+            this.offset = offset;
+            this.evaluated = new boolean[xSize * ySize * zSize];
+            this.gradients = useDerivatives ? new double[evaluated.length * 3] : null;
+        }
+
+        private Statistics run() {
+            if(evaluated.length == 0) return new Statistics(0, 0);
+            int[] xBounds = bounds(xSize), yBounds = bounds(ySize), zBounds = bounds(zSize);
+            for(int a = 0; a < xBounds.length - 1; a++) {
+                for(int b = 0; b < yBounds.length - 1; b++) {
+                    for(int c = 0; c < zBounds.length - 1; c++) {
+                        refine(xBounds[a], xBounds[a + 1], yBounds[b], yBounds[b + 1], zBounds[c], zBounds[c + 1]);
+                    }
+                }
+            }
+            for(int[] cell : cells) {
+                interpolate(cell[0], cell[1], cell[2], cell[3], cell[4], cell[5]);
+            }
+            return new Statistics(evaluations, evaluated.length);
+        }
+
+        private int index(int i, int j, int k) {
+            return (i * ySize + j) * zSize + k;
+        }
+
+        private double sample(int i, int j, int k) {
+            int index = index(i, j, k);
+            if(!evaluated[index]) {
+                double px = x + i * xStep, py = y + j * yStep, pz = z + k * zStep;
+                if(useDerivatives) {
+                    if(is3D) {
+                        derivatives.getSampleDerivative(seed, px, py, pz, derivative, 0);
+                    } else {
+                        derivatives.getSampleDerivative(seed, px, py, derivative, 0);
+                    }
+                    out[offset + index] = derivative[0];
+                    System.arraycopy(derivative, 1, gradients, index * 3, is3D ? 3 : 2);
+                } else {
+                    out[offset + index] = is3D ? sampler.getSample(seed, px, py, pz) : sampler.getSample(seed, px, py);
+                }
+                evaluated[index] = true;
+                evaluations++;
+            }
+            return out[offset + index];
+        }
+
+        private void refine(int i0, int i1, int j0, int j1, int k0, int k1) {
+            double v000 = sample(i0, j0, k0), v100 = sample(i1, j0, k0), v010 = sample(i0, j1, k0), v110 = sample(i1, j1, k0);
+            double v001 = sample(i0, j0, k1), v101 = sample(i1, j0, k1), v011 = sample(i0, j1, k1), v111 = sample(i1, j1, k1);
+            if(i1 - i0 <= 1 && j1 - j0 <= 1 && k1 - k0 <= 1) return;
+
+            int im = (i0 + i1) >>> 1, jm = (j0 + j1) >>> 1, km = (k0 + k1) >>> 1;
+            double error = 0;
+            for(int a = 0; a < 2; a++) {
+                for(int b = 0; b < 2; b++) {
+                    int iA = a == 0 ? i0 : i1, jA = a == 0 ? j0 : j1, jB = b == 0 ? j0 : j1, kB = b == 0 ? k0 : k1;
+                    error = Math.max(error, edgeError(0, i0, jA, kB, i1, jA, kB));
+                    error = Math.max(error, edgeError(1, iA, j0, kB, iA, j1, kB));
+                    error = Math.max(error, edgeError(2, iA, jB, k0, iA, jB, k1));
+                }
+            }
+            if(!useDerivatives) {
+                double interpolated = InterpolationFunctions.triLerp(v000, v100, v010, v110, v001, v101, v011, v111, fraction(im, i0, i1),
+                    fraction(jm, j0, j1), fraction(km, k0, k1));
+                error = Math.max(error, Math.abs(sample(im, jm, km) - interpolated));
+            }
+
+            if(error > tolerance) {
+                int[] is = i1 - i0 > 1 ? new int[]{ i0, im, i1 } : new int[]{ i0, i1 };
+                int[] js = j1 - j0 > 1 ? new int[]{ j0, jm, j1 } : new int[]{ j0, j1 };
+                int[] ks = k1 - k0 > 1 ? new int[]{ k0, km, k1 } : new int[]{ k0, k1 };
+                for(int a = 0; a < is.length - 1; a++) {
+                    for(int b = 0; b < js.length - 1; b++) {
+                        for(int c = 0; c < ks.length - 1; c++) {
+                            refine(is[a], is[a + 1], js[b], js[b + 1], ks[c], ks[c + 1]);
+                        }
+                    }
+                }
+            } else {
+                cells.add(new int[]{ i0, i1, j0, j1, k0, k1 });
+            }
+        }
+
+        /**
+         * @return the estimated interpolation error along the cell edge between two sampled points, which differ only along
+         *     {@code axis}.
+         */
+        private double edgeError(int axis, int i0, int j0, int k0, int i1, int j1, int k1) {
+            int span = axis == 0 ? i1 - i0 : axis == 1 ? j1 - j0 : k1 - k0;
+            if(span <= 1) return 0;
+            int from = index(i0, j0, k0), to = index(i1, j1, k1);
+            if(!useDerivatives) {
+                // Compare the sample halfway along the edge with its interpolated value
+                int half = span / 2;
+                double sample = axis == 0 ? sample(i0 + half, j0, k0) : axis == 1 ? sample(i0, j0 + half, k0) : sample(i0, j0, k0 + half);
+                return Math.abs(sample - InterpolationFunctions.lerp(out[offset + from], out[offset + to], (double) half / span));
+            }
+            double length = span * (axis == 0 ? xStep : axis == 1 ? yStep : zStep);
+            double slope = (out[offset + to] - out[offset + from]) / length;
+            return Math.abs(length) * (Math.abs(gradients[from * 3 + axis] - slope) + Math.abs(gradients[to * 3 + axis] - slope)) *
+                   HERMITE_BOUND;
+        }
+
+        private void interpolate(int i0, int i1, int j0, int j1, int k0, int k1) {
+            double v000 = out[offset + index(i0, j0, k0)], v100 = out[offset + index(i1, j0, k0)];
+            double v010 = out[offset + index(i0, j1, k0)], v110 = out[offset + index(i1, j1, k0)];
+            double v001 = out[offset + index(i0, j0, k1)], v101 = out[offset + index(i1, j0, k1)];
+            double v011 = out[offset + index(i0, j1, k1)], v111 = out[offset + index(i1, j1, k1)];
+            for(int i = i0; i <= i1; i++) {
+                double tx = fraction(i, i0, i1);
+                for(int j = j0; j <= j1; j++) {
+                    double ty = fraction(j, j0, j1);
+                    for(int k = k0; k <= k1; k++) {
+                        int index = index(i, j, k);
+                        if(!evaluated[index]) {
+                            out[offset + index] = InterpolationFunctions.triLerp(v000, v100, v010, v110, v001, v101, v011, v111, tx, ty,
+                                fraction(k, k0, k1));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * {@link CachingSampler} for use by a single thread at a time, such as one created per generation worker.
+ */
+public class CachedSampler extends CachingSampler {
+    private final SampleCache cache2D;
+    private final SampleCache cache3D;
+
+    /**
+     * @param sampler  the sampler to cache.
+     * @param capacity maximum number of 2D and of 3D samples to keep, rounded up to a power of two.
+     */
+    public CachedSampler(Sampler sampler, int capacity) {
+        super(sampler);
+        this.cache2D = new SampleCache(capacity);
+        this.cache3D = new SampleCache(capacity);
+    }
+
+    @Override
+    protected double getCached(long seed, double x, double y) {
+        return cache2D.get(SampleCache.hash(seed, x, y, 0), seed, x, y, 0);
+    }
+
+    @Override
+    protected double getCached(long seed, double x, double y, double z) {
+        return cache3D.get(SampleCache.hash(seed, x, y, z), seed, x, y, z);
+    }
+
+    @Override
+    protected void putCached(long seed, double x, double y, double value) {
+        if(!Double.isNaN(value)) cache2D.put(SampleCache.hash(seed, x, y, 0), seed, x, y, 0, value);
+    }
+
+    @Override
+    protected void putCached(long seed, double x, double y, double z, double value) {
+        if(!Double.isNaN(value)) cache3D.put(SampleCache.hash(seed, x, y, z), seed, x, y, z, value);
+    }
+
+    @Override
+    public void invalidate() {
+        cache2D.invalidate();
+        cache3D.invalidate();
+    }
+}
@@ -0,0 +1,127 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Sampler decorator which memoizes the samples of another sampler, keyed on the seed and coordinates.
+ * <p>
+ * Useful when one sampler is referenced from several places in a sampler graph and so is evaluated repeatedly at the same coordinates.
+ * The cache has a bounded capacity, and should be {@link #invalidate() invalidated} whenever a unit of generation, such as a chunk, is
+ * done with. {@code NaN} samples are never cached.
+ */
+public abstract class CachingSampler implements Sampler {
+    protected final Sampler sampler;
+
+    protected CachingSampler(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * @return the cached 2D sample, or {@code NaN} if there is none.
+     */
+    protected abstract double getCached(long seed, double x, double y);
+
+    /**
+     * @return the cached 3D sample, or {@code NaN} if there is none.
+     */
+    protected abstract double getCached(long seed, double x, double y, double z);
+
+    protected abstract void putCached(long seed, double x, double y, double value);
+
+    protected abstract void putCached(long seed, double x, double y, double z, double value);
+
+    /**
+     * Discards every cached sample.
+     */
+    public abstract void invalidate();
+
+    @Override
+    public int getAxisDependencies() {
+        return sampler.getAxisDependencies();
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y) {
+        double value = getCached(seed, x, y);
+        if(Double.isNaN(value)) {
+            value = sampler.getSample(seed, x, y);
+            putCached(seed, x, y, value);
+        }
+        return value;
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y, double z) {
+        double value = getCached(seed, x, y, z);
+        if(Double.isNaN(value)) {
+            value = sampler.getSample(seed, x, y, z);
+            putCached(seed, x, y, z, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        if(getCachedGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset)) return;
+        // A partial hit still samples the whole lattice, so the sampler's own grid path can be used
+        sampler.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                putCached(seed, xi, y + j * yStep, out[index++]);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        if(getCachedGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    putCached(seed, xi, yj, z + k * zStep, out[index++]);
+                }
+            }
+        }
+    }
+
+    private boolean getCachedGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                                  int offset) {
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double value = getCached(seed, xi, y + j * yStep);
+                if(Double.isNaN(value)) return false;
+                out[index++] = value;
+            }
+        }
+        return true;
+    }
+
+    private boolean getCachedGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                  int ySize, int zSize, double[] out, int offset) {
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    double value = getCached(seed, xi, yj, z + k * zStep);
+                    if(Double.isNaN(value)) return false;
+                    out[index++] = value;
+                }
+            }
+        }
+        return true;
+    }
+}
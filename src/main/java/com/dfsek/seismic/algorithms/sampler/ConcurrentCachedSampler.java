@@ -0,0 +1,102 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * {@link CachingSampler} which may be shared between threads.
+ * <p>
+ * The cache is split into independently locked segments, and the wrapped sampler is evaluated outside any lock, so threads only
+ * contend when they touch the same segment at the same time.
+ */
+public class ConcurrentCachedSampler extends CachingSampler {
+    private final SampleCache[] segments2D;
+    private final SampleCache[] segments3D;
+    private final int segmentShift;
+
+    /**
+     * @param sampler  the sampler to cache.
+     * @param capacity maximum number of 2D and of 3D samples to keep, split evenly between the segments.
+     * @param segments number of segments, rounded up to a power of two.
+     */
+    public ConcurrentCachedSampler(Sampler sampler, int capacity, int segments) {
+        super(sampler);
+        int segmentCount = Integer.highestOneBit(Math.max(segments - 1, 1)) << 1;
+        int segmentCapacity = Math.max(capacity / segmentCount, 1);
+        this.segments2D = new SampleCache[segmentCount];
+        this.segments3D = new SampleCache[segmentCount];
+        for(int i = 0; i < segmentCount; i++) {
+            segments2D[i] = new SampleCache(segmentCapacity);
+            segments3D[i] = new SampleCache(segmentCapacity);
+        }
+        // Segments are picked by the high bits of the hash, the low bits pick the slot within a segment
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Creates a cache with one segment per four available processors.
+     *
+     * @param sampler  the sampler to cache.
+     * @param capacity maximum number of 2D and of 3D samples to keep, split evenly between the segments.
+     */
+    public ConcurrentCachedSampler(Sampler sampler, int capacity) {
+        this(sampler, capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    private SampleCache segment(SampleCache[] segments, long hash) {
+        return segments[(int) (hash >>> segmentShift) & (segments.length - 1)];
+    }
+
+    @Override
+    protected double getCached(long seed, double x, double y) {
+        long hash = SampleCache.hash(seed, x, y, 0);
+        SampleCache segment = segment(segments2D, hash);
+        synchronized(segment) {
+            return segment.get(hash, seed, x, y, 0);
+        }
+    }
+
+    @Override
+    protected double getCached(long seed, double x, double y, double z) {
+        long hash = SampleCache.hash(seed, x, y, z);
+        SampleCache segment = segment(segments3D, hash);
+        synchronized(segment) {
+            return segment.get(hash, seed, x, y, z);
+        }
+    }
+
+    @Override
+    protected void putCached(long seed, double x, double y, double value) {
+        if(Double.isNaN(value)) return;
+        long hash = SampleCache.hash(seed, x, y, 0);
+        SampleCache segment = segment(segments2D, hash);
+        synchronized(segment) {
+            segment.put(hash, seed, x, y, 0, value);
+        }
+    }
+
+    @Override
+    protected void putCached(long seed, double x, double y, double z, double value) {
+        if(Double.isNaN(value)) return;
+        long hash = SampleCache.hash(seed, x, y, z);
+        SampleCache segment = segment(segments3D, hash);
+        synchronized(segment) {
+            segment.put(hash, seed, x, y, z, value);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        for(SampleCache segment : segments2D) {
+            synchronized(segment) {
+                segment.invalidate();
+            }
+        }
+        for(SampleCache segment : segments3D) {
+            synchronized(segment) {
+                segment.invalidate();
+            }
+        }
+    }
+}
@@ -8,34 +8,225 @@
 package com.dfsek.seismic.algorithms.sampler;
 
 
+import com.dfsek.seismic.algorithms.sampler.compiler.SamplerTape;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
-public class DomainWarpedSampler implements Sampler {
+/**
+ * Samples a function at coordinates offset by a warp sampler, which is sampled with the seeds following the function's seed, one per
+ * axis.
+ * <p>
+ * Fused samplers take every warp component of a point sample from one multi-seed sample of the warp, so warps that support it locate
+ * the point on their lattice once rather than once per axis. Samples are identical either way; fusing trades a per-thread scratch array
+ * for the shared lattice traversal.
+ * <p>
+ * Derivatives are carried through the warp with the chain rule, as the function's gradient at the warped point times the Jacobian of
+ * the warped coordinates. Noise functions report derivatives per unit of their frequency scaled coordinates, so the warp's Jacobian is
+ * taken through a {@link SamplerTape} of the warp, which yields it per unit of the sampled coordinates. Derivatives are therefore
+ * reported in the same units as those of the function.
+ */
+public class DomainWarpedSampler implements DerivativeSampler {
     private final Sampler function;
     private final Sampler warp;
     private final double amplitude;
+    private final boolean fused;
+    /**
+     * Warp components of the point being sampled, if fused.
+     */
+    private final ThreadLocal<double[]> warpScratch;
+    private final SamplerTape warpDerivatives;
 
     public DomainWarpedSampler(Sampler function, Sampler warp, double amplitude) {
+        this(function, warp, amplitude, false);
+    }
+
+    public DomainWarpedSampler(Sampler function, Sampler warp, double amplitude, boolean fused) {
         this.function = function;
         this.warp = warp;
         this.amplitude = amplitude;
+        this.fused = fused;
+        this.warpScratch = fused ? ThreadLocal.withInitial(() -> new double[3]) : null;
+        this.warpDerivatives = DerivativeSampler.isDifferentiable(function) && DerivativeSampler.isDifferentiable(warp)
+                               ? new SamplerTape(warp)
+                               : null;
+    }
+
+    public Sampler getFunction() {
+        return function;
+    }
+
+    public Sampler getWarp() {
+        return warp;
+    }
+
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    public boolean isFused() {
+        return fused;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        int dependencies = function.getAxisDependencies();
+        // Every warped coordinate is offset by a warp sample taken at the original coordinates
+        return dependencies == 0 ? 0 : dependencies | warp.getAxisDependencies();
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return warpDerivatives != null && warpDerivatives.isDifferentiable();
     }
 
     @Override
     public double getSample(long seed, double x, double y) {
-        return function.getSample(seed++,
-            x + warp.getSample(seed++, x, y) * amplitude,
-            y + warp.getSample(seed, x, y) * amplitude
+        if(!fused) {
+            return function.getSample(seed++,
+                x + warp.getSample(seed++, x, y) * amplitude,
+                y + warp.getSample(seed, x, y) * amplitude
+            );
+        }
+        double[] offsets = warpScratch.get();
+        warp.getSampleSeeds(seed + 1, x, y, 2, offsets, 0);
+        return function.getSample(seed,
+            x + offsets[0] * amplitude,
+            y + offsets[1] * amplitude
         );
     }
 
     @Override
     public double getSample(long seed, double x, double y, double z) {
-        return function.getSample(seed++,
-            x + warp.getSample(seed++, x, y, z) * amplitude,
-            y + warp.getSample(seed++, x, y, z) * amplitude,
-            z + warp.getSample(seed, x, y, z) * amplitude
+        if(!fused) {
+            return function.getSample(seed++,
+                x + warp.getSample(seed++, x, y, z) * amplitude,
+                y + warp.getSample(seed++, x, y, z) * amplitude,
+                z + warp.getSample(seed, x, y, z) * amplitude
+            );
+        }
+        double[] offsets = warpScratch.get();
+        warp.getSampleSeeds(seed + 1, x, y, z, 3, offsets, 0);
+        return function.getSample(seed,
+            x + offsets[0] * amplitude,
+            y + offsets[1] * amplitude,
+            z + offsets[2] * amplitude
         );
     }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        int length = xSize * ySize;
+        double[] warpX = new double[length];
+        double[] warpY = new double[length];
+        warp.getSampleGrid(seed + 1, x, y, xStep, yStep, xSize, ySize, warpX, 0);
+        warp.getSampleGrid(seed + 2, x, y, xStep, yStep, xSize, ySize, warpY, 0);
+        int index = 0;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++, index++) {
+                out[offset + index] = function.getSample(seed,
+                    xi + warpX[index] * amplitude,
+                    y + j * yStep + warpY[index] * amplitude
+                );
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        int length = xSize * ySize * zSize;
+        double[] warpX = new double[length];
+        double[] warpY = new double[length];
+        double[] warpZ = new double[length];
+        warp.getSampleGrid(seed + 1, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, warpX, 0);
+        warp.getSampleGrid(seed + 2, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, warpY, 0);
+        warp.getSampleGrid(seed + 3, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, warpZ, 0);
+        int index = 0;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++, index++) {
+                    out[offset + index] = function.getSample(seed,
+                        xi + warpX[index] * amplitude,
+                        yj + warpY[index] * amplitude,
+                        z + k * zStep + warpZ[index] * amplitude
+                    );
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        double[] warpedX = new double[count];
+        double[] warpedY = new double[count];
+        warp.getSamples(seed + 1, xs, ys, count, warpedX, 0);
+        warp.getSamples(seed + 2, xs, ys, count, warpedY, 0);
+        for(int n = 0; n < count; n++) {
+            warpedX[n] = xs[n] + warpedX[n] * amplitude;
+            warpedY[n] = ys[n] + warpedY[n] * amplitude;
+        }
+        function.getSamples(seed, warpedX, warpedY, count, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        double[] warpedX = new double[count];
+        double[] warpedY = new double[count];
+        double[] warpedZ = new double[count];
+        warp.getSamples(seed + 1, xs, ys, zs, count, warpedX, 0);
+        warp.getSamples(seed + 2, xs, ys, zs, count, warpedY, 0);
+        warp.getSamples(seed + 3, xs, ys, zs, count, warpedZ, 0);
+        for(int n = 0; n < count; n++) {
+            warpedX[n] = xs[n] + warpedX[n] * amplitude;
+            warpedY[n] = ys[n] + warpedY[n] * amplitude;
+            warpedZ[n] = zs[n] + warpedZ[n] * amplitude;
+        }
+        function.getSamples(seed, warpedX, warpedY, warpedZ, count, out, offset);
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y) {
+        double[] out = new double[3];
+        getSampleDerivative(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y, double z) {
+        double[] out = new double[4];
+        getSampleDerivative(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        // Each warp component followed by its partial x and y derivatives. Small enough to be kept off the heap once inlined
+        double[] wx = new double[3], wy = new double[3];
+        warpDerivatives.getSampleDerivative(seed + 1, x, y, wx, 0);
+        warpDerivatives.getSampleDerivative(seed + 2, x, y, wy, 0);
+        ((DerivativeSampler) function).getSampleDerivative(seed, x + wx[0] * amplitude, y + wy[0] * amplitude, out, offset);
+        // The function's gradient at the warped point, times the Jacobian of the warped coordinates, I + amplitude * J(warp)
+        double fx = out[offset + 1], fy = out[offset + 2];
+        out[offset + 1] = fx + amplitude * (fx * wx[1] + fy * wy[1]);
+        out[offset + 2] = fy + amplitude * (fx * wx[2] + fy * wy[2]);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        double[] wx = new double[4], wy = new double[4], wz = new double[4];
+        warpDerivatives.getSampleDerivative(seed + 1, x, y, z, wx, 0);
+        warpDerivatives.getSampleDerivative(seed + 2, x, y, z, wy, 0);
+        warpDerivatives.getSampleDerivative(seed + 3, x, y, z, wz, 0);
+        ((DerivativeSampler) function).getSampleDerivative(seed, x + wx[0] * amplitude, y + wy[0] * amplitude, z + wz[0] * amplitude,
+            out, offset);
+        double fx = out[offset + 1], fy = out[offset + 2], fz = out[offset + 3];
+        out[offset + 1] = fx + amplitude * (fx * wx[1] + fy * wy[1] + fz * wz[1]);
+        out[offset + 2] = fy + amplitude * (fx * wx[2] + fy * wy[2] + fz * wz[2]);
+        out[offset + 3] = fz + amplitude * (fx * wx[3] + fy * wy[3] + fz * wz[3]);
+    }
 }
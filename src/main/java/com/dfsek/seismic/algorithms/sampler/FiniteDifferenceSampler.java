@@ -0,0 +1,251 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Adapter which provides derivatives of any sampler by finite differences, so samplers without analytic derivatives can be used where a
+ * {@link DerivativeSampler} is required.
+ * <p>
+ * Point derivatives difference samples taken {@code step} apart along each axis. Grid derivatives instead difference neighbouring lattice
+ * points, so every sample of the stencil is shared with the lattice: the wrapped sampler fills one grid, extended by one lattice point
+ * along each axis for forward differences or by one on each side for central differences, through its own grid implementation. The
+ * lattice spacing is then the step of grid derivatives, which falls back to sampling each point when a lattice step is zero. Along axes
+ * with a negative lattice step, forward differences take the neighbour preceding each point on the lattice, which is the next point in
+ * sampled coordinates.
+ * <p>
+ * Samples themselves are taken directly from the wrapped sampler.
+ */
+public class FiniteDifferenceSampler implements DerivativeSampler {
+    /**
+     * Largest extended lattice, in samples, kept per thread between grid derivatives. Larger lattices are allocated for each call.
+     */
+    private static final int MAX_CACHED_STENCIL = 1 << 16;
+    private final Sampler sampler;
+    private final Difference difference;
+    private final double step;
+    /**
+     * Extended lattice of a grid derivative.
+     */
+    private final ThreadLocal<double[]> stencil = ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * @param sampler    the sampler to differentiate.
+     * @param difference which finite differences to take.
+     * @param step       distance between the samples of a point derivative.
+     *
+     * @throws IllegalArgumentException if {@code step} is not positive.
+     */
+    public FiniteDifferenceSampler(Sampler sampler, Difference difference, double step) {
+        if(!(step > 0)) throw new IllegalArgumentException("Step must be positive, got " + step);
+        this.sampler = sampler;
+        this.difference = difference;
+        this.step = step;
+    }
+
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public Difference getDifference() {
+        return difference;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return sampler.getAxisDependencies();
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y) {
+        return sampler.getSample(seed, x, y);
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y, double z) {
+        return sampler.getSample(seed, x, y, z);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        sampler.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        sampler.getSamples(seed, xs, ys, count, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        sampler.getSamples(seed, xs, ys, zs, count, out, offset);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x, y, count, out, offset);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x, y, z, count, out, offset);
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y) {
+        double[] out = new double[3];
+        getSampleDerivative(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y, double z) {
+        double[] out = new double[4];
+        getSampleDerivative(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        double value = sampler.getSample(seed, x, y);
+        out[offset] = value;
+        if(difference == Difference.CENTRAL) {
+            double divisor = 2 * step;
+            out[offset + 1] = (sampler.getSample(seed, x + step, y) - sampler.getSample(seed, x - step, y)) / divisor;
+            out[offset + 2] = (sampler.getSample(seed, x, y + step) - sampler.getSample(seed, x, y - step)) / divisor;
+        } else {
+            out[offset + 1] = (sampler.getSample(seed, x + step, y) - value) / step;
+            out[offset + 2] = (sampler.getSample(seed, x, y + step) - value) / step;
+        }
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        double value = sampler.getSample(seed, x, y, z);
+        out[offset] = value;
+        if(difference == Difference.CENTRAL) {
+            double divisor = 2 * step;
+            out[offset + 1] = (sampler.getSample(seed, x + step, y, z) - sampler.getSample(seed, x - step, y, z)) / divisor;
+            out[offset + 2] = (sampler.getSample(seed, x, y + step, z) - sampler.getSample(seed, x, y - step, z)) / divisor;
+            out[offset + 3] = (sampler.getSample(seed, x, y, z + step) - sampler.getSample(seed, x, y, z - step)) / divisor;
+        } else {
+            out[offset + 1] = (sampler.getSample(seed, x + step, y, z) - value) / step;
+            out[offset + 2] = (sampler.getSample(seed, x, y + step, z) - value) / step;
+            out[offset + 3] = (sampler.getSample(seed, x, y, z + step) - value) / step;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        if(xStep == 0 || yStep == 0) {
+            DerivativeSampler.super.getSampleDerivativeGrid(seed, x, y, xStep, yStep, xSize, ySize, values, dx, dy, offset);
+            return;
+        }
+        int span = difference.span, xBefore = before(xStep), yBefore = before(yStep);
+        int xExtended = xSize + span, yExtended = ySize + span;
+        double[] lattice = stencil(xExtended * yExtended);
+        sampler.getSampleGrid(seed, x - xBefore * xStep, y - yBefore * yStep, xStep, yStep, xExtended, yExtended, lattice, 0);
+
+        // Point (i, j) of the grid is point (i + xBefore, j + yBefore) of the extended lattice, differenced over span lattice steps
+        double xDivisor = span * xStep, yDivisor = span * yStep;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            int yLow = (i + xBefore) * yExtended, row = yLow + yBefore;
+            int xLow = i * yExtended + yBefore, xHigh = xLow + span * yExtended;
+            for(int j = 0; j < ySize; j++) {
+                values[index] = lattice[row + j];
+                dx[index] = (lattice[xHigh + j] - lattice[xLow + j]) / xDivisor;
+                dy[index++] = (lattice[yLow + j + span] - lattice[yLow + j]) / yDivisor;
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        if(xStep == 0 || yStep == 0 || zStep == 0) {
+            DerivativeSampler.super.getSampleDerivativeGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, values, dx, dy, dz,
+                offset);
+            return;
+        }
+        int span = difference.span, xBefore = before(xStep), yBefore = before(yStep), zBefore = before(zStep);
+        int xExtended = xSize + span, yExtended = ySize + span, zExtended = zSize + span;
+        int xStride = yExtended * zExtended;
+        double[] lattice = stencil(xExtended * xStride);
+        sampler.getSampleGrid(seed, x - xBefore * xStep, y - yBefore * yStep, z - zBefore * zStep, xStep, yStep, zStep, xExtended,
+            yExtended, zExtended, lattice, 0);
+
+        // See comment in 2D version
+        double xDivisor = span * xStep, yDivisor = span * yStep, zDivisor = span * zStep;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                int zLow = ((i + xBefore) * yExtended + j + yBefore) * zExtended, row = zLow + zBefore;
+                int xLow = (i * yExtended + j + yBefore) * zExtended + zBefore, xHigh = xLow + span * xStride;
+                int yLow = ((i + xBefore) * yExtended + j) * zExtended + zBefore, yHigh = yLow + span * zExtended;
+                for(int k = 0; k < zSize; k++) {
+                    values[index] = lattice[row + k];
+                    dx[index] = (lattice[xHigh + k] - lattice[xLow + k]) / xDivisor;
+                    dy[index] = (lattice[yHigh + k] - lattice[yLow + k]) / yDivisor;
+                    dz[index++] = (lattice[zLow + k + span] - lattice[zLow + k]) / zDivisor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many lattice points precede the first point of the grid along an axis. Negative lattice steps mirror the stencil, so
+     * forward differences still take the next point in sampled coordinates.
+     */
+    private int before(double latticeStep) {
+        return latticeStep < 0 ? difference.span - difference.before : difference.before;
+    }
+
+    private double[] stencil(int length) {
+        if(length > MAX_CACHED_STENCIL) return new double[length];
+        double[] lattice = stencil.get();
+        if(lattice.length < length) {
+            lattice = new double[length];
+            stencil.set(lattice);
+        }
+        return lattice;
+    }
+
+    public enum Difference {
+        /**
+         * Differences between each point and the next point along each axis. Takes one extra sample per axis, first order accurate.
+         */
+        FORWARD(0, 1),
+        /**
+         * Differences between the points either side of each point along each axis. Takes two extra samples per axis, second order
+         * accurate.
+         */
+        CENTRAL(1, 2);
+
+        private final int before;
+        private final int span;
+
+        Difference(int before, int span) {
+            this.before = before;
+            this.span = span;
+        }
+    }
+}
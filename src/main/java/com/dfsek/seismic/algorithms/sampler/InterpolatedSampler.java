@@ -0,0 +1,299 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Sampler decorator which samples another sampler on a coarse lattice and interpolates between the lattice points.
+ * <p>
+ * Low frequency samplers, such as 3D density layers, change little from one block to the next, so sampling them every few blocks and
+ * interpolating is far cheaper than sampling every block. Lattice points lie at integer multiples of the stride along each axis, so calls
+ * covering neighbouring regions interpolate from the same lattice samples and match exactly along their borders. Grid sampling samples
+ * each lattice point covering the grid once, through the wrapped sampler's own grid implementation, and is the intended way to use this
+ * sampler.
+ * <p>
+ * Point sampling has no lattice to share, so every call samples all 2<sup>d</sup> (linear) or 4<sup>d</sup> (cubic) lattice points
+ * around the point, which is more work than sampling the wrapped sampler directly. Samplers which are queried point by point should be
+ * wrapped in a {@link CachedSampler} (or {@link ConcurrentCachedSampler} when shared between threads) before being interpolated, so
+ * neighbouring points reuse the lattice samples they have in common.
+ * <p>
+ * 2D sampling interpolates along the X and Z strides, the second coordinate of a 2D sample being the Z coordinate.
+ */
+public class InterpolatedSampler implements Sampler {
+    private final Sampler sampler;
+    private final Interpolation interpolation;
+    private final int xStride;
+    private final int yStride;
+    private final int zStride;
+
+    /**
+     * @param sampler       the sampler to interpolate.
+     * @param interpolation how to interpolate between lattice points.
+     * @param xStride       distance between lattice points along the X axis.
+     * @param yStride       distance between lattice points along the Y axis.
+     * @param zStride       distance between lattice points along the Z axis.
+     *
+     * @throws IllegalArgumentException if a stride is not positive.
+     */
+    public InterpolatedSampler(Sampler sampler, Interpolation interpolation, int xStride, int yStride, int zStride) {
+        if(xStride <= 0 || yStride <= 0 || zStride <= 0) {
+            throw new IllegalArgumentException("Strides must be positive, got " + xStride + ", " + yStride + ", " + zStride);
+        }
+        this.sampler = sampler;
+        this.interpolation = interpolation;
+        this.xStride = xStride;
+        this.yStride = yStride;
+        this.zStride = zStride;
+    }
+
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    public int getXStride() {
+        return xStride;
+    }
+
+    public int getYStride() {
+        return yStride;
+    }
+
+    public int getZStride() {
+        return zStride;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return sampler.getAxisDependencies();
+    }
+
+    /**
+     * Samples the 4 (linear) or 16 (cubic) lattice points around a point and interpolates between them. See the class documentation for
+     * the cost of point sampling.
+     */
+    @Override
+    public double getSample(long seed, double x, double y) {
+        double fx = x / xStride, fz = y / zStride;
+        double cx = Math.floor(fx) - interpolation.margin(), cz = Math.floor(fz) - interpolation.margin();
+        double tx = fx - Math.floor(fx), tz = fz - Math.floor(fz);
+        // Interpolates along X first then Z, the same order as the grid path, so both give the same result
+        if(interpolation == Interpolation.LINEAR) {
+            return InterpolationFunctions.lerp(line(seed, cx, cz, tx), line(seed, cx, cz + 1, tx), tz);
+        }
+        return InterpolationFunctions.cubicLerp(line(seed, cx, cz, tx), line(seed, cx, cz + 1, tx), line(seed, cx, cz + 2, tx),
+            line(seed, cx, cz + 3, tx), tz);
+    }
+
+    /**
+     * Samples the 8 (linear) or 64 (cubic) lattice points around a point and interpolates between them. See the class documentation for
+     * the cost of point sampling.
+     */
+    @Override
+    public double getSample(long seed, double x, double y, double z) {
+        double fx = x / xStride, fy = y / yStride, fz = z / zStride;
+        double cx = Math.floor(fx) - interpolation.margin(), cy = Math.floor(fy) - interpolation.margin();
+        double cz = Math.floor(fz) - interpolation.margin();
+        double tx = fx - Math.floor(fx), ty = fy - Math.floor(fy), tz = fz - Math.floor(fz);
+        if(interpolation == Interpolation.LINEAR) {
+            return InterpolationFunctions.lerp(plane(seed, cx, cy, cz, tx, ty), plane(seed, cx, cy, cz + 1, tx, ty), tz);
+        }
+        return InterpolationFunctions.cubicLerp(plane(seed, cx, cy, cz, tx, ty), plane(seed, cx, cy, cz + 1, tx, ty),
+            plane(seed, cx, cy, cz + 2, tx, ty), plane(seed, cx, cy, cz + 3, tx, ty), tz);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        if(xSize <= 0 || ySize <= 0) return;
+        double lx = firstLatticeIndex(x, xStep, xSize, xStride);
+        double lz = firstLatticeIndex(y, yStep, ySize, zStride);
+        int nx = latticeSize(x, xStep, xSize, xStride, lx);
+        int nz = latticeSize(y, yStep, ySize, zStride, lz);
+        double[] lattice = new double[nx * nz];
+        sampler.getSampleGrid(seed, lx * xStride, lz * zStride, xStride, zStride, nx, nz, lattice, 0);
+
+        int[] zIndices = new int[ySize];
+        double[] tz = new double[ySize];
+        for(int j = 0; j < ySize; j++) {
+            double fz = (y + j * yStep) / zStride;
+            zIndices[j] = (int) (Math.floor(fz) - interpolation.margin() - lz);
+            tz[j] = fz - Math.floor(fz);
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double fx = (x + i * xStep) / xStride;
+            int row = (int) (Math.floor(fx) - interpolation.margin() - lx) * nz;
+            double tx = fx - Math.floor(fx);
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = interpolate(lattice, row + zIndices[j], nz, tx, tz[j]);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(xSize <= 0 || ySize <= 0 || zSize <= 0) return;
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        double lx = firstLatticeIndex(x, xStep, xSize, xStride);
+        double ly = firstLatticeIndex(y, yStep, ySize, yStride);
+        double lz = firstLatticeIndex(z, zStep, zSize, zStride);
+        int nx = latticeSize(x, xStep, xSize, xStride, lx);
+        int ny = latticeSize(y, yStep, ySize, yStride, ly);
+        int nz = latticeSize(z, zStep, zSize, zStride, lz);
+        double[] lattice = new double[nx * ny * nz];
+        sampler.getSampleGrid(seed, lx * xStride, ly * yStride, lz * zStride, xStride, yStride, zStride, nx, ny, nz, lattice, 0);
+
+        int[] yIndices = new int[ySize], zIndices = new int[zSize];
+        double[] ty = new double[ySize], tz = new double[zSize];
+        for(int j = 0; j < ySize; j++) {
+            double fy = (y + j * yStep) / yStride;
+            yIndices[j] = (int) (Math.floor(fy) - interpolation.margin() - ly) * nz;
+            ty[j] = fy - Math.floor(fy);
+        }
+        for(int k = 0; k < zSize; k++) {
+            double fz = (z + k * zStep) / zStride;
+            zIndices[k] = (int) (Math.floor(fz) - interpolation.margin() - lz);
+            tz[k] = fz - Math.floor(fz);
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double fx = (x + i * xStep) / xStride;
+            int plane = (int) (Math.floor(fx) - interpolation.margin() - lx) * ny * nz;
+            double tx = fx - Math.floor(fx);
+            for(int j = 0; j < ySize; j++) {
+                int row = plane + yIndices[j];
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = interpolate(lattice, row + zIndices[k], ny * nz, nz, tx, ty[j], tz[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first lattice point needed to interpolate {@code size} points {@code step} apart starting at
+     *     {@code origin}.
+     */
+    private double firstLatticeIndex(double origin, double step, int size, int stride) {
+        return Math.floor(Math.min(origin, origin + (size - 1) * step) / stride) - interpolation.margin();
+    }
+
+    private int latticeSize(double origin, double step, int size, int stride, double first) {
+        double last = Math.floor(Math.max(origin, origin + (size - 1) * step) / stride) + interpolation.points - 1 -
+                      interpolation.margin();
+        return (int) (last - first) + 1;
+    }
+
+    /**
+     * Interpolates along X between the 2D lattice points in lattice row {@code cz}, starting at lattice column {@code cx}.
+     */
+    private double line(long seed, double cx, double cz, double tx) {
+        double z = cz * zStride;
+        double v0 = sampler.getSample(seed, cx * xStride, z), v1 = sampler.getSample(seed, (cx + 1) * xStride, z);
+        if(interpolation == Interpolation.LINEAR) return InterpolationFunctions.lerp(v0, v1, tx);
+        return InterpolationFunctions.cubicLerp(v0, v1, sampler.getSample(seed, (cx + 2) * xStride, z),
+            sampler.getSample(seed, (cx + 3) * xStride, z), tx);
+    }
+
+    /**
+     * Interpolates along X between the 3D lattice points in lattice row {@code cy} of lattice plane {@code cz}, starting at lattice
+     * column {@code cx}.
+     */
+    private double line(long seed, double cx, double cy, double cz, double tx) {
+        double y = cy * yStride, z = cz * zStride;
+        double v0 = sampler.getSample(seed, cx * xStride, y, z), v1 = sampler.getSample(seed, (cx + 1) * xStride, y, z);
+        if(interpolation == Interpolation.LINEAR) return InterpolationFunctions.lerp(v0, v1, tx);
+        return InterpolationFunctions.cubicLerp(v0, v1, sampler.getSample(seed, (cx + 2) * xStride, y, z),
+            sampler.getSample(seed, (cx + 3) * xStride, y, z), tx);
+    }
+
+    /**
+     * Interpolates along X then Y between the 3D lattice points in lattice plane {@code cz}, starting at lattice row {@code cy} and
+     * column {@code cx}.
+     */
+    private double plane(long seed, double cx, double cy, double cz, double tx, double ty) {
+        if(interpolation == Interpolation.LINEAR) {
+            return InterpolationFunctions.lerp(line(seed, cx, cy, cz, tx), line(seed, cx, cy + 1, cz, tx), ty);
+        }
+        return InterpolationFunctions.cubicLerp(line(seed, cx, cy, cz, tx), line(seed, cx, cy + 1, cz, tx), line(seed, cx, cy + 2, cz, tx),
+            line(seed, cx, cy + 3, cz, tx), ty);
+    }
+
+    /**
+     * Interpolates a 2D lattice stored row by row, starting at the lattice point at {@code index}.
+     */
+    private double interpolate(double[] lattice, int index, int row, double tx, double tz) {
+        int x0 = index, x1 = x0 + row;
+        if(interpolation == Interpolation.LINEAR) {
+            return InterpolationFunctions.biLerp(lattice[x0], lattice[x1], lattice[x0 + 1], lattice[x1 + 1], tx, tz);
+        }
+        int x2 = x1 + row, x3 = x2 + row;
+        return InterpolationFunctions.biCubicLerp(
+            lattice[x0], lattice[x1], lattice[x2], lattice[x3],
+            lattice[x0 + 1], lattice[x1 + 1], lattice[x2 + 1], lattice[x3 + 1],
+            lattice[x0 + 2], lattice[x1 + 2], lattice[x2 + 2], lattice[x3 + 2],
+            lattice[x0 + 3], lattice[x1 + 3], lattice[x2 + 3], lattice[x3 + 3],
+            tx, tz);
+    }
+
+    /**
+     * Interpolates a 3D lattice stored plane by plane and row by row, starting at the lattice point at {@code index}.
+     */
+    private double interpolate(double[] lattice, int index, int plane, int row, double tx, double ty, double tz) {
+        int x0 = index, x1 = x0 + plane, y1 = row;
+        if(interpolation == Interpolation.LINEAR) {
+            return InterpolationFunctions.triLerp(lattice[x0], lattice[x1], lattice[x0 + y1], lattice[x1 + y1], lattice[x0 + 1],
+                lattice[x1 + 1], lattice[x0 + y1 + 1], lattice[x1 + y1 + 1], tx, ty, tz);
+        }
+        int x2 = x1 + plane, x3 = x2 + plane, y2 = y1 + row, y3 = y2 + row;
+        return InterpolationFunctions.triCubicLerp(
+            lattice[x0], lattice[x1], lattice[x2], lattice[x3],
+            lattice[x0 + y1], lattice[x1 + y1], lattice[x2 + y1], lattice[x3 + y1],
+            lattice[x0 + y2], lattice[x1 + y2], lattice[x2 + y2], lattice[x3 + y2],
+            lattice[x0 + y3], lattice[x1 + y3], lattice[x2 + y3], lattice[x3 + y3],
+            lattice[x0 + 1], lattice[x1 + 1], lattice[x2 + 1], lattice[x3 + 1],
+            lattice[x0 + y1 + 1], lattice[x1 + y1 + 1], lattice[x2 + y1 + 1], lattice[x3 + y1 + 1],
+            lattice[x0 + y2 + 1], lattice[x1 + y2 + 1], lattice[x2 + y2 + 1], lattice[x3 + y2 + 1],
+            lattice[x0 + y3 + 1], lattice[x1 + y3 + 1], lattice[x2 + y3 + 1], lattice[x3 + y3 + 1],
+            lattice[x0 + 2], lattice[x1 + 2], lattice[x2 + 2], lattice[x3 + 2],
+            lattice[x0 + y1 + 2], lattice[x1 + y1 + 2], lattice[x2 + y1 + 2], lattice[x3 + y1 + 2],
+            lattice[x0 + y2 + 2], lattice[x1 + y2 + 2], lattice[x2 + y2 + 2], lattice[x3 + y2 + 2],
+            lattice[x0 + y3 + 2], lattice[x1 + y3 + 2], lattice[x2 + y3 + 2], lattice[x3 + y3 + 2],
+            lattice[x0 + 3], lattice[x1 + 3], lattice[x2 + 3], lattice[x3 + 3],
+            lattice[x0 + y1 + 3], lattice[x1 + y1 + 3], lattice[x2 + y1 + 3], lattice[x3 + y1 + 3],
+            lattice[x0 + y2 + 3], lattice[x1 + y2 + 3], lattice[x2 + y2 + 3], lattice[x3 + y2 + 3],
+            lattice[x0 + y3 + 3], lattice[x1 + y3 + 3], lattice[x2 + y3 + 3], lattice[x3 + y3 + 3],
+            tx, ty, tz);
+    }
+
+
+    public enum Interpolation {
+        /**
+         * Linear interpolation between the two nearest lattice points along each axis.
+         */
+        LINEAR(2),
+        /**
+         * Cubic interpolation between the four nearest lattice points along each axis. Smoother than linear interpolation, but may
+         * overshoot the range of the lattice samples.
+         */
+        CUBIC(4);
+
+        private final int points;
+
+        Interpolation(int points) {
+            this.points = points;
+        }
+
+        /**
+         * @return the number of lattice points before the lattice cell containing a point which are needed to interpolate it.
+         */
+        private int margin() {
+            return (points - 2) / 2;
+        }
+    }
+}
@@ -15,6 +15,18 @@ public class LinearHeightmapSampler implements Sampler {
         this.base = base;
     }
 
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getBase() {
+        return base;
+    }
+
 
     @Override
     public double getSample(long seed, double x, double y) {
@@ -25,4 +37,44 @@ public class LinearHeightmapSampler implements Sampler {
     public double getSample(long seed, double x, double y, double z) {
         return -y + base + sampler.getSample(seed, x, y, z) * scale;
     }
+
+    @Override
+    public int getAxisDependencies() {
+        return AXIS_Y | sampler.getAxisDependencies();
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        getSampleGrid(seed, x, 0, y, xStep, 0, yStep, xSize, 1, ySize, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if((sampler.getAxisDependencies() & AXIS_Y) != 0) {
+            sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+            int index = offset;
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    double yj = y + j * yStep;
+                    for(int k = 0; k < zSize; k++, index++) {
+                        out[index] = -yj + base + out[index] * scale;
+                    }
+                }
+            }
+            return;
+        }
+        // The height does not vary along Y, so sample it once per column and only apply the Y offset per layer
+        double[] heights = new double[xSize * zSize];
+        sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, 1, zSize, heights, 0);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = -yj + base + heights[i * zSize + k] * scale;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.hashing.HashingFunctions;
+
+import java.util.Arrays;
+
+
+/**
+ * Bounded open-addressing table from a seed and coordinates to a sample, stored in primitive arrays.
+ * <p>
+ * Slots written before the last {@link #invalidate()} are treated as empty, so invalidation does not touch the table. When every slot
+ * in a probe sequence is taken, the first one is overwritten. Not thread safe.
+ */
+final class SampleCache {
+    private static final int MAX_PROBES = 8;
+    private static final int KEY_STRIDE = 4;
+
+    private final int mask;
+    private final long[] keys;
+    private final double[] values;
+    private final int[] generations;
+    private int generation = 1;
+
+    SampleCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.keys = new long[size * KEY_STRIDE];
+        this.values = new double[size];
+        this.generations = new int[size];
+    }
+
+    static long hash(long seed, double x, double y, double z) {
+        long hash = seed * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ Double.doubleToRawLongBits(x)) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ Double.doubleToRawLongBits(y)) * 0x165667B19E3779F9L;
+        hash = hash ^ Double.doubleToRawLongBits(z);
+        return HashingFunctions.murmur64(hash);
+    }
+
+    /**
+     * @return the cached sample, or {@code NaN} if there is none.
+     */
+    double get(long hash, long seed, double x, double y, double z) {
+        long xBits = Double.doubleToRawLongBits(x);
+        long yBits = Double.doubleToRawLongBits(y);
+        long zBits = Double.doubleToRawLongBits(z);
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (int) (hash + probe) & mask;
+            if(generations[slot] != generation) return Double.NaN;
+            int key = slot * KEY_STRIDE;
+            if(keys[key] == seed && keys[key + 1] == xBits && keys[key + 2] == yBits && keys[key + 3] == zBits) {
+                return values[slot];
+            }
+        }
+        return Double.NaN;
+    }
+
+    void put(long hash, long seed, double x, double y, double z, double value) {
+        long xBits = Double.doubleToRawLongBits(x);
+        long yBits = Double.doubleToRawLongBits(y);
+        long zBits = Double.doubleToRawLongBits(z);
+        int target = (int) hash & mask;
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (int) (hash + probe) & mask;
+            int key = slot * KEY_STRIDE;
+            if(generations[slot] != generation ||
+               (keys[key] == seed && keys[key + 1] == xBits && keys[key + 2] == yBits && keys[key + 3] == zBits)) {
+                target = slot;
+                break;
+            }
+        }
+        int key = target * KEY_STRIDE;
+        keys[key] = seed;
+        keys[key + 1] = xBits;
+        keys[key + 2] = yBits;
+        keys[key + 3] = zBits;
+        values[target] = value;
+        generations[target] = generation;
+    }
+
+    void invalidate() {
+        if(++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MinSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.Normalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ * Algebraic simplification of sampler graphs.
+ * <p>
+ * {@link #optimize(Sampler)} rewrites a sampler graph bottom up into an equivalent graph with fewer nodes:
+ * <ul>
+ *     <li>arithmetic over two constants, and normalizers, translations and domain warps of a constant, are folded into a constant;</li>
+ *     <li>chains of linear, linear map, scale, probability and clamp normalizers, and arithmetic with a constant operand, are merged
+ *     into a single {@link AffineNormalizer};</li>
+ *     <li>nested translations are collapsed into one, and translations of samplers which do not depend on any axis are removed;</li>
+ *     <li>identity nodes, such as adding 0, multiplying by 1 or translating by 0, are removed.</li>
+ * </ul>
+ * Merging re-associates floating point arithmetic, so for finite samples the optimized graph agrees with the original to within
+ * {@link #TOLERANCE} relative to the largest intermediate value. Non-finite samples may differ, e.g. multiplying an infinite sample by a
+ * constant 0 folds to 0 rather than {@code NaN}.
+ * <p>
+ * Normalizers and arithmetic samplers are rebuilt around their optimized inputs through {@link Normalizer#withSampler(Sampler)} and
+ * {@link BinaryArithmeticSampler#withInputs(Sampler, Sampler)}, so they keep their concrete type; ones which do not support being copied
+ * are kept as they are, along with their original inputs. Nodes the optimizer does not understand, such as noise functions, fractals,
+ * cellular noise lookups and caches, are leaves: they are kept as they are, and samplers below them, such as the input of a fractal, are
+ * not optimized. Nodes whose inputs did not change are returned as the same instance, and a sampler referenced from several places in the
+ * graph is optimized once, so the result shares nodes the same way the original does. A rewrite is never applied if it would lose
+ * differentiability.
+ */
+public class SamplerOptimizer {
+    public static final double TOLERANCE = 1.0E-12;
+
+    /**
+     * Returns a simplified sampler equivalent to the given sampler.
+     *
+     * @param sampler the sampler graph to optimize.
+     *
+     * @return the optimized sampler graph. May be {@code sampler} itself if nothing could be simplified.
+     */
+    public static Sampler optimize(Sampler sampler) {
+        return optimize(sampler, new IdentityHashMap<>());
+    }
+
+    private static Sampler optimize(Sampler sampler, Map<Sampler, Sampler> optimized) {
+        Sampler result = optimized.get(sampler);
+        if(result == null) {
+            result = simplify(sampler, optimized);
+            if(DerivativeSampler.isDifferentiable(sampler) && !DerivativeSampler.isDifferentiable(result)) {
+                result = rebuild(sampler, optimized);
+            }
+            optimized.put(sampler, result);
+        }
+        return result;
+    }
+
+    private static Sampler simplify(Sampler sampler, Map<Sampler, Sampler> optimized) {
+        if(sampler instanceof Normalizer normalizer) {
+            return simplifyNormalizer(normalizer, optimize(normalizer.getSampler(), optimized));
+        } else if(sampler instanceof BinaryArithmeticSampler arithmetic) {
+            return simplifyArithmetic(arithmetic, optimize(arithmetic.getLeft(), optimized), optimize(arithmetic.getRight(), optimized));
+        } else if(sampler.getClass() == TranslateSampler.class) {
+            return simplifyTranslate((TranslateSampler) sampler, optimize(((TranslateSampler) sampler).getSampler(), optimized));
+        } else if(sampler.getClass() == DomainWarpedSampler.class) {
+            DomainWarpedSampler warped = (DomainWarpedSampler) sampler;
+            Sampler function = optimize(warped.getFunction(), optimized);
+            // Moving the coordinates of a sampler which does not depend on them does nothing
+            if(function.getAxisDependencies() == 0 || warped.getAmplitude() == 0) return function;
+            return rebuild(warped, function, optimize(warped.getWarp(), optimized));
+        }
+        return rebuild(sampler, optimized);
+    }
+
+    /**
+     * Rebuilds a sampler around its optimized inputs, without simplifying the sampler itself.
+     */
+    private static Sampler rebuild(Sampler sampler, Map<Sampler, Sampler> optimized) {
+        if(sampler instanceof Normalizer normalizer) {
+            return rebuild(normalizer, optimize(normalizer.getSampler(), optimized));
+        } else if(sampler instanceof BinaryArithmeticSampler arithmetic) {
+            return rebuild(arithmetic, optimize(arithmetic.getLeft(), optimized), optimize(arithmetic.getRight(), optimized));
+        } else if(sampler.getClass() == TranslateSampler.class) {
+            TranslateSampler translate = (TranslateSampler) sampler;
+            Sampler input = optimize(translate.getSampler(), optimized);
+            if(input == translate.getSampler()) return translate;
+            return new TranslateSampler(input, translate.getDx(), translate.getDy(), translate.getDz());
+        } else if(sampler.getClass() == DomainWarpedSampler.class) {
+            DomainWarpedSampler warped = (DomainWarpedSampler) sampler;
+            return rebuild(warped, optimize(warped.getFunction(), optimized), optimize(warped.getWarp(), optimized));
+        } else if(sampler.getClass() == LinearHeightmapSampler.class) {
+            LinearHeightmapSampler heightmap = (LinearHeightmapSampler) sampler;
+            Sampler input = optimize(heightmap.getSampler(), optimized);
+            if(input == heightmap.getSampler()) return heightmap;
+            return new LinearHeightmapSampler(input, heightmap.getScale(), heightmap.getBase());
+        }
+        return sampler;
+    }
+
+    private static Sampler rebuild(DomainWarpedSampler warped, Sampler function, Sampler warp) {
+        if(function == warped.getFunction() && warp == warped.getWarp()) return warped;
+        return new DomainWarpedSampler(function, warp, warped.getAmplitude(), warped.isFused());
+    }
+
+    private static Sampler simplifyNormalizer(Normalizer normalizer, Sampler input) {
+        if(input instanceof ConstantSampler constant && constant.getClass() == ConstantSampler.class) {
+            return new ConstantSampler(normalizer.normalize(constant.getConstant()));
+        }
+        double[] affine = toAffine(normalizer);
+        if(affine == null) return rebuild(normalizer, input);
+        Sampler merged = affine(input, affine[0], affine[1], affine[2], affine[3]);
+        if(merged instanceof AffineNormalizer && ((AffineNormalizer) merged).getSampler() == input) {
+            // Nothing was merged, keep the original so that its exact arithmetic is preserved
+            return rebuild(normalizer, input);
+        }
+        return merged;
+    }
+
+    private static Sampler simplifyArithmetic(BinaryArithmeticSampler arithmetic, Sampler left, Sampler right) {
+        Class<?> type = arithmetic.getClass();
+        boolean leftConstant = left.getClass() == ConstantSampler.class;
+        boolean rightConstant = right.getClass() == ConstantSampler.class;
+        if(leftConstant && rightConstant) {
+            return new ConstantSampler(arithmetic.operate(((ConstantSampler) left).getConstant(), ((ConstantSampler) right).getConstant()));
+        } else if(rightConstant) {
+            double constant = ((ConstantSampler) right).getConstant();
+            if(type == AdditionSampler.class) {
+                return affine(left, 1, constant, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == SubtractionSampler.class) {
+                return affine(left, 1, -constant, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == MultiplicationSampler.class) {
+                return constant == 0 ? right : affine(left, constant, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == DivisionSampler.class && constant != 0) {
+                return constant == 1 ? left : affine(left, 1 / constant, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == MaxSampler.class) {
+                return affine(left, 1, 0, constant, Double.POSITIVE_INFINITY);
+            } else if(type == MinSampler.class) {
+                return affine(left, 1, 0, Double.NEGATIVE_INFINITY, constant);
+            }
+        } else if(leftConstant) {
+            double constant = ((ConstantSampler) left).getConstant();
+            if(type == AdditionSampler.class) {
+                return affine(right, 1, constant, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == SubtractionSampler.class) {
+                return affine(right, -1, constant, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == MultiplicationSampler.class) {
+                return constant == 0 ? left : affine(right, constant, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            } else if(type == MaxSampler.class) {
+                return affine(right, 1, 0, constant, Double.POSITIVE_INFINITY);
+            } else if(type == MinSampler.class) {
+                return affine(right, 1, 0, Double.NEGATIVE_INFINITY, constant);
+            }
+        }
+        return rebuild(arithmetic, left, right);
+    }
+
+    private static Sampler simplifyTranslate(TranslateSampler translate, Sampler input) {
+        double dx = translate.getDx(), dy = translate.getDy(), dz = translate.getDz();
+        if(input.getAxisDependencies() == 0 || (dx == 0 && dy == 0 && dz == 0)) return input;
+        if(input.getClass() == TranslateSampler.class) {
+            TranslateSampler inner = (TranslateSampler) input;
+            return simplifyTranslate(new TranslateSampler(inner.getSampler(), inner.getDx() + dx, inner.getDy() + dy, inner.getDz() + dz),
+                inner.getSampler());
+        }
+        if(input == translate.getSampler()) return translate;
+        return new TranslateSampler(input, dx, dy, dz);
+    }
+
+    /**
+     * Applies {@code clamp(in * scale + offset, min, max)} to a sampler, merging it into the sampler if that is itself affine, and
+     * dropping it entirely if it is the identity.
+     */
+    private static Sampler affine(Sampler input, double scale, double offset, double min, double max) {
+        if(input instanceof Normalizer normalizer) {
+            double[] inner = toAffine(normalizer);
+            if(inner != null && scale != 0 && inner[2] <= inner[3] && min <= max) {
+                // clamp(scale * clamp(v, lo, hi) + offset) = clamp(scale * v + offset) within the scaled bounds
+                double lo = scale > 0 ? scale * inner[2] + offset : scale * inner[3] + offset;
+                double hi = scale > 0 ? scale * inner[3] + offset : scale * inner[2] + offset;
+                double mergedMin = Math.max(lo, min);
+                double mergedMax = Math.min(hi, max);
+                if(mergedMin <= mergedMax) {
+                    return affine(normalizer.getSampler(), scale * inner[0], scale * inner[1] + offset, mergedMin, mergedMax);
+                }
+            }
+        }
+        if(scale == 1 && offset == 0 && min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY) return input;
+        return new AffineNormalizer(input, scale, offset, min, max);
+    }
+
+    /**
+     * @return the normalizer as {@code {scale, offset, min, max}}, or {@code null} if it is not affine.
+     */
+    private static double[] toAffine(Normalizer normalizer) {
+        Class<?> type = normalizer.getClass();
+        if(type == AffineNormalizer.class) {
+            AffineNormalizer affine = (AffineNormalizer) normalizer;
+            return new double[]{ affine.getScale(), affine.getOffset(), affine.getMin(), affine.getMax() };
+        } else if(type == ScaleNormalizer.class) {
+            return new double[]{ ((ScaleNormalizer) normalizer).getScale(), 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        } else if(type == ProbabilityNormalizer.class) {
+            return new double[]{ 0.5, 0.5, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        } else if(type == ClampNormalizer.class) {
+            ClampNormalizer clamp = (ClampNormalizer) normalizer;
+            return new double[]{ 1, 0, clamp.getMin(), clamp.getMax() };
+        } else if(type == LinearNormalizer.class) {
+            LinearNormalizer linear = (LinearNormalizer) normalizer;
+            double scale = 2 / (linear.getMax() - linear.getMin());
+            return new double[]{ scale, -linear.getMin() * scale - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        } else if(type == LinearMapNormalizer.class) {
+            LinearMapNormalizer map = (LinearMapNormalizer) normalizer;
+            double scale = (map.getATo() - map.getBTo()) / (map.getAFrom() - map.getBFrom());
+            return new double[]{ scale, map.getATo() - map.getAFrom() * scale, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        }
+        return null;
+    }
+
+    private static Sampler rebuild(Normalizer normalizer, Sampler input) {
+        if(input == normalizer.getSampler()) return normalizer;
+        Normalizer copy = normalizer.withSampler(input);
+        // A subclass which does not override the copy would otherwise be replaced by its parent type
+        return copy != null && copy.getClass() == normalizer.getClass() ? copy : normalizer;
+    }
+
+    private static Sampler rebuild(BinaryArithmeticSampler arithmetic, Sampler left, Sampler right) {
+        if(left == arithmetic.getLeft() && right == arithmetic.getRight()) return arithmetic;
+        BinaryArithmeticSampler copy = arithmetic.withInputs(left, right);
+        // See comment in normalizer version
+        return copy != null && copy.getClass() == arithmetic.getClass() ? copy : arithmetic;
+    }
+}
@@ -1,10 +1,11 @@
 package com.dfsek.seismic.algorithms.sampler;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
-public class TranslateSampler implements Sampler {
+public class TranslateSampler implements DerivativeSampler {
 
     private final Sampler sampler;
     private final double dx, dy, dz;
@@ -16,6 +17,32 @@ public class TranslateSampler implements Sampler {
         this.dz = dz;
     }
 
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    public double getDx() {
+        return dx;
+    }
+
+    public double getDy() {
+        return dy;
+    }
+
+    public double getDz() {
+        return dz;
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(sampler);
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return sampler.getAxisDependencies();
+    }
+
     @Override
     public double getSample(long seed, double x, double y) {
         return sampler.getSample(seed, x - dx, y - dz);
@@ -25,4 +52,93 @@ public class TranslateSampler implements Sampler {
     public double getSample(long seed, double x, double y, double z) {
         return sampler.getSample(seed, x - dx, y - dy, z - dz);
     }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        sampler.getSampleGrid(seed, x - dx, y - dz, xStep, yStep, xSize, ySize, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        sampler.getSampleGrid(seed, x - dx, y - dy, z - dz, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        double[] translatedX = new double[count];
+        double[] translatedY = new double[count];
+        for(int n = 0; n < count; n++) {
+            translatedX[n] = xs[n] - dx;
+            translatedY[n] = ys[n] - dz;
+        }
+        sampler.getSamples(seed, translatedX, translatedY, count, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        double[] translatedX = new double[count];
+        double[] translatedY = new double[count];
+        double[] translatedZ = new double[count];
+        for(int n = 0; n < count; n++) {
+            translatedX[n] = xs[n] - dx;
+            translatedY[n] = ys[n] - dy;
+            translatedZ[n] = zs[n] - dz;
+        }
+        sampler.getSamples(seed, translatedX, translatedY, translatedZ, count, out, offset);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x - dx, y - dz, count, out, offset);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x - dx, y - dy, z - dz, count, out, offset);
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y) {
+        return ((DerivativeSampler) sampler).getSampleDerivative(seed, x - dx, y - dz);
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y, double z) {
+        return ((DerivativeSampler) sampler).getSampleDerivative(seed, x - dx, y - dy, z - dz);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivative(seed, x - dx, y - dz, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivative(seed, x - dx, y - dy, z - dz, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeGrid(seed, x - this.dx, y - dz, xStep, yStep, xSize, ySize, values, dx, dy,
+            offset);
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeGrid(seed, x - this.dx, y - this.dy, z - this.dz, xStep, yStep, zStep, xSize,
+            ySize, zSize, values, dx, dy, dz, offset);
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeSeeds(seed, x - dx, y - dz, count, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeSeeds(seed, x - dx, y - dy, z - dz, count, out, offset);
+    }
 }
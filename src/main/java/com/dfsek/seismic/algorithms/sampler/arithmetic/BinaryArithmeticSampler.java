@@ -13,12 +13,38 @@ public abstract class BinaryArithmeticSampler implements DerivativeSampler {
         this.right = right;
     }
 
+    public Sampler getLeft() {
+        return left;
+    }
+
+    public Sampler getRight() {
+        return right;
+    }
+
+    /**
+     * Returns a sampler of the same type as this one, operating on different inputs. Used to rebuild sampler graphs around transformed
+     * inputs, e.g. by {@link com.dfsek.seismic.algorithms.sampler.SamplerOptimizer}.
+     *
+     * @param left  the left input of the copy.
+     * @param right the right input of the copy.
+     *
+     * @return the copy, or {@code null} if this sampler does not support being copied.
+     */
+    public BinaryArithmeticSampler withInputs(Sampler left, Sampler right) {
+        return null;
+    }
+
 
     @Override
     public boolean isDifferentiable() {
         return DerivativeSampler.isDifferentiable(left) && DerivativeSampler.isDifferentiable(right);
     }
 
+    @Override
+    public int getAxisDependencies() {
+        return left.getAxisDependencies() | right.getAxisDependencies();
+    }
+
     @Override
     public double getSample(long seed, double x, double y) {
         return operate(left.getSample(seed, x, y), right.getSample(seed, x, y));
@@ -29,20 +55,107 @@ public abstract class BinaryArithmeticSampler implements DerivativeSampler {
         return operate(left.getSample(seed, x, y, z), right.getSample(seed, x, y, z));
     }
 
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        int length = xSize * ySize;
+        double[] rightValues = new double[length];
+        left.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        right.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, rightValues, 0);
+        operate(out, offset, rightValues, length);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        int length = xSize * ySize * zSize;
+        double[] rightValues = new double[length];
+        left.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        right.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, rightValues, 0);
+        operate(out, offset, rightValues, length);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        double[] rightValues = new double[count];
+        left.getSamples(seed, xs, ys, count, out, offset);
+        right.getSamples(seed, xs, ys, count, rightValues, 0);
+        operate(out, offset, rightValues, count);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        double[] rightValues = new double[count];
+        left.getSamples(seed, xs, ys, zs, count, out, offset);
+        right.getSamples(seed, xs, ys, zs, count, rightValues, 0);
+        operate(out, offset, rightValues, count);
+    }
+
 
     @Override
     public double[] getSampleDerivative(long seed, double x, double y) {
-        return operateDerivative(((DerivativeSampler) left).getSampleDerivative(seed, x, y),
-            ((DerivativeSampler) right).getSampleDerivative(seed, x, y));
+        double[] out = new double[3];
+        getSampleDerivative(seed, x, y, out, 0);
+        return out;
     }
 
     @Override
     public double[] getSampleDerivative(long seed, double x, double y, double z) {
-        return operateDerivative(((DerivativeSampler) left).getSampleDerivative(seed, x, y, z),
-            ((DerivativeSampler) right).getSampleDerivative(seed, x, y, z));
+        double[] out = new double[4];
+        getSampleDerivative(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        // Small enough to be kept off the heap once inlined
+        double[] rightValues = new double[3];
+        ((DerivativeSampler) left).getSampleDerivative(seed, x, y, out, offset);
+        ((DerivativeSampler) right).getSampleDerivative(seed, x, y, rightValues, 0);
+        operateDerivative(out, offset, rightValues, 3);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        double[] rightValues = new double[4];
+        ((DerivativeSampler) left).getSampleDerivative(seed, x, y, z, out, offset);
+        ((DerivativeSampler) right).getSampleDerivative(seed, x, y, z, rightValues, 0);
+        operateDerivative(out, offset, rightValues, 4);
     }
 
     public abstract double operate(double left, double right);
 
+    /**
+     * Applies this operation element-wise, storing the results in {@code left}.
+     *
+     * @param left       the left operands, overwritten with the results.
+     * @param leftOffset index of the first left operand.
+     * @param right      the right operands, starting at index 0.
+     * @param length     number of operations to apply.
+     */
+    public void operate(double[] left, int leftOffset, double[] right, int length) {
+        for(int i = 0; i < length; i++) {
+            left[leftOffset + i] = operate(left[leftOffset + i], right[i]);
+        }
+    }
+
     public abstract double[] operateDerivative(double[] left, double[] right);
+
+    /**
+     * Applies this operation to a value and its partial derivatives, storing the results in {@code left}.
+     * <p>
+     * Delegates to {@link #operateDerivative(double[], double[])} by default; implementations may override this to avoid its
+     * allocations.
+     *
+     * @param left       the left value followed by its partial derivatives, overwritten with the results.
+     * @param leftOffset index of the left value.
+     * @param right      the right value followed by its partial derivatives, starting at index 0.
+     * @param dimensions number of elements, 3 for 2D and 4 for 3D derivatives.
+     */
+    public void operateDerivative(double[] left, int leftOffset, double[] right, int dimensions) {
+        double[] leftValues = new double[dimensions], rightValues = new double[dimensions];
+        System.arraycopy(left, leftOffset, leftValues, 0, dimensions);
+        System.arraycopy(right, 0, rightValues, 0, dimensions);
+        System.arraycopy(operateDerivative(leftValues, rightValues), 0, left, leftOffset, dimensions);
+    }
 }
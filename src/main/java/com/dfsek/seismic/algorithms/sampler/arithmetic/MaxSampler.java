@@ -8,6 +8,11 @@ public class MaxSampler extends BinaryArithmeticSampler {
         super(left, right);
     }
 
+    @Override
+    public BinaryArithmeticSampler withInputs(Sampler left, Sampler right) {
+        return new MaxSampler(left, right);
+    }
+
     @Override
     public double operate(double left, double right) {
         return Math.max(left, right);
@@ -19,4 +24,11 @@ public class MaxSampler extends BinaryArithmeticSampler {
         double rightValue = right[0];
         return leftValue > rightValue ? left : right;
     }
+
+    @Override
+    public void operateDerivative(double[] left, int leftOffset, double[] right, int dimensions) {
+        if(!(left[leftOffset] > right[0])) {
+            System.arraycopy(right, 0, left, leftOffset, dimensions);
+        }
+    }
 }
@@ -8,6 +8,11 @@ public class MultiplicationSampler extends BinaryArithmeticSampler {
         super(left, right);
     }
 
+    @Override
+    public BinaryArithmeticSampler withInputs(Sampler left, Sampler right) {
+        return new MultiplicationSampler(left, right);
+    }
+
     @Override
     public double operate(double left, double right) {
         return left * right;
@@ -23,4 +28,13 @@ public class MultiplicationSampler extends BinaryArithmeticSampler {
         }
         return out;
     }
+
+    @Override
+    public void operateDerivative(double[] left, int leftOffset, double[] right, int dimensions) {
+        double leftValue = left[leftOffset];
+        left[leftOffset] = leftValue * right[0];
+        for(int i = 1; i < dimensions; i++) {
+            left[leftOffset + i] = left[leftOffset + i] * right[0] + leftValue * right[i];
+        }
+    }
 }
@@ -8,6 +8,11 @@ public class SubtractionSampler extends BinaryArithmeticSampler {
         super(left, right);
     }
 
+    @Override
+    public BinaryArithmeticSampler withInputs(Sampler left, Sampler right) {
+        return new SubtractionSampler(left, right);
+    }
+
     @Override
     public double operate(double left, double right) {
         return left - right;
@@ -22,4 +27,11 @@ public class SubtractionSampler extends BinaryArithmeticSampler {
         }
         return out;
     }
+
+    @Override
+    public void operateDerivative(double[] left, int leftOffset, double[] right, int dimensions) {
+        for(int i = 0; i < dimensions; i++) {
+            left[leftOffset + i] -= right[i];
+        }
+    }
 }
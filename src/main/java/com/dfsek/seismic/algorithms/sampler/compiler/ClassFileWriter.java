@@ -0,0 +1,413 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Minimal class file writer for the straight-line code emitted by {@link SamplerCompiler}.
+ * <p>
+ * Only the constant pool entries and instructions the compiler needs are supported. Methods must not contain branches, which means no
+ * stack map frames have to be computed.
+ */
+final class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_FILE_VERSION = 65;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<MethodWriter> methods = new ArrayList<>();
+
+    private final int thisClass;
+    private final int superClass;
+
+    ClassFileWriter(String name, String superName) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+    }
+
+    int utf8(String value) {
+        return entry("U" + value, 1, 1, out -> out.writeUTF(value));
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return entry("C" + internalName, 7, 1, out -> out.writeShort(name));
+    }
+
+    int string(String value) {
+        int utf8 = utf8(value);
+        return entry("S" + value, 8, 1, out -> out.writeShort(utf8));
+    }
+
+    int integer(int value) {
+        return entry("I" + value, 3, 1, out -> out.writeInt(value));
+    }
+
+    int longConstant(long value) {
+        return entry("J" + value, 5, 2, out -> out.writeLong(value));
+    }
+
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        return entry("D" + bits, 6, 2, out -> out.writeLong(bits));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor, boolean isInterface) {
+        return memberRef(isInterface ? 11 : 10, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerClass = classRef(owner);
+        int nameUtf8 = utf8(name), descriptorUtf8 = utf8(descriptor);
+        int nameAndType = entry("N" + name + ' ' + descriptor, 12, 1, out -> {
+            out.writeShort(nameUtf8);
+            out.writeShort(descriptorUtf8);
+        });
+        return entry(tag + owner + '.' + name + ' ' + descriptor, tag, 1, out -> {
+            out.writeShort(ownerClass);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int entry(String key, int tag, int slots, PoolWriter writer) {
+        Integer existing = entries.get(key);
+        if(existing != null) return existing;
+        int index = poolSize;
+        try {
+            poolOut.writeByte(tag);
+            writer.write(poolOut);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolSize += slots;
+        entries.put(key, index);
+        return index;
+    }
+
+    void field(int access, String name, String descriptor) {
+        byte[] field = new byte[8];
+        int nameIndex = utf8(name), descriptorIndex = utf8(descriptor);
+        field[0] = (byte) (access >> 8);
+        field[1] = (byte) access;
+        field[2] = (byte) (nameIndex >> 8);
+        field[3] = (byte) nameIndex;
+        field[4] = (byte) (descriptorIndex >> 8);
+        field[5] = (byte) descriptorIndex;
+        fields.add(field);
+    }
+
+    MethodWriter method(int access, String name, String descriptor) {
+        MethodWriter method = new MethodWriter(this, access, utf8(name), utf8(descriptor), descriptor);
+        methods.add(method);
+        return method;
+    }
+
+    byte[] toByteArray() {
+        int code = utf8("Code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fields.size());
+            for(byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for(MethodWriter method : methods) {
+                method.write(out, code);
+            }
+            out.writeShort(0);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the number of operand stack or local variable slots taken by the values of a field descriptor sequence.
+     */
+    static int slots(String descriptors) {
+        int slots = 0;
+        for(int i = 0; i < descriptors.length(); i++) {
+            char c = descriptors.charAt(i);
+            if(c == 'J' || c == 'D') {
+                slots += 2;
+            } else if(c != 'V') {
+                slots++;
+                while(descriptors.charAt(i) == '[') i++;
+                if(descriptors.charAt(i) == 'L') i = descriptors.indexOf(';', i);
+            }
+        }
+        return slots;
+    }
+
+    @FunctionalInterface
+    private interface PoolWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+
+    /**
+     * Writer for the code of a single method, which tracks the operand stack depth and local variable slots as instructions are added.
+     */
+    static final class MethodWriter {
+        private static final int LLOAD = 0x16, DLOAD = 0x18, ALOAD = 0x19, LSTORE = 0x37, DSTORE = 0x39, ASTORE = 0x3A;
+
+        private final ClassFileWriter owner;
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private MethodWriter(ClassFileWriter owner, int access, int name, int descriptor, String descriptorString) {
+            this.owner = owner;
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = slots(descriptorString.substring(1, descriptorString.indexOf(')'))) + ((access & ACC_STATIC) == 0 ? 1 : 0);
+        }
+
+        /**
+         * @return the first of {@code slots} newly allocated local variable slots.
+         */
+        int newLocal(int slots) {
+            int local = maxLocals;
+            maxLocals += slots;
+            return local;
+        }
+
+        int size() {
+            return code.size();
+        }
+
+        int stack() {
+            return stack;
+        }
+
+        int locals() {
+            return maxLocals;
+        }
+
+        /**
+         * Discards every instruction added after the code had the given size, restoring the given stack depth and releasing the local
+         * variable slots allocated since there were {@code locals}.
+         */
+        void rollback(int size, int stack, int locals) {
+            byte[] kept = code.toByteArray();
+            code.reset();
+            code.write(kept, 0, size);
+            this.stack = stack;
+            this.maxLocals = locals;
+        }
+
+        MethodWriter dadd() {
+            return op(0x63, -2);
+        }
+
+        MethodWriter dsub() {
+            return op(0x67, -2);
+        }
+
+        MethodWriter dmul() {
+            return op(0x6B, -2);
+        }
+
+        MethodWriter ddiv() {
+            return op(0x6F, -2);
+        }
+
+        MethodWriter dneg() {
+            return op(0x77, 0);
+        }
+
+        MethodWriter dup2() {
+            return op(0x5C, 2);
+        }
+
+        MethodWriter ladd() {
+            return op(0x61, -2);
+        }
+
+        MethodWriter aaload() {
+            return op(0x32, -1);
+        }
+
+        MethodWriter dreturn() {
+            return op(0xAF, -2);
+        }
+
+        MethodWriter vreturn() {
+            return op(0xB1, 0);
+        }
+
+        private MethodWriter op(int opcode, int stackDelta) {
+            code.write(opcode);
+            return adjust(stackDelta);
+        }
+
+        private MethodWriter op(int opcode, int operand, int stackDelta) {
+            code.write(opcode);
+            code.write(operand >> 8);
+            code.write(operand);
+            return adjust(stackDelta);
+        }
+
+        private MethodWriter adjust(int stackDelta) {
+            stack += stackDelta;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+
+        private MethodWriter local(int opcode, int local, int stackDelta) {
+            if(local > 0xFF) {
+                code.write(0xC4);
+                return op(opcode, local, stackDelta);
+            }
+            code.write(opcode);
+            code.write(local);
+            return adjust(stackDelta);
+        }
+
+        MethodWriter aload(int local) {
+            return local(ALOAD, local, 1);
+        }
+
+        MethodWriter astore(int local) {
+            return local(ASTORE, local, -1);
+        }
+
+        MethodWriter lload(int local) {
+            return local(LLOAD, local, 2);
+        }
+
+        MethodWriter lstore(int local) {
+            return local(LSTORE, local, -2);
+        }
+
+        MethodWriter dload(int local) {
+            return local(DLOAD, local, 2);
+        }
+
+        MethodWriter dstore(int local) {
+            return local(DSTORE, local, -2);
+        }
+
+        MethodWriter iconst(int value) {
+            if(value >= -1 && value <= 5) return op(0x03 + value, 1);
+            if(value == (short) value) return op(0x11, value, 1);
+            int index = owner.integer(value);
+            return index <= 0xFF ? ldc(index) : op(0x13, index, 1);
+        }
+
+        MethodWriter lconst(long value) {
+            return op(0x14, owner.longConstant(value), 2);
+        }
+
+        MethodWriter dconst(double value) {
+            if(Double.doubleToRawLongBits(value) == 0L) return op(0x0E, 2);
+            if(value == 1) return op(0x0F, 2);
+            return op(0x14, owner.doubleConstant(value), 2);
+        }
+
+        MethodWriter sconst(String value) {
+            int index = owner.string(value);
+            return index <= 0xFF ? ldc(index) : op(0x13, index, 1);
+        }
+
+        MethodWriter cconst(String internalName) {
+            int index = owner.classRef(internalName);
+            return index <= 0xFF ? ldc(index) : op(0x13, index, 1);
+        }
+
+        private MethodWriter ldc(int index) {
+            code.write(0x12);
+            code.write(index);
+            return adjust(1);
+        }
+
+        MethodWriter getstatic(String owner, String name, String descriptor) {
+            return op(0xB2, this.owner.fieldRef(owner, name, descriptor), slots(descriptor));
+        }
+
+        MethodWriter putstatic(String owner, String name, String descriptor) {
+            return op(0xB3, this.owner.fieldRef(owner, name, descriptor), -slots(descriptor));
+        }
+
+        MethodWriter invokestatic(String owner, String name, String descriptor) {
+            return op(0xB8, this.owner.methodRef(owner, name, descriptor, false), invokeDelta(descriptor));
+        }
+
+        MethodWriter invokevirtual(String owner, String name, String descriptor) {
+            return op(0xB6, this.owner.methodRef(owner, name, descriptor, false), invokeDelta(descriptor) - 1);
+        }
+
+        MethodWriter invokespecial(String owner, String name, String descriptor) {
+            return op(0xB7, this.owner.methodRef(owner, name, descriptor, false), invokeDelta(descriptor) - 1);
+        }
+
+        MethodWriter invokeinterface(String owner, String name, String descriptor) {
+            int arguments = slots(descriptor.substring(1, descriptor.indexOf(')')));
+            op(0xB9, this.owner.methodRef(owner, name, descriptor, true), invokeDelta(descriptor) - 1);
+            code.write(arguments + 1);
+            code.write(0);
+            return this;
+        }
+
+        MethodWriter checkcast(String internalName) {
+            return op(0xC0, owner.classRef(internalName), 0);
+        }
+
+        private static int invokeDelta(String descriptor) {
+            int close = descriptor.indexOf(')');
+            return slots(descriptor.substring(close + 1)) - slots(descriptor.substring(1, close));
+        }
+
+        private void write(DataOutputStream out, int codeAttribute) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Base class of the samplers generated by {@link SamplerCompiler}.
+ * <p>
+ * Generated subclasses only implement single point sampling. Grid, scattered point and float sampling are forwarded to the source sampler,
+ * whose batch implementations already amortise the per-node dispatch over the whole batch.
+ */
+public abstract class CompiledSampler implements Sampler {
+    private final Sampler source;
+
+    protected CompiledSampler(Sampler source) {
+        this.source = source;
+    }
+
+    /**
+     * @return the sampler graph this sampler was compiled from.
+     */
+    public Sampler getSource() {
+        return source;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return source.getAxisDependencies();
+    }
+
+    @Override
+    public float getSampleFloat(long seed, double x, double y) {
+        return source.getSampleFloat(seed, x, y);
+    }
+
+    @Override
+    public float getSampleFloat(long seed, double x, double y, double z) {
+        return source.getSampleFloat(seed, x, y, z);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        source.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        source.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        source.getSamples(seed, xs, ys, count, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        source.getSamples(seed, xs, ys, zs, count, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, float[] out, int offset) {
+        source.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, float[] out, int offset) {
+        source.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, float[] out, int offset) {
+        source.getSamples(seed, xs, ys, count, out, offset);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, float[] out, int offset) {
+        source.getSamples(seed, xs, ys, zs, count, out, offset);
+    }
+}
@@ -0,0 +1,583 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+
+import com.dfsek.seismic.algorithms.sampler.DomainWarpedSampler;
+import com.dfsek.seismic.algorithms.sampler.LinearHeightmapSampler;
+import com.dfsek.seismic.algorithms.sampler.TranslateSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MinSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.compiler.ClassFileWriter.MethodWriter;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.FractalNoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.PingPongSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.Normalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Compiles sampler graphs into specialised classes.
+ * <p>
+ * Deep sampler graphs make the {@code getSample} call sites inside composite samplers megamorphic, so the JIT cannot inline across nodes.
+ * {@link #compile(Sampler)} instead generates one hidden class per graph, in which the logic of every normalizer, arithmetic sampler,
+ * translation, domain warp, linear heightmap and fractal is emitted inline with its parameters as constants, and fractal octaves are
+ * unrolled. Noise functions are called directly on their concrete class with their salt and frequency applied inline, and every other
+ * sampler remains a plain {@code getSample} call. The nodes the generated code calls into are held in static final fields, so every call
+ * site is monomorphic. Shared subgraphs are evaluated once per sample and their results reused.
+ * <p>
+ * Compiled samplers produce exactly the same samples as the graph they were compiled from. To stay below the JIT's huge method limit, a
+ * subgraph whose inlined code would make the method too large is called instead of inlined.
+ */
+public class SamplerCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Bytecode size above which subgraphs are called rather than inlined. HotSpot does not compile methods larger than 8000 bytes.
+     */
+    private static final int INLINE_LIMIT = 7000;
+
+    private static final String GENERATED = "com/dfsek/seismic/algorithms/sampler/compiler/GeneratedSampler";
+    private static final String COMPILED_SAMPLER = internalName(CompiledSampler.class);
+    private static final String SAMPLER = internalName(Sampler.class);
+    private static final String NORMALIZER = internalName(Normalizer.class);
+    private static final String BINARY_ARITHMETIC = internalName(BinaryArithmeticSampler.class);
+    private static final String NOISE_FUNCTION = internalName(NoiseFunction.class);
+    private static final String MATH = "java/lang/Math";
+    private static final String INTERPOLATION = internalName(InterpolationFunctions.class);
+    private static final String PING_PONG = internalName(PingPongSampler.class);
+
+    private static final String SAMPLE_2D = "(JDD)D";
+    private static final String SAMPLE_3D = "(JDDD)D";
+
+    /**
+     * Compiles a sampler graph.
+     *
+     * @param sampler the root of the sampler graph.
+     *
+     * @return a sampler producing the same samples as {@code sampler}.
+     *
+     * @throws IllegalStateException if the generated class could not be defined.
+     */
+    public static CompiledSampler compile(Sampler sampler) {
+        Generator generator = new Generator();
+        byte[] bytes = generator.generate(sampler);
+        try {
+            MethodHandles.Lookup lookup = LOOKUP.defineHiddenClassWithClassData(bytes, generator.constants.toArray(), true);
+            return (CompiledSampler) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Sampler.class))
+                .invoke(sampler);
+        } catch(RuntimeException | Error e) {
+            throw e;
+        } catch(Throwable e) {
+            throw new IllegalStateException("Failed to define compiled sampler", e);
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * @return the internal name of {@code type} if generated code can link against it, otherwise {@code fallback}.
+     */
+    private static String linkableType(Class<?> type, String fallback) {
+        if(type.isHidden() || type.getClassLoader() != SamplerCompiler.class.getClassLoader()) return fallback;
+        for(Class<?> enclosing = type; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            if(!Modifier.isPublic(enclosing.getModifiers()) || enclosing.isAnonymousClass()) return fallback;
+        }
+        return internalName(type);
+    }
+
+    /**
+     * @return whether {@code type} inherits both {@code getSample} methods from {@code base}.
+     */
+    static boolean inheritsSample(Class<?> type, Class<?> base) {
+        try {
+            return type.getMethod("getSample", long.class, double.class, double.class).getDeclaringClass() == base &&
+                   type.getMethod("getSample", long.class, double.class, double.class, double.class).getDeclaringClass() == base;
+        } catch(NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Generates the compiled class of a sampler graph.
+     * <p>
+     * Every local variable of the generated methods is assigned exactly once, so a sample is identified by its node, seed offset and the
+     * locals holding its coordinates. Samples of nodes reachable through more than one edge are kept in locals and reused whenever the
+     * same sample is needed again, as are translated, warped and scaled coordinates. Nodes are identified structurally where their
+     * behaviour is known, so identical subgraphs built from separate instances are shared as well.
+     */
+    private static final class Generator {
+        private final ClassFileWriter writer = new ClassFileWriter(GENERATED, COMPILED_SAMPLER);
+        private final List<Object> constants = new ArrayList<>();
+        private final List<String> constantTypes = new ArrayList<>();
+        private final Map<Object, Map<String, Integer>> constantIndices = new IdentityHashMap<>();
+        private MethodWriter method;
+
+        private final Map<Sampler, Integer> ids = new IdentityHashMap<>();
+        private final Map<List<Object>, Integer> structures = new HashMap<>();
+        private final Map<Integer, Integer> references = new HashMap<>();
+        private int nextId;
+
+        // Values already held in locals, with the code size at which they were stored so they can be dropped on rollback
+        private final Map<List<Object>, Integer> values = new HashMap<>();
+        private final List<List<Object>> valueKeys = new ArrayList<>();
+        private final List<Integer> valuePositions = new ArrayList<>();
+
+        private byte[] generate(Sampler sampler) {
+            count(sampler);
+
+            MethodWriter constructor = writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "(L" + SAMPLER + ";)V");
+            constructor.aload(0).aload(1).invokespecial(COMPILED_SAMPLER, "<init>", "(L" + SAMPLER + ";)V").vreturn();
+
+            method = writer.method(ClassFileWriter.ACC_PUBLIC, "getSample", SAMPLE_2D);
+            sample(sampler, 0, 3, 5, -1);
+            method.dreturn();
+
+            method = writer.method(ClassFileWriter.ACC_PUBLIC, "getSample", SAMPLE_3D);
+            forget(0);
+            sample(sampler, 0, 3, 5, 7);
+            method.dreturn();
+
+            // Every constant is now known, load them from the class data into static final fields
+            MethodWriter initializer = writer.method(ClassFileWriter.ACC_STATIC, "<clinit>", "()V");
+            int data = initializer.newLocal(1);
+            initializer.invokestatic("java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;")
+                .sconst("_")
+                .cconst("[Ljava/lang/Object;")
+                .invokestatic("java/lang/invoke/MethodHandles", "classData",
+                    "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;")
+                .checkcast("[Ljava/lang/Object;")
+                .astore(data);
+            for(int i = 0; i < constants.size(); i++) {
+                String type = constantTypes.get(i);
+                writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL, "c" + i,
+                    "L" + type + ";");
+                initializer.aload(data).iconst(i).aaload().checkcast(type).putstatic(GENERATED, "c" + i, "L" + type + ";");
+            }
+            initializer.vreturn();
+            return writer.toByteArray();
+        }
+
+        /**
+         * Counts the edges leading to each distinct node of the graph below {@code node}.
+         */
+        private void count(Sampler node) {
+            if(references.merge(id(node), 1, Integer::sum) == 1) {
+                for(Sampler child : children(node)) {
+                    count(child);
+                }
+            }
+        }
+
+        private List<Sampler> children(Sampler node) {
+            Class<?> type = node.getClass();
+            if(node instanceof Normalizer normalizer && inheritsSample(type, Normalizer.class)) {
+                return List.of(normalizer.getSampler());
+            } else if(node instanceof BinaryArithmeticSampler arithmetic && inheritsSample(type, BinaryArithmeticSampler.class)) {
+                return List.of(arithmetic.getLeft(), arithmetic.getRight());
+            } else if(type == TranslateSampler.class) {
+                return List.of(((TranslateSampler) node).getSampler());
+            } else if(type == DomainWarpedSampler.class) {
+                return List.of(((DomainWarpedSampler) node).getFunction(), ((DomainWarpedSampler) node).getWarp());
+            } else if(type == LinearHeightmapSampler.class) {
+                return List.of(((LinearHeightmapSampler) node).getSampler());
+            } else if(type == BrownianMotionSampler.class || type == RidgedFractalSampler.class || type == PingPongSampler.class) {
+                return List.of(((FractalNoiseFunction) node).getInput());
+            }
+            return List.of();
+        }
+
+        /**
+         * @return an id shared by every node producing the same samples as {@code node}, as far as that can be told from its structure.
+         */
+        private int id(Sampler node) {
+            Integer id = ids.get(node);
+            if(id == null) {
+                List<Object> structure = structure(node);
+                id = structure == null ? nextId++ : structures.computeIfAbsent(structure, s -> nextId++);
+                ids.put(node, id);
+            }
+            return id;
+        }
+
+        /**
+         * @return the class, parameters and child ids of {@code node}, or {@code null} if nodes of its type can only be told apart by
+         *     identity.
+         */
+        private List<Object> structure(Sampler node) {
+            Class<?> type = node.getClass();
+            List<Object> structure = new ArrayList<>();
+            structure.add(type);
+            if(type == ConstantSampler.class) {
+                structure.add(((ConstantSampler) node).getConstant());
+            } else if(type == ClampNormalizer.class) {
+                structure.addAll(List.of(((ClampNormalizer) node).getMin(), ((ClampNormalizer) node).getMax()));
+            } else if(type == LinearNormalizer.class) {
+                structure.addAll(List.of(((LinearNormalizer) node).getMin(), ((LinearNormalizer) node).getMax()));
+            } else if(type == LinearMapNormalizer.class) {
+                LinearMapNormalizer map = (LinearMapNormalizer) node;
+                structure.addAll(List.of(map.getAFrom(), map.getATo(), map.getBFrom(), map.getBTo()));
+            } else if(type == ScaleNormalizer.class) {
+                structure.add(((ScaleNormalizer) node).getScale());
+            } else if(type == AffineNormalizer.class) {
+                AffineNormalizer affine = (AffineNormalizer) node;
+                structure.addAll(List.of(affine.getScale(), affine.getOffset(), affine.getMin(), affine.getMax()));
+            } else if(type == TranslateSampler.class) {
+                TranslateSampler translate = (TranslateSampler) node;
+                structure.addAll(List.of(translate.getDx(), translate.getDy(), translate.getDz()));
+            } else if(type == DomainWarpedSampler.class) {
+                structure.add(((DomainWarpedSampler) node).getAmplitude());
+            } else if(type == LinearHeightmapSampler.class) {
+                structure.addAll(List.of(((LinearHeightmapSampler) node).getScale(), ((LinearHeightmapSampler) node).getBase()));
+            } else if(type == BrownianMotionSampler.class || type == RidgedFractalSampler.class || type == PingPongSampler.class) {
+                FractalNoiseFunction fractal = (FractalNoiseFunction) node;
+                structure.addAll(List.of(fractal.getSalt(), fractal.getFrequency(), fractal.getOctaves(), fractal.getGain(),
+                    fractal.getLacunarity(), fractal.getWeightedStrength(), fractal.getFractalBounding()));
+                if(type == PingPongSampler.class) structure.add(((PingPongSampler) fractal).getPingPongStrength());
+            } else if(type != ProbabilityNormalizer.class && type != AdditionSampler.class && type != SubtractionSampler.class &&
+                      type != MultiplicationSampler.class && type != DivisionSampler.class && type != MaxSampler.class &&
+                      type != MinSampler.class) {
+                return null;
+            }
+            for(Sampler child : children(node)) {
+                structure.add(id(child));
+            }
+            return structure;
+        }
+
+        /**
+         * Pushes a constant object, typed as {@code type}, onto the stack.
+         */
+        private void constant(Object value, String type) {
+            Integer index = constantIndices.computeIfAbsent(value, v -> new HashMap<>()).get(type);
+            if(index == null) {
+                index = constants.size();
+                constants.add(value);
+                constantTypes.add(type);
+                constantIndices.get(value).put(type, index);
+            }
+            method.getstatic(GENERATED, "c" + index, "L" + type + ";");
+        }
+
+        /**
+         * @return the local holding the value identified by {@code key}, or {@code -1} if it has not been stored.
+         */
+        private int recall(List<Object> key) {
+            return values.getOrDefault(key, -1);
+        }
+
+        private void remember(List<Object> key, int local) {
+            values.put(key, local);
+            valueKeys.add(key);
+            valuePositions.add(method.size());
+        }
+
+        /**
+         * Drops every remembered value stored after the code had the given size.
+         */
+        private void forget(int size) {
+            while(!valuePositions.isEmpty() && valuePositions.getLast() > size) {
+                values.remove(valueKeys.removeLast());
+                valuePositions.removeLast();
+            }
+        }
+
+        /**
+         * Emits code pushing the sample of {@code node} at the given offset from the seed parameter and the coordinates in the given
+         * local variables onto the stack. A {@code z} of {@code -1} selects 2D sampling.
+         */
+        private void sample(Sampler node, long seed, int x, int y, int z) {
+            boolean shared = node.getClass() != ConstantSampler.class && references.get(id(node)) > 1;
+            List<Object> key = List.of(id(node), seed, x, y, z);
+            if(shared) {
+                int local = recall(key);
+                if(local >= 0) {
+                    method.dload(local);
+                    return;
+                }
+            }
+            int size = method.size(), stack = method.stack(), locals = method.locals();
+            if(!inline(node, seed, x, y, z) || method.size() > INLINE_LIMIT) {
+                method.rollback(size, stack, locals);
+                forget(size);
+                call(node, seed, x, y, z);
+            }
+            if(shared) {
+                int local = method.newLocal(2);
+                method.dup2().dstore(local);
+                remember(key, local);
+            }
+        }
+
+        private void seed(long offset) {
+            method.lload(1);
+            if(offset != 0) method.lconst(offset).ladd();
+        }
+
+        private void call(Sampler node, long seed, int x, int y, int z) {
+            String type = linkableType(node.getClass(), SAMPLER);
+            constant(node, type);
+            seed(seed);
+            method.dload(x).dload(y);
+            if(z >= 0) method.dload(z);
+            String descriptor = z >= 0 ? SAMPLE_3D : SAMPLE_2D;
+            if(type.equals(SAMPLER)) {
+                method.invokeinterface(SAMPLER, "getSample", descriptor);
+            } else {
+                method.invokevirtual(type, "getSample", descriptor);
+            }
+        }
+
+        private boolean inline(Sampler node, long seed, int x, int y, int z) {
+            Class<?> type = node.getClass();
+            if(type == ConstantSampler.class) {
+                method.dconst(((ConstantSampler) node).getConstant());
+            } else if(node instanceof Normalizer normalizer && inheritsSample(type, Normalizer.class)) {
+                normalizer(normalizer, seed, x, y, z);
+            } else if(node instanceof BinaryArithmeticSampler arithmetic && inheritsSample(type, BinaryArithmeticSampler.class)) {
+                arithmetic(arithmetic, seed, x, y, z);
+            } else if(type == TranslateSampler.class) {
+                translate((TranslateSampler) node, seed, x, y, z);
+            } else if(type == DomainWarpedSampler.class) {
+                domainWarp((DomainWarpedSampler) node, seed, x, y, z);
+            } else if(type == LinearHeightmapSampler.class) {
+                heightmap((LinearHeightmapSampler) node, seed, x, y, z);
+            } else if(type == BrownianMotionSampler.class || type == RidgedFractalSampler.class || type == PingPongSampler.class) {
+                fractal((FractalNoiseFunction) node, seed, x, y, z);
+            } else if(node instanceof NoiseFunction noise && inheritsSample(type, NoiseFunction.class)) {
+                noise(noise, seed, x, y, z);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void normalizer(Normalizer normalizer, long seed, int x, int y, int z) {
+            Class<?> type = normalizer.getClass();
+            Sampler input = normalizer.getSampler();
+            if(type == ClampNormalizer.class) {
+                ClampNormalizer clamp = (ClampNormalizer) normalizer;
+                sample(input, seed, x, y, z);
+                clamp(clamp.getMin(), clamp.getMax());
+            } else if(type == LinearNormalizer.class) {
+                LinearNormalizer linear = (LinearNormalizer) normalizer;
+                sample(input, seed, x, y, z);
+                method.dconst(linear.getMin()).dsub().dconst(2 / (linear.getMax() - linear.getMin())).dmul().dconst(1).dsub();
+            } else if(type == LinearMapNormalizer.class) {
+                LinearMapNormalizer map = (LinearMapNormalizer) normalizer;
+                sample(input, seed, x, y, z);
+                method.dconst(map.getAFrom()).dsub()
+                    .dconst(map.getATo() - map.getBTo()).dmul()
+                    .dconst(map.getAFrom() - map.getBFrom()).ddiv()
+                    .dconst(map.getATo()).dadd();
+            } else if(type == ScaleNormalizer.class) {
+                sample(input, seed, x, y, z);
+                method.dconst(((ScaleNormalizer) normalizer).getScale()).dmul();
+            } else if(type == ProbabilityNormalizer.class) {
+                sample(input, seed, x, y, z);
+                method.dconst(1).dadd().dconst(2).ddiv();
+            } else if(type == AffineNormalizer.class) {
+                AffineNormalizer affine = (AffineNormalizer) normalizer;
+                sample(input, seed, x, y, z);
+                method.dconst(affine.getScale()).dmul().dconst(affine.getOffset()).dadd();
+                clamp(affine.getMin(), affine.getMax());
+            } else {
+                String owner = linkableType(type, NORMALIZER);
+                constant(normalizer, owner);
+                sample(input, seed, x, y, z);
+                method.invokevirtual(owner, "normalize", "(D)D");
+            }
+        }
+
+        private void clamp(double min, double max) {
+            method.dconst(max).invokestatic(MATH, "min", "(DD)D").dconst(min).invokestatic(MATH, "max", "(DD)D");
+        }
+
+        private void arithmetic(BinaryArithmeticSampler arithmetic, long seed, int x, int y, int z) {
+            Class<?> type = arithmetic.getClass();
+            boolean known = type == AdditionSampler.class || type == SubtractionSampler.class || type == MultiplicationSampler.class ||
+                            type == DivisionSampler.class || type == MaxSampler.class || type == MinSampler.class;
+            String owner = linkableType(type, BINARY_ARITHMETIC);
+            if(!known) constant(arithmetic, owner);
+            sample(arithmetic.getLeft(), seed, x, y, z);
+            sample(arithmetic.getRight(), seed, x, y, z);
+            if(type == AdditionSampler.class) {
+                method.dadd();
+            } else if(type == SubtractionSampler.class) {
+                method.dsub();
+            } else if(type == MultiplicationSampler.class) {
+                method.dmul();
+            } else if(type == DivisionSampler.class) {
+                method.ddiv();
+            } else if(type == MaxSampler.class) {
+                method.invokestatic(MATH, "max", "(DD)D");
+            } else if(type == MinSampler.class) {
+                method.invokestatic(MATH, "min", "(DD)D");
+            } else {
+                method.invokevirtual(owner, "operate", "(DD)D");
+            }
+        }
+
+        private void translate(TranslateSampler translate, long seed, int x, int y, int z) {
+            if(z < 0) {
+                sample(translate.getSampler(), seed, subtract(x, translate.getDx()), subtract(y, translate.getDz()), -1);
+            } else {
+                sample(translate.getSampler(), seed, subtract(x, translate.getDx()), subtract(y, translate.getDy()),
+                    subtract(z, translate.getDz()));
+            }
+        }
+
+        /**
+         * @return a local holding {@code local - offset}.
+         */
+        private int subtract(int local, double offset) {
+            if(offset == 0) return local;
+            List<Object> key = List.of("-", local, offset);
+            int result = recall(key);
+            if(result < 0) {
+                result = method.newLocal(2);
+                method.dload(local).dconst(offset).dsub().dstore(result);
+                remember(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * @return a local holding {@code local * factor}.
+         */
+        private int multiply(int local, double factor) {
+            if(factor == 1) return local;
+            List<Object> key = List.of("*", local, factor);
+            int result = recall(key);
+            if(result < 0) {
+                result = method.newLocal(2);
+                method.dload(local).dconst(factor).dmul().dstore(result);
+                remember(key, result);
+            }
+            return result;
+        }
+
+        private void domainWarp(DomainWarpedSampler warped, long seed, int x, int y, int z) {
+            // Mirrors the seed increments of DomainWarpedSampler: the function gets the seed, each warped axis the next seed
+            int warpedX = warp(warped, seed + 1, x, x, y, z);
+            int warpedY = warp(warped, seed + 2, y, x, y, z);
+            int warpedZ = z < 0 ? -1 : warp(warped, seed + 3, z, x, y, z);
+            sample(warped.getFunction(), seed, warpedX, warpedY, warpedZ);
+        }
+
+        private int warp(DomainWarpedSampler warped, long seed, int axis, int x, int y, int z) {
+            List<Object> key = List.of("~", id(warped.getWarp()), warped.getAmplitude(), seed, axis, x, y, z);
+            int result = recall(key);
+            if(result < 0) {
+                result = method.newLocal(2);
+                method.dload(axis);
+                sample(warped.getWarp(), seed, x, y, z);
+                method.dconst(warped.getAmplitude()).dmul().dadd().dstore(result);
+                remember(key, result);
+            }
+            return result;
+        }
+
+        private void heightmap(LinearHeightmapSampler heightmap, long seed, int x, int y, int z) {
+            if(z < 0) {
+                // 2D heightmaps sample at y = 0
+                List<Object> key = List.of("0");
+                int zero = recall(key);
+                if(zero < 0) {
+                    zero = method.newLocal(2);
+                    method.dconst(0).dstore(zero);
+                    remember(key, zero);
+                }
+                z = y;
+                y = zero;
+            }
+            method.dload(y).dneg().dconst(heightmap.getBase()).dadd();
+            sample(heightmap.getSampler(), seed, x, y, z);
+            method.dconst(heightmap.getScale()).dmul().dadd();
+        }
+
+        private void noise(NoiseFunction noise, long seed, int x, int y, int z) {
+            String owner = linkableType(noise.getClass(), NOISE_FUNCTION);
+            constant(noise, owner);
+            seed(seed + noise.getSalt());
+            scaled(x, noise.getFrequency());
+            scaled(y, noise.getFrequency());
+            if(z >= 0) scaled(z, noise.getFrequency());
+            method.invokevirtual(owner, "getNoiseRaw", z >= 0 ? SAMPLE_3D : SAMPLE_2D);
+        }
+
+        private void scaled(int local, double scale) {
+            method.dload(local);
+            if(scale != 1) method.dconst(scale).dmul();
+        }
+
+        private void fractal(FractalNoiseFunction fractal, long seed, int x, int y, int z) {
+            Class<?> type = fractal.getClass();
+            boolean is3D = z >= 0;
+            int fx = multiply(x, fractal.getFrequency());
+            int fy = multiply(y, fractal.getFrequency());
+            int fz = is3D ? multiply(z, fractal.getFrequency()) : -1;
+            int sum = method.newLocal(2), amp = method.newLocal(2), noise = method.newLocal(2);
+            method.dconst(0).dstore(sum).dconst(fractal.getFractalBounding()).dstore(amp);
+
+            double weightedStrength = fractal.getWeightedStrength();
+            long octaveSeed = seed + fractal.getSalt();
+            for(int i = 0, octaves = fractal.getOctaves(); i < octaves; i++) {
+                if(type == BrownianMotionSampler.class) {
+                    sample(fractal.getInput(), octaveSeed++, fx, fy, fz);
+                    method.dstore(noise);
+                    method.dload(sum).dload(noise).dload(amp).dmul().dadd().dstore(sum);
+                    method.dload(amp).dconst(1).dload(noise).dconst(1).dadd();
+                    if(!is3D) method.dconst(2).invokestatic(MATH, "min", "(DD)D");
+                    method.dconst(0.5).dmul();
+                } else if(type == RidgedFractalSampler.class) {
+                    sample(fractal.getInput(), octaveSeed++, fx, fy, fz);
+                    method.invokestatic(MATH, "abs", "(D)D").dstore(noise);
+                    method.dload(sum).dload(noise).dconst(-2).dmul().dconst(1).dadd().dload(amp).dmul().dadd().dstore(sum);
+                    method.dload(amp).dconst(1).dconst(1).dload(noise).dsub();
+                } else {
+                    sample(fractal.getInput(), octaveSeed++, fx, fy, fz);
+                    method.dconst(1).dadd().dconst(((PingPongSampler) fractal).getPingPongStrength()).dmul()
+                        .invokestatic(PING_PONG, "pingPong", "(D)D").dstore(noise);
+                    method.dload(sum).dload(noise).dconst(0.5).dsub().dconst(2).dmul().dload(amp).dmul().dadd().dstore(sum);
+                    method.dload(amp).dconst(1).dload(noise);
+                }
+                method.dconst(weightedStrength).invokestatic(INTERPOLATION, "lerp", "(DDD)D").dmul()
+                    .dconst(fractal.getGain()).dmul().dstore(amp);
+
+                if(i < octaves - 1) {
+                    double lacunarity = fractal.getLacunarity();
+                    fx = multiply(fx, lacunarity);
+                    fy = multiply(fy, lacunarity);
+                    if(is3D) fz = multiply(fz, lacunarity);
+                }
+            }
+            method.dload(sum);
+        }
+    }
+}
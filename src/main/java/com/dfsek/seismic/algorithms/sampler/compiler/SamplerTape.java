@@ -0,0 +1,1015 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+
+import com.dfsek.seismic.algorithms.sampler.DomainWarpedSampler;
+import com.dfsek.seismic.algorithms.sampler.LinearHeightmapSampler;
+import com.dfsek.seismic.algorithms.sampler.TranslateSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MinSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.DerivativeNoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.FractalNoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.PingPongSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.Normalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Sampler which evaluates a sampler graph as a flat program over blocks of points.
+ * <p>
+ * The graph is flattened into a tape of register machine instructions, one for each noise lookup, normalizer, arithmetic operation,
+ * coordinate transform or fractal octave. Batch sampling runs the tape over blocks of {@value #BLOCK_SIZE} points, with each instruction
+ * processing the whole block before the next runs. Registers are reusable per-thread scratch blocks, and noise functions and samplers the
+ * tape does not understand are evaluated through their own {@link Sampler#getSamples(long, double[], double[], int, double[], int)
+ * batch implementations}. Subgraphs reached more than once at the same seed and coordinates, including structurally identical ones,
+ * are evaluated once per block.
+ * <p>
+ * Derivatives are evaluated on the same tape in forward mode. Every register is paired with tangent registers holding its partial
+ * derivatives along each sampled axis, and each instruction propagates them alongside its values by the chain rule, so no derivative has
+ * to be written by hand for the graph as a whole. Noise lookups take the analytic derivatives of their samplers, scaled by the frequency of
+ * noise functions, which report derivatives in their own frequency-scaled coordinates. Derivatives are therefore taken with respect to the
+ * sampled coordinates through every frequency, lacunarity, translation and warp in the graph. The tape is differentiable when every
+ * sampler it looks up is.
+ * <p>
+ * Unlike {@link SamplerCompiler}, no classes are generated at runtime. Samples are identical to those of the source graph. Single point
+ * sampling is forwarded to the source graph, single point derivatives run the tape over a block of one point.
+ */
+public class SamplerTape implements DerivativeSampler {
+    public static final int BLOCK_SIZE = 256;
+
+    private static final int SAMPLE_2D = 0;
+    private static final int SAMPLE_3D = 1;
+    private static final int FILL = 2;
+    private static final int SUBTRACT_CONSTANT = 3;
+    private static final int MULTIPLY_CONSTANT = 4;
+    private static final int WARP = 5;
+    private static final int CLAMP = 6;
+    private static final int LINEAR = 7;
+    private static final int LINEAR_MAP = 8;
+    private static final int PROBABILITY = 9;
+    private static final int AFFINE = 10;
+    private static final int NORMALIZE = 11;
+    private static final int ADD = 12;
+    private static final int SUBTRACT = 13;
+    private static final int MULTIPLY = 14;
+    private static final int DIVIDE = 15;
+    private static final int MAX = 16;
+    private static final int MIN = 17;
+    private static final int OPERATE = 18;
+    private static final int HEIGHTMAP = 19;
+    private static final int BROWNIAN_OCTAVE_2D = 20;
+    private static final int BROWNIAN_OCTAVE_3D = 21;
+    private static final int RIDGED_OCTAVE = 22;
+    private static final int PING_PONG_OCTAVE = 23;
+
+    private final Sampler source;
+    private final Program program2D;
+    private final Program program3D;
+    private final ThreadLocal<double[][]> registers;
+    /**
+     * Partial derivatives of register {@code n} along the X, Y and Z axes, in tangent registers {@code 3 * n} to {@code 3 * n + 2}.
+     */
+    private final ThreadLocal<double[][]> tangents;
+    /**
+     * Value and partial derivatives of the two operands of a single point operation.
+     */
+    private final ThreadLocal<double[][]> duals = ThreadLocal.withInitial(() -> new double[2][4]);
+
+    public SamplerTape(Sampler source) {
+        this.source = source;
+        this.program2D = new Assembler(2).assemble(source);
+        this.program3D = new Assembler(3).assemble(source);
+        int registerCount = Math.max(program2D.registers, program3D.registers);
+        this.registers = ThreadLocal.withInitial(() -> new double[registerCount][BLOCK_SIZE]);
+        this.tangents = ThreadLocal.withInitial(() -> {
+            double[][] tangents = new double[registerCount * 3][BLOCK_SIZE];
+            // Input registers are never written, so their tangents are set to the identity once
+            for(int axis = 0; axis < 3; axis++) Arrays.fill(tangents[axis * 3 + axis], 1);
+            return tangents;
+        });
+    }
+
+    /**
+     * @return the sampler graph this tape was built from.
+     */
+    public Sampler getSource() {
+        return source;
+    }
+
+    /**
+     * @return the number of instructions in the 3D program.
+     */
+    public int getInstructionCount() {
+        return program3D.instructions;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return source.getAxisDependencies();
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y) {
+        return source.getSample(seed, x, y);
+    }
+
+    @Override
+    public double getSample(long seed, double x, double y, double z) {
+        return source.getSample(seed, x, y, z);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        double[][] registers = this.registers.get();
+        for(int start = 0; start < count; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, count - start);
+            System.arraycopy(xs, start, registers[0], 0, length);
+            System.arraycopy(ys, start, registers[1], 0, length);
+            program2D.run(registers, seed, length, out, offset + start);
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        double[][] registers = this.registers.get();
+        for(int start = 0; start < count; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, count - start);
+            System.arraycopy(xs, start, registers[0], 0, length);
+            System.arraycopy(ys, start, registers[1], 0, length);
+            System.arraycopy(zs, start, registers[2], 0, length);
+            program3D.run(registers, seed, length, out, offset + start);
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        double[][] registers = this.registers.get();
+        double[] xs = registers[0], ys = registers[1];
+        int length = 0, index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                xs[length] = xi;
+                ys[length] = y + j * yStep;
+                if(++length == BLOCK_SIZE) {
+                    program2D.run(registers, seed, length, out, index);
+                    index += length;
+                    length = 0;
+                }
+            }
+        }
+        if(length > 0) program2D.run(registers, seed, length, out, index);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        double[][] registers = this.registers.get();
+        double[] xs = registers[0], ys = registers[1], zs = registers[2];
+        int length = 0, index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    xs[length] = xi;
+                    ys[length] = yj;
+                    zs[length] = z + k * zStep;
+                    if(++length == BLOCK_SIZE) {
+                        program3D.run(registers, seed, length, out, index);
+                        index += length;
+                        length = 0;
+                    }
+                }
+            }
+        }
+        if(length > 0) program3D.run(registers, seed, length, out, index);
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return program2D.differentiable && program3D.differentiable;
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y) {
+        double[] out = new double[3];
+        getSampleDerivative(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y, double z) {
+        double[] out = new double[4];
+        getSampleDerivative(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        double[][] registers = this.registers.get(), tangents = this.tangents.get();
+        registers[0][0] = x;
+        registers[1][0] = y;
+        program2D.runDerivative(registers, tangents, duals.get(), seed, 1);
+        int result = program2D.result;
+        out[offset] = registers[result][0];
+        out[offset + 1] = tangents[result * 3][0];
+        out[offset + 2] = tangents[result * 3 + 1][0];
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        double[][] registers = this.registers.get(), tangents = this.tangents.get();
+        registers[0][0] = x;
+        registers[1][0] = y;
+        registers[2][0] = z;
+        program3D.runDerivative(registers, tangents, duals.get(), seed, 1);
+        int result = program3D.result;
+        out[offset] = registers[result][0];
+        out[offset + 1] = tangents[result * 3][0];
+        out[offset + 2] = tangents[result * 3 + 1][0];
+        out[offset + 3] = tangents[result * 3 + 2][0];
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        double[][] registers = this.registers.get(), tangents = this.tangents.get();
+        double[][] duals = this.duals.get();
+        double[] xs = registers[0], ys = registers[1];
+        int result = program2D.result;
+        int length = 0, index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                xs[length] = xi;
+                ys[length] = y + j * yStep;
+                if(++length == BLOCK_SIZE || (i == xSize - 1 && j == ySize - 1)) {
+                    program2D.runDerivative(registers, tangents, duals, seed, length);
+                    System.arraycopy(registers[result], 0, values, index, length);
+                    System.arraycopy(tangents[result * 3], 0, dx, index, length);
+                    System.arraycopy(tangents[result * 3 + 1], 0, dy, index, length);
+                    index += length;
+                    length = 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        double[][] registers = this.registers.get(), tangents = this.tangents.get();
+        double[][] duals = this.duals.get();
+        double[] xs = registers[0], ys = registers[1], zs = registers[2];
+        int result = program3D.result;
+        int length = 0, index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    xs[length] = xi;
+                    ys[length] = yj;
+                    zs[length] = z + k * zStep;
+                    if(++length == BLOCK_SIZE || (i == xSize - 1 && j == ySize - 1 && k == zSize - 1)) {
+                        program3D.runDerivative(registers, tangents, duals, seed, length);
+                        System.arraycopy(registers[result], 0, values, index, length);
+                        System.arraycopy(tangents[result * 3], 0, dx, index, length);
+                        System.arraycopy(tangents[result * 3 + 1], 0, dy, index, length);
+                        System.arraycopy(tangents[result * 3 + 2], 0, dz, index, length);
+                        index += length;
+                        length = 0;
+                    }
+                }
+            }
+        }
+    }
+
+
+    private static final class Program {
+        private final int[] code;
+        private final double[] constants;
+        private final long[] seeds;
+        private final Object[] objects;
+        private final int result;
+        private final int registers;
+        private final int instructions;
+        private final int dimensions;
+        private final boolean differentiable;
+
+        private Program(int[] code, double[] constants, long[] seeds, Object[] objects, int result, int registers, int instructions,
+                        int dimensions, boolean differentiable) {
+            this.code = code;
+            this.constants = constants;
+            this.seeds = seeds;
+            this.objects = objects;
+            this.result = result;
+            this.registers = registers;
+            this.instructions = instructions;
+            this.dimensions = dimensions;
+            this.differentiable = differentiable;
+        }
+
+        /**
+         * Runs the program over the first {@code length} points of the input registers, and copies the result to {@code out}.
+         */
+        private void run(double[][] r, long seed, int length, double[] out, int offset) {
+            int pc = 0;
+            while(pc < code.length) pc = execute(r, seed, length, pc);
+            System.arraycopy(r[result], 0, out, offset, length);
+        }
+
+        /**
+         * Runs the instruction at {@code pc} over the first {@code length} points of its input registers.
+         *
+         * @return the index of the next instruction.
+         */
+        private int execute(double[][] r, long seed, int length, int pc) {
+            int[] code = this.code;
+            double[] c = constants;
+            switch(code[pc]) {
+                case SAMPLE_2D -> {
+                    ((Sampler) objects[code[pc + 3]]).getSamples(seed + seeds[code[pc + 4]], r[code[pc + 1]], r[code[pc + 2]], length,
+                        r[code[pc + 5]], 0);
+                    pc += 6;
+                }
+                case SAMPLE_3D -> {
+                    ((Sampler) objects[code[pc + 4]]).getSamples(seed + seeds[code[pc + 5]], r[code[pc + 1]], r[code[pc + 2]],
+                        r[code[pc + 3]], length, r[code[pc + 6]], 0);
+                    pc += 7;
+                }
+                case FILL -> {
+                    Arrays.fill(r[code[pc + 2]], 0, length, c[code[pc + 1]]);
+                    pc += 3;
+                }
+                case SUBTRACT_CONSTANT -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    double value = c[code[pc + 2]];
+                    for(int i = 0; i < length; i++) o[i] = in[i] - value;
+                    pc += 4;
+                }
+                case MULTIPLY_CONSTANT -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    double value = c[code[pc + 2]];
+                    for(int i = 0; i < length; i++) o[i] = in[i] * value;
+                    pc += 4;
+                }
+                case WARP -> {
+                    double[] axis = r[code[pc + 1]], warp = r[code[pc + 2]], o = r[code[pc + 4]];
+                    double amplitude = c[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = axis[i] + warp[i] * amplitude;
+                    pc += 5;
+                }
+                case CLAMP -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    double min = c[code[pc + 2]], max = c[code[pc + 2] + 1];
+                    for(int i = 0; i < length; i++) o[i] = Math.max(Math.min(in[i], max), min);
+                    pc += 4;
+                }
+                case LINEAR -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    double min = c[code[pc + 2]], scale = c[code[pc + 2] + 1];
+                    for(int i = 0; i < length; i++) o[i] = (in[i] - min) * scale - 1;
+                    pc += 4;
+                }
+                case LINEAR_MAP -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    int k = code[pc + 2];
+                    double aFrom = c[k], numerator = c[k + 1], denominator = c[k + 2], aTo = c[k + 3];
+                    for(int i = 0; i < length; i++) o[i] = (in[i] - aFrom) * numerator / denominator + aTo;
+                    pc += 4;
+                }
+                case PROBABILITY -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 2]];
+                    for(int i = 0; i < length; i++) o[i] = (in[i] + 1) / 2;
+                    pc += 3;
+                }
+                case AFFINE -> {
+                    double[] in = r[code[pc + 1]], o = r[code[pc + 3]];
+                    int k = code[pc + 2];
+                    double scale = c[k], shift = c[k + 1], min = c[k + 2], max = c[k + 3];
+                    for(int i = 0; i < length; i++) o[i] = Math.max(Math.min(in[i] * scale + shift, max), min);
+                    pc += 4;
+                }
+                case NORMALIZE -> {
+                    System.arraycopy(r[code[pc + 1]], 0, r[code[pc + 3]], 0, length);
+                    ((Normalizer) objects[code[pc + 2]]).normalize(r[code[pc + 3]], 0, length);
+                    pc += 4;
+                }
+                case ADD -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = a[i] + b[i];
+                    pc += 4;
+                }
+                case SUBTRACT -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = a[i] - b[i];
+                    pc += 4;
+                }
+                case MULTIPLY -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = a[i] * b[i];
+                    pc += 4;
+                }
+                case DIVIDE -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = a[i] / b[i];
+                    pc += 4;
+                }
+                case MAX -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = Math.max(a[i], b[i]);
+                    pc += 4;
+                }
+                case MIN -> {
+                    double[] a = r[code[pc + 1]], b = r[code[pc + 2]], o = r[code[pc + 3]];
+                    for(int i = 0; i < length; i++) o[i] = Math.min(a[i], b[i]);
+                    pc += 4;
+                }
+                case OPERATE -> {
+                    System.arraycopy(r[code[pc + 1]], 0, r[code[pc + 4]], 0, length);
+                    ((BinaryArithmeticSampler) objects[code[pc + 3]]).operate(r[code[pc + 4]], 0, r[code[pc + 2]], length);
+                    pc += 5;
+                }
+                case HEIGHTMAP -> {
+                    double[] y = r[code[pc + 1]], in = r[code[pc + 2]], o = r[code[pc + 4]];
+                    double base = c[code[pc + 3]], scale = c[code[pc + 3] + 1];
+                    for(int i = 0; i < length; i++) o[i] = -y[i] + base + in[i] * scale;
+                    pc += 5;
+                }
+                case BROWNIAN_OCTAVE_2D, BROWNIAN_OCTAVE_3D -> {
+                    double[] noise = r[code[pc + 1]], sum = r[code[pc + 2]], amp = r[code[pc + 3]];
+                    double[] sumOut = r[code[pc + 5]], ampOut = r[code[pc + 6]];
+                    double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1];
+                    boolean is2D = code[pc] == BROWNIAN_OCTAVE_2D;
+                    for(int i = 0; i < length; i++) {
+                        double n = noise[i], a = amp[i];
+                        sumOut[i] = sum[i] + n * a;
+                        ampOut[i] = a * InterpolationFunctions.lerp(1.0, (is2D ? Math.min(n + 1, 2) : n + 1) * 0.5,
+                            weightedStrength) * gain;
+                    }
+                    pc += 7;
+                }
+                case RIDGED_OCTAVE -> {
+                    double[] noise = r[code[pc + 1]], sum = r[code[pc + 2]], amp = r[code[pc + 3]];
+                    double[] sumOut = r[code[pc + 5]], ampOut = r[code[pc + 6]];
+                    double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1];
+                    for(int i = 0; i < length; i++) {
+                        double n = Math.abs(noise[i]), a = amp[i];
+                        sumOut[i] = sum[i] + (n * -2 + 1) * a;
+                        ampOut[i] = a * InterpolationFunctions.lerp(1.0, 1 - n, weightedStrength) * gain;
+                    }
+                    pc += 7;
+                }
+                case PING_PONG_OCTAVE -> {
+                    double[] noise = r[code[pc + 1]], sum = r[code[pc + 2]], amp = r[code[pc + 3]];
+                    double[] sumOut = r[code[pc + 5]], ampOut = r[code[pc + 6]];
+                    double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1], strength = c[code[pc + 4] + 2];
+                    for(int i = 0; i < length; i++) {
+                        double n = PingPongSampler.pingPong((noise[i] + 1) * strength), a = amp[i];
+                        sumOut[i] = sum[i] + (n - 0.5) * 2 * a;
+                        ampOut[i] = a * InterpolationFunctions.lerp(1.0, n, weightedStrength) * gain;
+                    }
+                    pc += 7;
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+            return pc;
+        }
+
+        /**
+         * Runs the program over the first {@code length} points of the input registers as dual numbers, leaving the result in its
+         * register and the partial derivatives of each register {@code n} in tangent registers {@code 3 * n} onwards.
+         */
+        private void runDerivative(double[][] r, double[][] t, double[][] duals, long seed, int length) {
+            int pc = 0;
+            while(pc < code.length) {
+                if(code[pc] == SAMPLE_2D || code[pc] == SAMPLE_3D) {
+                    pc = sampleDerivative(r, t, duals[0], seed, length, pc);
+                } else {
+                    // Instructions never write the registers they read, so the inputs are still intact for the tangents
+                    int next = execute(r, seed, length, pc);
+                    tangent(r, t, duals, length, pc);
+                    pc = next;
+                }
+            }
+        }
+
+        /**
+         * Samples the value and derivative of the noise lookup at {@code pc}, and applies the chain rule through its coordinates.
+         *
+         * @return the index of the next instruction.
+         */
+        private int sampleDerivative(double[][] r, double[][] t, double[] sample, long seed, int length, int pc) {
+            int axes = code[pc] == SAMPLE_3D ? 3 : 2;
+            DerivativeSampler sampler = (DerivativeSampler) objects[code[pc + 1 + axes]];
+            long sampleSeed = seed + seeds[code[pc + 2 + axes]];
+            int out = code[pc + 3 + axes];
+            double[] xs = r[code[pc + 1]], ys = r[code[pc + 2]], zs = axes == 3 ? r[code[pc + 3]] : null, o = r[out];
+            // Noise functions report derivatives in their frequency-scaled coordinates
+            double scale = sampler instanceof DerivativeNoiseFunction noise ? noise.getFrequency() : 1;
+            for(int i = 0; i < length; i++) {
+                if(axes == 3) {
+                    sampler.getSampleDerivative(sampleSeed, xs[i], ys[i], zs[i], sample, 0);
+                } else {
+                    sampler.getSampleDerivative(sampleSeed, xs[i], ys[i], sample, 0);
+                }
+                o[i] = sample[0];
+                for(int axis = 0; axis < dimensions; axis++) {
+                    double derivative = 0;
+                    for(int a = 0; a < axes; a++) derivative += sample[1 + a] * t[code[pc + 1 + a] * 3 + axis][i];
+                    t[out * 3 + axis][i] = derivative * scale;
+                }
+            }
+            return pc + 4 + axes;
+        }
+
+        /**
+         * Propagates the tangents of the inputs of the instruction at {@code pc} to its outputs, after it has been executed.
+         */
+        private void tangent(double[][] r, double[][] t, double[][] duals, int length, int pc) {
+            int[] code = this.code;
+            double[] c = constants;
+            for(int axis = 0; axis < dimensions; axis++) {
+                switch(code[pc]) {
+                    case FILL -> Arrays.fill(t[code[pc + 2] * 3 + axis], 0, length, 0);
+                    case SUBTRACT_CONSTANT -> System.arraycopy(t[code[pc + 1] * 3 + axis], 0, t[code[pc + 3] * 3 + axis], 0, length);
+                    case MULTIPLY_CONSTANT, LINEAR -> {
+                        double[] in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        double value = c[code[pc + 2] + (code[pc] == LINEAR ? 1 : 0)];
+                        for(int i = 0; i < length; i++) o[i] = in[i] * value;
+                    }
+                    case WARP -> {
+                        double[] a = t[code[pc + 1] * 3 + axis], warp = t[code[pc + 2] * 3 + axis], o = t[code[pc + 4] * 3 + axis];
+                        double amplitude = c[code[pc + 3]];
+                        for(int i = 0; i < length; i++) o[i] = a[i] + warp[i] * amplitude;
+                    }
+                    case CLAMP -> {
+                        double[] v = r[code[pc + 1]], in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        double min = c[code[pc + 2]], max = c[code[pc + 2] + 1];
+                        for(int i = 0; i < length; i++) o[i] = v[i] >= min && v[i] <= max ? in[i] : 0;
+                    }
+                    case LINEAR_MAP -> {
+                        double[] in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        int k = code[pc + 2];
+                        double numerator = c[k + 1], denominator = c[k + 2];
+                        for(int i = 0; i < length; i++) o[i] = in[i] * numerator / denominator;
+                    }
+                    case PROBABILITY -> {
+                        double[] in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 2] * 3 + axis];
+                        for(int i = 0; i < length; i++) o[i] = in[i] / 2;
+                    }
+                    case AFFINE -> {
+                        double[] v = r[code[pc + 1]], in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        int k = code[pc + 2];
+                        double scale = c[k], shift = c[k + 1], min = c[k + 2], max = c[k + 3];
+                        for(int i = 0; i < length; i++) {
+                            double scaled = v[i] * scale + shift;
+                            o[i] = scaled >= min && scaled <= max ? in[i] * scale : 0;
+                        }
+                    }
+                    case NORMALIZE -> {
+                        double[] v = r[code[pc + 1]], in = t[code[pc + 1] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        Normalizer normalizer = (Normalizer) objects[code[pc + 2]];
+                        for(int i = 0; i < length; i++) o[i] = in[i] * normalizer.normalizeDerivative(v[i]);
+                    }
+                    case ADD, SUBTRACT -> {
+                        double[] a = t[code[pc + 1] * 3 + axis], b = t[code[pc + 2] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        double sign = code[pc] == ADD ? 1 : -1;
+                        for(int i = 0; i < length; i++) o[i] = a[i] + b[i] * sign;
+                    }
+                    case MULTIPLY -> {
+                        double[] av = r[code[pc + 1]], bv = r[code[pc + 2]];
+                        double[] a = t[code[pc + 1] * 3 + axis], b = t[code[pc + 2] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        for(int i = 0; i < length; i++) o[i] = a[i] * bv[i] + av[i] * b[i];
+                    }
+                    case DIVIDE -> {
+                        double[] av = r[code[pc + 1]], bv = r[code[pc + 2]];
+                        double[] a = t[code[pc + 1] * 3 + axis], b = t[code[pc + 2] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        for(int i = 0; i < length; i++) o[i] = (a[i] * bv[i] - av[i] * b[i]) / (bv[i] * bv[i]);
+                    }
+                    case MAX, MIN -> {
+                        // Ties take the right operand, as MaxSampler and MinSampler do
+                        double[] av = r[code[pc + 1]], bv = r[code[pc + 2]];
+                        double[] a = t[code[pc + 1] * 3 + axis], b = t[code[pc + 2] * 3 + axis], o = t[code[pc + 3] * 3 + axis];
+                        boolean max = code[pc] == MAX;
+                        for(int i = 0; i < length; i++) o[i] = (max ? av[i] > bv[i] : av[i] < bv[i]) ? a[i] : b[i];
+                    }
+                    case OPERATE -> {
+                        // Arbitrary operations only differentiate whole points, so all axes are propagated at once
+                        if(axis > 0) break;
+                        BinaryArithmeticSampler arithmetic = (BinaryArithmeticSampler) objects[code[pc + 3]];
+                        int left = code[pc + 1], right = code[pc + 2], out = code[pc + 4];
+                        double[] l = duals[0], rd = duals[1];
+                        for(int i = 0; i < length; i++) {
+                            l[0] = r[left][i];
+                            rd[0] = r[right][i];
+                            for(int a = 0; a < dimensions; a++) {
+                                l[1 + a] = t[left * 3 + a][i];
+                                rd[1 + a] = t[right * 3 + a][i];
+                            }
+                            arithmetic.operateDerivative(l, 0, rd, dimensions + 1);
+                            for(int a = 0; a < dimensions; a++) t[out * 3 + a][i] = l[1 + a];
+                        }
+                    }
+                    case HEIGHTMAP -> {
+                        double[] y = t[code[pc + 1] * 3 + axis], in = t[code[pc + 2] * 3 + axis], o = t[code[pc + 4] * 3 + axis];
+                        double scale = c[code[pc + 3] + 1];
+                        for(int i = 0; i < length; i++) o[i] = -y[i] + in[i] * scale;
+                    }
+                    case BROWNIAN_OCTAVE_2D, BROWNIAN_OCTAVE_3D -> {
+                        double[] noise = r[code[pc + 1]], amp = r[code[pc + 3]];
+                        double[] noiseT = t[code[pc + 1] * 3 + axis], sumT = t[code[pc + 2] * 3 + axis], ampT = t[code[pc + 3] * 3 + axis];
+                        double[] sumOut = t[code[pc + 5] * 3 + axis], ampOut = t[code[pc + 6] * 3 + axis];
+                        double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1];
+                        boolean is2D = code[pc] == BROWNIAN_OCTAVE_2D;
+                        for(int i = 0; i < length; i++) {
+                            double n = noise[i], a = amp[i];
+                            sumOut[i] = sumT[i] + noiseT[i] * a + n * ampT[i];
+                            // The 2D weight saturates once the noise reaches 1
+                            double slope = is2D && n + 1 >= 2 ? 0 : 0.5;
+                            double weight = InterpolationFunctions.lerp(1.0, (is2D ? Math.min(n + 1, 2) : n + 1) * 0.5, weightedStrength);
+                            ampOut[i] = (ampT[i] * weight + a * weightedStrength * slope * noiseT[i]) * gain;
+                        }
+                    }
+                    case RIDGED_OCTAVE -> {
+                        double[] noise = r[code[pc + 1]], amp = r[code[pc + 3]];
+                        double[] noiseT = t[code[pc + 1] * 3 + axis], sumT = t[code[pc + 2] * 3 + axis], ampT = t[code[pc + 3] * 3 + axis];
+                        double[] sumOut = t[code[pc + 5] * 3 + axis], ampOut = t[code[pc + 6] * 3 + axis];
+                        double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1];
+                        for(int i = 0; i < length; i++) {
+                            double n = Math.abs(noise[i]), nT = Math.signum(noise[i]) * noiseT[i], a = amp[i];
+                            sumOut[i] = sumT[i] + (n * -2 + 1) * ampT[i] - 2 * nT * a;
+                            double weight = InterpolationFunctions.lerp(1.0, 1 - n, weightedStrength);
+                            ampOut[i] = (ampT[i] * weight - a * weightedStrength * nT) * gain;
+                        }
+                    }
+                    case PING_PONG_OCTAVE -> {
+                        double[] noise = r[code[pc + 1]], amp = r[code[pc + 3]];
+                        double[] noiseT = t[code[pc + 1] * 3 + axis], sumT = t[code[pc + 2] * 3 + axis], ampT = t[code[pc + 3] * 3 + axis];
+                        double[] sumOut = t[code[pc + 5] * 3 + axis], ampOut = t[code[pc + 6] * 3 + axis];
+                        double weightedStrength = c[code[pc + 4]], gain = c[code[pc + 4] + 1], strength = c[code[pc + 4] + 2];
+                        for(int i = 0; i < length; i++) {
+                            double folded = (noise[i] + 1) * strength;
+                            double n = PingPongSampler.pingPong(folded), a = amp[i];
+                            double nT = PingPongSampler.pingPongDerivative(folded) * strength * noiseT[i];
+                            sumOut[i] = sumT[i] + (n - 0.5) * 2 * ampT[i] + 2 * nT * a;
+                            double weight = InterpolationFunctions.lerp(1.0, n, weightedStrength);
+                            ampOut[i] = (ampT[i] * weight + a * weightedStrength * nT) * gain;
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unknown opcode " + code[pc]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Flattens a sampler graph into a {@link Program}.
+     * <p>
+     * Instructions are first emitted over value numbers, each value being assigned exactly once. An instruction identical to one emitted
+     * before, i.e. the same operation on the same values with the same parameters, seed offset and sampler, is not emitted again but
+     * shares the earlier result. Since a subgraph reached again at the same seed and coordinates emits identical instructions, every such
+     * subgraph is evaluated once per block however many consumers it has, and the same holds for structurally identical subgraphs over
+     * the same samplers. Coordinates derived by translations, domain warps and fractal octaves are values as well, so subgraphs sampled at
+     * different coordinates or seeds are kept apart. Registers are then assigned to values, and released after their last use.
+     */
+    private static final class Assembler {
+        /**
+         * Number of value inputs, immediate operands and value outputs of each opcode, in the order they are encoded.
+         */
+        private static final int[][] LAYOUTS = {
+            { 2, 2, 1 }, // SAMPLE_2D: x, y, sampler, seed
+            { 3, 2, 1 }, // SAMPLE_3D: x, y, z, sampler, seed
+            { 0, 1, 1 }, // FILL: value
+            { 1, 1, 1 }, // SUBTRACT_CONSTANT
+            { 1, 1, 1 }, // MULTIPLY_CONSTANT
+            { 2, 1, 1 }, // WARP: axis, warp, amplitude
+            { 1, 1, 1 }, // CLAMP: min, max
+            { 1, 1, 1 }, // LINEAR: min, scale
+            { 1, 1, 1 }, // LINEAR_MAP: aFrom, aTo - bTo, aFrom - bFrom, aTo
+            { 1, 0, 1 }, // PROBABILITY
+            { 1, 1, 1 }, // AFFINE: scale, offset, min, max
+            { 1, 1, 1 }, // NORMALIZE: normalizer
+            { 2, 0, 1 }, // ADD
+            { 2, 0, 1 }, // SUBTRACT
+            { 2, 0, 1 }, // MULTIPLY
+            { 2, 0, 1 }, // DIVIDE
+            { 2, 0, 1 }, // MAX
+            { 2, 0, 1 }, // MIN
+            { 2, 1, 1 }, // OPERATE: arithmetic sampler
+            { 2, 1, 1 }, // HEIGHTMAP: y, sample, base, scale
+            { 3, 1, 2 }, // BROWNIAN_OCTAVE_2D: noise, sum, amp, weighted strength, gain
+            { 3, 1, 2 }, // BROWNIAN_OCTAVE_3D
+            { 3, 1, 2 }, // RIDGED_OCTAVE
+            { 3, 1, 2 }, // PING_PONG_OCTAVE: noise, sum, amp, weighted strength, gain, ping pong strength
+        };
+
+        private final int dimensions;
+        private final List<int[]> instructions = new ArrayList<>();
+        private final Map<List<Integer>, int[]> emitted = new HashMap<>();
+        // Values 0, 1 and 2 are the X, Y and Z coordinates of the block, held in registers 0, 1 and 2
+        private int values = 3;
+
+        private final List<Double> constants = new ArrayList<>();
+        private final Map<List<Double>, Integer> constantIndices = new HashMap<>();
+        private final List<Long> seeds = new ArrayList<>();
+        private final Map<Long, Integer> seedIndices = new HashMap<>();
+        private final List<Object> objects = new ArrayList<>();
+        private final Map<Object, Integer> objectIndices = new IdentityHashMap<>();
+
+        private Assembler(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        private Program assemble(Sampler sampler) {
+            int result = dimensions == 2 ? emit(sampler, 0, 0, 1, -1) : emit(sampler, 0, 0, 1, 2);
+
+            // Drop instructions whose results are never used
+            boolean[] live = new boolean[values];
+            live[result] = true;
+            List<int[]> program = new ArrayList<>();
+            for(int n = instructions.size() - 1; n >= 0; n--) {
+                int[] words = instructions.get(n);
+                int[] layout = LAYOUTS[words[0]];
+                boolean used = false;
+                for(int i = 0; i < layout[2]; i++) used |= live[words[1 + layout[0] + layout[1] + i]];
+                if(!used) continue;
+                for(int i = 0; i < layout[0]; i++) live[words[1 + i]] = true;
+                program.add(words);
+            }
+            Collections.reverse(program);
+
+            int[] lastUse = new int[values];
+            Arrays.fill(lastUse, -1);
+            for(int n = 0; n < program.size(); n++) {
+                int[] words = program.get(n);
+                for(int i = 0; i < LAYOUTS[words[0]][0]; i++) lastUse[words[1 + i]] = n;
+            }
+            lastUse[result] = program.size();
+
+            int[] registerOf = new int[values];
+            for(int i = 0; i < 3; i++) registerOf[i] = i;
+            List<Integer> freeRegisters = new ArrayList<>();
+            int registers = 3;
+            int[] code = new int[program.stream().mapToInt(words -> words.length).sum()];
+            int size = 0;
+            for(int n = 0; n < program.size(); n++) {
+                int[] words = program.get(n);
+                int[] layout = LAYOUTS[words[0]];
+                int outputs = 1 + layout[0] + layout[1];
+                for(int i = outputs; i < words.length; i++) {
+                    registerOf[words[i]] = freeRegisters.isEmpty() ? registers++ : freeRegisters.remove(freeRegisters.size() - 1);
+                }
+                // Inputs are released only after the outputs are allocated, so no instruction writes a register it reads
+                for(int i = 1; i < outputs; i++) {
+                    int value = words[i];
+                    if(i <= layout[0] && value > 2 && lastUse[value] == n) {
+                        freeRegisters.add(registerOf[value]);
+                        lastUse[value] = -1;
+                    }
+                }
+                for(int i = outputs; i < words.length; i++) {
+                    if(lastUse[words[i]] == -1) freeRegisters.add(registerOf[words[i]]);
+                }
+
+                code[size++] = words[0];
+                for(int i = 1; i < words.length; i++) {
+                    code[size++] = i <= layout[0] || i >= outputs ? registerOf[words[i]] : words[i];
+                }
+            }
+
+            double[] constants = new double[this.constants.size()];
+            for(int i = 0; i < constants.length; i++) constants[i] = this.constants.get(i);
+            long[] seeds = new long[this.seeds.size()];
+            for(int i = 0; i < seeds.length; i++) seeds[i] = this.seeds.get(i);
+            // Every other instruction has its derivative built in, so the program is differentiable when every sampler and normalizer it
+            // looks up is
+            boolean differentiable = true;
+            for(int[] words : program) {
+                if(words[0] == SAMPLE_2D || words[0] == SAMPLE_3D || words[0] == NORMALIZE) {
+                    differentiable &= DerivativeSampler.isDifferentiable((Sampler) objects.get(words[1 + LAYOUTS[words[0]][0]]));
+                }
+            }
+            return new Program(code, constants, seeds, objects.toArray(), registerOf[result], registers, program.size(), dimensions,
+                differentiable);
+        }
+
+        /**
+         * Emits an instruction, unless an identical one was emitted before.
+         *
+         * @param operands the value inputs followed by the immediate operands.
+         *
+         * @return the values the instruction outputs.
+         */
+        private int[] instruction(int opcode, int... operands) {
+            List<Integer> key = new ArrayList<>(operands.length + 1);
+            key.add(opcode);
+            for(int operand : operands) key.add(operand);
+            int[] outputs = emitted.get(key);
+            if(outputs == null) {
+                outputs = new int[LAYOUTS[opcode][2]];
+                for(int i = 0; i < outputs.length; i++) outputs[i] = values++;
+                int[] words = new int[1 + operands.length + outputs.length];
+                words[0] = opcode;
+                System.arraycopy(operands, 0, words, 1, operands.length);
+                System.arraycopy(outputs, 0, words, 1 + operands.length, outputs.length);
+                instructions.add(words);
+                emitted.put(key, outputs);
+            }
+            return outputs;
+        }
+
+        private int value(int opcode, int... operands) {
+            return instruction(opcode, operands)[0];
+        }
+
+        /**
+         * @return the index of the first of the given consecutive constants.
+         */
+        private int constant(double... values) {
+            List<Double> key = new ArrayList<>(values.length);
+            for(double value : values) key.add(value);
+            return constantIndices.computeIfAbsent(key, k -> {
+                int index = constants.size();
+                constants.addAll(k);
+                return index;
+            });
+        }
+
+        private int seed(long seed) {
+            return seedIndices.computeIfAbsent(seed, s -> {
+                seeds.add(s);
+                return seeds.size() - 1;
+            });
+        }
+
+        private int object(Object value) {
+            return objectIndices.computeIfAbsent(value, o -> {
+                objects.add(o);
+                return objects.size() - 1;
+            });
+        }
+
+        /**
+         * Emits the instructions computing {@code node} at the given seed offset and coordinate values, with {@code z} being {@code -1}
+         * for 2D sampling.
+         *
+         * @return the value holding the result.
+         */
+        private int emit(Sampler node, long seed, int x, int y, int z) {
+            Class<?> type = node.getClass();
+            if(type == ConstantSampler.class) {
+                return value(FILL, constant(((ConstantSampler) node).getConstant()));
+            } else if(node instanceof Normalizer normalizer && SamplerCompiler.inheritsSample(type, Normalizer.class)) {
+                return normalizer(normalizer, seed, x, y, z);
+            } else if(node instanceof BinaryArithmeticSampler arithmetic && SamplerCompiler.inheritsSample(type,
+                BinaryArithmeticSampler.class)) {
+                return arithmetic(arithmetic, seed, x, y, z);
+            } else if(type == TranslateSampler.class) {
+                return translate((TranslateSampler) node, seed, x, y, z);
+            } else if(type == DomainWarpedSampler.class) {
+                return domainWarp((DomainWarpedSampler) node, seed, x, y, z);
+            } else if(type == LinearHeightmapSampler.class) {
+                return heightmap((LinearHeightmapSampler) node, seed, x, y, z);
+            } else if(type == BrownianMotionSampler.class || type == RidgedFractalSampler.class || type == PingPongSampler.class) {
+                return fractal((FractalNoiseFunction) node, seed, x, y, z);
+            }
+            return z < 0 ? value(SAMPLE_2D, x, y, object(node), seed(seed)) : value(SAMPLE_3D, x, y, z, object(node), seed(seed));
+        }
+
+        private int normalizer(Normalizer normalizer, long seed, int x, int y, int z) {
+            Class<?> type = normalizer.getClass();
+            int in = emit(normalizer.getSampler(), seed, x, y, z);
+            if(type == ClampNormalizer.class) {
+                return value(CLAMP, in, constant(((ClampNormalizer) normalizer).getMin(), ((ClampNormalizer) normalizer).getMax()));
+            } else if(type == LinearNormalizer.class) {
+                LinearNormalizer linear = (LinearNormalizer) normalizer;
+                return value(LINEAR, in, constant(linear.getMin(), 2 / (linear.getMax() - linear.getMin())));
+            } else if(type == LinearMapNormalizer.class) {
+                LinearMapNormalizer map = (LinearMapNormalizer) normalizer;
+                return value(LINEAR_MAP, in,
+                    constant(map.getAFrom(), map.getATo() - map.getBTo(), map.getAFrom() - map.getBFrom(), map.getATo()));
+            } else if(type == ScaleNormalizer.class) {
+                return value(MULTIPLY_CONSTANT, in, constant(((ScaleNormalizer) normalizer).getScale()));
+            } else if(type == ProbabilityNormalizer.class) {
+                return value(PROBABILITY, in);
+            } else if(type == AffineNormalizer.class) {
+                AffineNormalizer affine = (AffineNormalizer) normalizer;
+                return value(AFFINE, in, constant(affine.getScale(), affine.getOffset(), affine.getMin(), affine.getMax()));
+            }
+            return value(NORMALIZE, in, object(normalizer));
+        }
+
+        private int arithmetic(BinaryArithmeticSampler arithmetic, long seed, int x, int y, int z) {
+            Class<?> type = arithmetic.getClass();
+            int left = emit(arithmetic.getLeft(), seed, x, y, z);
+            int right = emit(arithmetic.getRight(), seed, x, y, z);
+            if(type == AdditionSampler.class) {
+                return value(ADD, left, right);
+            } else if(type == SubtractionSampler.class) {
+                return value(SUBTRACT, left, right);
+            } else if(type == MultiplicationSampler.class) {
+                return value(MULTIPLY, left, right);
+            } else if(type == DivisionSampler.class) {
+                return value(DIVIDE, left, right);
+            } else if(type == MaxSampler.class) {
+                return value(MAX, left, right);
+            } else if(type == MinSampler.class) {
+                return value(MIN, left, right);
+            }
+            return value(OPERATE, left, right, object(arithmetic));
+        }
+
+        private int translate(TranslateSampler translate, long seed, int x, int y, int z) {
+            int tx = subtract(x, translate.getDx());
+            int ty = subtract(y, z < 0 ? translate.getDz() : translate.getDy());
+            int tz = z < 0 ? -1 : subtract(z, translate.getDz());
+            return emit(translate.getSampler(), seed, tx, ty, tz);
+        }
+
+        private int subtract(int value, double offset) {
+            return offset == 0 ? value : value(SUBTRACT_CONSTANT, value, constant(offset));
+        }
+
+        private int domainWarp(DomainWarpedSampler warped, long seed, int x, int y, int z) {
+            int amplitude = constant(warped.getAmplitude());
+            int wx = value(WARP, x, emit(warped.getWarp(), seed + 1, x, y, z), amplitude);
+            int wy = value(WARP, y, emit(warped.getWarp(), seed + 2, x, y, z), amplitude);
+            int wz = z < 0 ? -1 : value(WARP, z, emit(warped.getWarp(), seed + 3, x, y, z), amplitude);
+            return emit(warped.getFunction(), seed, wx, wy, wz);
+        }
+
+        private int heightmap(LinearHeightmapSampler heightmap, long seed, int x, int y, int z) {
+            if(z < 0) {
+                // 2D heightmaps sample at y = 0
+                z = y;
+                y = value(FILL, constant(0));
+            }
+            return value(HEIGHTMAP, y, emit(heightmap.getSampler(), seed, x, y, z), constant(heightmap.getBase(), heightmap.getScale()));
+        }
+
+        private int fractal(FractalNoiseFunction fractal, long seed, int x, int y, int z) {
+            Class<?> type = fractal.getClass();
+            int frequency = constant(fractal.getFrequency());
+            int fx = value(MULTIPLY_CONSTANT, x, frequency);
+            int fy = value(MULTIPLY_CONSTANT, y, frequency);
+            int fz = z < 0 ? -1 : value(MULTIPLY_CONSTANT, z, frequency);
+            int sum = value(FILL, constant(0));
+            int amp = value(FILL, constant(fractal.getFractalBounding()));
+
+            int opcode;
+            int parameters;
+            if(type == BrownianMotionSampler.class) {
+                opcode = z < 0 ? BROWNIAN_OCTAVE_2D : BROWNIAN_OCTAVE_3D;
+                parameters = constant(fractal.getWeightedStrength(), fractal.getGain());
+            } else if(type == RidgedFractalSampler.class) {
+                opcode = RIDGED_OCTAVE;
+                parameters = constant(fractal.getWeightedStrength(), fractal.getGain());
+            } else {
+                opcode = PING_PONG_OCTAVE;
+                parameters = constant(fractal.getWeightedStrength(), fractal.getGain(), ((PingPongSampler) fractal).getPingPongStrength());
+            }
+            int lacunarity = constant(fractal.getLacunarity());
+            long octaveSeed = seed + fractal.getSalt();
+            for(int i = 0, octaves = fractal.getOctaves(); i < octaves; i++) {
+                int noise = emit(fractal.getInput(), octaveSeed++, fx, fy, fz);
+                int[] next = instruction(opcode, noise, sum, amp, parameters);
+                sum = next[0];
+                amp = next[1];
+                if(i < octaves - 1) {
+                    fx = value(MULTIPLY_CONSTANT, fx, lacunarity);
+                    fy = value(MULTIPLY_CONSTANT, fy, lacunarity);
+                    if(z >= 0) fz = value(MULTIPLY_CONSTANT, fz, lacunarity);
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -7,6 +7,9 @@
 
 package com.dfsek.seismic.algorithms.sampler.noise;
 
+import java.util.Arrays;
+
+
 /**
  * Sampler3D implementation that returns a constant.
  */
@@ -18,6 +21,15 @@ public class ConstantSampler extends NoiseFunction {
         this.constant = constant;
     }
 
+    public double getConstant() {
+        return constant;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return 0;
+    }
+
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
         return constant;
@@ -27,4 +39,25 @@ public class ConstantSampler extends NoiseFunction {
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return constant;
     }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        Arrays.fill(out, offset, offset + xSize * ySize, constant);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        Arrays.fill(out, offset, offset + xSize * ySize * zSize, constant);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        Arrays.fill(out, offset, offset + count, constant);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        Arrays.fill(out, offset, offset + count, constant);
+    }
 }
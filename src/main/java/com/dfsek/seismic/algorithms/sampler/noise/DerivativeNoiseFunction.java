@@ -24,7 +24,131 @@ public abstract class DerivativeNoiseFunction extends NoiseFunction implements D
         return getNoiseDerivativeRaw(seed + salt, x * frequency, y * frequency, z * frequency);
     }
 
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        getNoiseDerivativeRaw(seed + salt, x * frequency, y * frequency, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        getNoiseDerivativeRaw(seed + salt, x * frequency, y * frequency, z * frequency, out, offset);
+    }
+
+    @Override
+    public void getSampleHessian(long seed, double x, double y, double[] out, int offset) {
+        getNoiseHessianRaw(seed + salt, x * frequency, y * frequency, out, offset);
+    }
+
+    @Override
+    public void getSampleHessian(long seed, double x, double y, double z, double[] out, int offset) {
+        getNoiseHessianRaw(seed + salt, x * frequency, y * frequency, z * frequency, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        long saltedSeed = seed + salt;
+        double[] sample = new double[3];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                getNoiseDerivativeRaw(saltedSeed, xi, (y + j * yStep) * frequency, sample, 0);
+                values[index] = sample[0];
+                dx[index] = sample[1];
+                dy[index++] = sample[2];
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        long saltedSeed = seed + salt;
+        double[] sample = new double[4];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yj = (y + j * yStep) * frequency;
+                for(int k = 0; k < zSize; k++) {
+                    getNoiseDerivativeRaw(saltedSeed, xi, yj, (z + k * zStep) * frequency, sample, 0);
+                    values[index] = sample[0];
+                    dx[index] = sample[1];
+                    dy[index] = sample[2];
+                    dz[index++] = sample[3];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        getNoiseDerivativeRawSeeds(seed + salt, x * frequency, y * frequency, count, out, offset);
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        getNoiseDerivativeRawSeeds(seed + salt, x * frequency, y * frequency, z * frequency, count, out, offset);
+    }
+
     public abstract double[] getNoiseDerivativeRaw(long seed, double x, double y);
 
     public abstract double[] getNoiseDerivativeRaw(long seed, double x, double y, double z);
+
+    /**
+     * Writes the raw noise value followed by its partial x and y derivatives to {@code out}, starting at {@code offset}.
+     * <p>
+     * Delegates to {@link #getNoiseDerivativeRaw(long, double, double)} by default; implementations may override this to avoid its
+     * allocation.
+     */
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double[] out, int offset) {
+        System.arraycopy(getNoiseDerivativeRaw(seed, x, y), 0, out, offset, 3);
+    }
+
+    /**
+     * Writes the raw noise value followed by its partial x, y and z derivatives to {@code out}, starting at {@code offset}.
+     * <p>
+     * Delegates to {@link #getNoiseDerivativeRaw(long, double, double, double)} by default; implementations may override this to avoid
+     * its allocation.
+     */
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        System.arraycopy(getNoiseDerivativeRaw(seed, x, y, z), 0, out, offset, 4);
+    }
+
+    /**
+     * Writes the raw noise value and partial x and y derivatives for each of {@code count} consecutive seeds, starting at {@code seed},
+     * to {@code out}, three values per seed.
+     */
+    public void getNoiseDerivativeRawSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            getNoiseDerivativeRaw(seed + n, x, y, out, offset + 3 * n);
+        }
+    }
+
+    /**
+     * Writes the raw noise value and partial x, y and z derivatives for each of {@code count} consecutive seeds, starting at
+     * {@code seed}, to {@code out}, four values per seed.
+     */
+    public void getNoiseDerivativeRawSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            getNoiseDerivativeRaw(seed + n, x, y, z, out, offset + 4 * n);
+        }
+    }
+
+    /**
+     * Writes the raw noise value, its partial x and y derivatives and its second partial xx, xy and yy derivatives to {@code out},
+     * starting at {@code offset}. Only implemented by functions which are twice differentiable.
+     */
+    public void getNoiseHessianRaw(long seed, double x, double y, double[] out, int offset) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isTwiceDifferentiable correctly");
+    }
+
+    /**
+     * Writes the raw noise value, its partial x, y and z derivatives and its second partial xx, xy, xz, yy, yz and zz derivatives to
+     * {@code out}, starting at {@code offset}. Only implemented by functions which are twice differentiable.
+     */
+    public void getNoiseHessianRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isTwiceDifferentiable correctly");
+    }
 }
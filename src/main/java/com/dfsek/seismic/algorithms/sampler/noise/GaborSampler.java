@@ -91,6 +91,11 @@ public class GaborSampler extends NoiseFunction {
         return gaborNoise(seed, x, z);
     }
 
+    @Override
+    public int getAxisDependencies() {
+        return AXIS_X | AXIS_Z;
+    }
+
     @Override
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return gaborNoise(seed, x, z);
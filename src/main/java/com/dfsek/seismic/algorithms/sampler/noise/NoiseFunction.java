@@ -34,6 +34,14 @@ public abstract class NoiseFunction implements Sampler {
         this.salt = salt;
     }
 
+    public double getFrequency() {
+        return frequency;
+    }
+
+    public long getSalt() {
+        return salt;
+    }
+
     @Override
     public double getSample(long seed, double x, double y) {
         return getNoiseRaw(seed + salt, x * frequency, y * frequency);
@@ -44,7 +52,168 @@ public abstract class NoiseFunction implements Sampler {
         return getNoiseRaw(seed + salt, x * frequency, y * frequency, z * frequency);
     }
 
+    @Override
+    public float getSampleFloat(long seed, double x, double y) {
+        return getNoiseRawFloat(seed + salt, x * frequency, y * frequency);
+    }
+
+    @Override
+    public float getSampleFloat(long seed, double x, double y, double z) {
+        return getNoiseRawFloat(seed + salt, x * frequency, y * frequency, z * frequency);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = getNoiseRaw(saltedSeed, xi, (y + j * yStep) * frequency);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        long saltedSeed = seed + salt;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yj = (y + j * yStep) * frequency;
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = getNoiseRaw(saltedSeed, xi, yj, (z + k * zStep) * frequency);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRaw(saltedSeed, xs[n] * frequency, ys[n] * frequency);
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRaw(saltedSeed, xs[n] * frequency, ys[n] * frequency, zs[n] * frequency);
+        }
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        getNoiseRawSeeds(seed + salt, x * frequency, y * frequency, count, out, offset);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        getNoiseRawSeeds(seed + salt, x * frequency, y * frequency, z * frequency, count, out, offset);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, float[] out, int offset) {
+        if(!hasNativeFloatNoise()) {
+            Sampler.super.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+            return;
+        }
+        long saltedSeed = seed + salt;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = getNoiseRawFloat(saltedSeed, xi, (y + j * yStep) * frequency);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, float[] out, int offset) {
+        if(!hasNativeFloatNoise()) {
+            Sampler.super.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+            return;
+        }
+        long saltedSeed = seed + salt;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yj = (y + j * yStep) * frequency;
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = getNoiseRawFloat(saltedSeed, xi, yj, (z + k * zStep) * frequency);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, float[] out, int offset) {
+        if(!hasNativeFloatNoise()) {
+            Sampler.super.getSamples(seed, xs, ys, count, out, offset);
+            return;
+        }
+        long saltedSeed = seed + salt;
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRawFloat(saltedSeed, xs[n] * frequency, ys[n] * frequency);
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, float[] out, int offset) {
+        if(!hasNativeFloatNoise()) {
+            Sampler.super.getSamples(seed, xs, ys, zs, count, out, offset);
+            return;
+        }
+        long saltedSeed = seed + salt;
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRawFloat(saltedSeed, xs[n] * frequency, ys[n] * frequency, zs[n] * frequency);
+        }
+    }
+
+    /**
+     * Whether this function overrides the {@code getNoiseRawFloat} methods with a native {@code float} implementation. When it does
+     * not, {@code float} batches are produced by narrowing the {@code double} batch methods instead.
+     *
+     * @return If {@code getNoiseRawFloat} is implemented in {@code float} arithmetic
+     */
+    protected boolean hasNativeFloatNoise() {
+        return false;
+    }
+
+    public float getNoiseRawFloat(long seed, double x, double y) {
+        return (float) getNoiseRaw(seed, x, y);
+    }
+
+    public float getNoiseRawFloat(long seed, double x, double y, double z) {
+        return (float) getNoiseRaw(seed, x, y, z);
+    }
+
     public abstract double getNoiseRaw(long seed, double x, double y);
 
     public abstract double getNoiseRaw(long seed, double x, double y, double z);
+
+    /**
+     * Writes the raw noise value for each of {@code count} consecutive seeds, starting at {@code seed}, to {@code out}.
+     */
+    public void getNoiseRawSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRaw(seed + n, x, y);
+        }
+    }
+
+    /**
+     * Writes the raw noise value for each of {@code count} consecutive seeds, starting at {@code seed}, to {@code out}.
+     */
+    public void getNoiseRawSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getNoiseRaw(seed + n, x, y, z);
+        }
+    }
 }
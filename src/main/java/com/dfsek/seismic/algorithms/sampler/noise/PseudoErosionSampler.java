@@ -29,6 +29,7 @@ public class PseudoErosionSampler extends NoiseFunction {
     private final double maxCellDistSq;
     private final double maxCellDistSqReciprocal;
     private final boolean averageErosionImpulses;
+    private final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(() -> new double[3]);
 
     public PseudoErosionSampler(double frequency, long salt, int octaves, double gain, double lacunarity, double slopeStrength,
                                 double branchStrength,
@@ -55,6 +56,11 @@ public class PseudoErosionSampler extends NoiseFunction {
         this.maxCellDistSqReciprocal = 1 / maxCellDistSq;
     }
 
+    @Override
+    public int getAxisDependencies() {
+        return AXIS_X | AXIS_Z;
+    }
+
     public static double hashX(double seed, double n) {
         // Swapped the components here
         double nx = PseudoErosionSampler.HASH_X * n * seed;
@@ -67,6 +73,15 @@ public class PseudoErosionSampler extends NoiseFunction {
     }
 
     public double[] erosion(int seed, double x, double y, double dirX, double dirY) {
+        double[] out = new double[3];
+        erosion(seed, x, y, dirX, dirY, out, 0);
+        return out;
+    }
+
+    /**
+     * Writes the erosion noise value followed by its x and y direction to {@code out}, starting at {@code offset}.
+     */
+    public void erosion(int seed, double x, double y, double dirX, double dirY, double[] out, int offset) {
         int gridX = FloatingPointFunctions.floor(x);
         int gridY = FloatingPointFunctions.floor(y);
         double noise = 0.0f;
@@ -99,11 +114,15 @@ public class PseudoErosionSampler extends NoiseFunction {
             dirOutX /= cumAmp;
             dirOutY /= cumAmp;
         }
-        return new double[]{ noise, dirOutX, dirOutY };
+        out[offset] = noise;
+        out[offset + 1] = dirOutX;
+        out[offset + 2] = dirOutY;
     }
 
     public double heightMap(long seed, double x, double y) {
-        double[] sample = sampler.getSampleDerivative(seed, x, y);
+        // Shared between the height derivative and each erosion octave, which are consumed before the next write
+        double[] sample = scratch.get();
+        sampler.getSampleDerivative(seed, x, y, sample, 0);
         double height = sample[0];
         double heightDirX = sample[1];
         double heightDirY = sample[2];
@@ -121,14 +140,15 @@ public class PseudoErosionSampler extends NoiseFunction {
 
         // Stack erosion octaves
         for(int i = 0; i < octaves; i++) {
-            double[] erosionResult = erosion((int) seed,
+            erosion((int) seed,
                 x * freq * erosionFrequency,
                 y * freq * erosionFrequency,
                 ArithmeticFunctions.fma(dirY, branchStrength, baseDirX),
-                baseDirY - dirX * branchStrength);
-            erosion = ArithmeticFunctions.fma(erosionResult[0], amp, erosion);
-            dirX = ArithmeticFunctions.fma(erosionResult[1], amp * freq, dirX);
-            dirY = ArithmeticFunctions.fma(erosionResult[2], amp * freq, dirY);
+                baseDirY - dirX * branchStrength,
+                sample, 0);
+            erosion = ArithmeticFunctions.fma(sample[0], amp, erosion);
+            dirX = ArithmeticFunctions.fma(sample[1], amp * freq, dirX);
+            dirY = ArithmeticFunctions.fma(sample[2], amp * freq, dirY);
             cumAmp += amp;
             amp *= gain;
             freq *= lacunarity;
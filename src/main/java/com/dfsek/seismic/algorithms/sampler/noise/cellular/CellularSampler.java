@@ -20,6 +20,27 @@ import com.dfsek.seismic.util.UnsafeUtils;
  * NoiseSampler implementation for Cellular (Voronoi/Worley) Noise.
  */
 public class CellularSampler extends CellularStyleSampler {
+    /**
+     * Largest number of cells a grid may span before falling back to per-sample evaluation.
+     */
+    private static final int MAX_BATCH_CELLS = 1 << 16;
+    /**
+     * Cell offsets visited by the 2D kernel, in evaluation order.
+     */
+    private static final int[] NEIGHBORS_2D = {
+        0, 0, 0, 1, 0, -1, -1, 0, 1, 0, 1, 1, 1, -1, -1, -1, -1, 1
+    };
+    /**
+     * Cell offsets visited by the 3D kernel, in evaluation order.
+     */
+    private static final int[] NEIGHBORS_3D = {
+        0, 0, 0, 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1,
+        1, 1, 0, 1, -1, 0, -1, 1, 0, -1, -1, 0,
+        1, 0, 1, 1, 0, -1, -1, 0, 1, -1, 0, -1,
+        0, 1, 1, 0, 1, -1, 0, -1, 1, 0, -1, -1,
+        1, 1, 1, 1, 1, -1, 1, -1, 1, 1, -1, -1, -1, 1, 1, -1, 1, -1, -1, -1, 1, -1, -1, -1
+    };
+
     private final boolean needsDistance2;
     private final boolean needsDistance3;
     private final boolean needsClosestHash;
@@ -28,6 +49,10 @@ public class CellularSampler extends CellularStyleSampler {
     private final boolean needsDistance1Sq;
     private final boolean needsDistance2Sq;
     private final boolean needs3dCoords;
+    /**
+     * Vectors to the three nearest feature points while sampling derivatives, replaced by the gradients of their distances.
+     */
+    private final ThreadLocal<double[]> nearestVectors = ThreadLocal.withInitial(() -> new double[9]);
 
     public CellularSampler(double frequency, long salt, Sampler noiseLookup, DistanceFunction distanceFunction,
                            CellularReturnType returnType,
@@ -435,7 +460,7 @@ public class CellularSampler extends CellularStyleSampler {
         int yr = FloatingPointFunctions.round(y);
         int zr = FloatingPointFunctions.round(z);
 
-        NoiseState3D state = new NoiseState3D(
+        NoiseState state = new NoiseState(
             Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
             0,
             x, y, z
@@ -539,8 +564,594 @@ public class CellularSampler extends CellularStyleSampler {
             state.centerZ, state.closestHash);
     }
 
+    @Override
+    public boolean isDifferentiable() {
+        return returnType.isDifferentiable();
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        int xr = FloatingPointFunctions.round(x);
+        int yr = FloatingPointFunctions.round(y);
+        double[] vecs = CellularStyleSampler.RAND_VECS_2D;
+        double[] vectors = nearestVectors.get();
+
+        double distance0 = Double.MAX_VALUE;
+        double distance1 = Double.MAX_VALUE;
+        double distance2 = Double.MAX_VALUE;
+        for(int n = 0; n < NEIGHBORS_2D.length; n += 2) {
+            int dx = NEIGHBORS_2D[n];
+            int dy = NEIGHBORS_2D[n + 1];
+            int hash = HashingFunctions.hashPrimeCoords(seed, (xr + dx) * NoiseFunction.PRIME_X, (yr + dy) * NoiseFunction.PRIME_Y);
+            int idx = hash & (255 << 1);
+
+            double vecX = ArithmeticFunctions.fma(vecs[idx], twoDCellularJitter, (xr + dx) - x);
+            double vecY = ArithmeticFunctions.fma(vecs[idx | 1], twoDCellularJitter, (yr + dy) - y);
+
+            double newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+                case Manhattan -> Math.abs(vecX) + Math.abs(vecY);
+                case Hybrid -> (Math.abs(vecX) + Math.abs(vecY)) + ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+            };
+
+            int slot;
+            if(newDistance < distance0) {
+                distance2 = distance1;
+                distance1 = distance0;
+                distance0 = newDistance;
+                slot = 0;
+            } else if(newDistance < distance1) {
+                distance2 = distance1;
+                distance1 = newDistance;
+                slot = 1;
+            } else if(newDistance < distance2) {
+                distance2 = newDistance;
+                slot = 2;
+            } else {
+                continue;
+            }
+            System.arraycopy(vectors, slot * 2, vectors, slot * 2 + 2, 4 - slot * 2);
+            vectors[slot * 2] = vecX;
+            vectors[slot * 2 + 1] = vecY;
+        }
+
+        distance0 = distanceGradient(vectors, 0, 2, distance0);
+        distance1 = distanceGradient(vectors, 2, 2, distance1);
+        distance2 = distanceGradient(vectors, 4, 2, distance2);
+
+        out[offset] = returnType.getReturn(this, sl, distance0, distance1, distance2, x, y, x, y, 0);
+        returnType.getReturnDerivative(distance0, distance1, distance2, vectors, 2, out, offset + 1);
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        int xr = FloatingPointFunctions.round(x);
+        int yr = FloatingPointFunctions.round(y);
+        int zr = FloatingPointFunctions.round(z);
+        double[] vecs = CellularStyleSampler.RAND_VECS_3D;
+        double[] vectors = nearestVectors.get();
+
+        double distance0 = Double.MAX_VALUE;
+        double distance1 = Double.MAX_VALUE;
+        double distance2 = Double.MAX_VALUE;
+        for(int n = 0; n < NEIGHBORS_3D.length; n += 3) {
+            int dx = NEIGHBORS_3D[n];
+            int dy = NEIGHBORS_3D[n + 1];
+            int dz = NEIGHBORS_3D[n + 2];
+            int hash = HashingFunctions.hashPrimeCoords(seed, (xr + dx) * NoiseFunction.PRIME_X, (yr + dy) * NoiseFunction.PRIME_Y,
+                (zr + dz) * NoiseFunction.PRIME_Z);
+            int idx = hash & (255 << 2);
+
+            double vecX = ArithmeticFunctions.fma(vecs[idx], threeDCellularJitter, (xr + dx) - x);
+            double vecY = ArithmeticFunctions.fma(vecs[idx | 1], threeDCellularJitter, (yr + dy) - y);
+            double vecZ = ArithmeticFunctions.fma(vecs[idx | 2], threeDCellularJitter, (zr + dz) - z);
+
+            double newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX, ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
+                case Manhattan -> Math.abs(vecX) + Math.abs(vecY) + Math.abs(vecZ);
+                case Hybrid -> (Math.abs(vecX) + Math.abs(vecY) + Math.abs(vecZ)) + ArithmeticFunctions.fma(vecX, vecX,
+                    ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
+            };
+
+            int slot;
+            if(newDistance < distance0) {
+                distance2 = distance1;
+                distance1 = distance0;
+                distance0 = newDistance;
+                slot = 0;
+            } else if(newDistance < distance1) {
+                distance2 = distance1;
+                distance1 = newDistance;
+                slot = 1;
+            } else if(newDistance < distance2) {
+                distance2 = newDistance;
+                slot = 2;
+            } else {
+                continue;
+            }
+            System.arraycopy(vectors, slot * 3, vectors, slot * 3 + 3, 6 - slot * 3);
+            vectors[slot * 3] = vecX;
+            vectors[slot * 3 + 1] = vecY;
+            vectors[slot * 3 + 2] = vecZ;
+        }
+
+        distance0 = distanceGradient(vectors, 0, 3, distance0);
+        distance1 = distanceGradient(vectors, 3, 3, distance1);
+        distance2 = distanceGradient(vectors, 6, 3, distance2);
+
+        out[offset] = returnType.getReturn(this, sl, distance0, distance1, distance2, x, y, z, x, y, z, 0);
+        returnType.getReturnDerivative(distance0, distance1, distance2, vectors, 3, out, offset + 1);
+    }
+
+    /**
+     * Replaces the vector from the sample position to a feature point with the gradient of its distance with respect to the sample
+     * position.
+     *
+     * @return the distance as passed to the return type, which is the square root of {@code distance} for
+     * {@link DistanceFunction#Euclidean}.
+     */
+    private double distanceGradient(double[] vectors, int base, int dimensions, double distance) {
+        switch(distanceFunction) {
+            case Euclidean -> {
+                distance = Math.sqrt(distance);
+                // The gradient is undefined on a feature point itself
+                double scale = distance > 0 ? -1 / distance : 0;
+                for(int i = base; i < base + dimensions; i++) {
+                    vectors[i] *= scale;
+                }
+            }
+            case EuclideanSq -> {
+                for(int i = base; i < base + dimensions; i++) {
+                    vectors[i] *= -2;
+                }
+            }
+            case Manhattan -> {
+                for(int i = base; i < base + dimensions; i++) {
+                    vectors[i] = -Math.signum(vectors[i]);
+                }
+            }
+            case Hybrid -> {
+                for(int i = base; i < base + dimensions; i++) {
+                    vectors[i] = ArithmeticFunctions.fma(-2, vectors[i], -Math.signum(vectors[i]));
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        if(xSize <= 0 || ySize <= 0) return;
+        double xStart = x * frequency, xEnd = (x + (xSize - 1) * xStep) * frequency;
+        double yStart = y * frequency, yEnd = (y + (ySize - 1) * yStep) * frequency;
+        int minX = Math.min(FloatingPointFunctions.round(xStart), FloatingPointFunctions.round(xEnd)) - 1;
+        int minY = Math.min(FloatingPointFunctions.round(yStart), FloatingPointFunctions.round(yEnd)) - 1;
+        long width = (long) Math.max(FloatingPointFunctions.round(xStart), FloatingPointFunctions.round(xEnd)) + 2 - minX;
+        long height = (long) Math.max(FloatingPointFunctions.round(yStart), FloatingPointFunctions.round(yEnd)) + 2 - minY;
+        if(width * height > MAX_BATCH_CELLS) {
+            super.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+            return;
+        }
+        int w = (int) width, h = (int) height;
+
+        long sl = seed + salt;
+        int[] hashes = new int[w * h];
+        double[] points = new double[w * h * 2];
+        CellularSampler.hashCells2D((int) sl, minX, minY, w, h, hashes, points);
+        int[] neighbors = CellularSampler.neighborOffsets2D(h);
+
+        NoiseState state = new NoiseState(0, 0, 0, 0, 0, 0, 0);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int xr = FloatingPointFunctions.round(xf);
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                int yr = FloatingPointFunctions.round(yf);
+                int center = (xr - minX) * h + (yr - minY);
+                out[index++] = sampleCells2D(state, sl, hashes, points, neighbors, center, xr, yr, xf, yf);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(xSize <= 0 || ySize <= 0 || zSize <= 0) return;
+        double xStart = x * frequency, xEnd = (x + (xSize - 1) * xStep) * frequency;
+        double yStart = y * frequency, yEnd = (y + (ySize - 1) * yStep) * frequency;
+        double zStart = z * frequency, zEnd = (z + (zSize - 1) * zStep) * frequency;
+        int minX = Math.min(FloatingPointFunctions.round(xStart), FloatingPointFunctions.round(xEnd)) - 1;
+        int minY = Math.min(FloatingPointFunctions.round(yStart), FloatingPointFunctions.round(yEnd)) - 1;
+        int minZ = Math.min(FloatingPointFunctions.round(zStart), FloatingPointFunctions.round(zEnd)) - 1;
+        long width = (long) Math.max(FloatingPointFunctions.round(xStart), FloatingPointFunctions.round(xEnd)) + 2 - minX;
+        long height = (long) Math.max(FloatingPointFunctions.round(yStart), FloatingPointFunctions.round(yEnd)) + 2 - minY;
+        long depth = (long) Math.max(FloatingPointFunctions.round(zStart), FloatingPointFunctions.round(zEnd)) + 2 - minZ;
+        if(width * height * depth > MAX_BATCH_CELLS) {
+            super.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+            return;
+        }
+        int w = (int) width, h = (int) height, d = (int) depth;
+
+        long sl = seed + salt;
+        int[] hashes = new int[w * h * d];
+        double[] points = new double[w * h * d * 3];
+        CellularSampler.hashCells3D((int) sl, minX, minY, minZ, w, h, d, hashes, points);
+        int[] neighbors = CellularSampler.neighborOffsets3D(h, d);
+
+        NoiseState state = new NoiseState(0, 0, 0, 0, 0, 0, 0);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int xr = FloatingPointFunctions.round(xf);
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                int yr = FloatingPointFunctions.round(yf);
+                for(int k = 0; k < zSize; k++) {
+                    double zf = (z + k * zStep) * frequency;
+                    int zr = FloatingPointFunctions.round(zf);
+                    int center = ((xr - minX) * h + (yr - minY)) * d + (zr - minZ);
+                    out[index++] = sampleCells3D(state, sl, hashes, points, neighbors, center, xr, yr, zr, xf, yf, zf);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        if(count <= 0) return;
+        // Bucket the points by the cells they can reach, so that each cell is hashed once no matter how many points share it.
+        double[] xf = new double[count];
+        double[] yf = new double[count];
+        int[] xr = new int[count];
+        int[] yr = new int[count];
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for(int n = 0; n < count; n++) {
+            xf[n] = xs[n] * frequency;
+            yf[n] = ys[n] * frequency;
+            xr[n] = FloatingPointFunctions.round(xf[n]);
+            yr[n] = FloatingPointFunctions.round(yf[n]);
+            minX = Math.min(minX, xr[n]);
+            maxX = Math.max(maxX, xr[n]);
+            minY = Math.min(minY, yr[n]);
+            maxY = Math.max(maxY, yr[n]);
+        }
+        long width = (long) maxX - minX + 3;
+        long height = (long) maxY - minY + 3;
+        if(width * height > MAX_BATCH_CELLS || width * height > 9L * count) {
+            super.getSamples(seed, xs, ys, count, out, offset);
+            return;
+        }
+        int w = (int) width, h = (int) height;
+        minX--;
+        minY--;
+
+        long sl = seed + salt;
+        int[] hashes = new int[w * h];
+        double[] points = new double[w * h * 2];
+        CellularSampler.hashCells2D((int) sl, minX, minY, w, h, hashes, points);
+        int[] neighbors = CellularSampler.neighborOffsets2D(h);
+
+        NoiseState state = new NoiseState(0, 0, 0, 0, 0, 0, 0);
+        for(int n = 0; n < count; n++) {
+            int center = (xr[n] - minX) * h + (yr[n] - minY);
+            out[offset + n] = sampleCells2D(state, sl, hashes, points, neighbors, center, xr[n], yr[n], xf[n], yf[n]);
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        if(count <= 0) return;
+        double[] xf = new double[count];
+        double[] yf = new double[count];
+        double[] zf = new double[count];
+        int[] xr = new int[count];
+        int[] yr = new int[count];
+        int[] zr = new int[count];
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        int minZ = Integer.MAX_VALUE, maxZ = Integer.MIN_VALUE;
+        for(int n = 0; n < count; n++) {
+            xf[n] = xs[n] * frequency;
+            yf[n] = ys[n] * frequency;
+            zf[n] = zs[n] * frequency;
+            xr[n] = FloatingPointFunctions.round(xf[n]);
+            yr[n] = FloatingPointFunctions.round(yf[n]);
+            zr[n] = FloatingPointFunctions.round(zf[n]);
+            minX = Math.min(minX, xr[n]);
+            maxX = Math.max(maxX, xr[n]);
+            minY = Math.min(minY, yr[n]);
+            maxY = Math.max(maxY, yr[n]);
+            minZ = Math.min(minZ, zr[n]);
+            maxZ = Math.max(maxZ, zr[n]);
+        }
+        long width = (long) maxX - minX + 3;
+        long height = (long) maxY - minY + 3;
+        long depth = (long) maxZ - minZ + 3;
+        if(width * height * depth > MAX_BATCH_CELLS || width * height * depth > 27L * count) {
+            super.getSamples(seed, xs, ys, zs, count, out, offset);
+            return;
+        }
+        int w = (int) width, h = (int) height, d = (int) depth;
+        minX--;
+        minY--;
+        minZ--;
+
+        long sl = seed + salt;
+        int[] hashes = new int[w * h * d];
+        double[] points = new double[w * h * d * 3];
+        CellularSampler.hashCells3D((int) sl, minX, minY, minZ, w, h, d, hashes, points);
+        int[] neighbors = CellularSampler.neighborOffsets3D(h, d);
+
+        NoiseState state = new NoiseState(0, 0, 0, 0, 0, 0, 0);
+        for(int n = 0; n < count; n++) {
+            int center = ((xr[n] - minX) * h + (yr[n] - minY)) * d + (zr[n] - minZ);
+            out[offset + n] = sampleCells3D(state, sl, hashes, points, neighbors, center, xr[n], yr[n], zr[n], xf[n], yf[n], zf[n]);
+        }
+    }
+
+    /**
+     * Fills the hash and unjittered feature point offset of every cell in a {@code w * h} region, X-major.
+     */
+    private static void hashCells2D(int seed, int minX, int minY, int w, int h, int[] hashes, double[] points) {
+        double[] vecs = CellularSampler.RAND_VECS_2D;
+        for(int cx = 0; cx < w; cx++) {
+            int xPrimed = (minX + cx) * NoiseFunction.PRIME_X;
+            for(int cy = 0; cy < h; cy++) {
+                int cell = cx * h + cy;
+                int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, (minY + cy) * NoiseFunction.PRIME_Y);
+                int idx = hash & (255 << 1);
+                hashes[cell] = hash;
+                points[cell * 2] = vecs[idx];
+                points[cell * 2 + 1] = vecs[idx | 1];
+            }
+        }
+    }
+
+    /**
+     * Fills the hash and unjittered feature point offset of every cell in a {@code w * h * d} region, X-major.
+     */
+    private static void hashCells3D(int seed, int minX, int minY, int minZ, int w, int h, int d, int[] hashes, double[] points) {
+        double[] vecs = CellularSampler.RAND_VECS_3D;
+        for(int cx = 0; cx < w; cx++) {
+            int xPrimed = (minX + cx) * NoiseFunction.PRIME_X;
+            for(int cy = 0; cy < h; cy++) {
+                int yPrimed = (minY + cy) * NoiseFunction.PRIME_Y;
+                for(int cz = 0; cz < d; cz++) {
+                    int cell = (cx * h + cy) * d + cz;
+                    int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, yPrimed, (minZ + cz) * NoiseFunction.PRIME_Z);
+                    int idx = hash & (255 << 2);
+                    hashes[cell] = hash;
+                    points[cell * 3] = vecs[idx];
+                    points[cell * 3 + 1] = vecs[idx | 1];
+                    points[cell * 3 + 2] = vecs[idx | 2];
+                }
+            }
+        }
+    }
+
+    private static int[] neighborOffsets2D(int h) {
+        int[] neighbors = new int[NEIGHBORS_2D.length / 2];
+        for(int n = 0; n < neighbors.length; n++) {
+            neighbors[n] = NEIGHBORS_2D[n * 2] * h + NEIGHBORS_2D[n * 2 + 1];
+        }
+        return neighbors;
+    }
+
+    private static int[] neighborOffsets3D(int h, int d) {
+        int[] neighbors = new int[NEIGHBORS_3D.length / 3];
+        for(int n = 0; n < neighbors.length; n++) {
+            neighbors[n] = (NEIGHBORS_3D[n * 3] * h + NEIGHBORS_3D[n * 3 + 1]) * d + NEIGHBORS_3D[n * 3 + 2];
+        }
+        return neighbors;
+    }
+
+    /**
+     * Evaluates a 2D sample from a table filled by {@link #hashCells2D}, {@code center} being the table index of the nearest cell.
+     */
+    private double sampleCells2D(NoiseState state, long sl, int[] hashes, double[] points, int[] neighbors, int center, int xr, int yr,
+                                 double xf, double yf) {
+        state.reset(xf, yf, 0);
+        for(int n = 0; n < neighbors.length; n++) {
+            int cell = center + neighbors[n];
+            double vecX = ArithmeticFunctions.fma(points[cell * 2], twoDCellularJitter, (xr + NEIGHBORS_2D[n * 2]) - xf);
+            double vecY = ArithmeticFunctions.fma(points[cell * 2 + 1], twoDCellularJitter, (yr + NEIGHBORS_2D[n * 2 + 1]) - yf);
+            updateState2D(state, hashes[cell], vecX, vecY, xf, yf);
+        }
+
+        if(needsDistance0Sq) {
+            state.distance0 = Math.sqrt(state.distance0);
+        }
+        if(needsDistance1Sq) {
+            state.distance1 = Math.sqrt(state.distance1);
+        }
+        if(needsDistance2Sq) {
+            state.distance2 = Math.sqrt(state.distance2);
+        }
+
+        return returnType.getReturn(this, sl, state.distance0, state.distance1, state.distance2, xf, yf, state.centerX, state.centerY,
+            state.closestHash);
+    }
+
+    /**
+     * Evaluates a 3D sample from a table filled by {@link #hashCells3D}, {@code center} being the table index of the nearest cell.
+     */
+    private double sampleCells3D(NoiseState state, long sl, int[] hashes, double[] points, int[] neighbors, int center, int xr, int yr,
+                                 int zr, double xf, double yf, double zf) {
+        state.reset(xf, yf, zf);
+        for(int n = 0; n < neighbors.length; n++) {
+            int cell = center + neighbors[n];
+            double vecX = ArithmeticFunctions.fma(points[cell * 3], threeDCellularJitter, (xr + NEIGHBORS_3D[n * 3]) - xf);
+            double vecY = ArithmeticFunctions.fma(points[cell * 3 + 1], threeDCellularJitter, (yr + NEIGHBORS_3D[n * 3 + 1]) - yf);
+            double vecZ = ArithmeticFunctions.fma(points[cell * 3 + 2], threeDCellularJitter, (zr + NEIGHBORS_3D[n * 3 + 2]) - zf);
+            updateState3D(state, hashes[cell], vecX, vecY, vecZ, xf, yf, zf);
+        }
+
+        if(needsDistance0Sq) {
+            state.distance0 = Math.sqrt(state.distance0);
+        }
+        if(needsDistance1Sq) {
+            state.distance1 = Math.sqrt(state.distance1);
+        }
+        if(needsDistance2Sq) {
+            state.distance2 = Math.sqrt(state.distance2);
+        }
+
+        return returnType.getReturn(this, sl, state.distance0, state.distance1, state.distance2, xf, yf, zf, state.centerX,
+            state.centerY, state.centerZ, state.closestHash);
+    }
+
+    @Override
+    protected boolean hasNativeFloatNoise() {
+        return true;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y) {
+        int seed = (int) sl;
+        int xr = FloatingPointFunctions.round(x);
+        int yr = FloatingPointFunctions.round(y);
+        // Offsets from the nearest cell centre are small, so they stay accurate in float however large the coordinates are.
+        float xf = (float) (x - xr);
+        float yf = (float) (y - yr);
+        float jitter = (float) twoDCellularJitter;
+        float[] vecs = CellularStyleSampler.RAND_VECS_2D_FLOAT;
+
+        NoiseState state = new NoiseState(Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, 0, x, y, 0);
+        for(int n = 0; n < NEIGHBORS_2D.length; n += 2) {
+            int dx = NEIGHBORS_2D[n];
+            int dy = NEIGHBORS_2D[n + 1];
+            int hash = HashingFunctions.hashPrimeCoords(seed, (xr + dx) * NoiseFunction.PRIME_X, (yr + dy) * NoiseFunction.PRIME_Y);
+            int idx = hash & (255 << 1);
+
+            float vecX = ArithmeticFunctions.fma(vecs[idx], jitter, dx - xf);
+            float vecY = ArithmeticFunctions.fma(vecs[idx | 1], jitter, dy - yf);
+
+            float newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+                case Manhattan -> Math.abs(vecX) + Math.abs(vecY);
+                case Hybrid -> (Math.abs(vecX) + Math.abs(vecY)) + ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+            };
+            insertDistance2D(state, hash, newDistance, vecX, vecY, x, y);
+        }
+
+        if(needsDistance0Sq) {
+            state.distance0 = Math.sqrt(state.distance0);
+        }
+        if(needsDistance1Sq) {
+            state.distance1 = Math.sqrt(state.distance1);
+        }
+        if(needsDistance2Sq) {
+            state.distance2 = Math.sqrt(state.distance2);
+        }
+
+        return (float) returnType.getReturn(this, sl, state.distance0, state.distance1, state.distance2, x, y, state.centerX,
+            state.centerY, state.closestHash);
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y, double z) {
+        int seed = (int) sl;
+        int xr = FloatingPointFunctions.round(x);
+        int yr = FloatingPointFunctions.round(y);
+        int zr = FloatingPointFunctions.round(z);
+        float xf = (float) (x - xr);
+        float yf = (float) (y - yr);
+        float zf = (float) (z - zr);
+        float jitter = (float) threeDCellularJitter;
+        float[] vecs = CellularStyleSampler.RAND_VECS_3D_FLOAT;
+
+        NoiseState state = new NoiseState(Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, 0, x, y, z);
+        for(int n = 0; n < NEIGHBORS_3D.length; n += 3) {
+            int dx = NEIGHBORS_3D[n];
+            int dy = NEIGHBORS_3D[n + 1];
+            int dz = NEIGHBORS_3D[n + 2];
+            int hash = HashingFunctions.hashPrimeCoords(seed, (xr + dx) * NoiseFunction.PRIME_X, (yr + dy) * NoiseFunction.PRIME_Y,
+                (zr + dz) * NoiseFunction.PRIME_Z);
+            int idx = hash & (255 << 2);
+
+            float vecX = ArithmeticFunctions.fma(vecs[idx], jitter, dx - xf);
+            float vecY = ArithmeticFunctions.fma(vecs[idx | 1], jitter, dy - yf);
+            float vecZ = ArithmeticFunctions.fma(vecs[idx | 2], jitter, dz - zf);
+
+            float newDistance = switch(distanceFunction) {
+                case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX, ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
+                case Manhattan -> Math.abs(vecX) + Math.abs(vecY) + Math.abs(vecZ);
+                case Hybrid -> (Math.abs(vecX) + Math.abs(vecY) + Math.abs(vecZ)) + ArithmeticFunctions.fma(vecX, vecX,
+                    ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
+            };
+            insertDistance3D(state, hash, newDistance, vecX, vecY, vecZ, x, y, z);
+        }
+
+        if(needsDistance0Sq) {
+            state.distance0 = Math.sqrt(state.distance0);
+        }
+        if(needsDistance1Sq) {
+            state.distance1 = Math.sqrt(state.distance1);
+        }
+        if(needsDistance2Sq) {
+            state.distance2 = Math.sqrt(state.distance2);
+        }
+
+        return (float) returnType.getReturn(this, sl, state.distance0, state.distance1, state.distance2, x, y, z, state.centerX,
+            state.centerY, state.centerZ, state.closestHash);
+    }
+
+    private void updateState2D(NoiseState state, int hash, double vecX, double vecY, double x, double y) {
+        double newDistance = switch(distanceFunction) {
+            case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+            case Manhattan -> Math.abs(vecX) + Math.abs(vecY);
+            case Hybrid -> (Math.abs(vecX) + Math.abs(vecY)) + ArithmeticFunctions.fma(vecX, vecX, vecY * vecY);
+        };
+        insertDistance2D(state, hash, newDistance, vecX, vecY, x, y);
+    }
+
+    private void insertDistance2D(NoiseState state, int hash, double newDistance, double vecX, double vecY, double x, double y) {
+        if(newDistance < state.distance0) {
+            if(needsDistance2) {
+                if(needsDistance3) {
+                    state.distance2 = state.distance1;
+                }
+                state.distance1 = state.distance0;
+            }
+            state.distance0 = newDistance;
+
+            if(needsClosestHash) {
+                state.closestHash = hash;
+            }
+            if(needsCoords) {
+                state.centerX = (vecX + x) * invFrequency;
+                state.centerY = (vecY + y) * invFrequency;
+            }
+        } else if(needsDistance2 && newDistance < state.distance1) {
+            if(needsDistance3) {
+                state.distance2 = state.distance1;
+            }
+            state.distance1 = newDistance;
+        } else if(needsDistance3 && newDistance < state.distance2) {
+            state.distance2 = newDistance;
+        }
+    }
+
     void noiseLoopCalc3D(double[] vecs, double threeDCellularJitter, int seed, double x, double y, double z,
-                         NoiseState3D state, int xPrimed, int yPrimed, int zPrimed, double xiMinusX, double yiMinusY, double ziMinusZ) {
+                         NoiseState state, int xPrimed, int yPrimed, int zPrimed, double xiMinusX, double yiMinusY, double ziMinusZ) {
         int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, yPrimed, zPrimed);
         long idx = hash & (255 << 2);
 
@@ -551,6 +1162,10 @@ public class CellularSampler extends CellularStyleSampler {
         double vecZ = ArithmeticFunctions.fma(UnsafeUtils.UNSAFE.getDouble(vecs,
             DOUBLE_ARRAY_BASE + ((idx | 2) << DOUBLE_ARRAY_SHIFT)), threeDCellularJitter, ziMinusZ);
 
+        updateState3D(state, hash, vecX, vecY, vecZ, x, y, z);
+    }
+
+    private void updateState3D(NoiseState state, int hash, double vecX, double vecY, double vecZ, double x, double y, double z) {
         double newDistance = switch(distanceFunction) {
             case Euclidean, EuclideanSq -> ArithmeticFunctions.fma(vecX, vecX,
                 ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
@@ -558,7 +1173,11 @@ public class CellularSampler extends CellularStyleSampler {
             case Hybrid -> (Math.abs(vecX) + Math.abs(vecY) + Math.abs(vecZ)) + ArithmeticFunctions.fma(vecX, vecX,
                 ArithmeticFunctions.fma(vecY, vecY, vecZ * vecZ));
         };
+        insertDistance3D(state, hash, newDistance, vecX, vecY, vecZ, x, y, z);
+    }
 
+    private void insertDistance3D(NoiseState state, int hash, double newDistance, double vecX, double vecY, double vecZ, double x,
+                                  double y, double z) {
         if(newDistance < state.distance0) {
             if(needsDistance2) {
                 if(needsDistance3) {
@@ -588,12 +1207,12 @@ public class CellularSampler extends CellularStyleSampler {
         }
     }
 
-    private static class NoiseState3D {
+    private static class NoiseState {
         double centerX, centerY, centerZ;
         double distance0, distance1, distance2;
         int closestHash;
 
-        NoiseState3D(double distance0, double distance1, double distance2, int closestHash, double centerX, double centerY,
+        NoiseState(double distance0, double distance1, double distance2, int closestHash, double centerX, double centerY,
                      double centerZ) {
             this.distance0 = distance0;
             this.distance1 = distance1;
@@ -603,5 +1222,15 @@ public class CellularSampler extends CellularStyleSampler {
             this.centerY = centerY;
             this.centerZ = centerZ;
         }
+
+        void reset(double x, double y, double z) {
+            distance0 = Double.MAX_VALUE;
+            distance1 = Double.MAX_VALUE;
+            distance2 = Double.MAX_VALUE;
+            closestHash = 0;
+            centerX = x;
+            centerY = y;
+            centerZ = z;
+        }
     }
 }
@@ -1,6 +1,6 @@
 package com.dfsek.seismic.algorithms.sampler.noise.cellular;
 
-import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.DerivativeNoiseFunction;
 import com.dfsek.seismic.math.arithmetic.ArithmeticFunctions;
 import com.dfsek.seismic.math.trigonometry.TrigonometryFunctions;
 import com.dfsek.seismic.type.DistanceFunction;
@@ -8,7 +8,7 @@ import com.dfsek.seismic.type.sampler.Sampler;
 import com.dfsek.seismic.util.UnsafeUtils;
 
 
-public abstract class CellularStyleSampler extends NoiseFunction {
+public abstract class CellularStyleSampler extends DerivativeNoiseFunction {
     protected static final double[] RAND_VECS_3D = {
         -0.7292736885d, -0.6618439697d, 0.1735581948d, 0, 0.790292081d, -0.5480887466d, -0.2739291014d, 0, 0.7217578935d, 0.6226212466d,
         -0.3023380997d, 0, 0.565683137d, -0.8208298145d, -0.0790000257d, 0, 0.760049034d, -0.5555979497d, -0.3370999617d, 0,
@@ -184,6 +184,15 @@ public abstract class CellularStyleSampler extends NoiseFunction {
         0.01426758847d, -0.9998982128d, -0.6734383991d, 0.7392433447d, 0.639412098d, -0.7688642071d, 0.9211571421d, 0.3891908523d,
         -0.146637214d, -0.9891903394d, -0.782318098d, 0.6228791163d, -0.5039610839d, -0.8637263605d, -0.7743120191d, -0.6328039957d,
         };
+    /**
+     * {@link #RAND_VECS_3D} in {@code float} precision, for the {@code getNoiseRawFloat} implementations.
+     */
+    protected static final float[] RAND_VECS_3D_FLOAT = CellularStyleSampler.toFloatArray(CellularStyleSampler.RAND_VECS_3D);
+
+    /**
+     * {@link #RAND_VECS_2D} in {@code float} precision, for the {@code getNoiseRawFloat} implementations.
+     */
+    protected static final float[] RAND_VECS_2D_FLOAT = CellularStyleSampler.toFloatArray(CellularStyleSampler.RAND_VECS_2D);
     protected static final long DOUBLE_ARRAY_BASE = UnsafeUtils.DOUBLE_ARRAY_BASE;
     protected static final long DOUBLE_ARRAY_SHIFT = UnsafeUtils.DOUBLE_ARRAY_SHIFT;
     protected final DistanceFunction distanceFunction;
@@ -209,6 +218,29 @@ public abstract class CellularStyleSampler extends NoiseFunction {
         threeDCellularJitter = 0.39614353 * jitterModifier;
     }
 
+    @Override
+    public boolean isDifferentiable() {
+        return false;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
+    }
+
+    private static float[] toFloatArray(double[] values) {
+        float[] floats = new float[values.length];
+        for(int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+
     public enum CellularReturnType {
         CellValue {
             @Override
@@ -225,6 +257,17 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance0 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                System.arraycopy(gradients, 0, out, offset, dimensions);
+            }
         },
         Distance2 {
             @Override
@@ -233,6 +276,17 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance1 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                System.arraycopy(gradients, dimensions, out, offset, dimensions);
+            }
         },
         Distance2Add {
             @Override
@@ -241,6 +295,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return ArithmeticFunctions.fma((distance1 + distance0), 0.5, -1);
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = (gradients[dimensions + i] + gradients[i]) * 0.5;
+                }
+            }
         },
         Distance2Sub {
             @Override
@@ -249,6 +316,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance1 - distance0 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = gradients[dimensions + i] - gradients[i];
+                }
+            }
         },
         Distance2Mul {
             @Override
@@ -257,6 +337,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return ArithmeticFunctions.fma((distance1 * distance0), 0.5, -1);
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = ArithmeticFunctions.fma(gradients[dimensions + i], distance0, distance1 * gradients[i]) * 0.5;
+                }
+            }
         },
         Distance2Div {
             @Override
@@ -265,6 +358,20 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance0 / distance1 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                double distance1Sq = distance1 * distance1;
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = (gradients[i] * distance1 - distance0 * gradients[dimensions + i]) / distance1Sq;
+                }
+            }
         },
         NoiseLookup {
             @Override
@@ -304,6 +411,17 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance2 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                System.arraycopy(gradients, dimensions * 2, out, offset, dimensions);
+            }
         },
         Distance3Add {
             @Override
@@ -312,6 +430,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return ArithmeticFunctions.fma((distance2 + distance0), 0.5, -1);
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = (gradients[dimensions * 2 + i] + gradients[i]) * 0.5;
+                }
+            }
         },
         Distance3Sub {
             @Override
@@ -320,6 +451,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance2 - distance0 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = gradients[dimensions * 2 + i] - gradients[i];
+                }
+            }
         },
         Distance3Mul {
             @Override
@@ -328,6 +472,19 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return ArithmeticFunctions.fma(distance2, distance0, -1);
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = ArithmeticFunctions.fma(gradients[dimensions * 2 + i], distance0, distance2 * gradients[i]);
+                }
+            }
         },
         Distance3Div {
             @Override
@@ -336,6 +493,20 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                     double centerX, double centerY, int closestHash) {
                 return distance0 / distance2 - 1;
             }
+
+            @Override
+            public boolean isDifferentiable() {
+                return true;
+            }
+
+            @Override
+            public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                            double[] out, int offset) {
+                double distance2Sq = distance2 * distance2;
+                for(int i = 0; i < dimensions; i++) {
+                    out[offset + i] = (gradients[i] * distance2 - distance0 * gradients[dimensions * 2 + i]) / distance2Sq;
+                }
+            }
         },
         Angle {
             @Override
@@ -353,5 +524,27 @@ public abstract class CellularStyleSampler extends NoiseFunction {
                                 double y, double z, double centerX, double centerY, double centerZ, int closestHash) {
             return getReturn(sampler, sl, distance0, distance1, distance2, x, y, centerX, centerY, closestHash);
         }
+
+        /**
+         * @return whether {@link #getReturnDerivative} is implemented, which is the case for return types depending only on distances.
+         */
+        public boolean isDifferentiable() {
+            return false;
+        }
+
+        /**
+         * Writes the gradient of the return value, given the distances to the three nearest feature points and the gradients of those
+         * distances.
+         *
+         * @param gradients  the gradients of {@code distance0}, {@code distance1} and {@code distance2}, in that order, each
+         *                   {@code dimensions} long.
+         * @param dimensions number of components of each gradient.
+         * @param out        the array to write the gradient to.
+         * @param offset     index in {@code out} of the first component.
+         */
+        public void getReturnDerivative(double distance0, double distance1, double distance2, double[] gradients, int dimensions,
+                                        double[] out, int offset) {
+            throw new UnsupportedOperationException(this + " does not have a derivative");
+        }
     }
 }
@@ -11,8 +11,24 @@ import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctio
 import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
+import java.util.Arrays;
+
 
 public class BrownianMotionSampler extends FractalNoiseFunction {
+    /**
+     * Axes of each entry of the upper triangle of a Hessian, in the order {@link DerivativeSampler#getSampleHessian} lays them out.
+     */
+    private static final int[] HESSIAN_ROWS_2D = { 0, 0, 1 }, HESSIAN_COLUMNS_2D = { 0, 1, 1 };
+    private static final int[] HESSIAN_ROWS_3D = { 0, 0, 0, 1, 1, 2 }, HESSIAN_COLUMNS_3D = { 0, 1, 2, 1, 2, 2 };
+    /**
+     * Octave samples and weights of each seed in a multi-seed sample.
+     */
+    private final ThreadLocal<double[]> seedScratch = ThreadLocal.withInitial(() -> new double[16]);
+    /**
+     * Running sum followed by amplitude of a Hessian sample, each as value, gradient and upper triangle of the Hessian.
+     */
+    private final ThreadLocal<double[]> hessianScratch = ThreadLocal.withInitial(() -> new double[20]);
+
     public BrownianMotionSampler(long salt, Sampler input, double gain, double lacunarity, double weightedStrength, int octaves) {
         super(salt, input, gain, lacunarity, weightedStrength, octaves);
     }
@@ -54,59 +70,403 @@ public class BrownianMotionSampler extends FractalNoiseFunction {
         return sum;
     }
 
+    @Override
+    public void getNoiseRawSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        double[] scratch = seedScratch(count * 2);
+        Arrays.fill(out, offset, offset + count, 0);
+        Arrays.fill(scratch, count, count * 2, fractalBounding);
+
+        for(int i = 0; i < octaves; i++) {
+            // Every seed's octave comes from one multi-seed sample of the input
+            input.getSampleSeeds(seed++, x, y, count, scratch, 0);
+            for(int n = 0; n < count; n++) {
+                double noise = scratch[n];
+                out[offset + n] += noise * scratch[count + n];
+                scratch[count + n] *= InterpolationFunctions.lerp(1.0, Math.min(noise + 1, 2) * 0.5, weightedStrength);
+                scratch[count + n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getNoiseRawSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        double[] scratch = seedScratch(count * 2);
+        Arrays.fill(out, offset, offset + count, 0);
+        Arrays.fill(scratch, count, count * 2, fractalBounding);
+
+        for(int i = 0; i < octaves; i++) {
+            input.getSampleSeeds(seed++, x, y, z, count, scratch, 0);
+            for(int n = 0; n < count; n++) {
+                double noise = scratch[n];
+                out[offset + n] += noise * scratch[count + n];
+                scratch[count + n] *= InterpolationFunctions.lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+                scratch[count + n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+        }
+    }
+
     @Override
     public boolean isDifferentiable() {
         return DerivativeSampler.isDifferentiable(input);
     }
 
+    @Override
+    public boolean isTwiceDifferentiable() {
+        return DerivativeSampler.isTwiceDifferentiable(input);
+    }
+
     @Override
     public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
-        double[] sum = { 0, 0, 0 };
-        double amp = fractalBounding;
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0;
+        double octaveFrequency = 1;
+        // This should only be called after `input` is verified as a `DerivativeNoiseSampler`
+        // so this should be a safe cast
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
 
         for(int i = 0; i < octaves; i++) {
-            // This should only be called after `input` is verified as a `DerivativeNoiseSampler`
-            // so this should be a safe cast
-            double[] noise = ((DerivativeSampler) input).getSampleDerivative(seed++, x, y);
-            sum[0] += noise[0] * amp;
+            // Each octave is written to the output and accumulated from there, so no intermediate arrays are needed
+            derivativeInput.getSampleDerivative(seed++, x, y, out, offset);
+            double noise = out[offset];
+            // Octaves are sampled at scaled coordinates, so their derivatives are scaled by the octave frequency
+            double noiseX = out[offset + 1] * octaveFrequency, noiseY = out[offset + 2] * octaveFrequency;
+            sum += noise * amp;
 
             // Directional derivative of each octave can be subject to the same addition and product
-            // as per derivative sum and product rules in order to produce the correct final derivative
-            sum[1] += noise[1] * amp;
-            sum[2] += noise[2] * amp;
+            // as per derivative sum and product rules in order to produce the correct final derivative.
+            // The amplitude depends on the noise of previous octaves through the weighted strength, so it has a derivative too
+            sumX += noiseX * amp + noise * ampX;
+            sumY += noiseY * amp + noise * ampY;
 
-            amp *= InterpolationFunctions.lerp(1.0, Math.min(noise[0] + 1, 2) * 0.5, weightedStrength);
+            double weight = InterpolationFunctions.lerp(1.0, Math.min(noise + 1, 2) * 0.5, weightedStrength);
+            // The weight stops increasing once the noise reaches 1
+            double slope = noise + 1 < 2 ? 0.5 * weightedStrength : 0;
+            ampX = (ampX * weight + amp * slope * noiseX) * gain;
+            ampY = (ampY * weight + amp * slope * noiseY) * gain;
+            amp *= weight;
 
             x *= lacunarity;
             y *= lacunarity;
+            octaveFrequency *= lacunarity;
             amp *= gain;
         }
 
-        return sum;
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
     }
 
     @Override
     public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
-        double[] sum = { 0, 0, 0, 0 };
-        double amp = fractalBounding;
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0, sumZ = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0, ampZ = 0;
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
 
         for(int i = 0; i < octaves; i++) {
-            double[] noise = ((DerivativeSampler) input).getSampleDerivative(seed++, x, y, z);
-            sum[0] += noise[0] * amp;
+            derivativeInput.getSampleDerivative(seed++, x, y, z, out, offset);
+            double noise = out[offset];
+            double noiseX = out[offset + 1] * octaveFrequency, noiseY = out[offset + 2] * octaveFrequency,
+                noiseZ = out[offset + 3] * octaveFrequency;
+            sum += noise * amp;
 
             // See comment in 2D version
-            sum[1] += noise[1] * amp;
-            sum[2] += noise[2] * amp;
-            sum[3] += noise[3] * amp;
+            sumX += noiseX * amp + noise * ampX;
+            sumY += noiseY * amp + noise * ampY;
+            sumZ += noiseZ * amp + noise * ampZ;
 
-            amp *= InterpolationFunctions.lerp(1.0, (noise[0] + 1) * 0.5, weightedStrength);
+            double weight = InterpolationFunctions.lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+            double slope = 0.5 * weightedStrength;
+            ampX = (ampX * weight + amp * slope * noiseX) * gain;
+            ampY = (ampY * weight + amp * slope * noiseY) * gain;
+            ampZ = (ampZ * weight + amp * slope * noiseZ) * gain;
+            amp *= weight;
 
             x *= lacunarity;
             y *= lacunarity;
             z *= lacunarity;
+            octaveFrequency *= lacunarity;
             amp *= gain;
         }
 
-        return sum;
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
+        out[offset + 3] = sumZ;
+    }
+
+    @Override
+    public void getNoiseDerivativeRawSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        // Octave samples, then amplitudes and their partial x and y derivatives
+        double[] scratch = seedScratch(count * 6);
+        int amps = count * 3, ampsX = count * 4, ampsY = count * 5;
+        Arrays.fill(out, offset, offset + amps, 0);
+        Arrays.fill(scratch, amps, ampsX, fractalBounding);
+        Arrays.fill(scratch, ampsX, count * 6, 0);
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivativeSeeds(seed++, x, y, count, scratch, 0);
+            for(int n = 0; n < count; n++) {
+                int o = offset + n * 3, s = n * 3;
+                double noise = scratch[s], amp = scratch[amps + n], ampX = scratch[ampsX + n], ampY = scratch[ampsY + n];
+                double noiseX = scratch[s + 1] * octaveFrequency, noiseY = scratch[s + 2] * octaveFrequency;
+                out[o] += noise * amp;
+                out[o + 1] += noiseX * amp + noise * ampX;
+                out[o + 2] += noiseY * amp + noise * ampY;
+                double weight = InterpolationFunctions.lerp(1.0, Math.min(noise + 1, 2) * 0.5, weightedStrength);
+                double slope = noise + 1 < 2 ? 0.5 * weightedStrength : 0;
+                scratch[ampsX + n] = (ampX * weight + amp * slope * noiseX) * gain;
+                scratch[ampsY + n] = (ampY * weight + amp * slope * noiseY) * gain;
+                amp *= weight;
+                scratch[amps + n] = amp * gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getNoiseDerivativeRawSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        double[] scratch = seedScratch(count * 8);
+        int amps = count * 4, ampsX = count * 5, ampsY = count * 6, ampsZ = count * 7;
+        Arrays.fill(out, offset, offset + amps, 0);
+        Arrays.fill(scratch, amps, ampsX, fractalBounding);
+        Arrays.fill(scratch, ampsX, count * 8, 0);
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivativeSeeds(seed++, x, y, z, count, scratch, 0);
+            for(int n = 0; n < count; n++) {
+                int o = offset + n * 4, s = n * 4;
+                double noise = scratch[s], amp = scratch[amps + n];
+                double ampX = scratch[ampsX + n], ampY = scratch[ampsY + n], ampZ = scratch[ampsZ + n];
+                double noiseX = scratch[s + 1] * octaveFrequency, noiseY = scratch[s + 2] * octaveFrequency,
+                    noiseZ = scratch[s + 3] * octaveFrequency;
+                out[o] += noise * amp;
+                out[o + 1] += noiseX * amp + noise * ampX;
+                out[o + 2] += noiseY * amp + noise * ampY;
+                out[o + 3] += noiseZ * amp + noise * ampZ;
+                double weight = InterpolationFunctions.lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+                double slope = 0.5 * weightedStrength;
+                scratch[ampsX + n] = (ampX * weight + amp * slope * noiseX) * gain;
+                scratch[ampsY + n] = (ampY * weight + amp * slope * noiseY) * gain;
+                scratch[ampsZ + n] = (ampZ * weight + amp * slope * noiseZ) * gain;
+                amp *= weight;
+                scratch[amps + n] = amp * gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        int length = xSize * ySize;
+        double[] noiseValues = new double[length], noiseX = new double[length], noiseY = new double[length];
+        // Octave weights depend on the noise at each point, so they are tracked per point
+        double[] amp = new double[length], ampX = new double[length], ampY = new double[length];
+        Arrays.fill(amp, fractalBounding);
+        Arrays.fill(values, offset, offset + length, 0);
+        Arrays.fill(dx, offset, offset + length, 0);
+        Arrays.fill(dy, offset, offset + length, 0);
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+        long octaveSeed = seed + salt;
+
+        for(int i = 0; i < octaves; i++) {
+            // Each octave is one grid over the scaled lattice, so the input shares its lattice work across all points
+            derivativeInput.getSampleDerivativeGrid(octaveSeed++, x, y, xStep, yStep, xSize, ySize, noiseValues, noiseX, noiseY, 0);
+            for(int n = 0; n < length; n++) {
+                double noise = noiseValues[n];
+                double nx = noiseX[n] * octaveFrequency, ny = noiseY[n] * octaveFrequency;
+                values[offset + n] += noise * amp[n];
+                dx[offset + n] += nx * amp[n] + noise * ampX[n];
+                dy[offset + n] += ny * amp[n] + noise * ampY[n];
+                double weight = InterpolationFunctions.lerp(1.0, Math.min(noise + 1, 2) * 0.5, weightedStrength);
+                double slope = noise + 1 < 2 ? 0.5 * weightedStrength : 0;
+                ampX[n] = (ampX[n] * weight + amp[n] * slope * nx) * gain;
+                ampY[n] = (ampY[n] * weight + amp[n] * slope * ny) * gain;
+                amp[n] *= weight;
+                amp[n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            xStep *= lacunarity;
+            yStep *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        int length = xSize * ySize * zSize;
+        double[] noiseValues = new double[length], noiseX = new double[length], noiseY = new double[length], noiseZ = new double[length];
+        double[] amp = new double[length], ampX = new double[length], ampY = new double[length], ampZ = new double[length];
+        Arrays.fill(amp, fractalBounding);
+        Arrays.fill(values, offset, offset + length, 0);
+        Arrays.fill(dx, offset, offset + length, 0);
+        Arrays.fill(dy, offset, offset + length, 0);
+        Arrays.fill(dz, offset, offset + length, 0);
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+        long octaveSeed = seed + salt;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivativeGrid(octaveSeed++, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, noiseValues, noiseX,
+                noiseY, noiseZ, 0);
+            for(int n = 0; n < length; n++) {
+                double noise = noiseValues[n];
+                double nx = noiseX[n] * octaveFrequency, ny = noiseY[n] * octaveFrequency, nz = noiseZ[n] * octaveFrequency;
+                values[offset + n] += noise * amp[n];
+                dx[offset + n] += nx * amp[n] + noise * ampX[n];
+                dy[offset + n] += ny * amp[n] + noise * ampY[n];
+                dz[offset + n] += nz * amp[n] + noise * ampZ[n];
+                double weight = InterpolationFunctions.lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+                double slope = 0.5 * weightedStrength;
+                ampX[n] = (ampX[n] * weight + amp[n] * slope * nx) * gain;
+                ampY[n] = (ampY[n] * weight + amp[n] * slope * ny) * gain;
+                ampZ[n] = (ampZ[n] * weight + amp[n] * slope * nz) * gain;
+                amp[n] *= weight;
+                amp[n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            xStep *= lacunarity;
+            yStep *= lacunarity;
+            zStep *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long seed, double x, double y, double[] out, int offset) {
+        double[] state = hessianScratch.get();
+        Arrays.fill(state, 0);
+        state[6] = fractalBounding;
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleHessian(seed++, x, y, out, offset);
+            accumulateHessian(out, offset, state, 2, octaveFrequency);
+
+            x *= lacunarity;
+            y *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+
+        System.arraycopy(state, 0, out, offset, 6);
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        double[] state = hessianScratch.get();
+        Arrays.fill(state, 0);
+        state[10] = fractalBounding;
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleHessian(seed++, x, y, z, out, offset);
+            accumulateHessian(out, offset, state, 3, octaveFrequency);
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+
+        System.arraycopy(state, 0, out, offset, 10);
+    }
+
+    /**
+     * Adds one octave, sampled with its first and second derivatives at {@code octave[offset]}, to the running sum of a Hessian sample
+     * and advances the amplitude to the next octave. {@code state} holds the sum followed by the amplitude, each laid out like the output
+     * of {@link DerivativeSampler#getSampleHessian}, so the product rule can be applied to both orders of derivative.
+     */
+    private void accumulateHessian(double[] octave, int offset, double[] state, int axes, double octaveFrequency) {
+        int size = axes == 2 ? 6 : 10, hessian = axes + 1, amps = size;
+        int[] rows = axes == 2 ? HESSIAN_ROWS_2D : HESSIAN_ROWS_3D, columns = axes == 2 ? HESSIAN_COLUMNS_2D : HESSIAN_COLUMNS_3D;
+        double noise = octave[offset], amp = state[amps];
+
+        // Octaves are sampled at scaled coordinates, so each order of derivative is scaled by the octave frequency once more
+        double octaveFrequencySquared = octaveFrequency * octaveFrequency;
+        for(int a = 1; a < hessian; a++) {
+            octave[offset + a] *= octaveFrequency;
+        }
+        for(int e = hessian; e < size; e++) {
+            octave[offset + e] *= octaveFrequencySquared;
+        }
+
+        double weight, slope;
+        if(axes == 2) {
+            weight = InterpolationFunctions.lerp(1.0, Math.min(noise + 1, 2) * 0.5, weightedStrength);
+            // The weight stops increasing once the noise reaches 1
+            slope = noise + 1 < 2 ? 0.5 * weightedStrength : 0;
+        } else {
+            weight = InterpolationFunctions.lerp(1.0, (noise + 1) * 0.5, weightedStrength);
+            slope = 0.5 * weightedStrength;
+        }
+
+        // Second derivatives first, as they read the first derivatives of the amplitude before they are advanced. The weight is linear
+        // in the noise, so its derivatives are the noise derivatives times the slope
+        for(int e = 0; e < rows.length; e++) {
+            int r = 1 + rows[e], c = 1 + columns[e];
+            double noiseR = octave[offset + r], noiseC = octave[offset + c], noiseRC = octave[offset + hessian + e];
+            double ampR = state[amps + r], ampC = state[amps + c], ampRC = state[amps + hessian + e];
+            state[hessian + e] += amp * noiseRC + noiseR * ampC + ampR * noiseC + noise * ampRC;
+            state[amps + hessian + e] = (weight * ampRC + slope * (ampR * noiseC + noiseR * ampC) + amp * slope * noiseRC) * gain;
+        }
+        for(int a = 1; a < hessian; a++) {
+            double noiseA = octave[offset + a], ampA = state[amps + a];
+            state[a] += noiseA * amp + noise * ampA;
+            state[amps + a] = (ampA * weight + amp * slope * noiseA) * gain;
+        }
+        state[0] += noise * amp;
+        amp *= weight;
+        state[amps] = amp * gain;
+    }
+
+    private double[] seedScratch(int length) {
+        double[] scratch = seedScratch.get();
+        if(scratch.length < length) {
+            scratch = new double[length];
+            seedScratch.set(scratch);
+        }
+        return scratch;
     }
 }
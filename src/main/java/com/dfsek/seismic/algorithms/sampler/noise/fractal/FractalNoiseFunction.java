@@ -37,6 +37,35 @@ public abstract class FractalNoiseFunction extends DerivativeNoiseFunction {
         fractalBounding = 1 / ampFractal;
     }
 
+    public Sampler getInput() {
+        return input;
+    }
+
+    public double getFractalBounding() {
+        return fractalBounding;
+    }
+
+    public int getOctaves() {
+        return octaves;
+    }
+
+    public double getGain() {
+        return gain;
+    }
+
+    public double getLacunarity() {
+        return lacunarity;
+    }
+
+    public double getWeightedStrength() {
+        return weightedStrength;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return input.getAxisDependencies();
+    }
+
     @Override
     public boolean isDifferentiable() {
         return false;
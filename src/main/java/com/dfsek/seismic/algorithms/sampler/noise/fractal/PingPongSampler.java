@@ -8,6 +8,7 @@
 package com.dfsek.seismic.algorithms.sampler.noise.fractal;
 
 import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -20,11 +21,23 @@ public class PingPongSampler extends FractalNoiseFunction {
         this.pingPongStrength = pingPongStrength;
     }
 
-    private static double pingPong(double t) {
+    public double getPingPongStrength() {
+        return pingPongStrength;
+    }
+
+    public static double pingPong(double t) {
         t -= (int) (t * 0.5f) << 1;
         return t < 1 ? t : 2 - t;
     }
 
+    /**
+     * Slope of {@link #pingPong(double)} at {@code t}, {@code 1} on rising edges and {@code -1} on falling edges.
+     */
+    public static double pingPongDerivative(double t) {
+        t -= (int) (t * 0.5f) << 1;
+        return t < 1 ? 1 : -1;
+    }
+
     @Override
     public double getNoiseRaw(long seed, double x, double y) {
         double sum = 0;
@@ -61,4 +74,100 @@ public class PingPongSampler extends FractalNoiseFunction {
 
         return sum;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(input);
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0;
+        // Octave derivatives are taken in the octave's scaled coordinates, so they are scaled back by the octave's frequency
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivative(seed++, x, y, out, offset);
+            double t = (out[offset] + 1) * pingPongStrength;
+            double noise = PingPongSampler.pingPong(t);
+            double slope = PingPongSampler.pingPongDerivative(t) * pingPongStrength * octaveFrequency;
+            double noiseX = out[offset + 1] * slope, noiseY = out[offset + 2] * slope;
+
+            sum += (noise - 0.5) * 2 * amp;
+
+            // Product rule, the amplitude depends on the noise of every previous octave through the weighted strength
+            sumX += (noise - 0.5) * 2 * ampX + 2 * noiseX * amp;
+            sumY += (noise - 0.5) * 2 * ampY + 2 * noiseY * amp;
+
+            double weight = InterpolationFunctions.lerp(1.0, noise, weightedStrength);
+            ampX = (ampX * weight + amp * weightedStrength * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightedStrength * noiseY) * gain;
+            amp *= weight;
+
+            x *= lacunarity;
+            y *= lacunarity;
+            octaveFrequency *= lacunarity;
+            amp *= gain;
+        }
+
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0, sumZ = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0, ampZ = 0;
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivative(seed++, x, y, z, out, offset);
+            double t = (out[offset] + 1) * pingPongStrength;
+            double noise = PingPongSampler.pingPong(t);
+            double slope = PingPongSampler.pingPongDerivative(t) * pingPongStrength * octaveFrequency;
+            double noiseX = out[offset + 1] * slope, noiseY = out[offset + 2] * slope, noiseZ = out[offset + 3] * slope;
+
+            sum += (noise - 0.5) * 2 * amp;
+
+            // See comment in 2D version
+            sumX += (noise - 0.5) * 2 * ampX + 2 * noiseX * amp;
+            sumY += (noise - 0.5) * 2 * ampY + 2 * noiseY * amp;
+            sumZ += (noise - 0.5) * 2 * ampZ + 2 * noiseZ * amp;
+
+            double weight = InterpolationFunctions.lerp(1.0, noise, weightedStrength);
+            ampX = (ampX * weight + amp * weightedStrength * noiseX) * gain;
+            ampY = (ampY * weight + amp * weightedStrength * noiseY) * gain;
+            ampZ = (ampZ * weight + amp * weightedStrength * noiseZ) * gain;
+            amp *= weight;
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            octaveFrequency *= lacunarity;
+            amp *= gain;
+        }
+
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
+        out[offset + 3] = sumZ;
+    }
 }
@@ -11,6 +11,8 @@ import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctio
 import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
+import java.util.Arrays;
+
 
 public class RidgedFractalSampler extends FractalNoiseFunction {
 
@@ -55,7 +57,6 @@ public class RidgedFractalSampler extends FractalNoiseFunction {
         return sum;
     }
 
-
     @Override
     public boolean isDifferentiable() {
         return DerivativeSampler.isDifferentiable(input);
@@ -63,65 +64,182 @@ public class RidgedFractalSampler extends FractalNoiseFunction {
 
     @Override
     public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
-        double[] sum = { 0, 0, 0 };
-        double amp = fractalBounding;
-        double negative2Amp = amp * -2;
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0;
+        // Octave derivatives are taken in the octave's scaled coordinates, so they are scaled back by the octave's frequency
+        double octaveFrequency = 1;
+        // This should only be called after `input` is verified as a `DerivativeNoiseSampler`
+        // so this should be a safe cast
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
 
         for(int i = 0; i < octaves; i++) {
-            // This should only be called after `input` is verified as a `DerivativeNoiseSampler`
-            // so this should be a safe cast
-            double[] noise = ((DerivativeSampler) input).getSampleDerivative(seed++, x, y);
-            noise[0] = Math.abs(noise[0]);
-            noise[1] = Math.abs(noise[1]);
-            noise[2] = Math.abs(noise[2]);
+            // Each octave is written to the output and accumulated from there, so no intermediate arrays are needed
+            derivativeInput.getSampleDerivative(seed++, x, y, out, offset);
+            double noise = Math.abs(out[offset]);
+            // The ridge |n| has slope sign(n), zero exactly on the crease
+            double slope = Math.signum(out[offset]) * octaveFrequency;
+            double noiseX = out[offset + 1] * slope, noiseY = out[offset + 2] * slope;
+            double ridge = noise * -2 + 1;
 
-            sum[0] += (noise[0] * -2 + 1) * amp;
+            sum += ridge * amp;
 
-            // Directional derivative of each octave can be subject to the same addition and product
-            // as per derivative sum and product rules in order to produce the correct final derivative
-            sum[1] += noise[1] * negative2Amp;
-            sum[2] += noise[2] * negative2Amp;
+            // Product rule, the amplitude depends on the noise of every previous octave through the weighted strength
+            sumX += ridge * ampX - 2 * noiseX * amp;
+            sumY += ridge * ampY - 2 * noiseY * amp;
 
-            amp *= InterpolationFunctions.lerp(1.0, 1 - noise[0], weightedStrength);
+            double weight = InterpolationFunctions.lerp(1.0, 1 - noise, weightedStrength);
+            ampX = (ampX * weight - amp * weightedStrength * noiseX) * gain;
+            ampY = (ampY * weight - amp * weightedStrength * noiseY) * gain;
+            amp *= weight;
 
             x *= lacunarity;
             y *= lacunarity;
+            octaveFrequency *= lacunarity;
             amp *= gain;
-            negative2Amp = amp * -2;
         }
 
-        return sum;
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
     }
 
     @Override
     public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
-        double[] sum = { 0, 0, 0, 0 };
-        double amp = fractalBounding;
-        double negative2Amp = amp * -2;
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long seed, double x, double y, double z, double[] out, int offset) {
+        double sum = 0, sumX = 0, sumY = 0, sumZ = 0;
+        double amp = fractalBounding, ampX = 0, ampY = 0, ampZ = 0;
+        double octaveFrequency = 1;
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
 
         for(int i = 0; i < octaves; i++) {
-            double[] noise = ((DerivativeSampler) input).getSampleDerivative(seed++, x, y, z);
-            noise[0] = Math.abs(noise[0]);
-            noise[1] = Math.abs(noise[1]);
-            noise[2] = Math.abs(noise[2]);
-            noise[3] = Math.abs(noise[3]);
+            derivativeInput.getSampleDerivative(seed++, x, y, z, out, offset);
+            double noise = Math.abs(out[offset]);
+            double slope = Math.signum(out[offset]) * octaveFrequency;
+            double noiseX = out[offset + 1] * slope, noiseY = out[offset + 2] * slope, noiseZ = out[offset + 3] * slope;
+            double ridge = noise * -2 + 1;
 
-            sum[0] += (noise[0] * -2 + 1) * amp;
+            sum += ridge * amp;
 
             // See comment in 2D version
-            sum[1] += noise[1] * negative2Amp;
-            sum[2] += noise[2] * negative2Amp;
-            sum[3] += noise[3] * negative2Amp;
+            sumX += ridge * ampX - 2 * noiseX * amp;
+            sumY += ridge * ampY - 2 * noiseY * amp;
+            sumZ += ridge * ampZ - 2 * noiseZ * amp;
 
-            amp *= InterpolationFunctions.lerp(1.0, 1 - noise[0], weightedStrength);
+            double weight = InterpolationFunctions.lerp(1.0, 1 - noise, weightedStrength);
+            ampX = (ampX * weight - amp * weightedStrength * noiseX) * gain;
+            ampY = (ampY * weight - amp * weightedStrength * noiseY) * gain;
+            ampZ = (ampZ * weight - amp * weightedStrength * noiseZ) * gain;
+            amp *= weight;
 
             x *= lacunarity;
             y *= lacunarity;
             z *= lacunarity;
+            octaveFrequency *= lacunarity;
             amp *= gain;
-            negative2Amp = amp * -2;
         }
 
-        return sum;
+        out[offset] = sum;
+        out[offset + 1] = sumX;
+        out[offset + 2] = sumY;
+        out[offset + 3] = sumZ;
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        int length = xSize * ySize;
+        double[] noiseValues = new double[length], noiseX = new double[length], noiseY = new double[length];
+        // Octave weights and their derivatives depend on the noise at each point, so they are tracked per point
+        double[] amp = new double[length], ampX = new double[length], ampY = new double[length];
+        Arrays.fill(amp, fractalBounding);
+        Arrays.fill(values, offset, offset + length, 0);
+        Arrays.fill(dx, offset, offset + length, 0);
+        Arrays.fill(dy, offset, offset + length, 0);
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+        long octaveSeed = seed + salt;
+        double octaveFrequency = 1;
+
+        for(int i = 0; i < octaves; i++) {
+            // Each octave is one grid over the scaled lattice, so the input shares its lattice work across all points
+            derivativeInput.getSampleDerivativeGrid(octaveSeed++, x, y, xStep, yStep, xSize, ySize, noiseValues, noiseX, noiseY, 0);
+            for(int n = 0; n < length; n++) {
+                double noise = Math.abs(noiseValues[n]);
+                double slope = Math.signum(noiseValues[n]) * octaveFrequency;
+                double octaveX = noiseX[n] * slope, octaveY = noiseY[n] * slope;
+                double ridge = noise * -2 + 1;
+                values[offset + n] += ridge * amp[n];
+                dx[offset + n] += ridge * ampX[n] - 2 * octaveX * amp[n];
+                dy[offset + n] += ridge * ampY[n] - 2 * octaveY * amp[n];
+                double weight = InterpolationFunctions.lerp(1.0, 1 - noise, weightedStrength);
+                ampX[n] = (ampX[n] * weight - amp[n] * weightedStrength * octaveX) * gain;
+                ampY[n] = (ampY[n] * weight - amp[n] * weightedStrength * octaveY) * gain;
+                amp[n] *= weight;
+                amp[n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            xStep *= lacunarity;
+            yStep *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        int length = xSize * ySize * zSize;
+        double[] noiseValues = new double[length], noiseX = new double[length], noiseY = new double[length], noiseZ = new double[length];
+        double[] amp = new double[length], ampX = new double[length], ampY = new double[length], ampZ = new double[length];
+        Arrays.fill(amp, fractalBounding);
+        Arrays.fill(values, offset, offset + length, 0);
+        Arrays.fill(dx, offset, offset + length, 0);
+        Arrays.fill(dy, offset, offset + length, 0);
+        Arrays.fill(dz, offset, offset + length, 0);
+        DerivativeSampler derivativeInput = (DerivativeSampler) input;
+        long octaveSeed = seed + salt;
+        double octaveFrequency = 1;
+
+        for(int i = 0; i < octaves; i++) {
+            derivativeInput.getSampleDerivativeGrid(octaveSeed++, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, noiseValues, noiseX,
+                noiseY, noiseZ, 0);
+            for(int n = 0; n < length; n++) {
+                double noise = Math.abs(noiseValues[n]);
+                double slope = Math.signum(noiseValues[n]) * octaveFrequency;
+                double octaveX = noiseX[n] * slope, octaveY = noiseY[n] * slope, octaveZ = noiseZ[n] * slope;
+                double ridge = noise * -2 + 1;
+                values[offset + n] += ridge * amp[n];
+                dx[offset + n] += ridge * ampX[n] - 2 * octaveX * amp[n];
+                dy[offset + n] += ridge * ampY[n] - 2 * octaveY * amp[n];
+                dz[offset + n] += ridge * ampZ[n] - 2 * octaveZ * amp[n];
+                double weight = InterpolationFunctions.lerp(1.0, 1 - noise, weightedStrength);
+                ampX[n] = (ampX[n] * weight - amp[n] * weightedStrength * octaveX) * gain;
+                ampY[n] = (ampY[n] * weight - amp[n] * weightedStrength * octaveY) * gain;
+                ampZ[n] = (ampZ[n] * weight - amp[n] * weightedStrength * octaveZ) * gain;
+                amp[n] *= weight;
+                amp[n] *= gain;
+            }
+
+            x *= lacunarity;
+            y *= lacunarity;
+            z *= lacunarity;
+            xStep *= lacunarity;
+            yStep *= lacunarity;
+            zStep *= lacunarity;
+            octaveFrequency *= lacunarity;
+        }
     }
 }
@@ -10,6 +10,8 @@ package com.dfsek.seismic.algorithms.sampler.noise.random;
 
 import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
 
+import java.util.Arrays;
+
 
 /**
  * NoiseSampler implementation to provide random, normally distributed (Gaussian) noise.
@@ -45,4 +47,68 @@ public class GaussianNoiseSampler extends NoiseFunction {
         double multiplier = Math.sqrt(-2 * Math.log(s) / s);
         return v1 * multiplier;
     }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        // The backing white noise sampler shares our frequency and salt, and applies them once more.
+        long whiteSeed = saltedSeed + salt;
+        double[] xs = new double[ySize];
+        double[] ys = new double[ySize];
+        double[] v1 = new double[ySize];
+        double[] v2 = new double[ySize];
+        for(int j = 0; j < ySize; j++) {
+            ys[j] = (y + j * yStep) * frequency * frequency;
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            Arrays.fill(xs, xi * frequency);
+            WhiteNoiseSampler.getNoiseUnmapped(whiteSeed, xs, ys, v1, 0, ySize);
+            WhiteNoiseSampler.getNoiseUnmapped(whiteSeed + 1, xs, ys, v2, 0, ySize);
+            for(int j = 0; j < ySize; j++) {
+                double u1 = (v1[j] - 1.5) * 2;
+                double u2 = (v2[j] - 1.5) * 2;
+                double s = u1 * u1 + u2 * u2;
+                // rejected pairs are rare enough to redo on the scalar path
+                out[index++] = (s >= 1 || s == 0)
+                               ? getNoiseRaw(saltedSeed, xi, (y + j * yStep) * frequency)
+                               : u1 * Math.sqrt(-2 * Math.log(s) / s);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        long whiteSeed = saltedSeed + salt;
+        double[] xs = new double[zSize];
+        double[] ys = new double[zSize];
+        double[] zs = new double[zSize];
+        double[] v1 = new double[zSize];
+        double[] v2 = new double[zSize];
+        for(int k = 0; k < zSize; k++) {
+            zs[k] = (z + k * zStep) * frequency * frequency;
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = (x + i * xStep) * frequency;
+            Arrays.fill(xs, xi * frequency);
+            for(int j = 0; j < ySize; j++) {
+                double yj = (y + j * yStep) * frequency;
+                Arrays.fill(ys, yj * frequency);
+                WhiteNoiseSampler.getNoiseUnmapped(whiteSeed, xs, ys, zs, v1, 0, zSize);
+                WhiteNoiseSampler.getNoiseUnmapped(whiteSeed + 1, xs, ys, zs, v2, 0, zSize);
+                for(int k = 0; k < zSize; k++) {
+                    double u1 = (v1[k] - 1.5) * 2;
+                    double u2 = (v2[k] - 1.5) * 2;
+                    double s = u1 * u1 + u2 * u2;
+                    out[index++] = (s >= 1 || s == 0)
+                                   ? getNoiseRaw(saltedSeed, xi, yj, (z + k * zStep) * frequency)
+                                   : u1 * Math.sqrt(-2 * Math.log(s) / s);
+                }
+            }
+        }
+    }
 }
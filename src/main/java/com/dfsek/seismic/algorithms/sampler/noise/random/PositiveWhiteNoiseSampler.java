@@ -36,4 +36,9 @@ public class PositiveWhiteNoiseSampler extends WhiteNoiseSampler {
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return (WhiteNoiseSampler.getNoiseUnmapped(seed, x, y, z) - 1);
     }
+
+    @Override
+    protected double map(double unmapped) {
+        return unmapped - 1;
+    }
 }
@@ -0,0 +1,24 @@
+package com.dfsek.seismic.algorithms.sampler.noise.random;
+
+import com.dfsek.seismic.util.VectorizationUtils;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Batch white noise kernels, producing output bit-identical to the scalar functions in {@link WhiteNoiseSampler}.
+ */
+interface WhiteNoiseKernels {
+    /**
+     * The vectorized kernels, or {@code null} if the Vector API is unavailable on this VM.
+     */
+    @Nullable WhiteNoiseKernels VECTORIZED = VectorizationUtils.load(WhiteNoiseKernels.class,
+        "com.dfsek.seismic.algorithms.sampler.noise.random.PanamaWhiteNoiseKernels");
+
+    void randomBits(long seed, double[] xs, double[] ys, long[] out, int offset, int length);
+
+    void randomBits(long seed, double[] xs, double[] ys, double[] zs, long[] out, int offset, int length);
+
+    void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] out, int offset, int length);
+
+    void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] zs, double[] out, int offset, int length);
+}
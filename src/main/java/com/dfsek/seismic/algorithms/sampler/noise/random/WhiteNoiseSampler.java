@@ -10,12 +10,14 @@ package com.dfsek.seismic.algorithms.sampler.noise.random;
 import com.dfsek.seismic.algorithms.hashing.HashingFunctions;
 import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
 
+import java.util.Arrays;
+
 
 /**
  * NoiseSampler implementation to produce random, uniformly distributed (white) noise.
  */
 public class WhiteNoiseSampler extends NoiseFunction {
-    private static final long POSITIVE_POW1 = 0b01111111111L << 52;
+    static final long POSITIVE_POW1 = 0b01111111111L << 52;
     // Bits that when applied to the exponent/sign section of a double, produce a positive number with a power of 1.
 
     public WhiteNoiseSampler(double frequency, long salt) {
@@ -47,6 +49,92 @@ public class WhiteNoiseSampler extends NoiseFunction {
         return Double.longBitsToDouble(base);
     }
 
+    /**
+     * Computes {@link #randomBits(long, double, double)} for every point in a range of parallel coordinate arrays.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates.
+     * @param ys     Y coordinates.
+     * @param out    the array to write the random bits to.
+     * @param offset index of the first point, in all arrays.
+     * @param length number of points.
+     */
+    public static void randomBits(long seed, double[] xs, double[] ys, long[] out, int offset, int length) {
+        WhiteNoiseKernels kernels = WhiteNoiseKernels.VECTORIZED;
+        if(kernels != null) {
+            kernels.randomBits(seed, xs, ys, out, offset, length);
+            return;
+        }
+        for(int i = offset, end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.randomBits(seed, xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Computes {@link #randomBits(long, double, double, double)} for every point in a range of parallel coordinate arrays.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates.
+     * @param ys     Y coordinates.
+     * @param zs     Z coordinates.
+     * @param out    the array to write the random bits to.
+     * @param offset index of the first point, in all arrays.
+     * @param length number of points.
+     */
+    public static void randomBits(long seed, double[] xs, double[] ys, double[] zs, long[] out, int offset, int length) {
+        WhiteNoiseKernels kernels = WhiteNoiseKernels.VECTORIZED;
+        if(kernels != null) {
+            kernels.randomBits(seed, xs, ys, zs, out, offset, length);
+            return;
+        }
+        for(int i = offset, end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.randomBits(seed, xs[i], ys[i], zs[i]);
+        }
+    }
+
+    /**
+     * Computes {@link #getNoiseUnmapped(long, double, double)} for every point in a range of parallel coordinate arrays.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates.
+     * @param ys     Y coordinates.
+     * @param out    the array to write the noise to, may be one of the coordinate arrays.
+     * @param offset index of the first point, in all arrays.
+     * @param length number of points.
+     */
+    public static void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] out, int offset, int length) {
+        WhiteNoiseKernels kernels = WhiteNoiseKernels.VECTORIZED;
+        if(kernels != null) {
+            kernels.getNoiseUnmapped(seed, xs, ys, out, offset, length);
+            return;
+        }
+        for(int i = offset, end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.getNoiseUnmapped(seed, xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Computes {@link #getNoiseUnmapped(long, double, double, double)} for every point in a range of parallel coordinate arrays.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates.
+     * @param ys     Y coordinates.
+     * @param zs     Z coordinates.
+     * @param out    the array to write the noise to, may be one of the coordinate arrays.
+     * @param offset index of the first point, in all arrays.
+     * @param length number of points.
+     */
+    public static void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] zs, double[] out, int offset, int length) {
+        WhiteNoiseKernels kernels = WhiteNoiseKernels.VECTORIZED;
+        if(kernels != null) {
+            kernels.getNoiseUnmapped(seed, xs, ys, zs, out, offset, length);
+            return;
+        }
+        for(int i = offset, end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.getNoiseUnmapped(seed, xs[i], ys[i], zs[i]);
+        }
+    }
+
     public double getNoiseRaw(long seed) {
         return (Double.longBitsToDouble((HashingFunctions.murmur64(seed) & 0x000fffffffffffffL) | WhiteNoiseSampler.POSITIVE_POW1) - 1.5) *
                2;
@@ -61,4 +149,90 @@ public class WhiteNoiseSampler extends NoiseFunction {
     public double getNoiseRaw(long seed, double x, double y, double z) {
         return (WhiteNoiseSampler.getNoiseUnmapped(seed, x, y, z) - 1.5) * 2;
     }
+
+    /**
+     * Maps a value returned by {@code getNoiseUnmapped} to the output range of {@code getNoiseRaw}.
+     *
+     * @param unmapped a value in [1, 2).
+     *
+     * @return the mapped value.
+     */
+    protected double map(double unmapped) {
+        return (unmapped - 1.5) * 2;
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        double[] xs = new double[ySize];
+        double[] ys = new double[ySize];
+        double[] row = new double[ySize];
+        for(int j = 0; j < ySize; j++) {
+            ys[j] = (y + j * yStep) * frequency;
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            Arrays.fill(xs, (x + i * xStep) * frequency);
+            WhiteNoiseSampler.getNoiseUnmapped(saltedSeed, xs, ys, row, 0, ySize);
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = map(row[j]);
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        long saltedSeed = seed + salt;
+        double[] xs = new double[zSize];
+        double[] ys = new double[zSize];
+        double[] zs = new double[zSize];
+        double[] row = new double[zSize];
+        for(int k = 0; k < zSize; k++) {
+            zs[k] = (z + k * zStep) * frequency;
+        }
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            Arrays.fill(xs, (x + i * xStep) * frequency);
+            for(int j = 0; j < ySize; j++) {
+                Arrays.fill(ys, (y + j * yStep) * frequency);
+                WhiteNoiseSampler.getNoiseUnmapped(saltedSeed, xs, ys, zs, row, 0, zSize);
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = map(row[k]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        double[] xf = new double[count];
+        double[] yf = new double[count];
+        for(int n = 0; n < count; n++) {
+            xf[n] = xs[n] * frequency;
+            yf[n] = ys[n] * frequency;
+        }
+        double[] values = new double[count];
+        WhiteNoiseSampler.getNoiseUnmapped(seed + salt, xf, yf, values, 0, count);
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = map(values[n]);
+        }
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        double[] xf = new double[count];
+        double[] yf = new double[count];
+        double[] zf = new double[count];
+        for(int n = 0; n < count; n++) {
+            xf[n] = xs[n] * frequency;
+            yf[n] = ys[n] * frequency;
+            zf[n] = zs[n] * frequency;
+        }
+        double[] values = new double[count];
+        WhiteNoiseSampler.getNoiseUnmapped(seed + salt, xf, yf, zf, values, 0, count);
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = map(values[n]);
+        }
+    }
 }
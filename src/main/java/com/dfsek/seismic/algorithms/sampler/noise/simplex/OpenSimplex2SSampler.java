@@ -312,6 +312,27 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         return value * 9.046026385208288;
     }
 
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(ySize)) {
+            kernels.openSimplex2S((int) (seed + salt), frequency, x, y, xStep, yStep, xSize, ySize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(zSize)) {
+            kernels.openSimplex2S((int) (seed + salt), frequency, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        }
+    }
+
     @Override
     public boolean isDifferentiable() {
         return true;
@@ -319,6 +340,13 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
 
     @Override
     public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
         int seed = (int) sl;
         // 2D OpenSimplex2S case is a modified 2D simplex noise.
         double s = (x + y) * OpenSimplex2StyleSampler.SKEW_2D;
@@ -340,7 +368,7 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         double x0 = xi - t;
         double y0 = yi - t;
 
-        double[] out = { 0.0f, 0.0f, 0.0f };
+        out[offset] = out[offset + 1] = out[offset + 2] = 0;
         double[] grads = SimplexStyleSampler.GRADIENTS_2D;
 
         double a0 = (2.0 / 3.0) - x0 * x0 - y0 * y0;
@@ -349,24 +377,25 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         double gx0 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi0 << DOUBLE_ARRAY_SHIFT));
         double gy0 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi0 | 1) << DOUBLE_ARRAY_SHIFT));
         double rampValue0 = gx0 * x0 + gy0 * y0;
-        out[0] = aaaa0 * rampValue0;
-        out[1] = gx0 * aaaa0 - 8 * rampValue0 * aaa0 * x0;
-        out[2] = gy0 * aaaa0 - 8 * rampValue0 * aaa0 * y0;
+        out[offset] = aaaa0 * rampValue0;
+        out[offset + 1] = gx0 * aaaa0 - 8 * rampValue0 * aaa0 * x0;
+        out[offset + 2] = gy0 * aaaa0 - 8 * rampValue0 * aaa0 * y0;
 
 
-        double a1 = 2 * (1 - 2 * OpenSimplex2StyleSampler.UNSKEW_2D) * (1 / OpenSimplex2StyleSampler.UNSKEW_2D - 2) * t +
-                    ((-2 * (1 - 2 * OpenSimplex2StyleSampler.UNSKEW_2D) * (1 - 2 *
-                                                                               OpenSimplex2StyleSampler.UNSKEW_2D)) + a0);
-        double x1 = x0 - (1 - 2 * OpenSimplex2StyleSampler.UNSKEW_2D);
-        double y1 = y0 - (1 - 2 * OpenSimplex2StyleSampler.UNSKEW_2D);
+        // Mirrors getNoiseRaw, where the falloff of the second vertex is linear in t rather than radial. t is the skewed coordinate sum
+        // scaled by UNSKEW_2D, so it changes by SKEW_2D per unit along either axis
+        double a1 = OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY * t + OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY;
+        double x1 = x0 - OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D;
+        double y1 = y0 - OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D;
         double aa1 = a1 * a1, aaa1 = aa1 * a1, aaaa1 = aa1 * aa1;
         long gi1 = SimplexStyleSampler.gradCoordIndex(seed, i1, j1);
         double gx1 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi1 << DOUBLE_ARRAY_SHIFT));
         double gy1 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi1 | 1) << DOUBLE_ARRAY_SHIFT));
         double rampValue1 = gx1 * x1 + gy1 * y1;
-        out[0] += aaaa1 * rampValue1;
-        out[1] += gx1 * aaaa1 - 8 * rampValue1 * aaa1 * x1;
-        out[2] += gy1 * aaaa1 - 8 * rampValue1 * aaa1 * y1;
+        double falloff1 = 4 * aaa1 * OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY * OpenSimplex2StyleSampler.SKEW_2D * rampValue1;
+        out[offset] += aaaa1 * rampValue1;
+        out[offset + 1] += gx1 * aaaa1 + falloff1;
+        out[offset + 2] += gy1 * aaaa1 + falloff1;
 
         // Nested conditionals were faster than compact bit logic/arithmetic.
         double xmyi = xi - yi;
@@ -381,13 +410,14 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             } else {
+                // Mirrors getNoiseRaw, which offsets this vertex by UNSKEW_2D along both axes
                 double x2 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
-                double y2 = y0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double y2 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
                 double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
                 if(a2 > 0) {
                     double aa2 = a2 * a2, aaa2 = aa2 * a2, aaaa2 = aa2 * aa2;
@@ -395,9 +425,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             }
 
@@ -411,9 +441,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi3 << DOUBLE_ARRAY_SHIFT));
                     double gy3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi3 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue3 = gx3 * x3 + gy3 * y3;
-                    out[0] += aaaa3 * rampValue3;
-                    out[1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x3;
-                    out[2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
+                    out[offset] += aaaa3 * rampValue3;
+                    out[offset + 1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x3;
+                    out[offset + 2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
                 }
             } else {
                 double x3 = x0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
@@ -425,9 +455,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi3 << DOUBLE_ARRAY_SHIFT));
                     double gy3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi3 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue3 = gx3 * x3 + gy3 * y3;
-                    out[0] += aaaa3 * rampValue3;
-                    out[1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x3;
-                    out[2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
+                    out[offset] += aaaa3 * rampValue3;
+                    out[offset + 1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x3;
+                    out[offset + 2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
                 }
             }
         } else {
@@ -441,9 +471,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             } else {
                 double x2 = x0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
@@ -455,9 +485,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             }
 
@@ -471,9 +501,9 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             } else {
                 double x2 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
@@ -485,20 +515,26 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                     double gx2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (gi2 << DOUBLE_ARRAY_SHIFT));
                     double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
                     double rampValue2 = gx2 * x2 + gy2 * y2;
-                    out[0] += aaaa2 * rampValue2;
-                    out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-                    out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
+                    out[offset] += aaaa2 * rampValue2;
+                    out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+                    out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y2;
                 }
             }
         }
-        out[0] *= 18.24196194486065;
-        out[1] *= 18.24196194486065;
-        out[2] *= 18.24196194486065;
-        return out;
+        out[offset] *= 18.24196194486065;
+        out[offset + 1] *= 18.24196194486065;
+        out[offset + 2] *= 18.24196194486065;
     }
 
     @Override
     public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
         int seed = (int) sl;
         // 3D OpenSimplex2S case uses two offset rotated cube grids.
         double r = (x + y + z) * OpenSimplex2StyleSampler.ROTATE_3D; // Rotation, not skew
@@ -523,7 +559,7 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         int yNMask = (int) (-0.5 - yi);
         int zNMask = (int) (-0.5 - zi);
 
-        double[] out = { 0.0f, 0.0f, 0.0f, 0.0f };
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0;
         double[] grads = SimplexStyleSampler.GRADIENTS_3D;
 
         double x0 = xi + xNMask;
@@ -537,10 +573,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         double gy0 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (((long) (gi0 | 1)) << DOUBLE_ARRAY_SHIFT));
         double gz0 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (((long) (gi0 | 2)) << DOUBLE_ARRAY_SHIFT));
         double rampValue0 = gx0 * x0 + gy0 * y0 + gz0 * z0;
-        out[0] = aaaa0 * rampValue0;
-        out[1] = gx0 * aaaa0 - 8 * rampValue0 * aaa0 * x0;
-        out[2] = gy0 * aaaa0 - 8 * rampValue0 * aaa0 * y0;
-        out[3] = gz0 * aaaa0 - 8 * rampValue0 * aaa0 * z0;
+        out[offset] = aaaa0 * rampValue0;
+        out[offset + 1] = gx0 * aaaa0 - 8 * rampValue0 * aaa0 * x0;
+        out[offset + 2] = gy0 * aaaa0 - 8 * rampValue0 * aaa0 * y0;
+        out[offset + 3] = gz0 * aaaa0 - 8 * rampValue0 * aaa0 * z0;
 
         double x1 = xi - 0.5;
         double y1 = yi - 0.5;
@@ -553,10 +589,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
         double gy1 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi1 | 1) << DOUBLE_ARRAY_SHIFT));
         double gz1 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi1 | 2) << DOUBLE_ARRAY_SHIFT));
         double rampValue1 = gx1 * x1 + gy1 * y1 + gz1 * z1;
-        out[0] += aaaa1 * rampValue1;
-        out[1] += gx1 * aaaa1 - 8 * rampValue1 * aaa1 * x1;
-        out[2] += gy1 * aaaa1 - 8 * rampValue1 * aaa1 * y1;
-        out[3] += gz1 * aaaa1 - 8 * rampValue1 * aaa1 * z1;
+        out[offset] += aaaa1 * rampValue1;
+        out[offset + 1] += gx1 * aaaa1 - 8 * rampValue1 * aaa1 * x1;
+        out[offset + 2] += gy1 * aaaa1 - 8 * rampValue1 * aaa1 * y1;
+        out[offset + 3] += gz1 * aaaa1 - 8 * rampValue1 * aaa1 * z1;
 
         double xAFlipMask0 = ((xNMask | 1) << 1) * x1;
         double yAFlipMask0 = ((yNMask | 1) << 1) * y1;
@@ -576,10 +612,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
             double gy2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 1) << DOUBLE_ARRAY_SHIFT));
             double gz2 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi2 | 2) << DOUBLE_ARRAY_SHIFT));
             double rampValue2 = gx2 * x2 + gy2 * y0 + gz2 * z0;
-            out[0] += aaaa2 * rampValue2;
-            out[1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
-            out[2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y0;
-            out[3] += gz2 * aaaa2 - 8 * rampValue2 * aaa2 * z0;
+            out[offset] += aaaa2 * rampValue2;
+            out[offset + 1] += gx2 * aaaa2 - 8 * rampValue2 * aaa2 * x2;
+            out[offset + 2] += gy2 * aaaa2 - 8 * rampValue2 * aaa2 * y0;
+            out[offset + 3] += gz2 * aaaa2 - 8 * rampValue2 * aaa2 * z0;
         } else {
             double a3 = yAFlipMask0 + zAFlipMask0 + a0;
             if(a3 > 0) {
@@ -592,10 +628,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi3 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz3 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi3 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue3 = gx3 * x0 + gy3 * y3 + gz3 * z3;
-                out[0] += aaaa3 * rampValue3;
-                out[1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x0;
-                out[2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
-                out[3] += gz3 * aaaa3 - 8 * rampValue3 * aaa3 * z3;
+                out[offset] += aaaa3 * rampValue3;
+                out[offset + 1] += gx3 * aaaa3 - 8 * rampValue3 * aaa3 * x0;
+                out[offset + 2] += gy3 * aaaa3 - 8 * rampValue3 * aaa3 * y3;
+                out[offset + 3] += gz3 * aaaa3 - 8 * rampValue3 * aaa3 * z3;
             }
 
             double a4 = xAFlipMask1 + a1;
@@ -608,10 +644,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy4 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi4 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz4 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi4 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue4 = gx4 * x4 + gy4 * y1 + gz4 * z1;
-                out[0] += aaaa4 * rampValue4;
-                out[1] += gx4 * aaaa4 - 8 * rampValue4 * aaa4 * x4;
-                out[2] += gy4 * aaaa4 - 8 * rampValue4 * aaa4 * y1;
-                out[3] += gz4 * aaaa4 - 8 * rampValue4 * aaa4 * z1;
+                out[offset] += aaaa4 * rampValue4;
+                out[offset + 1] += gx4 * aaaa4 - 8 * rampValue4 * aaa4 * x4;
+                out[offset + 2] += gy4 * aaaa4 - 8 * rampValue4 * aaa4 * y1;
+                out[offset + 3] += gz4 * aaaa4 - 8 * rampValue4 * aaa4 * z1;
                 skip5 = true;
             }
         }
@@ -627,10 +663,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
             double gy6 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi6 | 1) << DOUBLE_ARRAY_SHIFT));
             double gz6 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi6 | 2) << DOUBLE_ARRAY_SHIFT));
             double rampValue6 = gx6 * x0 + gy6 * y6 + gz6 * z0;
-            out[0] += aaaa6 * rampValue6;
-            out[1] += gx6 * aaaa6 - 8 * rampValue6 * aaa6 * x0;
-            out[2] += gy6 * aaaa6 - 8 * rampValue6 * aaa6 * y6;
-            out[3] += gz6 * aaaa6 - 8 * rampValue6 * aaa6 * z0;
+            out[offset] += aaaa6 * rampValue6;
+            out[offset + 1] += gx6 * aaaa6 - 8 * rampValue6 * aaa6 * x0;
+            out[offset + 2] += gy6 * aaaa6 - 8 * rampValue6 * aaa6 * y6;
+            out[offset + 3] += gz6 * aaaa6 - 8 * rampValue6 * aaa6 * z0;
         } else {
             double a7 = xAFlipMask0 + zAFlipMask0 + a0;
             if(a7 > 0) {
@@ -643,10 +679,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy7 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi7 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz7 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi7 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue7 = gx7 * x7 + gy7 * y0 + gz7 * z7;
-                out[0] += aaaa7 * rampValue7;
-                out[1] += gx7 * aaaa7 - 8 * rampValue7 * aaa7 * x7;
-                out[2] += gy7 * aaaa7 - 8 * rampValue7 * aaa7 * y0;
-                out[3] += gz7 * aaaa7 - 8 * rampValue7 * aaa7 * z7;
+                out[offset] += aaaa7 * rampValue7;
+                out[offset + 1] += gx7 * aaaa7 - 8 * rampValue7 * aaa7 * x7;
+                out[offset + 2] += gy7 * aaaa7 - 8 * rampValue7 * aaa7 * y0;
+                out[offset + 3] += gz7 * aaaa7 - 8 * rampValue7 * aaa7 * z7;
             }
 
             double a8 = yAFlipMask1 + a1;
@@ -659,10 +695,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy8 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi8 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz8 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi8 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue8 = gx8 * x1 + gy8 * y8 + gz8 * z1;
-                out[0] += aaaa8 * rampValue8;
-                out[1] += gx8 * aaaa8 - 8 * rampValue8 * aaa8 * x1;
-                out[2] += gy8 * aaaa8 - 8 * rampValue8 * aaa8 * y8;
-                out[3] += gz8 * aaaa8 - 8 * rampValue8 * aaa8 * z1;
+                out[offset] += aaaa8 * rampValue8;
+                out[offset + 1] += gx8 * aaaa8 - 8 * rampValue8 * aaa8 * x1;
+                out[offset + 2] += gy8 * aaaa8 - 8 * rampValue8 * aaa8 * y8;
+                out[offset + 3] += gz8 * aaaa8 - 8 * rampValue8 * aaa8 * z1;
                 skip9 = true;
             }
         }
@@ -678,10 +714,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
             double gyA = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giA | 1) << DOUBLE_ARRAY_SHIFT));
             double gzA = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giA | 2) << DOUBLE_ARRAY_SHIFT));
             double rampValueA = gxA * x0 + gyA * y0 + gzA * zA;
-            out[0] += aaaaA * rampValueA;
-            out[1] += gxA * aaaaA - 8 * rampValueA * aaaA * x0;
-            out[2] += gyA * aaaaA - 8 * rampValueA * aaaA * y0;
-            out[3] += gzA * aaaaA - 8 * rampValueA * aaaA * zA;
+            out[offset] += aaaaA * rampValueA;
+            out[offset + 1] += gxA * aaaaA - 8 * rampValueA * aaaA * x0;
+            out[offset + 2] += gyA * aaaaA - 8 * rampValueA * aaaA * y0;
+            out[offset + 3] += gzA * aaaaA - 8 * rampValueA * aaaA * zA;
         } else {
             double aB = xAFlipMask0 + yAFlipMask0 + a0;
             if(aB > 0) {
@@ -694,10 +730,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gyB = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giB | 1) << DOUBLE_ARRAY_SHIFT));
                 double gzB = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giB | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValueB = gxB * xB + gyB * yB + gzB * z0;
-                out[0] += aaaaB * rampValueB;
-                out[1] += gxB * aaaaB - 8 * rampValueB * aaaB * xB;
-                out[2] += gyB * aaaaB - 8 * rampValueB * aaaB * yB;
-                out[3] += gzB * aaaaB - 8 * rampValueB * aaaB * z0;
+                out[offset] += aaaaB * rampValueB;
+                out[offset + 1] += gxB * aaaaB - 8 * rampValueB * aaaB * xB;
+                out[offset + 2] += gyB * aaaaB - 8 * rampValueB * aaaB * yB;
+                out[offset + 3] += gzB * aaaaB - 8 * rampValueB * aaaB * z0;
             }
 
             double aC = zAFlipMask1 + a1;
@@ -710,10 +746,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gyC = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giC | 1) << DOUBLE_ARRAY_SHIFT));
                 double gzC = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giC | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValueC = gxC * x1 + gyC * y1 + gzC * zC;
-                out[0] += aaaaC * rampValueC;
-                out[1] += gxC * aaaaC - 8 * rampValueC * aaaC * x1;
-                out[2] += gyC * aaaaC - 8 * rampValueC * aaaC * y1;
-                out[3] += gzC * aaaaC - 8 * rampValueC * aaaC * zC;
+                out[offset] += aaaaC * rampValueC;
+                out[offset + 1] += gxC * aaaaC - 8 * rampValueC * aaaC * x1;
+                out[offset + 2] += gyC * aaaaC - 8 * rampValueC * aaaC * y1;
+                out[offset + 3] += gzC * aaaaC - 8 * rampValueC * aaaC * zC;
                 skipD = true;
             }
         }
@@ -730,10 +766,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy5 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi5 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz5 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi5 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue5 = gx5 * x1 + gy5 * y5 + gz5 * z5;
-                out[0] += aaaa5 * rampValue5;
-                out[1] += gx5 * aaaa5 - 8 * rampValue5 * aaa5 * x1;
-                out[2] += gy5 * aaaa5 - 8 * rampValue5 * aaa5 * y5;
-                out[3] += gz5 * aaaa5 - 8 * rampValue5 * aaa5 * z5;
+                out[offset] += aaaa5 * rampValue5;
+                out[offset + 1] += gx5 * aaaa5 - 8 * rampValue5 * aaa5 * x1;
+                out[offset + 2] += gy5 * aaaa5 - 8 * rampValue5 * aaa5 * y5;
+                out[offset + 3] += gz5 * aaaa5 - 8 * rampValue5 * aaa5 * z5;
             }
         }
 
@@ -749,10 +785,10 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gy9 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi9 | 1) << DOUBLE_ARRAY_SHIFT));
                 double gz9 = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi9 | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValue9 = gx9 * x9 + gy9 * y1 + gz9 * z9;
-                out[0] += aaaa9 * rampValue9;
-                out[1] += gx9 * aaaa9 - 8 * rampValue9 * aaa9 * x9;
-                out[2] += gy9 * aaaa9 - 8 * rampValue9 * aaa9 * y1;
-                out[3] += gz9 * aaaa9 - 8 * rampValue9 * aaa9 * z9;
+                out[offset] += aaaa9 * rampValue9;
+                out[offset + 1] += gx9 * aaaa9 - 8 * rampValue9 * aaa9 * x9;
+                out[offset + 2] += gy9 * aaaa9 - 8 * rampValue9 * aaa9 * y1;
+                out[offset + 3] += gz9 * aaaa9 - 8 * rampValue9 * aaa9 * z9;
             }
         }
 
@@ -768,17 +804,332 @@ public class OpenSimplex2SSampler extends OpenSimplex2StyleSampler {
                 double gyD = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giD | 1) << DOUBLE_ARRAY_SHIFT));
                 double gzD = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((giD | 2) << DOUBLE_ARRAY_SHIFT));
                 double rampValueD = gxD * xD + gyD * yD + gzD * z1;
-                out[0] += aaaaD * rampValueD;
-                out[1] += gxD * aaaaD - 8 * rampValueD * aaaD * xD;
-                out[2] += gyD * aaaaD - 8 * rampValueD * aaaD * yD;
-                out[3] += gzD * aaaaD - 8 * rampValueD * aaaD * z1;
+                out[offset] += aaaaD * rampValueD;
+                out[offset + 1] += gxD * aaaaD - 8 * rampValueD * aaaD * xD;
+                out[offset + 2] += gyD * aaaaD - 8 * rampValueD * aaaD * yD;
+                out[offset + 3] += gzD * aaaaD - 8 * rampValueD * aaaD * z1;
             }
         }
 
-        out[0] *= 9.046026385208288;
-        out[1] *= 9.046026385208288;
-        out[2] *= 9.046026385208288;
-        out[3] *= 9.046026385208288;
-        return out;
+        out[offset] *= 9.046026385208288;
+        out[offset + 1] *= 9.046026385208288;
+        out[offset + 2] *= 9.046026385208288;
+        out[offset + 3] *= 9.046026385208288;
+        OpenSimplex2StyleSampler.unrotateGradient3D(out, offset + 1);
+    }
+
+    @Override
+    public boolean isTwiceDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        // Mirrors getNoiseDerivativeRaw, vertex by vertex
+        double s = (x + y) * OpenSimplex2StyleSampler.SKEW_2D;
+        x += s;
+        y += s;
+
+
+        int i = FloatingPointFunctions.floor(x);
+        int j = FloatingPointFunctions.floor(y);
+        double xi = x - i;
+        double yi = y - j;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+        int i1 = i + NoiseFunction.PRIME_X;
+        int j1 = j + NoiseFunction.PRIME_Y;
+
+        double t = (xi + yi) * OpenSimplex2StyleSampler.UNSKEW_2D;
+        double x0 = xi - t;
+        double y0 = yi - t;
+
+        for(int n = 0; n < 6; n++) out[offset + n] = 0;
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+
+        double a0 = (2.0 / 3.0) - x0 * x0 - y0 * y0;
+        OpenSimplex2SSampler.addVertexHessian2D(out, offset, SimplexStyleSampler.gradCoordIndex(seed, i, j), x0, y0, a0);
+
+        // The falloff of the second vertex is linear in t, so its base has the constant gradient (slope, slope) and no curvature
+        double a1 = OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY * t + OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY;
+        double x1 = x0 - OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D;
+        double y1 = y0 - OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D;
+        double aa1 = a1 * a1, aaa1 = aa1 * a1, aaaa1 = aa1 * aa1;
+        int gi1 = SimplexStyleSampler.gradCoordIndex(seed, i1, j1);
+        double gx1 = grads[gi1], gy1 = grads[gi1 | 1];
+        double rampValue1 = gx1 * x1 + gy1 * y1;
+        double slope = OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY * OpenSimplex2StyleSampler.SKEW_2D;
+        double falloff1 = 4 * aaa1 * slope * rampValue1, curvature1 = 12 * aa1 * slope * slope * rampValue1;
+        out[offset] += aaaa1 * rampValue1;
+        out[offset + 1] += gx1 * aaaa1 + falloff1;
+        out[offset + 2] += gy1 * aaaa1 + falloff1;
+        out[offset + 3] += curvature1 + 8 * aaa1 * slope * gx1;
+        out[offset + 4] += curvature1 + 4 * aaa1 * slope * (gx1 + gy1);
+        out[offset + 5] += curvature1 + 8 * aaa1 * slope * gy1;
+
+        double xmyi = xi - yi;
+        if(t > OpenSimplex2StyleSampler.UNSKEW_2D) {
+            if(xi + xmyi > 1) {
+                double x2 = x0 + (3 * OpenSimplex2StyleSampler.UNSKEW_2D - 2);
+                double y2 = y0 + (3 * OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i + (NoiseFunction.PRIME_X << 1), j + NoiseFunction.PRIME_Y), x2, y2, a2);
+                }
+            } else {
+                double x2 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                double y2 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i, j + NoiseFunction.PRIME_Y), x2, y2, a2);
+                }
+            }
+
+            if(yi - xmyi > 1) {
+                double x3 = x0 + (3 * OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double y3 = y0 + (3 * OpenSimplex2StyleSampler.UNSKEW_2D - 2);
+                double a3 = (2.0 / 3.0) - x3 * x3 - y3 * y3;
+                if(a3 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i + NoiseFunction.PRIME_X, j + (NoiseFunction.PRIME_Y << 1)), x3, y3, a3);
+                }
+            } else {
+                double x3 = x0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double y3 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                double a3 = (2.0 / 3.0) - x3 * x3 - y3 * y3;
+                if(a3 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i + NoiseFunction.PRIME_X, j), x3, y3, a3);
+                }
+            }
+        } else {
+            if(xi + xmyi < 0) {
+                double x2 = x0 + (1 - OpenSimplex2StyleSampler.UNSKEW_2D);
+                double y2 = y0 - OpenSimplex2StyleSampler.UNSKEW_2D;
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i - NoiseFunction.PRIME_X, j), x2, y2, a2);
+                }
+            } else {
+                double x2 = x0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double y2 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i + NoiseFunction.PRIME_X, j), x2, y2, a2);
+                }
+            }
+
+            if(yi < xmyi) {
+                double x2 = x0 - OpenSimplex2StyleSampler.UNSKEW_2D;
+                double y2 = y0 - (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i, j - NoiseFunction.PRIME_Y), x2, y2, a2);
+                }
+            } else {
+                double x2 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                double y2 = y0 + (OpenSimplex2StyleSampler.UNSKEW_2D - 1);
+                double a2 = (2.0 / 3.0) - x2 * x2 - y2 * y2;
+                if(a2 > 0) {
+                    OpenSimplex2SSampler.addVertexHessian2D(out, offset,
+                        SimplexStyleSampler.gradCoordIndex(seed, i, j + NoiseFunction.PRIME_Y), x2, y2, a2);
+                }
+            }
+        }
+        for(int n = 0; n < 6; n++) out[offset + n] *= 18.24196194486065;
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        // Mirrors getNoiseDerivativeRaw, vertex by vertex, in the rotated lattice coordinates
+        double r = (x + y + z) * OpenSimplex2StyleSampler.ROTATE_3D; // Rotation, not skew
+        x = r - x;
+        y = r - y;
+        z = r - z;
+
+
+        int i = FloatingPointFunctions.floor(x);
+        int j = FloatingPointFunctions.floor(y);
+        int k = FloatingPointFunctions.floor(z);
+        double xi = x - i;
+        double yi = y - j;
+        double zi = z - k;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+        k *= NoiseFunction.PRIME_Z;
+        int seed2 = seed + 1293373;
+
+        int xNMask = (int) (-0.5 - xi);
+        int yNMask = (int) (-0.5 - yi);
+        int zNMask = (int) (-0.5 - zi);
+
+        for(int n = 0; n < 10; n++) out[offset + n] = 0;
+
+        double x0 = xi + xNMask;
+        double y0 = yi + yNMask;
+        double z0 = zi + zNMask;
+        double a0 = 0.75 - x0 * x0 - y0 * y0 - z0 * z0;
+        OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed, i + (xNMask & NoiseFunction.PRIME_X),
+            j + (yNMask & NoiseFunction.PRIME_Y), k + (zNMask & NoiseFunction.PRIME_Z)), x0, y0, z0, a0);
+
+        double x1 = xi - 0.5;
+        double y1 = yi - 0.5;
+        double z1 = zi - 0.5;
+        double a1 = 0.75 - x1 * x1 - y1 * y1 - z1 * z1;
+        OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2, i + NoiseFunction.PRIME_X,
+            j + NoiseFunction.PRIME_Y, k + NoiseFunction.PRIME_Z), x1, y1, z1, a1);
+
+        double xAFlipMask0 = ((xNMask | 1) << 1) * x1;
+        double yAFlipMask0 = ((yNMask | 1) << 1) * y1;
+        double zAFlipMask0 = ((zNMask | 1) << 1) * z1;
+        double xAFlipMask1 = (-2 - (xNMask << 2)) * x1 - 1.0;
+        double yAFlipMask1 = (-2 - (yNMask << 2)) * y1 - 1.0;
+        double zAFlipMask1 = (-2 - (zNMask << 2)) * z1 - 1.0;
+
+        boolean skip5 = false;
+        double a2 = xAFlipMask0 + a0;
+        if(a2 > 0) {
+            OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                i + (~xNMask & NoiseFunction.PRIME_X), j + (yNMask & NoiseFunction.PRIME_Y), k + (zNMask & NoiseFunction.PRIME_Z)),
+                x0 - (xNMask | 1), y0, z0, a2);
+        } else {
+            double a3 = yAFlipMask0 + zAFlipMask0 + a0;
+            if(a3 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                    i + (xNMask & NoiseFunction.PRIME_X), j + (~yNMask & NoiseFunction.PRIME_Y), k + (~zNMask & NoiseFunction.PRIME_Z)),
+                    x0, y0 - (yNMask | 1), z0 - (zNMask | 1), a3);
+            }
+
+            double a4 = xAFlipMask1 + a1;
+            if(a4 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2,
+                    i + (xNMask & (NoiseFunction.PRIME_X << 1)), j + NoiseFunction.PRIME_Y, k + NoiseFunction.PRIME_Z),
+                    (xNMask | 1) + x1, y1, z1, a4);
+                skip5 = true;
+            }
+        }
+
+        boolean skip9 = false;
+        double a6 = yAFlipMask0 + a0;
+        if(a6 > 0) {
+            OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                i + (xNMask & NoiseFunction.PRIME_X), j + (~yNMask & NoiseFunction.PRIME_Y), k + (zNMask & NoiseFunction.PRIME_Z)),
+                x0, y0 - (yNMask | 1), z0, a6);
+        } else {
+            double a7 = xAFlipMask0 + zAFlipMask0 + a0;
+            if(a7 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                    i + (~xNMask & NoiseFunction.PRIME_X), j + (yNMask & NoiseFunction.PRIME_Y), k + (~zNMask & NoiseFunction.PRIME_Z)),
+                    x0 - (xNMask | 1), y0, z0 - (zNMask | 1), a7);
+            }
+
+            double a8 = yAFlipMask1 + a1;
+            if(a8 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2, i + NoiseFunction.PRIME_X,
+                    j + (yNMask & (NoiseFunction.PRIME_Y << 1)), k + NoiseFunction.PRIME_Z), x1, (yNMask | 1) + y1, z1, a8);
+                skip9 = true;
+            }
+        }
+
+        boolean skipD = false;
+        double aA = zAFlipMask0 + a0;
+        if(aA > 0) {
+            OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                i + (xNMask & NoiseFunction.PRIME_X), j + (yNMask & NoiseFunction.PRIME_Y), k + (~zNMask & NoiseFunction.PRIME_Z)),
+                x0, y0, z0 - (zNMask | 1), aA);
+        } else {
+            double aB = xAFlipMask0 + yAFlipMask0 + a0;
+            if(aB > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed,
+                    i + (~xNMask & NoiseFunction.PRIME_X), j + (~yNMask & NoiseFunction.PRIME_Y), k + (zNMask & NoiseFunction.PRIME_Z)),
+                    x0 - (xNMask | 1), y0 - (yNMask | 1), z0, aB);
+            }
+
+            double aC = zAFlipMask1 + a1;
+            if(aC > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2, i + NoiseFunction.PRIME_X,
+                    j + NoiseFunction.PRIME_Y, k + (zNMask & (NoiseFunction.PRIME_Z << 1))), x1, y1, (zNMask | 1) + z1, aC);
+                skipD = true;
+            }
+        }
+
+        if(!skip5) {
+            double a5 = yAFlipMask1 + zAFlipMask1 + a1;
+            if(a5 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2, i + NoiseFunction.PRIME_X,
+                    j + (yNMask & (NoiseFunction.PRIME_Y << 1)), k + (zNMask & (NoiseFunction.PRIME_Z << 1))),
+                    x1, (yNMask | 1) + y1, (zNMask | 1) + z1, a5);
+            }
+        }
+
+        if(!skip9) {
+            double a9 = xAFlipMask1 + zAFlipMask1 + a1;
+            if(a9 > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2,
+                    i + (xNMask & (NoiseFunction.PRIME_X << 1)), j + NoiseFunction.PRIME_Y, k + (zNMask & (NoiseFunction.PRIME_Z << 1))),
+                    (xNMask | 1) + x1, y1, (zNMask | 1) + z1, a9);
+            }
+        }
+
+        if(!skipD) {
+            double aD = xAFlipMask1 + yAFlipMask1 + a1;
+            if(aD > 0) {
+                OpenSimplex2SSampler.addVertexHessian3D(out, offset, SimplexStyleSampler.gradCoordIndex(seed2,
+                    i + (xNMask & (NoiseFunction.PRIME_X << 1)), j + (yNMask & (NoiseFunction.PRIME_Y << 1)), k + NoiseFunction.PRIME_Z),
+                    (xNMask | 1) + x1, (yNMask | 1) + y1, z1, aD);
+            }
+        }
+
+        for(int n = 0; n < 10; n++) out[offset + n] *= 9.046026385208288;
+        OpenSimplex2StyleSampler.unrotateGradient3D(out, offset + 1);
+        OpenSimplex2StyleSampler.unrotateHessian3D(out, offset + 4);
+    }
+
+    /**
+     * Adds the value, gradient and upper triangle of the Hessian of one vertex's contribution, {@code a^4 * (g . d)}, to {@code out}.
+     * The falloff base {@code a} is radial, so its gradient is {@code -2d} and its Hessian is {@code -2I}.
+     */
+    private static void addVertexHessian2D(double[] out, int offset, int gi, double xd, double yd, double a) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        double gx = grads[gi], gy = grads[gi | 1];
+        double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+        double rampValue = gx * xd + gy * yd;
+        double curvature = 48 * rampValue * aa, cross = -8 * aaa;
+        out[offset] += aaaa * rampValue;
+        out[offset + 1] += gx * aaaa - 8 * rampValue * aaa * xd;
+        out[offset + 2] += gy * aaaa - 8 * rampValue * aaa * yd;
+        out[offset + 3] += curvature * xd * xd + cross * (2 * gx * xd + rampValue);
+        out[offset + 4] += curvature * xd * yd + cross * (gx * yd + gy * xd);
+        out[offset + 5] += curvature * yd * yd + cross * (2 * gy * yd + rampValue);
+    }
+
+    /**
+     * 3D version of {@link #addVertexHessian2D(double[], int, int, double, double, double)}.
+     */
+    private static void addVertexHessian3D(double[] out, int offset, int gi, double xd, double yd, double zd, double a) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        double gx = grads[gi], gy = grads[gi | 1], gz = grads[gi | 2];
+        double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+        double rampValue = gx * xd + gy * yd + gz * zd;
+        double curvature = 48 * rampValue * aa, cross = -8 * aaa;
+        out[offset] += aaaa * rampValue;
+        out[offset + 1] += gx * aaaa - 8 * rampValue * aaa * xd;
+        out[offset + 2] += gy * aaaa - 8 * rampValue * aaa * yd;
+        out[offset + 3] += gz * aaaa - 8 * rampValue * aaa * zd;
+        out[offset + 4] += curvature * xd * xd + cross * (2 * gx * xd + rampValue);
+        out[offset + 5] += curvature * xd * yd + cross * (gx * yd + gy * xd);
+        out[offset + 6] += curvature * xd * zd + cross * (gx * zd + gz * xd);
+        out[offset + 7] += curvature * yd * yd + cross * (2 * gy * yd + rampValue);
+        out[offset + 8] += curvature * yd * zd + cross * (gy * zd + gz * yd);
+        out[offset + 9] += curvature * zd * zd + cross * (2 * gz * zd + rampValue);
     }
 }
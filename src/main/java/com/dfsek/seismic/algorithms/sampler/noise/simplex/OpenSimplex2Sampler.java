@@ -17,6 +17,15 @@ import com.dfsek.seismic.util.UnsafeUtils;
  * NoiseSampler implementation to provide OpenSimplex2 noise.
  */
 public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
+    /**
+     * Offsets and falloff of the lattice vertices contributing to a point, shared between the seeds of a multi-seed sample.
+     */
+    private final ThreadLocal<double[]> vertexOffsets = ThreadLocal.withInitial(() -> new double[16]);
+    /**
+     * Primed coordinates of the contributing lattice vertices, and for 3D whether the vertex is on the second lattice.
+     */
+    private final ThreadLocal<int[]> vertexCoords = ThreadLocal.withInitial(() -> new int[16]);
+
     public OpenSimplex2Sampler(double frequency, long salt) {
         super(frequency, salt);
     }
@@ -181,13 +190,914 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
         return value * 32.69428253173828125;
     }
 
+    @Override
+    protected boolean hasNativeFloatNoise() {
+        return true;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y) {
+        int seed = (int) sl;
+        // Skew and floor in double precision so large coordinates keep their lattice cell, then work on the cell offsets in float.
+        double s = (x + y) * OpenSimplex2StyleSampler.SKEW_2D;
+        x += s;
+        y += s;
+
+        int i = FloatingPointFunctions.floor(x);
+        int j = FloatingPointFunctions.floor(y);
+        float xi = (float) (x - i);
+        float yi = (float) (y - j);
+
+        float t = (xi + yi) * OpenSimplex2StyleSampler.UNSKEW_2D_FLOAT;
+        float x0 = xi - t;
+        float y0 = yi - t;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+
+        float value = 0;
+
+        float[] grads = SimplexStyleSampler.GRADIENTS_2D_FLOAT;
+
+        float a = OpenSimplex2StyleSampler.RSQUARED_2D_FLOAT - x0 * x0 - y0 * y0;
+        if(a > 0) {
+            float aa = a * a;
+            value = aa * aa * SimplexStyleSampler.gradCoord(grads, seed, i, j, x0, y0);
+        }
+
+        float c = ArithmeticFunctions.fma(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY_FLOAT, t, (
+            OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY_FLOAT + a));
+        if(c > 0) {
+            float x2 = x0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1_FLOAT;
+            float y2 = y0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1_FLOAT;
+            float cc = c * c;
+            value = ArithmeticFunctions.fma(cc * cc,
+                SimplexStyleSampler.gradCoord(grads, seed, i + NoiseFunction.PRIME_X, j + NoiseFunction.PRIME_Y, x2, y2), value);
+        }
+
+        if(y0 > x0) {
+            float x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_FLOAT;
+            float y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1_FLOAT;
+            float b = OpenSimplex2StyleSampler.RSQUARED_2D_FLOAT - x1 * x1 - y1 * y1;
+            if(b > 0) {
+                float bb = b * b;
+                value = ArithmeticFunctions.fma(bb * bb,
+                    SimplexStyleSampler.gradCoord(grads, seed, i, j + NoiseFunction.PRIME_Y, x1, y1), value);
+            }
+        } else {
+            float x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1_FLOAT;
+            float y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D_FLOAT;
+            float b = OpenSimplex2StyleSampler.RSQUARED_2D_FLOAT - x1 * x1 - y1 * y1;
+            if(b > 0) {
+                float bb = b * b;
+                value = ArithmeticFunctions.fma(bb * bb,
+                    SimplexStyleSampler.gradCoord(grads, seed, i + NoiseFunction.PRIME_X, j, x1, y1), value);
+            }
+        }
+
+        return value * 99.83685446303647f;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y, double z) {
+        int seed = (int) sl;
+        double r = (x + y + z) * OpenSimplex2StyleSampler.ROTATE_3D; // Rotation, not skew
+        x = r - x;
+        y = r - y;
+        z = r - z;
+
+        int i = FloatingPointFunctions.round(x);
+        int j = FloatingPointFunctions.round(y);
+        int k = FloatingPointFunctions.round(z);
+        float x0 = (float) (x - i);
+        float y0 = (float) (y - j);
+        float z0 = (float) (z - k);
+
+        int xNSign = (int) (-1.0f - x0) | 1;
+        int yNSign = (int) (-1.0f - y0) | 1;
+        int zNSign = (int) (-1.0f - z0) | 1;
+
+        float ax0 = xNSign * -x0;
+        float ay0 = yNSign * -y0;
+        float az0 = zNSign * -z0;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+        k *= NoiseFunction.PRIME_Z;
+
+        float value = 0;
+        float a = (OpenSimplex2StyleSampler.RSQUARED_3D_FLOAT - x0 * x0) - ArithmeticFunctions.fma(y0, y0, z0 * z0);
+
+        float[] grads = SimplexStyleSampler.GRADIENTS_3D_FLOAT;
+
+        for(int l = 0; ; l++) {
+            if(a > 0) {
+                float aa = a * a;
+                value = ArithmeticFunctions.fma(aa * aa, SimplexStyleSampler.gradCoord(grads, seed, i, j, k, x0, y0, z0), value);
+            }
+
+            if(ax0 >= ay0 && ax0 >= az0) {
+                float b = a + ax0 + ax0;
+                if(b > 1) {
+                    b -= 1;
+                    float bb = b * b;
+                    value = ArithmeticFunctions.fma(bb * bb,
+                        SimplexStyleSampler.gradCoord(grads, seed, i - xNSign * NoiseFunction.PRIME_X, j, k, x0 + xNSign,
+                            y0, z0), value);
+                }
+            } else if(ay0 > ax0 && ay0 >= az0) {
+                float b = a + ay0 + ay0;
+                if(b > 1) {
+                    b -= 1;
+                    float bb = b * b;
+                    value = ArithmeticFunctions.fma(bb * bb,
+                        SimplexStyleSampler.gradCoord(grads, seed, i, j - yNSign * NoiseFunction.PRIME_Y, k, x0,
+                            y0 + yNSign, z0), value);
+                }
+            } else {
+                float b = a + az0 + az0;
+                if(b > 1) {
+                    b -= 1;
+                    float bb = b * b;
+                    value = ArithmeticFunctions.fma(bb * bb,
+                        SimplexStyleSampler.gradCoord(grads, seed, i, j, k - zNSign * NoiseFunction.PRIME_Z, x0, y0,
+                            z0 + zNSign), value);
+                }
+            }
+
+            if(l == 1) break;
+
+            ax0 = 0.5f - ax0;
+            ay0 = 0.5f - ay0;
+            az0 = 0.5f - az0;
+
+            x0 = xNSign * ax0;
+            y0 = yNSign * ay0;
+            z0 = zNSign * az0;
+
+            a += (0.75f - ax0) - (ay0 + az0);
+
+            i += (xNSign >> 1) & NoiseFunction.PRIME_X;
+            j += (yNSign >> 1) & NoiseFunction.PRIME_Y;
+            k += (zNSign >> 1) & NoiseFunction.PRIME_Z;
+
+            xNSign = -xNSign;
+            yNSign = -yNSign;
+            zNSign = -zNSign;
+
+            seed = ~seed;
+        }
+
+        return value * 32.69428253173828125f;
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        int sl = (int) (seed + salt);
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(ySize)) {
+            kernels.openSimplex2(sl, frequency, x, y, xStep, yStep, xSize, ySize, out, offset);
+            return;
+        }
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        // Gradients of the four vertices of the current skewed cell: (0, 0), (1, 1), (0, 1), (1, 0).
+        double[] cell = new double[8];
+        int cellI = 0, cellJ = 0;
+        boolean cellValid = false;
+
+        int index = offset;
+        for(int xIndex = 0; xIndex < xSize; xIndex++) {
+            double xf = (x + xIndex * xStep) * frequency;
+            for(int yIndex = 0; yIndex < ySize; yIndex++) {
+                double yf = (y + yIndex * yStep) * frequency;
+                double s = (xf + yf) * OpenSimplex2StyleSampler.SKEW_2D;
+                double xs = xf + s;
+                double ys = yf + s;
+
+                int i = FloatingPointFunctions.floor(xs);
+                int j = FloatingPointFunctions.floor(ys);
+                if(!cellValid || i != cellI || j != cellJ) {
+                    int iPrimed = i * NoiseFunction.PRIME_X;
+                    int jPrimed = j * NoiseFunction.PRIME_Y;
+                    loadGradient2D(grads, cell, 0, sl, iPrimed, jPrimed);
+                    loadGradient2D(grads, cell, 2, sl, iPrimed + NoiseFunction.PRIME_X, jPrimed + NoiseFunction.PRIME_Y);
+                    loadGradient2D(grads, cell, 4, sl, iPrimed, jPrimed + NoiseFunction.PRIME_Y);
+                    loadGradient2D(grads, cell, 6, sl, iPrimed + NoiseFunction.PRIME_X, jPrimed);
+                    cellI = i;
+                    cellJ = j;
+                    cellValid = true;
+                }
+
+                double xi = xs - i;
+                double yi = ys - j;
+
+                double t = (xi + yi) * OpenSimplex2StyleSampler.UNSKEW_2D;
+                double x0 = xi - t;
+                double y0 = yi - t;
+
+                double value = 0;
+
+                double a = OpenSimplex2StyleSampler.RSQUARED_2D - x0 * x0 - y0 * y0;
+                if(a > 0) {
+                    double aa = a * a;
+                    value = aa * aa * ArithmeticFunctions.fma(x0, cell[0], y0 * cell[1]);
+                }
+
+                double c = ArithmeticFunctions.fma(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY, t, (
+                    OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY + a));
+                if(c > 0) {
+                    double x2 = x0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1;
+                    double y2 = y0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1;
+                    double cc = c * c;
+                    value = ArithmeticFunctions.fma(cc * cc, ArithmeticFunctions.fma(x2, cell[2], y2 * cell[3]), value);
+                }
+
+                if(y0 > x0) {
+                    double x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                    double y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+                    double b = OpenSimplex2StyleSampler.RSQUARED_2D - x1 * x1 - y1 * y1;
+                    if(b > 0) {
+                        double bb = b * b;
+                        value = ArithmeticFunctions.fma(bb * bb, ArithmeticFunctions.fma(x1, cell[4], y1 * cell[5]), value);
+                    }
+                } else {
+                    double x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+                    double y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                    double b = OpenSimplex2StyleSampler.RSQUARED_2D - x1 * x1 - y1 * y1;
+                    if(b > 0) {
+                        double bb = b * b;
+                        value = ArithmeticFunctions.fma(bb * bb, ArithmeticFunctions.fma(x1, cell[6], y1 * cell[7]), value);
+                    }
+                }
+
+                out[index++] = value * 99.83685446303647f;
+            }
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        int sl = (int) (seed + salt);
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(zSize)) {
+            kernels.openSimplex2(sl, frequency, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+            return;
+        }
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        /*
+         * Gradients reachable from the current cell. Slots 0-6 belong to the first lattice: the rounded vertex followed by its
+         * -X, +X, -Y, +Y, -Z and +Z neighbours. Slots 7-14 belong to the second lattice: the corners (dx, dy, dz) of the unit cube
+         * above the rounded vertex, at slot 7 + dx * 4 + dy * 2 + dz.
+         */
+        double[] cell = new double[15 * 3];
+        int cellI = 0, cellJ = 0, cellK = 0;
+        boolean cellValid = false;
+
+        int index = offset;
+        for(int xIndex = 0; xIndex < xSize; xIndex++) {
+            double xf = (x + xIndex * xStep) * frequency;
+            for(int yIndex = 0; yIndex < ySize; yIndex++) {
+                double yf = (y + yIndex * yStep) * frequency;
+                double xy = xf + yf;
+                for(int zIndex = 0; zIndex < zSize; zIndex++) {
+                    double zf = (z + zIndex * zStep) * frequency;
+                    double r = (xy + zf) * OpenSimplex2StyleSampler.ROTATE_3D;
+                    double xr = r - xf;
+                    double yr = r - yf;
+                    double zr = r - zf;
+
+                    int i = FloatingPointFunctions.round(xr);
+                    int j = FloatingPointFunctions.round(yr);
+                    int k = FloatingPointFunctions.round(zr);
+                    if(!cellValid || i != cellI || j != cellJ || k != cellK) {
+                        loadCell3D(grads, cell, sl, i * NoiseFunction.PRIME_X, j * NoiseFunction.PRIME_Y, k * NoiseFunction.PRIME_Z);
+                        cellI = i;
+                        cellJ = j;
+                        cellK = k;
+                        cellValid = true;
+                    }
+
+                    double x0 = xr - i;
+                    double y0 = yr - j;
+                    double z0 = zr - k;
+
+                    int xNSign = (int) (-1.0 - x0) | 1;
+                    int yNSign = (int) (-1.0 - y0) | 1;
+                    int zNSign = (int) (-1.0 - z0) | 1;
+
+                    double ax0 = xNSign * -x0;
+                    double ay0 = yNSign * -y0;
+                    double az0 = zNSign * -z0;
+
+                    // Slots of the current vertex and of the neighbour on each axis, starting on the first lattice.
+                    int center = 0;
+                    int xNeighbor = xNSign > 0 ? 1 : 2;
+                    int yNeighbor = yNSign > 0 ? 3 : 4;
+                    int zNeighbor = zNSign > 0 ? 5 : 6;
+
+                    double value = 0;
+                    double a = (OpenSimplex2StyleSampler.RSQUARED_3D - x0 * x0) - ArithmeticFunctions.fma(y0, y0, z0 * z0);
+
+                    for(int l = 0; ; l++) {
+                        if(a > 0) {
+                            double aa = a * a;
+                            value = ArithmeticFunctions.fma(aa * aa, dot3D(cell, center, x0, y0, z0), value);
+                        }
+
+                        if(ax0 >= ay0 && ax0 >= az0) {
+                            double b = a + ax0 + ax0;
+                            if(b > 1) {
+                                b -= 1;
+                                double bb = b * b;
+                                value = ArithmeticFunctions.fma(bb * bb, dot3D(cell, xNeighbor, x0 + xNSign, y0, z0), value);
+                            }
+                        } else if(ay0 > ax0 && ay0 >= az0) {
+                            double b = a + ay0 + ay0;
+                            if(b > 1) {
+                                b -= 1;
+                                double bb = b * b;
+                                value = ArithmeticFunctions.fma(bb * bb, dot3D(cell, yNeighbor, x0, y0 + yNSign, z0), value);
+                            }
+                        } else {
+                            double b = a + az0 + az0;
+                            if(b > 1) {
+                                b -= 1;
+                                double bb = b * b;
+                                value = ArithmeticFunctions.fma(bb * bb, dot3D(cell, zNeighbor, x0, y0, z0 + zNSign), value);
+                            }
+                        }
+
+                        if(l == 1) break;
+
+                        ax0 = 0.5 - ax0;
+                        ay0 = 0.5 - ay0;
+                        az0 = 0.5 - az0;
+
+                        x0 = xNSign * ax0;
+                        y0 = yNSign * ay0;
+                        z0 = zNSign * az0;
+
+                        a += (0.75 - ax0) - (ay0 + az0);
+
+                        // The second lattice vertex sits on the far side of every negative-signed axis.
+                        int dx = xNSign >>> 31;
+                        int dy = yNSign >>> 31;
+                        int dz = zNSign >>> 31;
+                        center = 7 + dx * 4 + dy * 2 + dz;
+                        xNeighbor = 7 + (dx ^ 1) * 4 + dy * 2 + dz;
+                        yNeighbor = 7 + dx * 4 + (dy ^ 1) * 2 + dz;
+                        zNeighbor = 7 + dx * 4 + dy * 2 + (dz ^ 1);
+
+                        xNSign = -xNSign;
+                        yNSign = -yNSign;
+                        zNSign = -zNSign;
+                    }
+
+                    out[index++] = value * 32.69428253173828125;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        int sl = (int) (seed + salt);
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        // Same vertex layout as the value grid
+        double[] cell = new double[8];
+        int cellI = 0, cellJ = 0;
+        boolean cellValid = false;
+
+        int index = offset;
+        for(int xIndex = 0; xIndex < xSize; xIndex++) {
+            double xf = (x + xIndex * xStep) * frequency;
+            for(int yIndex = 0; yIndex < ySize; yIndex++) {
+                double yf = (y + yIndex * yStep) * frequency;
+                double s = (xf + yf) * OpenSimplex2StyleSampler.SKEW_2D;
+                double xs = xf + s;
+                double ys = yf + s;
+
+                int i = FloatingPointFunctions.floor(xs);
+                int j = FloatingPointFunctions.floor(ys);
+                if(!cellValid || i != cellI || j != cellJ) {
+                    int iPrimed = i * NoiseFunction.PRIME_X;
+                    int jPrimed = j * NoiseFunction.PRIME_Y;
+                    loadGradient2D(grads, cell, 0, sl, iPrimed, jPrimed);
+                    loadGradient2D(grads, cell, 2, sl, iPrimed + NoiseFunction.PRIME_X, jPrimed + NoiseFunction.PRIME_Y);
+                    loadGradient2D(grads, cell, 4, sl, iPrimed, jPrimed + NoiseFunction.PRIME_Y);
+                    loadGradient2D(grads, cell, 6, sl, iPrimed + NoiseFunction.PRIME_X, jPrimed);
+                    cellI = i;
+                    cellJ = j;
+                    cellValid = true;
+                }
+
+                double xi = xs - i;
+                double yi = ys - j;
+
+                double t = (xi + yi) * OpenSimplex2StyleSampler.UNSKEW_2D;
+                double x0 = xi - t;
+                double y0 = yi - t;
+
+                double value = 0, valueX = 0, valueY = 0;
+
+                double a = OpenSimplex2StyleSampler.RSQUARED_2D - x0 * x0 - y0 * y0;
+                if(a > 0) {
+                    double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+                    double rampValue = ArithmeticFunctions.fma(cell[0], x0, cell[1] * y0);
+                    value = aaaa * rampValue;
+                    valueX = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0, cell[0] * aaaa);
+                    valueY = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0, cell[1] * aaaa);
+                }
+
+                double c = ArithmeticFunctions.fma(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY, t, (
+                    OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY + a));
+                if(c > 0) {
+                    double x2 = x0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1;
+                    double y2 = y0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1;
+                    double cc = c * c, ccc = cc * c, cccc = cc * cc;
+                    double rampValue = ArithmeticFunctions.fma(cell[2], x2, cell[3] * y2);
+                    value = ArithmeticFunctions.fma(cccc, rampValue, value);
+                    valueX = ArithmeticFunctions.fma(-8 * rampValue * ccc, x2, ArithmeticFunctions.fma(cell[2], cccc, valueX));
+                    valueY = ArithmeticFunctions.fma(-8 * rampValue * ccc, y2, ArithmeticFunctions.fma(cell[3], cccc, valueY));
+                }
+
+                double x1, y1;
+                int slot;
+                if(y0 > x0) {
+                    x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                    y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+                    slot = 4;
+                } else {
+                    x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+                    y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+                    slot = 6;
+                }
+                double b = OpenSimplex2StyleSampler.RSQUARED_2D - x1 * x1 - y1 * y1;
+                if(b > 0) {
+                    double bb = b * b, bbb = bb * b, bbbb = bb * bb;
+                    double gx = cell[slot], gy = cell[slot + 1];
+                    double rampValue = ArithmeticFunctions.fma(gx, x1, gy * y1);
+                    value = ArithmeticFunctions.fma(bbbb, rampValue, value);
+                    valueX = ArithmeticFunctions.fma(-8 * rampValue * bbb, x1, ArithmeticFunctions.fma(gx, bbbb, valueX));
+                    valueY = ArithmeticFunctions.fma(-8 * rampValue * bbb, y1, ArithmeticFunctions.fma(gy, bbbb, valueY));
+                }
+
+                values[index] = value * 99.83685446303647f;
+                dx[index] = valueX * 99.83685446303647f;
+                dy[index++] = valueY * 99.83685446303647f;
+            }
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        int sl = (int) (seed + salt);
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        // Same slot layout as the value grid, see loadCell3D
+        double[] cell = new double[15 * 3];
+        int cellI = 0, cellJ = 0, cellK = 0;
+        boolean cellValid = false;
+
+        int index = offset;
+        for(int xIndex = 0; xIndex < xSize; xIndex++) {
+            double xf = (x + xIndex * xStep) * frequency;
+            for(int yIndex = 0; yIndex < ySize; yIndex++) {
+                double yf = (y + yIndex * yStep) * frequency;
+                double xy = xf + yf;
+                for(int zIndex = 0; zIndex < zSize; zIndex++) {
+                    double zf = (z + zIndex * zStep) * frequency;
+                    double r = (xy + zf) * OpenSimplex2StyleSampler.ROTATE_3D;
+                    double xr = r - xf;
+                    double yr = r - yf;
+                    double zr = r - zf;
+
+                    int i = FloatingPointFunctions.round(xr);
+                    int j = FloatingPointFunctions.round(yr);
+                    int k = FloatingPointFunctions.round(zr);
+                    if(!cellValid || i != cellI || j != cellJ || k != cellK) {
+                        loadCell3D(grads, cell, sl, i * NoiseFunction.PRIME_X, j * NoiseFunction.PRIME_Y, k * NoiseFunction.PRIME_Z);
+                        cellI = i;
+                        cellJ = j;
+                        cellK = k;
+                        cellValid = true;
+                    }
+
+                    double x0 = xr - i;
+                    double y0 = yr - j;
+                    double z0 = zr - k;
+
+                    int xNSign = (int) (-1.0 - x0) | 1;
+                    int yNSign = (int) (-1.0 - y0) | 1;
+                    int zNSign = (int) (-1.0 - z0) | 1;
+
+                    double ax0 = xNSign * -x0;
+                    double ay0 = yNSign * -y0;
+                    double az0 = zNSign * -z0;
+
+                    int center = 0;
+                    int xNeighbor = xNSign > 0 ? 1 : 2;
+                    int yNeighbor = yNSign > 0 ? 3 : 4;
+                    int zNeighbor = zNSign > 0 ? 5 : 6;
+
+                    double value = 0, valueX = 0, valueY = 0, valueZ = 0;
+                    double a = (OpenSimplex2StyleSampler.RSQUARED_3D - x0 * x0) - ArithmeticFunctions.fma(y0, y0, z0 * z0);
+
+                    for(int l = 0; ; l++) {
+                        if(a > 0) {
+                            double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+                            int base = center * 3;
+                            double rampValue = dot3D(cell, center, x0, y0, z0);
+                            value = ArithmeticFunctions.fma(aaaa, rampValue, value);
+                            valueX = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0,
+                                ArithmeticFunctions.fma(cell[base], aaaa, valueX));
+                            valueY = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0,
+                                ArithmeticFunctions.fma(cell[base + 1], aaaa, valueY));
+                            valueZ = ArithmeticFunctions.fma(-8 * rampValue * aaa, z0,
+                                ArithmeticFunctions.fma(cell[base + 2], aaaa, valueZ));
+                        }
+
+                        double b, xb = x0, yb = y0, zb = z0;
+                        int neighbor;
+                        if(ax0 >= ay0 && ax0 >= az0) {
+                            b = a + ax0 + ax0;
+                            xb += xNSign;
+                            neighbor = xNeighbor;
+                        } else if(ay0 > ax0 && ay0 >= az0) {
+                            b = a + ay0 + ay0;
+                            yb += yNSign;
+                            neighbor = yNeighbor;
+                        } else {
+                            b = a + az0 + az0;
+                            zb += zNSign;
+                            neighbor = zNeighbor;
+                        }
+                        if(b > 1) {
+                            b -= 1;
+                            double bb = b * b, bbb = bb * b, bbbb = bb * bb;
+                            int base = neighbor * 3;
+                            double rampValue = dot3D(cell, neighbor, xb, yb, zb);
+                            value = ArithmeticFunctions.fma(bbbb, rampValue, value);
+                            valueX = ArithmeticFunctions.fma(-8 * rampValue * bbb, xb,
+                                ArithmeticFunctions.fma(cell[base], bbbb, valueX));
+                            valueY = ArithmeticFunctions.fma(-8 * rampValue * bbb, yb,
+                                ArithmeticFunctions.fma(cell[base + 1], bbbb, valueY));
+                            valueZ = ArithmeticFunctions.fma(-8 * rampValue * bbb, zb,
+                                ArithmeticFunctions.fma(cell[base + 2], bbbb, valueZ));
+                        }
+
+                        if(l == 1) break;
+
+                        ax0 = 0.5 - ax0;
+                        ay0 = 0.5 - ay0;
+                        az0 = 0.5 - az0;
+
+                        x0 = xNSign * ax0;
+                        y0 = yNSign * ay0;
+                        z0 = zNSign * az0;
+
+                        a += (0.75 - ax0) - (ay0 + az0);
+
+                        int dxSlot = xNSign >>> 31;
+                        int dySlot = yNSign >>> 31;
+                        int dzSlot = zNSign >>> 31;
+                        center = 7 + dxSlot * 4 + dySlot * 2 + dzSlot;
+                        xNeighbor = 7 + (dxSlot ^ 1) * 4 + dySlot * 2 + dzSlot;
+                        yNeighbor = 7 + dxSlot * 4 + (dySlot ^ 1) * 2 + dzSlot;
+                        zNeighbor = 7 + dxSlot * 4 + dySlot * 2 + (dzSlot ^ 1);
+
+                        xNSign = -xNSign;
+                        yNSign = -yNSign;
+                        zNSign = -zNSign;
+                    }
+
+                    valueX *= 32.69428253173828125;
+                    valueY *= 32.69428253173828125;
+                    valueZ *= 32.69428253173828125;
+                    // See unrotateGradient3D
+                    double rotated = (valueX + valueY + valueZ) * OpenSimplex2StyleSampler.ROTATE_3D;
+                    values[index] = value * 32.69428253173828125;
+                    dx[index] = rotated - valueX;
+                    dy[index] = rotated - valueY;
+                    dz[index++] = rotated - valueZ;
+                }
+            }
+        }
+    }
+
+    private static void loadGradient2D(double[] grads, double[] cell, int slot, int seed, int xPrimed, int yPrimed) {
+        int gi = SimplexStyleSampler.gradCoordIndex(seed, xPrimed, yPrimed);
+        cell[slot] = grads[gi];
+        cell[slot + 1] = grads[gi | 1];
+    }
+
+    private static void loadGradient3D(double[] grads, double[] cell, int slot, int seed, int xPrimed, int yPrimed, int zPrimed) {
+        int gi = SimplexStyleSampler.gradCoordIndex(seed, xPrimed, yPrimed, zPrimed);
+        int base = slot * 3;
+        cell[base] = grads[gi];
+        cell[base + 1] = grads[gi | 1];
+        cell[base + 2] = grads[gi | 2];
+    }
+
+    private static void loadCell3D(double[] grads, double[] cell, int seed, int i, int j, int k) {
+        loadGradient3D(grads, cell, 0, seed, i, j, k);
+        loadGradient3D(grads, cell, 1, seed, i - NoiseFunction.PRIME_X, j, k);
+        loadGradient3D(grads, cell, 2, seed, i + NoiseFunction.PRIME_X, j, k);
+        loadGradient3D(grads, cell, 3, seed, i, j - NoiseFunction.PRIME_Y, k);
+        loadGradient3D(grads, cell, 4, seed, i, j + NoiseFunction.PRIME_Y, k);
+        loadGradient3D(grads, cell, 5, seed, i, j, k - NoiseFunction.PRIME_Z);
+        loadGradient3D(grads, cell, 6, seed, i, j, k + NoiseFunction.PRIME_Z);
+        int secondSeed = ~seed;
+        for(int dx = 0; dx < 2; dx++) {
+            for(int dy = 0; dy < 2; dy++) {
+                for(int dz = 0; dz < 2; dz++) {
+                    loadGradient3D(grads, cell, 7 + dx * 4 + dy * 2 + dz, secondSeed, i + dx * NoiseFunction.PRIME_X,
+                        j + dy * NoiseFunction.PRIME_Y, k + dz * NoiseFunction.PRIME_Z);
+                }
+            }
+        }
+    }
+
+    private static double dot3D(double[] cell, int slot, double xd, double yd, double zd) {
+        int base = slot * 3;
+        return ArithmeticFunctions.fma(xd, cell[base], ArithmeticFunctions.fma(yd, cell[base + 1], zd * cell[base + 2]));
+    }
+
+    /**
+     * Finds the lattice vertices contributing to a 2D point, in the order {@link #getNoiseRaw(long, double, double)} accumulates them.
+     *
+     * @return the number of vertices, each stored as x offset, y offset and falloff base in {@code offsets} and as primed x and y in
+     *     {@code coords}.
+     */
+    private static int vertices2D(double x, double y, double[] offsets, int[] coords) {
+        double s = (x + y) * OpenSimplex2StyleSampler.SKEW_2D;
+        x += s;
+        y += s;
+
+        int i = FloatingPointFunctions.floor(x);
+        int j = FloatingPointFunctions.floor(y);
+        double xi = x - i;
+        double yi = y - j;
+
+        double t = (xi + yi) * OpenSimplex2StyleSampler.UNSKEW_2D;
+        double x0 = xi - t;
+        double y0 = yi - t;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+
+        int count = 0;
+        double a = OpenSimplex2StyleSampler.RSQUARED_2D - x0 * x0 - y0 * y0;
+        if(a > 0) {
+            count = vertex2D(offsets, coords, count, x0, y0, a, i, j);
+        }
+
+        double c = ArithmeticFunctions.fma(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY, t, (
+            OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY + a));
+        if(c > 0) {
+            count = vertex2D(offsets, coords, count, x0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1,
+                y0 + OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1, c, i + NoiseFunction.PRIME_X, j + NoiseFunction.PRIME_Y);
+        }
+
+        if(y0 > x0) {
+            double x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+            double y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+            double b = OpenSimplex2StyleSampler.RSQUARED_2D - x1 * x1 - y1 * y1;
+            if(b > 0) {
+                count = vertex2D(offsets, coords, count, x1, y1, b, i, j + NoiseFunction.PRIME_Y);
+            }
+        } else {
+            double x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+            double y1 = y0 + OpenSimplex2StyleSampler.UNSKEW_2D;
+            double b = OpenSimplex2StyleSampler.RSQUARED_2D - x1 * x1 - y1 * y1;
+            if(b > 0) {
+                count = vertex2D(offsets, coords, count, x1, y1, b, i + NoiseFunction.PRIME_X, j);
+            }
+        }
+        return count;
+    }
+
+    private static int vertex2D(double[] offsets, int[] coords, int count, double xd, double yd, double falloff, int xPrimed,
+                                int yPrimed) {
+        offsets[count * 3] = xd;
+        offsets[count * 3 + 1] = yd;
+        offsets[count * 3 + 2] = falloff;
+        coords[count * 2] = xPrimed;
+        coords[count * 2 + 1] = yPrimed;
+        return count + 1;
+    }
+
+    /**
+     * Finds the lattice vertices contributing to a 3D point, in the order {@link #getNoiseRaw(long, double, double, double)} accumulates
+     * them.
+     *
+     * @return the number of vertices, each stored as x, y and z offsets and falloff base in {@code offsets} and as primed x, y and z
+     *     followed by 1 for the second lattice, whose gradients use the inverted seed, in {@code coords}.
+     */
+    private static int vertices3D(double x, double y, double z, double[] offsets, int[] coords) {
+        double r = (x + y + z) * OpenSimplex2StyleSampler.ROTATE_3D; // Rotation, not skew
+        x = r - x;
+        y = r - y;
+        z = r - z;
+
+        int i = FloatingPointFunctions.round(x);
+        int j = FloatingPointFunctions.round(y);
+        int k = FloatingPointFunctions.round(z);
+        double x0 = x - i;
+        double y0 = y - j;
+        double z0 = z - k;
+
+        int xNSign = (int) (-1.0 - x0) | 1;
+        int yNSign = (int) (-1.0 - y0) | 1;
+        int zNSign = (int) (-1.0 - z0) | 1;
+
+        double ax0 = xNSign * -x0;
+        double ay0 = yNSign * -y0;
+        double az0 = zNSign * -z0;
+
+        i *= NoiseFunction.PRIME_X;
+        j *= NoiseFunction.PRIME_Y;
+        k *= NoiseFunction.PRIME_Z;
+
+        int count = 0;
+        double a = (OpenSimplex2StyleSampler.RSQUARED_3D - x0 * x0) - ArithmeticFunctions.fma(y0, y0, z0 * z0);
+
+        for(int l = 0; ; l++) {
+            if(a > 0) {
+                count = vertex3D(offsets, coords, count, x0, y0, z0, a, i, j, k, l);
+            }
+
+            if(ax0 >= ay0 && ax0 >= az0) {
+                double b = a + ax0 + ax0;
+                if(b > 1) {
+                    count = vertex3D(offsets, coords, count, x0 + xNSign, y0, z0, b - 1, i - xNSign * NoiseFunction.PRIME_X, j, k, l);
+                }
+            } else if(ay0 > ax0 && ay0 >= az0) {
+                double b = a + ay0 + ay0;
+                if(b > 1) {
+                    count = vertex3D(offsets, coords, count, x0, y0 + yNSign, z0, b - 1, i, j - yNSign * NoiseFunction.PRIME_Y, k, l);
+                }
+            } else {
+                double b = a + az0 + az0;
+                if(b > 1) {
+                    count = vertex3D(offsets, coords, count, x0, y0, z0 + zNSign, b - 1, i, j, k - zNSign * NoiseFunction.PRIME_Z, l);
+                }
+            }
+
+            if(l == 1) break;
+
+            ax0 = 0.5 - ax0;
+            ay0 = 0.5 - ay0;
+            az0 = 0.5 - az0;
+
+            x0 = xNSign * ax0;
+            y0 = yNSign * ay0;
+            z0 = zNSign * az0;
+
+            a += (0.75 - ax0) - (ay0 + az0);
+
+            i += (xNSign >> 1) & NoiseFunction.PRIME_X;
+            j += (yNSign >> 1) & NoiseFunction.PRIME_Y;
+            k += (zNSign >> 1) & NoiseFunction.PRIME_Z;
+
+            xNSign = -xNSign;
+            yNSign = -yNSign;
+            zNSign = -zNSign;
+        }
+        return count;
+    }
+
+    private static int vertex3D(double[] offsets, int[] coords, int count, double xd, double yd, double zd, double falloff, int xPrimed,
+                                int yPrimed, int zPrimed, int lattice) {
+        int base = count * 4;
+        offsets[base] = xd;
+        offsets[base + 1] = yd;
+        offsets[base + 2] = zd;
+        offsets[base + 3] = falloff;
+        coords[base] = xPrimed;
+        coords[base + 1] = yPrimed;
+        coords[base + 2] = zPrimed;
+        coords[base + 3] = lattice;
+        return count + 1;
+    }
+
+    @Override
+    public void getNoiseRawSeeds(long sl, double x, double y, int count, double[] out, int offset) {
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices2D(x, y, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        for(int n = 0; n < count; n++) {
+            int seed = (int) (sl + n);
+            double value = 0;
+            for(int v = 0; v < vertices; v++) {
+                double a = offsets[v * 3 + 2];
+                double aa = a * a;
+                value = ArithmeticFunctions.fma(aa * aa,
+                    SimplexStyleSampler.gradCoord(grads, seed, coords[v * 2], coords[v * 2 + 1], offsets[v * 3], offsets[v * 3 + 1]),
+                    value);
+            }
+            out[offset + n] = value * 99.83685446303647f;
+        }
+    }
+
+    @Override
+    public void getNoiseRawSeeds(long sl, double x, double y, double z, int count, double[] out, int offset) {
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices3D(x, y, z, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        for(int n = 0; n < count; n++) {
+            int seed = (int) (sl + n);
+            double value = 0;
+            for(int v = 0, base = 0; v < vertices; v++, base += 4) {
+                double a = offsets[base + 3];
+                double aa = a * a;
+                value = ArithmeticFunctions.fma(aa * aa,
+                    SimplexStyleSampler.gradCoord(grads, coords[base + 3] == 0 ? seed : ~seed, coords[base], coords[base + 1],
+                        coords[base + 2], offsets[base], offsets[base + 1], offsets[base + 2]), value);
+            }
+            out[offset + n] = value * 32.69428253173828125;
+        }
+    }
+
+    @Override
+    public void getNoiseDerivativeRawSeeds(long sl, double x, double y, int count, double[] out, int offset) {
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices2D(x, y, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        for(int n = 0, o = offset; n < count; n++, o += 3) {
+            int seed = (int) (sl + n);
+            double value = 0, dx = 0, dy = 0;
+            for(int v = 0; v < vertices; v++) {
+                double xd = offsets[v * 3], yd = offsets[v * 3 + 1], a = offsets[v * 3 + 2];
+                double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+                int gi = SimplexStyleSampler.gradCoordIndex(seed, coords[v * 2], coords[v * 2 + 1]);
+                double gx = grads[gi], gy = grads[gi | 1];
+
+                double rampValue = ArithmeticFunctions.fma(gx, xd, gy * yd);
+                value = ArithmeticFunctions.fma(aaaa, rampValue, value);
+                dx = ArithmeticFunctions.fma(-8 * rampValue * aaa, xd, ArithmeticFunctions.fma(gx, aaaa, dx));
+                dy = ArithmeticFunctions.fma(-8 * rampValue * aaa, yd, ArithmeticFunctions.fma(gy, aaaa, dy));
+            }
+            out[o] = value * 99.83685446303647f;
+            out[o + 1] = dx * 99.83685446303647f;
+            out[o + 2] = dy * 99.83685446303647f;
+        }
+    }
+
+    @Override
+    public void getNoiseDerivativeRawSeeds(long sl, double x, double y, double z, int count, double[] out, int offset) {
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices3D(x, y, z, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        for(int n = 0, o = offset; n < count; n++, o += 4) {
+            int seed = (int) (sl + n);
+            double value = 0, dx = 0, dy = 0, dz = 0;
+            for(int v = 0, base = 0; v < vertices; v++, base += 4) {
+                double xd = offsets[base], yd = offsets[base + 1], zd = offsets[base + 2], a = offsets[base + 3];
+                double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+                int gi = SimplexStyleSampler.gradCoordIndex(coords[base + 3] == 0 ? seed : ~seed, coords[base], coords[base + 1],
+                    coords[base + 2]);
+                double gx = grads[gi], gy = grads[gi | 1], gz = grads[gi | 2];
+
+                double rampValue = ArithmeticFunctions.fma(gx, xd, ArithmeticFunctions.fma(gy, yd, gz * zd));
+                value = ArithmeticFunctions.fma(aaaa, rampValue, value);
+                dx = ArithmeticFunctions.fma(-8 * rampValue * aaa, xd, ArithmeticFunctions.fma(gx, aaaa, dx));
+                dy = ArithmeticFunctions.fma(-8 * rampValue * aaa, yd, ArithmeticFunctions.fma(gy, aaaa, dy));
+                dz = ArithmeticFunctions.fma(-8 * rampValue * aaa, zd, ArithmeticFunctions.fma(gz, aaaa, dz));
+            }
+            out[o] = value * 32.69428253173828125;
+            out[o + 1] = dx * 32.69428253173828125;
+            out[o + 2] = dy * 32.69428253173828125;
+            out[o + 3] = dz * 32.69428253173828125;
+            OpenSimplex2StyleSampler.unrotateGradient3D(out, o + 1);
+        }
+    }
+
     @Override
     public boolean isDifferentiable() {
         return true;
     }
 
+    @Override
+    public boolean isTwiceDifferentiable() {
+        return true;
+    }
+
     @Override
     public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
         int seed = (int) sl;
         // 2D OpenSimplex2 case uses the same algorithm as ordinary Simplex.
         double s = (x + y) * OpenSimplex2StyleSampler.SKEW_2D;
@@ -207,7 +1117,7 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
         i *= NoiseFunction.PRIME_X;
         j *= NoiseFunction.PRIME_Y;
 
-        double[] out = { 0.0f, 0.0f, 0.0f };
+        out[offset] = out[offset + 1] = out[offset + 2] = 0;
         double[] grads = SimplexStyleSampler.GRADIENTS_2D;
 
         double a = OpenSimplex2StyleSampler.RSQUARED_2D - x0 * x0 - y0 * y0;
@@ -219,9 +1129,9 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
             double gy = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (((long) (gi | 1)) << DOUBLE_ARRAY_SHIFT));
 
             double rampValue = ArithmeticFunctions.fma(gx, x0, gy * y0);
-            out[0] = ArithmeticFunctions.fma(aaaa, rampValue, out[0]);
-            out[1] = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0, ArithmeticFunctions.fma(gx, aaaa, out[1]));
-            out[2] = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0, ArithmeticFunctions.fma(gy, aaaa, out[2]));
+            out[offset] = ArithmeticFunctions.fma(aaaa, rampValue, out[offset]);
+            out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0, ArithmeticFunctions.fma(gx, aaaa, out[offset + 1]));
+            out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0, ArithmeticFunctions.fma(gy, aaaa, out[offset + 2]));
         }
 
         double c = ArithmeticFunctions.fma(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY, t, (
@@ -236,9 +1146,9 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
             double gy = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + (((long) (gi | 1)) << DOUBLE_ARRAY_SHIFT));
 
             double rampValue = ArithmeticFunctions.fma(gx, x2, gy * y2);
-            out[0] = ArithmeticFunctions.fma(cccc, rampValue, out[0]);
-            out[1] = ArithmeticFunctions.fma(-8 * rampValue * ccc, x2, ArithmeticFunctions.fma(gx, cccc, out[1]));
-            out[2] = ArithmeticFunctions.fma(-8 * rampValue * ccc, y2, ArithmeticFunctions.fma(gy, cccc, out[2]));
+            out[offset] = ArithmeticFunctions.fma(cccc, rampValue, out[offset]);
+            out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * ccc, x2, ArithmeticFunctions.fma(gx, cccc, out[offset + 1]));
+            out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * ccc, y2, ArithmeticFunctions.fma(gy, cccc, out[offset + 2]));
         }
 
         if(y0 > x0) {
@@ -253,9 +1163,9 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                 double gy = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 1) << DOUBLE_ARRAY_SHIFT));
 
                 double rampValue = ArithmeticFunctions.fma(gx, x1, gy * y1);
-                out[0] = ArithmeticFunctions.fma(bbbb, rampValue, out[0]);
-                out[1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x1, ArithmeticFunctions.fma(gx, bbbb, out[1]));
-                out[2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y1, ArithmeticFunctions.fma(gy, bbbb, out[2]));
+                out[offset] = ArithmeticFunctions.fma(bbbb, rampValue, out[offset]);
+                out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x1, ArithmeticFunctions.fma(gx, bbbb, out[offset + 1]));
+                out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y1, ArithmeticFunctions.fma(gy, bbbb, out[offset + 2]));
             }
         } else {
             double x1 = x0 + OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
@@ -269,20 +1179,26 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                 double gy = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 1) << DOUBLE_ARRAY_SHIFT));
 
                 double rampValue = ArithmeticFunctions.fma(gx, x1, gy * y1);
-                out[0] = ArithmeticFunctions.fma(bbbb, rampValue, out[0]);
-                out[1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x1, ArithmeticFunctions.fma(gx, bbbb, out[1]));
-                out[2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y1, ArithmeticFunctions.fma(gy, bbbb, out[2]));
+                out[offset] = ArithmeticFunctions.fma(bbbb, rampValue, out[offset]);
+                out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x1, ArithmeticFunctions.fma(gx, bbbb, out[offset + 1]));
+                out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y1, ArithmeticFunctions.fma(gy, bbbb, out[offset + 2]));
             }
         }
 
-        out[0] *= 99.83685446303647f;
-        out[1] *= 99.83685446303647f;
-        out[2] *= 99.83685446303647f;
-        return out;
+        out[offset] *= 99.83685446303647f;
+        out[offset + 1] *= 99.83685446303647f;
+        out[offset + 2] *= 99.83685446303647f;
     }
 
     @Override
     public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
         int seed = (int) sl;
         // 3D OpenSimplex2Sampler case uses two offset rotated cube grids.
         double r = (x + y + z) * OpenSimplex2StyleSampler.ROTATE_3D; // Rotation, not skew
@@ -310,7 +1226,7 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
         j *= NoiseFunction.PRIME_Y;
         k *= NoiseFunction.PRIME_Z;
 
-        double[] out = { 0.0f, 0.0f, 0.0f, 0.0f };
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0;
         double[] grads = SimplexStyleSampler.GRADIENTS_3D;
         double a = (OpenSimplex2StyleSampler.RSQUARED_3D - x0 * x0) - (ArithmeticFunctions.fma(y0, y0, z0 * z0));
 
@@ -324,10 +1240,10 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                 double gz = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 2) << DOUBLE_ARRAY_SHIFT));
 
                 double rampValue = ArithmeticFunctions.fma(gx, x0, ArithmeticFunctions.fma(gy, y0, gz * z0));
-                out[0] = ArithmeticFunctions.fma(aaaa, rampValue, out[0]);
-                out[1] = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0, ArithmeticFunctions.fma(gx, aaaa, out[1]));
-                out[2] = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0, ArithmeticFunctions.fma(gy, aaaa, out[2]));
-                out[3] = ArithmeticFunctions.fma(-8 * rampValue * aaa, z0, ArithmeticFunctions.fma(gz, aaaa, out[3]));
+                out[offset] = ArithmeticFunctions.fma(aaaa, rampValue, out[offset]);
+                out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * aaa, x0, ArithmeticFunctions.fma(gx, aaaa, out[offset + 1]));
+                out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * aaa, y0, ArithmeticFunctions.fma(gy, aaaa, out[offset + 2]));
+                out[offset + 3] = ArithmeticFunctions.fma(-8 * rampValue * aaa, z0, ArithmeticFunctions.fma(gz, aaaa, out[offset + 3]));
             }
 
             if(ax0 >= ay0 && ax0 >= az0) {
@@ -342,10 +1258,11 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                     double gz = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 2) << DOUBLE_ARRAY_SHIFT));
 
                     double rampValue = ArithmeticFunctions.fma(gx, (x0 + xNSign), ArithmeticFunctions.fma(gy, y0, gz * z0));
-                    out[0] = ArithmeticFunctions.fma(bbbb, rampValue, out[0]);
-                    out[1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (x0 + xNSign), ArithmeticFunctions.fma(gx, bbbb, out[1]));
-                    out[2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y0, ArithmeticFunctions.fma(gy, bbbb, out[2]));
-                    out[3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, z0, ArithmeticFunctions.fma(gz, bbbb, out[3]));
+                    out[offset] = ArithmeticFunctions.fma(bbbb, rampValue, out[offset]);
+                    out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (x0 + xNSign),
+                        ArithmeticFunctions.fma(gx, bbbb, out[offset + 1]));
+                    out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y0, ArithmeticFunctions.fma(gy, bbbb, out[offset + 2]));
+                    out[offset + 3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, z0, ArithmeticFunctions.fma(gz, bbbb, out[offset + 3]));
 
                 }
             } else if(ay0 > ax0 && ay0 >= az0) {
@@ -360,10 +1277,11 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                     double gz = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 2) << DOUBLE_ARRAY_SHIFT));
 
                     double rampValue = ArithmeticFunctions.fma(gx, x0, ArithmeticFunctions.fma(gy, (y0 + yNSign), gz * z0));
-                    out[0] = ArithmeticFunctions.fma(bbbb, rampValue, out[0]);
-                    out[1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x0, ArithmeticFunctions.fma(gx, bbbb, out[1]));
-                    out[2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (y0 + yNSign), ArithmeticFunctions.fma(gy, bbbb, out[2]));
-                    out[3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, z0, ArithmeticFunctions.fma(gz, bbbb, out[3]));
+                    out[offset] = ArithmeticFunctions.fma(bbbb, rampValue, out[offset]);
+                    out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x0, ArithmeticFunctions.fma(gx, bbbb, out[offset + 1]));
+                    out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (y0 + yNSign),
+                        ArithmeticFunctions.fma(gy, bbbb, out[offset + 2]));
+                    out[offset + 3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, z0, ArithmeticFunctions.fma(gz, bbbb, out[offset + 3]));
                 }
             } else {
                 double b = a + az0 + az0;
@@ -377,10 +1295,11 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
                     double gz = UnsafeUtils.UNSAFE.getDouble(grads, DOUBLE_ARRAY_BASE + ((gi | 2) << DOUBLE_ARRAY_SHIFT));
 
                     double rampValue = ArithmeticFunctions.fma(gx, x0, ArithmeticFunctions.fma(gy, y0, gz * (z0 + zNSign)));
-                    out[0] = ArithmeticFunctions.fma(bbbb, rampValue, out[0]);
-                    out[1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x0, ArithmeticFunctions.fma(gx, bbbb, out[1]));
-                    out[2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y0, ArithmeticFunctions.fma(gy, bbbb, out[2]));
-                    out[3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (z0 + zNSign), ArithmeticFunctions.fma(gz, bbbb, out[3]));
+                    out[offset] = ArithmeticFunctions.fma(bbbb, rampValue, out[offset]);
+                    out[offset + 1] = ArithmeticFunctions.fma(-8 * rampValue * bbb, x0, ArithmeticFunctions.fma(gx, bbbb, out[offset + 1]));
+                    out[offset + 2] = ArithmeticFunctions.fma(-8 * rampValue * bbb, y0, ArithmeticFunctions.fma(gy, bbbb, out[offset + 2]));
+                    out[offset + 3] = ArithmeticFunctions.fma(-8 * rampValue * bbb, (z0 + zNSign),
+                        ArithmeticFunctions.fma(gz, bbbb, out[offset + 3]));
 
                 }
             }
@@ -408,10 +1327,87 @@ public class OpenSimplex2Sampler extends OpenSimplex2StyleSampler {
 
             seed = ~seed;
         }
-        out[0] *= 32.69428253173828125;
-        out[1] *= 32.69428253173828125;
-        out[2] *= 32.69428253173828125;
-        out[3] *= 32.69428253173828125;
-        return out;
+        out[offset] *= 32.69428253173828125;
+        out[offset + 1] *= 32.69428253173828125;
+        out[offset + 2] *= 32.69428253173828125;
+        out[offset + 3] *= 32.69428253173828125;
+        OpenSimplex2StyleSampler.unrotateGradient3D(out, offset + 1);
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices2D(x, y, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        double value = 0, dx = 0, dy = 0, dxx = 0, dxy = 0, dyy = 0;
+        for(int v = 0; v < vertices; v++) {
+            double xd = offsets[v * 3], yd = offsets[v * 3 + 1], a = offsets[v * 3 + 2];
+            double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+            int gi = SimplexStyleSampler.gradCoordIndex(seed, coords[v * 2], coords[v * 2 + 1]);
+            double gx = grads[gi], gy = grads[gi | 1];
+
+            double rampValue = ArithmeticFunctions.fma(gx, xd, gy * yd);
+            value = ArithmeticFunctions.fma(aaaa, rampValue, value);
+            dx = ArithmeticFunctions.fma(-8 * rampValue * aaa, xd, ArithmeticFunctions.fma(gx, aaaa, dx));
+            dy = ArithmeticFunctions.fma(-8 * rampValue * aaa, yd, ArithmeticFunctions.fma(gy, aaaa, dy));
+
+            // Second derivatives of a^4 * (g . d), where the gradient of the falloff base a is -2d
+            double curvature = 48 * rampValue * aa, cross = -8 * aaa;
+            dxx += curvature * xd * xd + cross * (2 * gx * xd + rampValue);
+            dxy += curvature * xd * yd + cross * (gx * yd + gy * xd);
+            dyy += curvature * yd * yd + cross * (2 * gy * yd + rampValue);
+        }
+        out[offset] = value * 99.83685446303647f;
+        out[offset + 1] = dx * 99.83685446303647f;
+        out[offset + 2] = dy * 99.83685446303647f;
+        out[offset + 3] = dxx * 99.83685446303647f;
+        out[offset + 4] = dxy * 99.83685446303647f;
+        out[offset + 5] = dyy * 99.83685446303647f;
+    }
+
+    @Override
+    public void getNoiseHessianRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        double[] offsets = vertexOffsets.get();
+        int[] coords = vertexCoords.get();
+        int vertices = OpenSimplex2Sampler.vertices3D(x, y, z, offsets, coords);
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        double value = 0, dx = 0, dy = 0, dz = 0, dxx = 0, dxy = 0, dxz = 0, dyy = 0, dyz = 0, dzz = 0;
+        for(int v = 0, base = 0; v < vertices; v++, base += 4) {
+            double xd = offsets[base], yd = offsets[base + 1], zd = offsets[base + 2], a = offsets[base + 3];
+            double aa = a * a, aaa = aa * a, aaaa = aa * aa;
+            int gi = SimplexStyleSampler.gradCoordIndex(coords[base + 3] == 0 ? seed : ~seed, coords[base], coords[base + 1],
+                coords[base + 2]);
+            double gx = grads[gi], gy = grads[gi | 1], gz = grads[gi | 2];
+
+            double rampValue = ArithmeticFunctions.fma(gx, xd, ArithmeticFunctions.fma(gy, yd, gz * zd));
+            value = ArithmeticFunctions.fma(aaaa, rampValue, value);
+            dx = ArithmeticFunctions.fma(-8 * rampValue * aaa, xd, ArithmeticFunctions.fma(gx, aaaa, dx));
+            dy = ArithmeticFunctions.fma(-8 * rampValue * aaa, yd, ArithmeticFunctions.fma(gy, aaaa, dy));
+            dz = ArithmeticFunctions.fma(-8 * rampValue * aaa, zd, ArithmeticFunctions.fma(gz, aaaa, dz));
+
+            // See comment in 2D version
+            double curvature = 48 * rampValue * aa, cross = -8 * aaa;
+            dxx += curvature * xd * xd + cross * (2 * gx * xd + rampValue);
+            dxy += curvature * xd * yd + cross * (gx * yd + gy * xd);
+            dxz += curvature * xd * zd + cross * (gx * zd + gz * xd);
+            dyy += curvature * yd * yd + cross * (2 * gy * yd + rampValue);
+            dyz += curvature * yd * zd + cross * (gy * zd + gz * yd);
+            dzz += curvature * zd * zd + cross * (2 * gz * zd + rampValue);
+        }
+        out[offset] = value * 32.69428253173828125;
+        out[offset + 1] = dx * 32.69428253173828125;
+        out[offset + 2] = dy * 32.69428253173828125;
+        out[offset + 3] = dz * 32.69428253173828125;
+        out[offset + 4] = dxx * 32.69428253173828125;
+        out[offset + 5] = dxy * 32.69428253173828125;
+        out[offset + 6] = dxz * 32.69428253173828125;
+        out[offset + 7] = dyy * 32.69428253173828125;
+        out[offset + 8] = dyz * 32.69428253173828125;
+        out[offset + 9] = dzz * 32.69428253173828125;
+        OpenSimplex2StyleSampler.unrotateGradient3D(out, offset + 1);
+        OpenSimplex2StyleSampler.unrotateHessian3D(out, offset + 4);
     }
 }
@@ -15,8 +15,53 @@ public abstract class OpenSimplex2StyleSampler extends SimplexStyleSampler {
     protected static final double ROTATE_3D = (2.0 / 3.0);
     protected static final double RSQUARED_2D = 0.5;
     protected static final double RSQUARED_3D = 0.6;
+    protected static final float UNSKEW_2D_FLOAT = (float) OpenSimplex2StyleSampler.UNSKEW_2D;
+    protected static final float UNSKEW_2D_MINUS_1_FLOAT = (float) OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+    protected static final float GRADIENT_SCALE_PRIMARY_FLOAT = (float) OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY;
+    protected static final float GRADIENT_SCALE_SECONDARY_FLOAT = (float) OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY;
+    protected static final float DOUBLE_UNSKEW_2D_MINUS_1_FLOAT = (float) OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1;
+    protected static final float RSQUARED_2D_FLOAT = 0.5f;
+    protected static final float RSQUARED_3D_FLOAT = 0.6f;
 
     public OpenSimplex2StyleSampler(double frequency, long salt) {
         super(frequency, salt);
     }
+
+    /**
+     * Maps a 3D gradient taken in the rotated lattice coordinates {@code r - x}, {@code r - y} and {@code r - z}, where
+     * {@code r = (x + y + z) * ROTATE_3D}, back to the sampled coordinates. The Jacobian of the rotation is {@code ROTATE_3D - I} and
+     * symmetric, so the gradient is mapped by the same matrix.
+     *
+     * @param out    the array holding the gradient.
+     * @param offset index of the partial x derivative, followed by the partial y and z derivatives.
+     */
+    protected static void unrotateGradient3D(double[] out, int offset) {
+        double rotated = (out[offset] + out[offset + 1] + out[offset + 2]) * OpenSimplex2StyleSampler.ROTATE_3D;
+        out[offset] = rotated - out[offset];
+        out[offset + 1] = rotated - out[offset + 1];
+        out[offset + 2] = rotated - out[offset + 2];
+    }
+
+    /**
+     * Maps the upper triangle of a 3D Hessian taken in the rotated lattice coordinates back to the sampled coordinates, as
+     * {@link #unrotateGradient3D(double[], int)} does for the gradient. The Hessian is mapped by the Jacobian on both sides, which expands
+     * to subtracting {@code ROTATE_3D} times the sum of the row sums of the two axes and adding {@code ROTATE_3D} squared times the sum of
+     * every entry.
+     *
+     * @param out    the array holding the Hessian.
+     * @param offset index of the second partial xx derivative, followed by the xy, xz, yy, yz and zz derivatives.
+     */
+    protected static void unrotateHessian3D(double[] out, int offset) {
+        double xx = out[offset], xy = out[offset + 1], xz = out[offset + 2];
+        double yy = out[offset + 3], yz = out[offset + 4], zz = out[offset + 5];
+        double r = OpenSimplex2StyleSampler.ROTATE_3D;
+        double xRow = xx + xy + xz, yRow = xy + yy + yz, zRow = xz + yz + zz;
+        double total = (xRow + yRow + zRow) * r * r;
+        out[offset] = xx - 2 * r * xRow + total;
+        out[offset + 1] = xy - r * (xRow + yRow) + total;
+        out[offset + 2] = xz - r * (xRow + zRow) + total;
+        out[offset + 3] = yy - 2 * r * yRow + total;
+        out[offset + 4] = yz - r * (yRow + zRow) + total;
+        out[offset + 5] = zz - 2 * r * zRow + total;
+    }
 }
@@ -8,6 +8,7 @@
 package com.dfsek.seismic.algorithms.sampler.noise.simplex;
 
 import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
+import com.dfsek.seismic.math.arithmetic.ArithmeticFunctions;
 import com.dfsek.seismic.math.floatingpoint.FloatingPointFunctions;
 import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctions;
 import com.dfsek.seismic.math.numericanalysis.interpolation.sigmoid.SmoothstepFunctions;
@@ -20,6 +21,27 @@ public class PerlinSampler extends SimplexStyleSampler {
     public PerlinSampler(double frequency, long salt) {
         super(frequency, salt);
     }
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(ySize)) {
+            kernels.perlin((int) (seed + salt), frequency, x, y, xStep, yStep, xSize, ySize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        }
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(zSize)) {
+            kernels.perlin((int) (seed + salt), frequency, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        }
+    }
+
 
     @Override
     public double getNoiseRaw(long sl, double x, double y) {
@@ -90,4 +112,207 @@ public class PerlinSampler extends SimplexStyleSampler {
             xs, ys, zs
         ) * 0.964921414852142333984375;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+
+        double xd0 = x - x0;
+        double yd0 = y - y0;
+        double xd1 = xd0 - 1;
+        double yd1 = yd0 - 1;
+
+        double xs = SmoothstepFunctions.quinticPolynomialSmoothstep(xd0);
+        double ys = SmoothstepFunctions.quinticPolynomialSmoothstep(yd0);
+        double dxs = SmoothstepFunctions.quinticPolynomialSmoothstepDerivative(xd0);
+        double dys = SmoothstepFunctions.quinticPolynomialSmoothstepDerivative(yd0);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        int i00 = SimplexStyleSampler.gradCoordIndex(seed, x0, y0);
+        int i10 = SimplexStyleSampler.gradCoordIndex(seed, x1, y0);
+        int i01 = SimplexStyleSampler.gradCoordIndex(seed, x0, y1);
+        int i11 = SimplexStyleSampler.gradCoordIndex(seed, x1, y1);
+
+        double n00 = ArithmeticFunctions.fma(xd0, grads[i00], yd0 * grads[i00 | 1]);
+        double n10 = ArithmeticFunctions.fma(xd1, grads[i10], yd0 * grads[i10 | 1]);
+        double n01 = ArithmeticFunctions.fma(xd0, grads[i01], yd1 * grads[i01 | 1]);
+        double n11 = ArithmeticFunctions.fma(xd1, grads[i11], yd1 * grads[i11 | 1]);
+
+        double lerpX1 = InterpolationFunctions.lerp(n00, n10, xs);
+        double lerpX2 = InterpolationFunctions.lerp(n01, n11, xs);
+
+        // Interpolated corner gradients plus the smoothstep slope times the corner differences along each axis
+        double scale = 1.4247691104677813;
+        out[offset] = InterpolationFunctions.lerp(lerpX1, lerpX2, ys) * scale;
+        out[offset + 1] = (InterpolationFunctions.biLerp(grads[i00], grads[i10], grads[i01], grads[i11], xs, ys) +
+                           dxs * InterpolationFunctions.lerp(n10 - n00, n11 - n01, ys)) * scale;
+        out[offset + 2] = (InterpolationFunctions.biLerp(grads[i00 | 1], grads[i10 | 1], grads[i01 | 1], grads[i11 | 1], xs, ys) +
+                           dys * (lerpX2 - lerpX1)) * scale;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+        int z0 = FloatingPointFunctions.floor(z);
+
+        double xd0 = x - x0;
+        double yd0 = y - y0;
+        double zd0 = z - z0;
+        double xd1 = xd0 - 1;
+        double yd1 = yd0 - 1;
+        double zd1 = zd0 - 1;
+
+        double xs = SmoothstepFunctions.quinticPolynomialSmoothstep(xd0);
+        double ys = SmoothstepFunctions.quinticPolynomialSmoothstep(yd0);
+        double zs = SmoothstepFunctions.quinticPolynomialSmoothstep(zd0);
+        double dxs = SmoothstepFunctions.quinticPolynomialSmoothstepDerivative(xd0);
+        double dys = SmoothstepFunctions.quinticPolynomialSmoothstepDerivative(yd0);
+        double dzs = SmoothstepFunctions.quinticPolynomialSmoothstepDerivative(zd0);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        z0 *= NoiseFunction.PRIME_Z;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+        int z1 = z0 + NoiseFunction.PRIME_Z;
+
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        int i000 = SimplexStyleSampler.gradCoordIndex(seed, x0, y0, z0);
+        int i100 = SimplexStyleSampler.gradCoordIndex(seed, x1, y0, z0);
+        int i010 = SimplexStyleSampler.gradCoordIndex(seed, x0, y1, z0);
+        int i110 = SimplexStyleSampler.gradCoordIndex(seed, x1, y1, z0);
+        int i001 = SimplexStyleSampler.gradCoordIndex(seed, x0, y0, z1);
+        int i101 = SimplexStyleSampler.gradCoordIndex(seed, x1, y0, z1);
+        int i011 = SimplexStyleSampler.gradCoordIndex(seed, x0, y1, z1);
+        int i111 = SimplexStyleSampler.gradCoordIndex(seed, x1, y1, z1);
+
+        double n000 = PerlinSampler.dot(grads, i000, xd0, yd0, zd0);
+        double n100 = PerlinSampler.dot(grads, i100, xd1, yd0, zd0);
+        double n010 = PerlinSampler.dot(grads, i010, xd0, yd1, zd0);
+        double n110 = PerlinSampler.dot(grads, i110, xd1, yd1, zd0);
+        double n001 = PerlinSampler.dot(grads, i001, xd0, yd0, zd1);
+        double n101 = PerlinSampler.dot(grads, i101, xd1, yd0, zd1);
+        double n011 = PerlinSampler.dot(grads, i011, xd0, yd1, zd1);
+        double n111 = PerlinSampler.dot(grads, i111, xd1, yd1, zd1);
+
+        double front = InterpolationFunctions.biLerp(n000, n100, n010, n110, xs, ys);
+        double back = InterpolationFunctions.biLerp(n001, n101, n011, n111, xs, ys);
+
+        double scale = 0.964921414852142333984375;
+        out[offset] = InterpolationFunctions.lerp(front, back, zs) * scale;
+        for(int axis = 0; axis < 3; axis++) {
+            out[offset + 1 + axis] = InterpolationFunctions.triLerp(grads[i000 | axis], grads[i100 | axis], grads[i010 | axis],
+                grads[i110 | axis], grads[i001 | axis], grads[i101 | axis], grads[i011 | axis], grads[i111 | axis], xs, ys, zs) * scale;
+        }
+        out[offset + 1] += dxs * InterpolationFunctions.biLerp(n100 - n000, n110 - n010, n101 - n001, n111 - n011, ys, zs) * scale;
+        out[offset + 2] += dys * InterpolationFunctions.biLerp(n010 - n000, n110 - n100, n011 - n001, n111 - n101, xs, zs) * scale;
+        out[offset + 3] += dzs * (back - front) * scale;
+    }
+
+    private static double dot(double[] grads, int index, double xd, double yd, double zd) {
+        return ArithmeticFunctions.fma(xd, grads[index], ArithmeticFunctions.fma(yd, grads[index | 1], zd * grads[index | 2]));
+    }
+
+    @Override
+    protected boolean hasNativeFloatNoise() {
+        return true;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+
+        float xd0 = (float) (x - x0);
+        float yd0 = (float) (y - y0);
+        float xd1 = xd0 - 1;
+        float yd1 = yd0 - 1;
+
+        float xs = SmoothstepFunctions.quinticPolynomialSmoothstep(xd0);
+        float ys = SmoothstepFunctions.quinticPolynomialSmoothstep(yd0);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+
+        float[] grads = SimplexStyleSampler.GRADIENTS_2D_FLOAT;
+
+        return InterpolationFunctions.biLerp(
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y0, xd0, yd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y0, xd1, yd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y1, xd0, yd1),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y1, xd1, yd1),
+            xs, ys
+        ) * 1.4247691104677813f;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y, double z) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+        int z0 = FloatingPointFunctions.floor(z);
+
+        float xd0 = (float) (x - x0);
+        float yd0 = (float) (y - y0);
+        float zd0 = (float) (z - z0);
+        float xd1 = xd0 - 1;
+        float yd1 = yd0 - 1;
+        float zd1 = zd0 - 1;
+
+        float xs = SmoothstepFunctions.quinticPolynomialSmoothstep(xd0);
+        float ys = SmoothstepFunctions.quinticPolynomialSmoothstep(yd0);
+        float zs = SmoothstepFunctions.quinticPolynomialSmoothstep(zd0);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        z0 *= NoiseFunction.PRIME_Z;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+        int z1 = z0 + NoiseFunction.PRIME_Z;
+
+        float[] grads = SimplexStyleSampler.GRADIENTS_3D_FLOAT;
+
+        return InterpolationFunctions.triLerp(
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y0, z0, xd0, yd0, zd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y0, z0, xd1, yd0, zd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y1, z0, xd0, yd1, zd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y1, z0, xd1, yd1, zd0),
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y0, z1, xd0, yd0, zd1),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y0, z1, xd1, yd0, zd1),
+            SimplexStyleSampler.gradCoord(grads, seed, x0, y1, z1, xd0, yd1, zd1),
+            SimplexStyleSampler.gradCoord(grads, seed, x1, y1, z1, xd1, yd1, zd1),
+            xs, ys, zs
+        ) * 0.964921414852142333984375f;
+    }
 }
@@ -0,0 +1,52 @@
+package com.dfsek.seismic.algorithms.sampler.noise.simplex;
+
+import com.dfsek.seismic.util.VectorizationUtils;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Grid kernels for the simplex family that evaluate several samples at once.
+ * <p>
+ * Every kernel takes the already salted seed and the sampler frequency, walks the lattice in the same order as
+ * {@link com.dfsek.seismic.type.sampler.Sampler#getSampleGrid}, and produces output bit-identical to the scalar {@code getNoiseRaw}.
+ */
+interface SimplexKernels {
+    /**
+     * The vectorized kernels, or {@code null} if the Vector API is unavailable on this VM.
+     */
+    @Nullable SimplexKernels VECTORIZED = VectorizationUtils.load(SimplexKernels.class,
+        "com.dfsek.seismic.algorithms.sampler.noise.simplex.PanamaSimplexKernels");
+
+    /**
+     * Returns whether a grid whose innermost axis has the given length is worth handing to these kernels.
+     *
+     * @param innerSize number of samples along the innermost axis.
+     *
+     * @return true if the kernels should be used.
+     */
+    boolean accepts(int innerSize);
+
+    void openSimplex2(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                      int offset);
+
+    void openSimplex2(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                      int ySize, int zSize, double[] out, int offset);
+
+    void openSimplex2S(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                       int offset);
+
+    void openSimplex2S(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                       int ySize, int zSize, double[] out, int offset);
+
+    void simplex(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                 int offset);
+
+    void simplex(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                 int ySize, int zSize, double[] out, int offset);
+
+    void perlin(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                int offset);
+
+    void perlin(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                int ySize, int zSize, double[] out, int offset);
+}
@@ -11,34 +11,55 @@ import com.dfsek.seismic.math.floatingpoint.FloatingPointFunctions;
 
 
 public class SimplexSampler extends SimplexStyleSampler {
-    private static final double[] GRAD_2D = {
+    static final double[] GRAD_2D = {
         -1, -1, 1, -1, -1, 1, 1, 1,
         0, -1, -1, 0, 0, 1, 1, 0
     };
 
-    private static final double[] GRAD_3D = {
+    static final double[] GRAD_3D = {
         1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1, 0,
         1, 0, 1, -1, 0, 1, 1, 0, -1, -1, 0, -1,
         0, 1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1,
         1, 1, 0, 0, -1, 1, -1, 1, 0, 0, -1, -1
     };
 
-    private static final double F2 = 1.0 / 2.0;
-    private static final double F3 = (1.0 / 3.0);
-    private static final double G2 = 1.0 / 4.0;
-    private static final double G3 = (1.0 / 6.0);
-    private static final double G33 = SimplexSampler.G3 * 3 - 1;
+    static final double F2 = 1.0 / 2.0;
+    static final double F3 = (1.0 / 3.0);
+    static final double G2 = 1.0 / 4.0;
+    static final double G3 = (1.0 / 6.0);
+    static final double G33 = SimplexSampler.G3 * 3 - 1;
 
-    private static final int X_PRIME = 1619;
-    private static final int Y_PRIME = 31337;
-    private static final int Z_PRIME = 6971;
+    static final int X_PRIME = 1619;
+    static final int Y_PRIME = 31337;
+    static final int Z_PRIME = 6971;
 
     public SimplexSampler(double frequency, long salt) {
         super(frequency, salt);
     }
 
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(ySize)) {
+            kernels.simplex((int) (seed + salt), frequency, x, y, xStep, yStep, xSize, ySize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        }
+    }
 
-    private static double gradCoord3D(int seed, int x, int y, int z, double xd, double yd, double zd) {
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        SimplexKernels kernels = SimplexKernels.VECTORIZED;
+        if(kernels != null && kernels.accepts(zSize)) {
+            kernels.simplex((int) (seed + salt), frequency, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        } else {
+            super.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        }
+    }
+
+
+    private static int gradIndex3D(int seed, int x, int y, int z) {
         int hash = seed;
         hash ^= SimplexSampler.X_PRIME * x;
         hash ^= SimplexSampler.Y_PRIME * y;
@@ -47,12 +68,16 @@ public class SimplexSampler extends SimplexStyleSampler {
         hash = hash * hash * hash * 60493;
         hash = (hash >> 13) ^ hash;
 
-        int index = (hash & 15) * 3;
+        return (hash & 15) * 3;
+    }
+
+    private static double gradCoord3D(int seed, int x, int y, int z, double xd, double yd, double zd) {
+        int index = SimplexSampler.gradIndex3D(seed, x, y, z);
 
         return xd * GRAD_3D[index] + yd * GRAD_3D[index + 1] + zd * GRAD_3D[index + 2];
     }
 
-    private static double gradCoord2D(int seed, int x, int y, double xd, double yd) {
+    private static int gradIndex2D(int seed, int x, int y) {
         int hash = seed;
         hash ^= SimplexSampler.X_PRIME * x;
         hash ^= SimplexSampler.Y_PRIME * y;
@@ -60,11 +85,51 @@ public class SimplexSampler extends SimplexStyleSampler {
         hash = hash * hash * hash * 60493;
         hash = (hash >> 13) ^ hash;
 
-        int index = (hash & 7) * 2;
+        return (hash & 7) * 2;
+    }
+
+    private static double gradCoord2D(int seed, int x, int y, double xd, double yd) {
+        int index = SimplexSampler.gradIndex2D(seed, x, y);
 
         return xd * GRAD_2D[index] + yd * GRAD_2D[index + 1];
     }
 
+    /**
+     * Adds the value and gradient of a single 2D simplex corner's falloff kernel to {@code out}.
+     */
+    private static void accumulate2D(int seed, int x, int y, double xd, double yd, double[] out, int offset) {
+        double t = 0.5 - xd * xd - yd * yd;
+        if(t < 0) return;
+        int index = SimplexSampler.gradIndex2D(seed, x, y);
+        double xg = GRAD_2D[index], yg = GRAD_2D[index + 1];
+        double dot = xd * xg + yd * yg;
+        double t2 = t * t;
+        double t4 = t2 * t2;
+        // d/dx (t^4 * dot) = t^4 * g - 8 * t^3 * d * dot, since t falls off with the squared distance
+        double falloff = -8 * t2 * t * dot;
+        out[offset] += t4 * dot;
+        out[offset + 1] += t4 * xg + falloff * xd;
+        out[offset + 2] += t4 * yg + falloff * yd;
+    }
+
+    /**
+     * Adds the value and gradient of a single 3D simplex corner's falloff kernel to {@code out}.
+     */
+    private static void accumulate3D(int seed, int x, int y, int z, double xd, double yd, double zd, double[] out, int offset) {
+        double t = 0.6 - xd * xd - yd * yd - zd * zd;
+        if(t < 0) return;
+        int index = SimplexSampler.gradIndex3D(seed, x, y, z);
+        double xg = GRAD_3D[index], yg = GRAD_3D[index + 1], zg = GRAD_3D[index + 2];
+        double dot = xd * xg + yd * yg + zd * zg;
+        double t2 = t * t;
+        double t4 = t2 * t2;
+        double falloff = -8 * t2 * t * dot;
+        out[offset] += t4 * dot;
+        out[offset + 1] += t4 * xg + falloff * xd;
+        out[offset + 2] += t4 * yg + falloff * yd;
+        out[offset + 3] += t4 * zg + falloff * zd;
+    }
+
     @Override
     public double getNoiseRaw(long sl, double x, double y) {
         int seed = (int) sl;
@@ -234,4 +299,86 @@ public class SimplexSampler extends SimplexStyleSampler {
 
         return 32 * (n0 + n1 + n2 + n3);
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        double t = (x + y) * SimplexSampler.F2;
+        int i = FloatingPointFunctions.floor(x + t);
+        int j = FloatingPointFunctions.floor(y + t);
+
+        t = (i + j) * SimplexSampler.G2;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+
+        int i1 = x0 > y0 ? 1 : 0;
+        int j1 = 1 - i1;
+
+        out[offset] = 0;
+        out[offset + 1] = 0;
+        out[offset + 2] = 0;
+        SimplexSampler.accumulate2D(seed, i, j, x0, y0, out, offset);
+        SimplexSampler.accumulate2D(seed, i + i1, j + j1, x0 - i1 + SimplexSampler.G2, y0 - j1 + SimplexSampler.G2, out, offset);
+        SimplexSampler.accumulate2D(seed, i + 1, j + 1, x0 - 1 + SimplexSampler.F2, y0 - 1 + SimplexSampler.F2, out, offset);
+        out[offset] *= 50;
+        out[offset + 1] *= 50;
+        out[offset + 2] *= 50;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        double t = (x + y + z) * SimplexSampler.F3;
+        int i = FloatingPointFunctions.floor(x + t);
+        int j = FloatingPointFunctions.floor(y + t);
+        int k = FloatingPointFunctions.floor(z + t);
+
+        t = (i + j + k) * SimplexSampler.G3;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+        double z0 = z - (k - t);
+
+        // Same simplex selection as getNoiseRaw: the second corner steps along the largest offset, the third along the two largest
+        int i1 = x0 >= y0 && x0 >= z0 ? 1 : 0;
+        int j1 = x0 < y0 && y0 >= z0 ? 1 : 0;
+        int k1 = 1 - i1 - j1;
+        int i2 = x0 >= y0 || x0 >= z0 ? 1 : 0;
+        int j2 = x0 < y0 || y0 >= z0 ? 1 : 0;
+        int k2 = 2 - i2 - j2;
+
+        out[offset] = 0;
+        out[offset + 1] = 0;
+        out[offset + 2] = 0;
+        out[offset + 3] = 0;
+        SimplexSampler.accumulate3D(seed, i, j, k, x0, y0, z0, out, offset);
+        SimplexSampler.accumulate3D(seed, i + i1, j + j1, k + k1, x0 - i1 + SimplexSampler.G3, y0 - j1 + SimplexSampler.G3,
+            z0 - k1 + SimplexSampler.G3, out, offset);
+        SimplexSampler.accumulate3D(seed, i + i2, j + j2, k + k2, x0 - i2 + SimplexSampler.F3, y0 - j2 + SimplexSampler.F3,
+            z0 - k2 + SimplexSampler.F3, out, offset);
+        SimplexSampler.accumulate3D(seed, i + 1, j + 1, k + 1, x0 + SimplexSampler.G33, y0 + SimplexSampler.G33, z0 + SimplexSampler.G33,
+            out, offset);
+        out[offset] *= 32;
+        out[offset + 1] *= 32;
+        out[offset + 2] *= 32;
+        out[offset + 3] *= 32;
+    }
 }
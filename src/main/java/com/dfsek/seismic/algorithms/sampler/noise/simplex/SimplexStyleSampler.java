@@ -83,8 +83,20 @@ public abstract class SimplexStyleSampler extends DerivativeNoiseFunction {
         1, 1, 0, 0, 0, -1, 1, 0, -1, 1, 0, 0, 0, -1, -1, 0
     };
 
+    /**
+     * {@link #GRADIENTS_2D} in {@code float} precision, for the {@code getNoiseRawFloat} implementations.
+     */
+    protected static final float[] GRADIENTS_2D_FLOAT = SimplexStyleSampler.toFloatArray(SimplexStyleSampler.GRADIENTS_2D);
+
+    /**
+     * {@link #GRADIENTS_3D} in {@code float} precision, for the {@code getNoiseRawFloat} implementations.
+     */
+    protected static final float[] GRADIENTS_3D_FLOAT = SimplexStyleSampler.toFloatArray(SimplexStyleSampler.GRADIENTS_3D);
+
     protected static final long DOUBLE_ARRAY_BASE = UnsafeUtils.DOUBLE_ARRAY_BASE;
     protected static final long DOUBLE_ARRAY_SHIFT = UnsafeUtils.DOUBLE_ARRAY_SHIFT;
+    protected static final long FLOAT_ARRAY_BASE = UnsafeUtils.FLOAT_ARRAY_BASE;
+    protected static final long FLOAT_ARRAY_SHIFT = UnsafeUtils.FLOAT_ARRAY_SHIFT;
 
     public SimplexStyleSampler(double frequency, long salt) {
         super(frequency, salt);
@@ -134,6 +146,41 @@ public abstract class SimplexStyleSampler extends DerivativeNoiseFunction {
         return ArithmeticFunctions.fma(xd, xg, ArithmeticFunctions.fma(yd, yg, zd * zg));
     }
 
+    protected static float gradCoord(float[] grads, int seed, int xPrimed, int yPrimed, float xd, float yd) {
+        long index = SimplexStyleSampler.gradCoordIndex(seed, xPrimed, yPrimed);
+
+        float xg = UnsafeUtils.UNSAFE.getFloat(grads,
+            FLOAT_ARRAY_BASE + (index << FLOAT_ARRAY_SHIFT));
+
+        float yg = UnsafeUtils.UNSAFE.getFloat(grads,
+            FLOAT_ARRAY_BASE + ((index | 1) << FLOAT_ARRAY_SHIFT));
+
+        return ArithmeticFunctions.fma(xd, xg, yd * yg);
+    }
+
+    protected static float gradCoord(float[] grads, int seed, int xPrimed, int yPrimed, int zPrimed, float xd, float yd, float zd) {
+        long index = SimplexStyleSampler.gradCoordIndex(seed, xPrimed, yPrimed, zPrimed);
+
+        float xg = UnsafeUtils.UNSAFE.getFloat(grads,
+            FLOAT_ARRAY_BASE + (index << FLOAT_ARRAY_SHIFT));
+
+        float yg = UnsafeUtils.UNSAFE.getFloat(grads,
+            FLOAT_ARRAY_BASE + ((index | 1) << FLOAT_ARRAY_SHIFT));
+
+        float zg = UnsafeUtils.UNSAFE.getFloat(grads,
+            FLOAT_ARRAY_BASE + ((index | 2) << FLOAT_ARRAY_SHIFT));
+
+        return ArithmeticFunctions.fma(xd, xg, ArithmeticFunctions.fma(yd, yg, zd * zg));
+    }
+
+    private static float[] toFloatArray(double[] values) {
+        float[] floats = new float[values.length];
+        for(int i = 0; i < values.length; i++) {
+            floats[i] = (float) values[i];
+        }
+        return floats;
+    }
+
     @Override
     public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
         throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
@@ -14,6 +14,11 @@ import com.dfsek.seismic.math.numericanalysis.interpolation.InterpolationFunctio
 
 
 public class ValueCubicSampler extends ValueStyleNoise {
+    /**
+     * Value and x derivative of each interpolated row, followed by the value and x and y derivatives of each interpolated plane.
+     */
+    private final ThreadLocal<double[]> rows = ThreadLocal.withInitial(() -> new double[44]);
+
     public ValueCubicSampler(double frequency, long salt) {
         super(frequency, salt);
     }
@@ -114,4 +119,107 @@ public class ValueCubicSampler extends ValueStyleNoise {
             xs, ys, zs
         ) * (1 / (1.5 * 1.5 * 1.5));
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        int x1 = FloatingPointFunctions.floor(x);
+        int y1 = FloatingPointFunctions.floor(y);
+
+        double xs = x - x1;
+        double ys = y - y1;
+
+        x1 *= NoiseFunction.PRIME_X;
+        y1 *= NoiseFunction.PRIME_Y;
+        int x0 = x1 - NoiseFunction.PRIME_X;
+        int x2 = x1 + NoiseFunction.PRIME_X;
+        int x3 = x1 + (NoiseFunction.PRIME_X << 1);
+        int y0 = y1 - NoiseFunction.PRIME_Y;
+
+        double[] rows = this.rows.get();
+        for(int j = 0; j < 4; j++) {
+            ValueCubicSampler.row(seed, x0, x1, x2, x3, y0 + j * NoiseFunction.PRIME_Y, xs, rows, j << 1);
+        }
+
+        double scale = 1 / (1.5 * 1.5);
+        out[offset] = InterpolationFunctions.cubicLerp(rows[0], rows[2], rows[4], rows[6], ys) * scale;
+        out[offset + 1] = InterpolationFunctions.cubicLerp(rows[1], rows[3], rows[5], rows[7], ys) * scale;
+        out[offset + 2] = InterpolationFunctions.cubicLerpDerivative(rows[0], rows[2], rows[4], rows[6], ys) * scale;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        int x1 = FloatingPointFunctions.floor(x);
+        int y1 = FloatingPointFunctions.floor(y);
+        int z1 = FloatingPointFunctions.floor(z);
+
+        double xs = x - x1;
+        double ys = y - y1;
+        double zs = z - z1;
+
+        x1 *= NoiseFunction.PRIME_X;
+        y1 *= NoiseFunction.PRIME_Y;
+        z1 *= NoiseFunction.PRIME_Z;
+        int x0 = x1 - NoiseFunction.PRIME_X;
+        int x2 = x1 + NoiseFunction.PRIME_X;
+        int x3 = x1 + (NoiseFunction.PRIME_X << 1);
+        int y0 = y1 - NoiseFunction.PRIME_Y;
+        int z0 = z1 - NoiseFunction.PRIME_Z;
+
+        double[] rows = this.rows.get();
+        for(int k = 0; k < 4; k++) {
+            int zk = z0 + k * NoiseFunction.PRIME_Z;
+            for(int j = 0; j < 4; j++) {
+                ValueCubicSampler.row(seed, x0, x1, x2, x3, y0 + j * NoiseFunction.PRIME_Y, zk, xs, rows, (k << 3) + (j << 1));
+            }
+            int r = k << 3, plane = 32 + k * 3;
+            rows[plane] = InterpolationFunctions.cubicLerp(rows[r], rows[r + 2], rows[r + 4], rows[r + 6], ys);
+            rows[plane + 1] = InterpolationFunctions.cubicLerp(rows[r + 1], rows[r + 3], rows[r + 5], rows[r + 7], ys);
+            rows[plane + 2] = InterpolationFunctions.cubicLerpDerivative(rows[r], rows[r + 2], rows[r + 4], rows[r + 6], ys);
+        }
+
+        double scale = 1 / (1.5 * 1.5 * 1.5);
+        out[offset] = InterpolationFunctions.cubicLerp(rows[32], rows[35], rows[38], rows[41], zs) * scale;
+        out[offset + 1] = InterpolationFunctions.cubicLerp(rows[33], rows[36], rows[39], rows[42], zs) * scale;
+        out[offset + 2] = InterpolationFunctions.cubicLerp(rows[34], rows[37], rows[40], rows[43], zs) * scale;
+        out[offset + 3] = InterpolationFunctions.cubicLerpDerivative(rows[32], rows[35], rows[38], rows[41], zs) * scale;
+    }
+
+    private static void row(int seed, int x0, int x1, int x2, int x3, int yPrimed, double t, double[] rows, int index) {
+        double v0 = ValueStyleNoise.valCoord(seed, x0, yPrimed);
+        double v1 = ValueStyleNoise.valCoord(seed, x1, yPrimed);
+        double v2 = ValueStyleNoise.valCoord(seed, x2, yPrimed);
+        double v3 = ValueStyleNoise.valCoord(seed, x3, yPrimed);
+        rows[index] = InterpolationFunctions.cubicLerp(v0, v1, v2, v3, t);
+        rows[index + 1] = InterpolationFunctions.cubicLerpDerivative(v0, v1, v2, v3, t);
+    }
+
+    private static void row(int seed, int x0, int x1, int x2, int x3, int yPrimed, int zPrimed, double t, double[] rows, int index) {
+        double v0 = ValueStyleNoise.valCoord(seed, x0, yPrimed, zPrimed);
+        double v1 = ValueStyleNoise.valCoord(seed, x1, yPrimed, zPrimed);
+        double v2 = ValueStyleNoise.valCoord(seed, x2, yPrimed, zPrimed);
+        double v3 = ValueStyleNoise.valCoord(seed, x3, yPrimed, zPrimed);
+        rows[index] = InterpolationFunctions.cubicLerp(v0, v1, v2, v3, t);
+        rows[index + 1] = InterpolationFunctions.cubicLerpDerivative(v0, v1, v2, v3, t);
+    }
 }
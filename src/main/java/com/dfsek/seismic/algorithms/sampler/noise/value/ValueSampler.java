@@ -48,7 +48,7 @@ public class ValueSampler extends ValueStyleNoise {
         int y0 = FloatingPointFunctions.floor(y);
         int z0 = FloatingPointFunctions.floor(z);
 
-        double xs = SmoothstepFunctions.cubicPolynomialSmoothstep(-x0);
+        double xs = SmoothstepFunctions.cubicPolynomialSmoothstep(x - x0);
         double ys = SmoothstepFunctions.cubicPolynomialSmoothstep(y - y0);
         double zs = SmoothstepFunctions.cubicPolynomialSmoothstep(z - z0);
 
@@ -72,4 +72,153 @@ public class ValueSampler extends ValueStyleNoise {
         );
     }
 
+    @Override
+    public boolean isDifferentiable() {
+        return true;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y) {
+        double[] out = new double[3];
+        getNoiseDerivativeRaw(sl, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double[] out, int offset) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+
+        double xd = x - x0;
+        double yd = y - y0;
+        double xs = SmoothstepFunctions.cubicPolynomialSmoothstep(xd);
+        double ys = SmoothstepFunctions.cubicPolynomialSmoothstep(yd);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+
+        double v00 = ValueStyleNoise.valCoord(seed, x0, y0);
+        double v10 = ValueStyleNoise.valCoord(seed, x1, y0);
+        double v01 = ValueStyleNoise.valCoord(seed, x0, y1);
+        double v11 = ValueStyleNoise.valCoord(seed, x1, y1);
+
+        double lerpX1 = InterpolationFunctions.lerp(v00, v10, xs);
+        double lerpX2 = InterpolationFunctions.lerp(v01, v11, xs);
+
+        out[offset] = InterpolationFunctions.lerp(lerpX1, lerpX2, ys);
+        out[offset + 1] = SmoothstepFunctions.cubicPolynomialSmoothstepDerivative(xd) *
+            InterpolationFunctions.lerp(v10 - v00, v11 - v01, ys);
+        out[offset + 2] = SmoothstepFunctions.cubicPolynomialSmoothstepDerivative(yd) * (lerpX2 - lerpX1);
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long sl, double x, double y, double z) {
+        double[] out = new double[4];
+        getNoiseDerivativeRaw(sl, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getNoiseDerivativeRaw(long sl, double x, double y, double z, double[] out, int offset) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+        int z0 = FloatingPointFunctions.floor(z);
+
+        double xd = x - x0;
+        double yd = y - y0;
+        double zd = z - z0;
+        double xs = SmoothstepFunctions.cubicPolynomialSmoothstep(xd);
+        double ys = SmoothstepFunctions.cubicPolynomialSmoothstep(yd);
+        double zs = SmoothstepFunctions.cubicPolynomialSmoothstep(zd);
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        z0 *= NoiseFunction.PRIME_Z;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+        int z1 = z0 + NoiseFunction.PRIME_Z;
+
+        double v000 = ValueStyleNoise.valCoord(seed, x0, y0, z0);
+        double v100 = ValueStyleNoise.valCoord(seed, x1, y0, z0);
+        double v010 = ValueStyleNoise.valCoord(seed, x0, y1, z0);
+        double v110 = ValueStyleNoise.valCoord(seed, x1, y1, z0);
+        double v001 = ValueStyleNoise.valCoord(seed, x0, y0, z1);
+        double v101 = ValueStyleNoise.valCoord(seed, x1, y0, z1);
+        double v011 = ValueStyleNoise.valCoord(seed, x0, y1, z1);
+        double v111 = ValueStyleNoise.valCoord(seed, x1, y1, z1);
+
+        double front = InterpolationFunctions.biLerp(v000, v100, v010, v110, xs, ys);
+        double back = InterpolationFunctions.biLerp(v001, v101, v011, v111, xs, ys);
+
+        out[offset] = InterpolationFunctions.lerp(front, back, zs);
+        // Each partial is the smoothstep slope times the edge differences along that axis, interpolated over the other two
+        out[offset + 1] = SmoothstepFunctions.cubicPolynomialSmoothstepDerivative(xd) *
+                          InterpolationFunctions.biLerp(v100 - v000, v110 - v010, v101 - v001, v111 - v011, ys, zs);
+        out[offset + 2] = SmoothstepFunctions.cubicPolynomialSmoothstepDerivative(yd) *
+                          InterpolationFunctions.biLerp(v010 - v000, v110 - v100, v011 - v001, v111 - v101, xs, zs);
+        out[offset + 3] = SmoothstepFunctions.cubicPolynomialSmoothstepDerivative(zd) * (back - front);
+    }
+
+    @Override
+    protected boolean hasNativeFloatNoise() {
+        return true;
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+
+        float xs = SmoothstepFunctions.cubicPolynomialSmoothstep((float) (x - x0));
+        float ys = SmoothstepFunctions.cubicPolynomialSmoothstep((float) (y - y0));
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+
+        return InterpolationFunctions.biLerp(
+            ValueStyleNoise.valCoordFloat(seed, x0, y0),
+            ValueStyleNoise.valCoordFloat(seed, x1, y0),
+            ValueStyleNoise.valCoordFloat(seed, x0, y1),
+            ValueStyleNoise.valCoordFloat(seed, x1, y1),
+            xs, ys
+        );
+    }
+
+    @Override
+    public float getNoiseRawFloat(long sl, double x, double y, double z) {
+        int seed = (int) sl;
+        int x0 = FloatingPointFunctions.floor(x);
+        int y0 = FloatingPointFunctions.floor(y);
+        int z0 = FloatingPointFunctions.floor(z);
+
+        float xs = SmoothstepFunctions.cubicPolynomialSmoothstep((float) (x - x0));
+        float ys = SmoothstepFunctions.cubicPolynomialSmoothstep((float) (y - y0));
+        float zs = SmoothstepFunctions.cubicPolynomialSmoothstep((float) (z - z0));
+
+        x0 *= NoiseFunction.PRIME_X;
+        y0 *= NoiseFunction.PRIME_Y;
+        z0 *= NoiseFunction.PRIME_Z;
+        int x1 = x0 + NoiseFunction.PRIME_X;
+        int y1 = y0 + NoiseFunction.PRIME_Y;
+        int z1 = z0 + NoiseFunction.PRIME_Z;
+
+        return InterpolationFunctions.triLerp(
+            ValueStyleNoise.valCoordFloat(seed, x0, y0, z0),
+            ValueStyleNoise.valCoordFloat(seed, x1, y0, z0),
+            ValueStyleNoise.valCoordFloat(seed, x0, y1, z0),
+            ValueStyleNoise.valCoordFloat(seed, x1, y1, z0),
+            ValueStyleNoise.valCoordFloat(seed, x0, y0, z1),
+            ValueStyleNoise.valCoordFloat(seed, x1, y0, z1),
+            ValueStyleNoise.valCoordFloat(seed, x0, y1, z1),
+            ValueStyleNoise.valCoordFloat(seed, x1, y1, z1),
+            xs, ys, zs
+        );
+    }
 }
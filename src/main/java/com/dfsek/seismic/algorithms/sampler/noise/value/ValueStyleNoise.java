@@ -9,15 +9,30 @@ package com.dfsek.seismic.algorithms.sampler.noise.value;
 
 
 import com.dfsek.seismic.algorithms.hashing.HashingFunctions;
-import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.DerivativeNoiseFunction;
 
 
-public abstract class ValueStyleNoise extends NoiseFunction {
+public abstract class ValueStyleNoise extends DerivativeNoiseFunction {
 
     public ValueStyleNoise(double frequency, long salt) {
         super(frequency, salt);
     }
 
+    @Override
+    public boolean isDifferentiable() {
+        return false;
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
+    }
+
+    @Override
+    public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
+    }
+
     protected static double valCoord(int seed, int xPrimed, int yPrimed) {
         int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, yPrimed);
 
@@ -33,4 +48,20 @@ public abstract class ValueStyleNoise extends NoiseFunction {
         hash ^= hash << 19;
         return hash * (1 / 2147483648.0);
     }
+
+    protected static float valCoordFloat(int seed, int xPrimed, int yPrimed) {
+        int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, yPrimed);
+
+        hash *= hash;
+        hash ^= hash << 19;
+        return hash * (1 / 2147483648.0f);
+    }
+
+    protected static float valCoordFloat(int seed, int xPrimed, int yPrimed, int zPrimed) {
+        int hash = HashingFunctions.hashPrimeCoords(seed, xPrimed, yPrimed, zPrimed);
+
+        hash *= hash;
+        hash ^= hash << 19;
+        return hash * (1 / 2147483648.0f);
+    }
 }
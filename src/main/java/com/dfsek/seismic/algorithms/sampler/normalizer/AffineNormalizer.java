@@ -0,0 +1,67 @@
+package com.dfsek.seismic.algorithms.sampler.normalizer;
+
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Normalizer which scales and offsets its input, then clamps the result to {@code [min, max]}.
+ * <p>
+ * Any chain of linear, scale, linear map, probability and clamp normalizers can be expressed as a single affine normalizer; see
+ * {@link com.dfsek.seismic.algorithms.sampler.SamplerOptimizer}.
+ */
+public class AffineNormalizer extends Normalizer {
+    private final double scale;
+    private final double offset;
+    private final double min;
+    private final double max;
+
+    public AffineNormalizer(Sampler sampler, double scale, double offset, double min, double max) {
+        super(sampler);
+        this.scale = scale;
+        this.offset = offset;
+        this.min = min;
+        this.max = max;
+    }
+
+    public AffineNormalizer(Sampler sampler, double scale, double offset) {
+        this(sampler, scale, offset, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getOffset() {
+        return offset;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new AffineNormalizer(sampler, scale, offset, min, max);
+    }
+
+    @Override
+    public double normalize(double in) {
+        return Math.max(Math.min(in * scale + offset, max), min);
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        double scaled = in * scale + offset;
+        return scaled >= min && scaled <= max ? scale : 0;
+    }
+}
@@ -8,6 +8,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -21,8 +22,31 @@ public class ClampNormalizer extends Normalizer {
         this.max = max;
     }
 
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new ClampNormalizer(sampler, min, max);
+    }
+
     @Override
     public double normalize(double in) {
         return Math.max(Math.min(in, max), min);
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return in >= min && in <= max ? 1 : 0;
+    }
 }
@@ -1,6 +1,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 import com.dfsek.seismic.type.CubicSpline;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -12,8 +13,23 @@ public class CubicSplineNormalizer extends Normalizer {
         this.spline = spline;
     }
 
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new CubicSplineNormalizer(sampler, spline);
+    }
+
     @Override
     public double normalize(double in) {
         return spline.apply(in);
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return spline.derivative(in);
+    }
 }
@@ -1,6 +1,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -22,8 +23,39 @@ public class LinearMapNormalizer extends Normalizer {
         this.bTo = bTo;
     }
 
+    public double getAFrom() {
+        return aFrom;
+    }
+
+    public double getATo() {
+        return aTo;
+    }
+
+    public double getBFrom() {
+        return bFrom;
+    }
+
+    public double getBTo() {
+        return bTo;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new LinearMapNormalizer(sampler, aFrom, aTo, bFrom, bTo);
+    }
+
     @Override
     public double normalize(double in) {
         return (in - aFrom) * (aTo - bTo) / (aFrom - bFrom) + aTo;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return (aTo - bTo) / (aFrom - bFrom);
+    }
 }
@@ -8,6 +8,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -24,8 +25,31 @@ public class LinearNormalizer extends Normalizer {
         this.max = max;
     }
 
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new LinearNormalizer(sampler, min, max);
+    }
+
     @Override
     public double normalize(double in) {
         return (in - min) * (2 / (max - min)) - 1;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return 2 / (max - min);
+    }
 }
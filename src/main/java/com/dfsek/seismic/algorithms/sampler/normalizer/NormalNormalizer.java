@@ -9,6 +9,7 @@ package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
 import com.dfsek.seismic.math.statistic.StatisticFunctions;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -28,6 +29,16 @@ public class NormalNormalizer extends Normalizer {
         }
     }
 
+    private NormalNormalizer(Sampler sampler, NormalNormalizer original) {
+        super(sampler);
+        this.lookup = original.lookup;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new NormalNormalizer(sampler, this);
+    }
+
     @Override
     public double normalize(double in) {
         int start = 0;
@@ -50,4 +61,14 @@ public class NormalNormalizer extends Normalizer {
 
         return (fin - 0.5) * 2;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return 0;
+    }
 }
@@ -8,18 +8,60 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
-public abstract class Normalizer implements Sampler {
+public abstract class Normalizer implements DerivativeSampler {
     private final Sampler sampler;
 
     public Normalizer(Sampler sampler) {
         this.sampler = sampler;
     }
 
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Returns a normalizer of the same type and parameters as this one, applied to a different input. Used to rebuild sampler graphs
+     * around transformed inputs, e.g. by {@link com.dfsek.seismic.algorithms.sampler.SamplerOptimizer}.
+     *
+     * @param sampler the input of the copy.
+     *
+     * @return the copy, or {@code null} if this normalizer does not support being copied.
+     */
+    public Normalizer withSampler(Sampler sampler) {
+        return null;
+    }
+
+    @Override
+    public int getAxisDependencies() {
+        return sampler.getAxisDependencies();
+    }
+
     public abstract double normalize(double in);
 
+    /**
+     * Returns the slope of {@link #normalize(double)} at {@code in}, which scales the derivatives of the input sampler.
+     * <p>
+     * Normalizers made of flat steps report a slope of 0, which holds everywhere except at the steps themselves.
+     * <p>
+     * Normalizers which implement this must also override {@link #isDifferentiable()}, which is false by default.
+     *
+     * @param in the value to normalize.
+     *
+     * @return the derivative of the normalized value with respect to {@code in}.
+     */
+    public double normalizeDerivative(double in) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isDifferentiable correctly");
+    }
+
+    @Override
+    public boolean isDifferentiable() {
+        return false;
+    }
+
     @Override
     public double getSample(long seed, double x, double y) {
         return normalize(sampler.getSample(seed, x, y));
@@ -29,4 +71,135 @@ public abstract class Normalizer implements Sampler {
     public double getSample(long seed, double x, double y, double z) {
         return normalize(sampler.getSample(seed, x, y, z));
     }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out, int offset) {
+        sampler.getSampleGrid(seed, x, y, xStep, yStep, xSize, ySize, out, offset);
+        normalize(out, offset, xSize * ySize);
+    }
+
+    @Override
+    public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                              int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset);
+        normalize(out, offset, xSize * ySize * zSize);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        sampler.getSamples(seed, xs, ys, count, out, offset);
+        normalize(out, offset, count);
+    }
+
+    @Override
+    public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        sampler.getSamples(seed, xs, ys, zs, count, out, offset);
+        normalize(out, offset, count);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x, y, count, out, offset);
+        normalize(out, offset, count);
+    }
+
+    @Override
+    public void getSampleSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        sampler.getSampleSeeds(seed, x, y, z, count, out, offset);
+        normalize(out, offset, count);
+    }
+
+    /**
+     * Normalizes a range of values in place.
+     *
+     * @param values the values to normalize.
+     * @param offset index of the first value.
+     * @param length number of values to normalize.
+     */
+    public void normalize(double[] values, int offset, int length) {
+        for(int i = offset, end = offset + length; i < end; i++) {
+            values[i] = normalize(values[i]);
+        }
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y) {
+        double[] out = new double[3];
+        getSampleDerivative(seed, x, y, out, 0);
+        return out;
+    }
+
+    @Override
+    public double[] getSampleDerivative(long seed, double x, double y, double z) {
+        double[] out = new double[4];
+        getSampleDerivative(seed, x, y, z, out, 0);
+        return out;
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivative(seed, x, y, out, offset);
+        normalizeDerivative(out, offset, 3);
+    }
+
+    @Override
+    public void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivative(seed, x, y, z, out, offset);
+        normalizeDerivative(out, offset, 4);
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                        double[] dx, double[] dy, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeGrid(seed, x, y, xStep, yStep, xSize, ySize, values, dx, dy, offset);
+        for(int i = offset, end = offset + xSize * ySize; i < end; i++) {
+            double slope = normalizeDerivative(values[i]);
+            values[i] = normalize(values[i]);
+            dx[i] *= slope;
+            dy[i] *= slope;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                        int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeGrid(seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, values, dx, dy, dz,
+            offset);
+        for(int i = offset, end = offset + xSize * ySize * zSize; i < end; i++) {
+            double slope = normalizeDerivative(values[i]);
+            values[i] = normalize(values[i]);
+            dx[i] *= slope;
+            dy[i] *= slope;
+            dz[i] *= slope;
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeSeeds(seed, x, y, count, out, offset);
+        for(int n = 0; n < count; n++) {
+            normalizeDerivative(out, offset + n * 3, 3);
+        }
+    }
+
+    @Override
+    public void getSampleDerivativeSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        ((DerivativeSampler) sampler).getSampleDerivativeSeeds(seed, x, y, z, count, out, offset);
+        for(int n = 0; n < count; n++) {
+            normalizeDerivative(out, offset + n * 4, 4);
+        }
+    }
+
+    /**
+     * Normalizes a value and applies the chain rule to the partial derivatives following it, in place.
+     */
+    private void normalizeDerivative(double[] out, int offset, int dimensions) {
+        double in = out[offset];
+        double slope = normalizeDerivative(in);
+        out[offset] = normalize(in);
+        for(int i = 1; i < dimensions; i++) {
+            out[offset + i] *= slope;
+        }
+    }
 }
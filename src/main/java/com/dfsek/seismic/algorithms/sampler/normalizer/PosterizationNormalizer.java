@@ -9,6 +9,7 @@ package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
 import com.dfsek.seismic.math.floatingpoint.FloatingPointFunctions;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -20,8 +21,28 @@ public class PosterizationNormalizer extends Normalizer {
         this.stepSize = 2.0 / (steps - 1);
     }
 
+    private PosterizationNormalizer(Sampler sampler, PosterizationNormalizer original) {
+        super(sampler);
+        this.stepSize = original.stepSize;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new PosterizationNormalizer(sampler, this);
+    }
+
     @Override
     public double normalize(double in) {
         return FloatingPointFunctions.round((in + 1) / stepSize) * stepSize - 1;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return 0;
+    }
 }
@@ -1,6 +1,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -9,8 +10,23 @@ public class ProbabilityNormalizer extends Normalizer {
         super(sampler);
     }
 
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new ProbabilityNormalizer(sampler);
+    }
+
     @Override
     public double normalize(double in) {
         return (in + 1) / 2;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return 0.5;
+    }
 }
@@ -1,6 +1,7 @@
 package com.dfsek.seismic.algorithms.sampler.normalizer;
 
 
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import com.dfsek.seismic.type.sampler.Sampler;
 
 
@@ -12,8 +13,27 @@ public class ScaleNormalizer extends Normalizer {
         this.scale = scale;
     }
 
+    public double getScale() {
+        return scale;
+    }
+
+    @Override
+    public Normalizer withSampler(Sampler sampler) {
+        return new ScaleNormalizer(sampler, scale);
+    }
+
     @Override
     public double normalize(double in) {
         return in * scale;
     }
+
+    @Override
+    public boolean isDifferentiable() {
+        return DerivativeSampler.isDifferentiable(getSampler());
+    }
+
+    @Override
+    public double normalizeDerivative(double in) {
+        return scale;
+    }
 }
@@ -29,4 +29,25 @@ public class ArithmeticFunctions {
             return a * b + c;
         }
     }
+
+    /**
+     * Returns the fused multiply add of the three {@code float} arguments; that is,
+     * returns the product of the first two arguments summed
+     * with the third argument.
+     *
+     * @param a a value.
+     * @param b a value.
+     * @param c a value.
+     *
+     * @return (<i>a</i>&times;<i>b</i>+<i>c</i>).
+     *
+     * @see #fma(double, double, double)
+     */
+    public static float fma(float a, float b, float c) {
+        if(VMConstants.HAS_FAST_SCALAR_FMA) {
+            return Math.fma(a, b, c);
+        } else {
+            return a * b + c;
+        }
+    }
 }
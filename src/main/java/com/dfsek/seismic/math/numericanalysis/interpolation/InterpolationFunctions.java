@@ -59,6 +59,61 @@ public class InterpolationFunctions {
         return InterpolationFunctions.lerp(x00, x11, tz);
     }
 
+    /**
+     * Returns the result of a 1D linear interpolation between two {@code float} points.
+     *
+     * @param v0 the value at the left corner of the first line in the 1x2 grid.
+     * @param v1 the value at the right corner of the first line in the 1x2 grid.
+     * @param t  the interpolation parameter.
+     *
+     * @return the interpolated value.
+     */
+    public static float lerp(float v0, float v1, float t) {
+        return ArithmeticFunctions.fma((v1 - v0), t, v0);
+    }
+
+    /**
+     * Returns the result of a 2D bilinear interpolation between four {@code float} points.
+     *
+     * @param v00 the value at the top-left corner of the 2x2 grid.
+     * @param v10 the value at the top-right corner of the 2x2 grid.
+     * @param v01 the value at the bottom-left corner of the 2x2 grid.
+     * @param v11 the value at the bottom-right corner of the 2x2 grid.
+     * @param tx  the horizontal interpolation parameter.
+     * @param ty  the vertical interpolation parameter.
+     *
+     * @return the interpolated value.
+     */
+    public static float biLerp(float v00, float v10, float v01, float v11, float tx, float ty) {
+        float lerpX1 = InterpolationFunctions.lerp(v00, v10, tx);
+        float lerpX2 = InterpolationFunctions.lerp(v01, v11, tx);
+        return InterpolationFunctions.lerp(lerpX1, lerpX2, ty);
+    }
+
+    /**
+     * Returns the result of a 3D trilinear interpolation between eight {@code float} points.
+     *
+     * @param v000 the value at the front-top-left corner of the 2x2x2 grid.
+     * @param v100 the value at the front-top-right corner of the 2x2x2 grid.
+     * @param v010 the value at the front-bottom-left corner of the 2x2x2 grid.
+     * @param v110 the value at the front-bottom-right corner of the 2x2x2 grid.
+     * @param v001 the value at the back-top-left corner of the 2x2x2 grid.
+     * @param v101 the value at the back-top-right corner of the 2x2x2 grid.
+     * @param v011 the value at the back-bottom-left corner of the 2x2x2 grid.
+     * @param v111 the value at the back-bottom-right corner of the 2x2x2 grid.
+     * @param tx   the horizontal interpolation parameter.
+     * @param ty   the vertical interpolation parameter.
+     * @param tz   the depth interpolation parameter.
+     *
+     * @return the interpolated value.
+     */
+    public static float triLerp(float v000, float v100, float v010, float v110, float v001, float v101, float v011, float v111,
+                                float tx, float ty, float tz) {
+        float x00 = InterpolationFunctions.biLerp(v000, v100, v010, v110, tx, ty);
+        float x11 = InterpolationFunctions.biLerp(v001, v101, v011, v111, tx, ty);
+        return InterpolationFunctions.lerp(x00, x11, tz);
+    }
+
     /**
      * Returns the result of a 1D cubic interpolation between four points.
      *
@@ -78,6 +133,23 @@ public class InterpolationFunctions {
         return ArithmeticFunctions.fma((t2 * t), p, h) + ArithmeticFunctions.fma(t, (v01 - v00), v10);
     }
 
+    /**
+     * Returns the derivative with respect to {@code t} of {@link #cubicLerp(double, double, double, double, double)}.
+     *
+     * @param v00 the value at the front-left corner of the first cubic line in the 1x4 grid.
+     * @param v10 the value at the front-right corner of the first cubic line in the 1x4 grid.
+     * @param v01 the value at the back-left corner of the first cubic line in the 1x4 grid.
+     * @param v11 the value at the back-right corner of the first cubic line in the 1x4 grid.
+     * @param t   the interpolation parameter.
+     *
+     * @return the slope of the interpolated curve.
+     */
+    public static double cubicLerpDerivative(double v00, double v10, double v01, double v11, double t) {
+        double j = (v00 - v10);
+        double p = (v11 - v01) - j;
+        return ArithmeticFunctions.fma(t, ArithmeticFunctions.fma(3 * t, p, 2 * (j - p)), (v01 - v00));
+    }
+
     /**
      * Returns the result of a 2D bicubic interpolation between sixteen points.
      *
@@ -17,6 +17,28 @@ public class SmoothstepFunctions {
         return x * x * (3.0 - 2.0 * x);
     }
 
+    /**
+     * Returns the result of a cubic polynomial smoothstep function in {@code float} precision.
+     *
+     * @param x the interpolation parameter.
+     *
+     * @return the interpolated value.
+     */
+    public static float cubicPolynomialSmoothstep(float x) {
+        return x * x * (3.0f - 2.0f * x);
+    }
+
+    /**
+     * Returns the derivative of the cubic polynomial smoothstep function.
+     *
+     * @param x the interpolation parameter.
+     *
+     * @return the slope of the smoothstep at {@code x}.
+     */
+    public static double cubicPolynomialSmoothstepDerivative(double x) {
+        return 6.0 * x * (1.0 - x);
+    }
+
     /**
      * Returns the result of the inverse cubic polynomial smoothstep function.
      *
@@ -61,6 +83,29 @@ public class SmoothstepFunctions {
         return x * x * x * ArithmeticFunctions.fma(x, ArithmeticFunctions.fma(x, 6.0, -15.0), 10.0);
     }
 
+    /**
+     * Returns the result of a quintic polynomial smoothstep function in {@code float} precision.
+     *
+     * @param x the interpolation parameter.
+     *
+     * @return the interpolated value.
+     */
+    public static float quinticPolynomialSmoothstep(float x) {
+        return x * x * x * ArithmeticFunctions.fma(x, ArithmeticFunctions.fma(x, 6.0f, -15.0f), 10.0f);
+    }
+
+    /**
+     * Returns the derivative of the quintic polynomial smoothstep function.
+     *
+     * @param x the interpolation parameter.
+     *
+     * @return the slope of the smoothstep at {@code x}.
+     */
+    public static double quinticPolynomialSmoothstepDerivative(double x) {
+        double xm = x - 1.0;
+        return 30.0 * x * x * xm * xm;
+    }
+
     /**
      * Returns the result of a cubic rational smoothstep function.
      *
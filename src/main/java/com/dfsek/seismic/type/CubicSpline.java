@@ -72,6 +72,39 @@ public class CubicSpline {
         }
     }
 
+    /**
+     * Calculates the derivative of the interpolated value for the given input using the provided arrays.
+     *
+     * @param in         the input value
+     * @param fromValues the array of from values
+     * @param toValues   the array of to values
+     * @param gradients  the array of gradients
+     *
+     * @return the slope of the spline at the input value
+     */
+    public static double calculateDerivative(double in, @NotNull double[] fromValues, double[] toValues, double[] gradients) {
+        int pointIdx = CubicSpline.floorBinarySearch(in, fromValues) - 1;
+
+        int pointIdxLast = fromValues.length - 1;
+
+        if(pointIdx < 0) { // Linear extension to the left of the first point
+            return gradients[0];
+        } else if(pointIdx == pointIdxLast) { // Linear extension to the right of the last point
+            return gradients[pointIdxLast];
+        } else {
+            double fromDelta = fromValues[pointIdx + 1] - fromValues[pointIdx];
+            double toDelta = toValues[pointIdx + 1] - toValues[pointIdx];
+
+            double t = (in - fromValues[pointIdx]) / fromDelta;
+
+            double left = gradients[pointIdx] * fromDelta - toDelta;
+            double right = -gradients[pointIdx + 1] * fromDelta + toDelta;
+
+            // Product rule on t * (1 - t) * lerp(left, right, t), scaled back from t to the input value
+            return (toDelta + (1 - 2 * t) * InterpolationFunctions.lerp(left, right, t) + t * (1 - t) * (right - left)) / fromDelta;
+        }
+    }
+
     private static int floorBinarySearch(double targetValue, @NotNull double[] values) {
         int left = 0;
         int right = values.length;
@@ -101,6 +134,18 @@ public class CubicSpline {
     }
 
 
+    /**
+     * Calculates the slope of the cubic spline interpolation at the given input.
+     *
+     * @param in the input value
+     *
+     * @return the derivative of the interpolated value
+     */
+    public double derivative(double in) {
+        return CubicSpline.calculateDerivative(in, fromValues, toValues, gradients);
+    }
+
+
     public record Point(double from, double to, double gradient) implements Comparable<Point> {
 
         /**
@@ -16,6 +16,10 @@ public interface DerivativeSampler extends Sampler {
         return sampler instanceof DerivativeSampler dSampler && dSampler.isDifferentiable();
     }
 
+    static boolean isTwiceDifferentiable(Sampler sampler) {
+        return sampler instanceof DerivativeSampler dSampler && dSampler.isTwiceDifferentiable();
+    }
+
     /**
      * Samplers may or may not be able to provide a derivative depending on what
      * inputs they take, this method signals whether this is the case.
@@ -24,6 +28,16 @@ public interface DerivativeSampler extends Sampler {
      */
     boolean isDifferentiable();
 
+    /**
+     * Whether this sampler additionally provides second derivatives through
+     * {@link #getSampleHessian(long, double, double, double[], int)}. Only samplers which are differentiable may be twice differentiable.
+     *
+     * @return If the noise sampler provides a second derivative or not
+     */
+    default boolean isTwiceDifferentiable() {
+        return false;
+    }
+
     /**
      * Get 3D noise at the given {@code Vector3} coordinates, using the given seed.
      *
@@ -94,4 +108,184 @@ public interface DerivativeSampler extends Sampler {
      * @return 4 element array, in index order: 3D noise value, partial x derivative, partial y derivative, partial z derivative
      */
     double[] getSampleDerivative(long seed, double x, double y, double z);
+
+    /**
+     * Allocation-free version of {@link #getSampleDerivative(long, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param out    the array to write the 2D noise value, partial x derivative and partial y derivative to, in that order.
+     * @param offset index in {@code out} to write the noise value to.
+     */
+    default void getSampleDerivative(long seed, double x, double y, double[] out, int offset) {
+        System.arraycopy(getSampleDerivative(seed, x, y), 0, out, offset, 3);
+    }
+
+    /**
+     * Allocation-free version of {@link #getSampleDerivative(long, double, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param z      Z coordinate.
+     * @param out    the array to write the 3D noise value and partial x, y and z derivatives to, in that order.
+     * @param offset index in {@code out} to write the noise value to.
+     */
+    default void getSampleDerivative(long seed, double x, double y, double z, double[] out, int offset) {
+        System.arraycopy(getSampleDerivative(seed, x, y, z), 0, out, offset, 4);
+    }
+
+    /**
+     * Sample 2D noise and its derivative at a single point for several consecutive seeds.
+     * <p>
+     * The noise value, partial x derivative and partial y derivative for seed {@code seed + n} are written to {@code out} starting at
+     * {@code offset + 3 * n}.
+     *
+     * @param seed   the first seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param count  number of seeds.
+     * @param out    the buffer to write to, must hold at least {@code offset + 3 * count} values.
+     * @param offset index in {@code out} of the value for the first seed.
+     */
+    default void getSampleDerivativeSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            getSampleDerivative(seed + n, x, y, out, offset + 3 * n);
+        }
+    }
+
+    /**
+     * Sample 3D noise and its derivative at a single point for several consecutive seeds.
+     * <p>
+     * The noise value and partial x, y and z derivatives for seed {@code seed + n} are written to {@code out} starting at
+     * {@code offset + 4 * n}.
+     *
+     * @param seed   the first seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param z      Z coordinate.
+     * @param count  number of seeds.
+     * @param out    the buffer to write to, must hold at least {@code offset + 4 * count} values.
+     * @param offset index in {@code out} of the value for the first seed.
+     */
+    default void getSampleDerivativeSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            getSampleDerivative(seed + n, x, y, z, out, offset + 4 * n);
+        }
+    }
+
+    /**
+     * Fill separate value and gradient buffers with 2D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The lattice and buffer layout are the same as
+     * {@link #getSampleGrid(long, double, double, double, double, int, int, double[], int)}, with the value and each partial derivative
+     * written to the same index of their own buffer.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param values the buffer to write noise values to.
+     * @param dx     the buffer to write partial x derivatives to.
+     * @param dy     the buffer to write partial y derivatives to.
+     * @param offset index in each buffer of the first lattice point.
+     */
+    default void getSampleDerivativeGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] values,
+                                         double[] dx, double[] dy, int offset) {
+        double[] sample = new double[3];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                getSampleDerivative(seed, xi, y + j * yStep, sample, 0);
+                values[index] = sample[0];
+                dx[index] = sample[1];
+                dy[index++] = sample[2];
+            }
+        }
+    }
+
+    /**
+     * Fill separate value and gradient buffers with 3D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The lattice and buffer layout are the same as
+     * {@link #getSampleGrid(long, double, double, double, double, double, double, int, int, int, double[], int)}, with the value and each
+     * partial derivative written to the same index of their own buffer.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param z      Z coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param zStep  distance between lattice points along the Z axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param zSize  number of lattice points along the Z axis.
+     * @param values the buffer to write noise values to.
+     * @param dx     the buffer to write partial x derivatives to.
+     * @param dy     the buffer to write partial y derivatives to.
+     * @param dz     the buffer to write partial z derivatives to.
+     * @param offset index in each buffer of the first lattice point.
+     */
+    default void getSampleDerivativeGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                         int ySize, int zSize, double[] values, double[] dx, double[] dy, double[] dz, int offset) {
+        double[] sample = new double[4];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    getSampleDerivative(seed, xi, yj, z + k * zStep, sample, 0);
+                    values[index] = sample[0];
+                    dx[index] = sample[1];
+                    dy[index] = sample[2];
+                    dz[index++] = sample[3];
+                }
+            }
+        }
+    }
+
+    /**
+     * Get 2D noise with its first and second partial derivatives at a single point, using the given seed.
+     * <p>
+     * The second derivatives are the upper triangle of the Hessian in row order; the matrix is symmetric, so the remaining entries are
+     * implied.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param out    the array to write the 2D noise value, partial x and y derivatives and second partial xx, xy and yy derivatives to,
+     *               in that order.
+     * @param offset index in {@code out} to write the noise value to.
+     *
+     * @throws UnsupportedOperationException if this sampler is not twice differentiable.
+     */
+    default void getSampleHessian(long seed, double x, double y, double[] out, int offset) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isTwiceDifferentiable correctly");
+    }
+
+    /**
+     * Get 3D noise with its first and second partial derivatives at a single point, using the given seed.
+     * <p>
+     * See {@link #getSampleHessian(long, double, double, double[], int)} for the layout of the second derivatives.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param z      Z coordinate.
+     * @param out    the array to write the 3D noise value, partial x, y and z derivatives and second partial xx, xy, xz, yy, yz and zz
+     *               derivatives to, in that order.
+     * @param offset index in {@code out} to write the noise value to.
+     *
+     * @throws UnsupportedOperationException if this sampler is not twice differentiable.
+     */
+    default void getSampleHessian(long seed, double x, double y, double z, double[] out, int offset) {
+        throw new UnsupportedOperationException("Implementation failed to check or set isTwiceDifferentiable correctly");
+    }
 }
@@ -14,10 +14,37 @@ import com.dfsek.seismic.type.vector.Vector3;
 import com.dfsek.seismic.type.vector.Vector3Int;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+
 
 public interface Sampler {
+    /**
+     * Bit of {@link #getAxisDependencies()} set when the 3D sample depends on the X coordinate.
+     */
+    int AXIS_X = 1;
+
+    /**
+     * Bit of {@link #getAxisDependencies()} set when the 3D sample depends on the Y coordinate.
+     */
+    int AXIS_Y = 1 << 1;
+
+    /**
+     * Bit of {@link #getAxisDependencies()} set when the 3D sample depends on the Z coordinate.
+     */
+    int AXIS_Z = 1 << 2;
+
+    /**
+     * {@link #getAxisDependencies()} of a sampler which may depend on every coordinate.
+     */
+    int ALL_AXES = AXIS_X | AXIS_Y | AXIS_Z;
+
     static @NotNull Sampler zero() {
         return new Sampler() {
+            @Override
+            public int getAxisDependencies() {
+                return 0;
+            }
+
             @Override
             public double getSample(long seed, double x, double y) {
                 return 0;
@@ -27,9 +54,78 @@ public interface Sampler {
             public double getSample(long seed, double x, double y, double z) {
                 return 0;
             }
+
+            @Override
+            public void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                                      int offset) {
+                Arrays.fill(out, offset, offset + xSize * ySize, 0);
+            }
+
+            @Override
+            public void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                                      int ySize, int zSize, double[] out, int offset) {
+                Arrays.fill(out, offset, offset + xSize * ySize * zSize, 0);
+            }
+
+            @Override
+            public void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+                Arrays.fill(out, offset, offset + count, 0);
+            }
+
+            @Override
+            public void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+                Arrays.fill(out, offset, offset + count, 0);
+            }
         };
     }
 
+    /**
+     * Fill a 3D lattice for a sampler that does not depend on the Y coordinate, by sampling a single Y layer and copying it to every
+     * other layer. {@code getSampleGrid} implementations of samplers that may be Y-invariant call this before sampling.
+     *
+     * @param sampler the sampler to fill the lattice with.
+     * @param seed    a seed.
+     * @param x       X coordinate of the lattice origin.
+     * @param y       Y coordinate of the lattice origin.
+     * @param z       Z coordinate of the lattice origin.
+     * @param xStep   distance between lattice points along the X axis.
+     * @param yStep   distance between lattice points along the Y axis.
+     * @param zStep   distance between lattice points along the Z axis.
+     * @param xSize   number of lattice points along the X axis.
+     * @param ySize   number of lattice points along the Y axis.
+     * @param zSize   number of lattice points along the Z axis.
+     * @param out     the buffer to write to, must hold at least {@code offset + xSize * ySize * zSize} values.
+     * @param offset  index in {@code out} of the first value.
+     *
+     * @return Whether the lattice was filled, {@code false} if the sampler depends on Y or there is only one layer
+     */
+    static boolean getYInvariantSampleGrid(Sampler sampler, long seed, double x, double y, double z, double xStep, double yStep,
+                                           double zStep, int xSize, int ySize, int zSize, double[] out, int offset) {
+        if(ySize <= 1 || (sampler.getAxisDependencies() & AXIS_Y) != 0) return false;
+        double[] layer = new double[xSize * zSize];
+        sampler.getSampleGrid(seed, x, y, z, xStep, yStep, zStep, xSize, 1, zSize, layer, 0);
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                System.arraycopy(layer, i * zSize, out, index, zSize);
+                index += zSize;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Which coordinates the 3D sample may depend on, as a combination of {@link #AXIS_X}, {@link #AXIS_Y} and {@link #AXIS_Z}.
+     * Samplers must not report an axis as independent unless changing only that coordinate never changes the sample.
+     * <p>
+     * Batch evaluation uses this to sample subtrees which ignore the Y axis once per column rather than once per lattice point.
+     *
+     * @return the axis dependency bits
+     */
+    default int getAxisDependencies() {
+        return ALL_AXES;
+    }
+
     /**
      * Get 3D noise at the given {@code Vector3} coordinates, using the given seed.
      *
@@ -127,4 +223,279 @@ public interface Sampler {
     default double getSample(long seed, int x, int y, int z) {
         return getSample(seed, (double) x, y, z);
     }
+
+    /**
+     * Get 2D noise at the given {@code double} coordinates in {@code float} precision, using the given seed.
+     * <p>
+     * Implementations may evaluate the noise entirely in {@code float} arithmetic, so the result is not necessarily the
+     * {@code double} sample narrowed.
+     *
+     * @param seed a seed.
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     *
+     * @return 2D noise value at coordinates.
+     */
+    default float getSampleFloat(long seed, double x, double y) {
+        return (float) getSample(seed, x, y);
+    }
+
+    /**
+     * Get 3D noise at the given {@code double} coordinates in {@code float} precision, using the given seed.
+     * <p>
+     * Implementations may evaluate the noise entirely in {@code float} arithmetic, so the result is not necessarily the
+     * {@code double} sample narrowed.
+     *
+     * @param seed a seed.
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @param z    Z coordinate
+     *
+     * @return 3D noise value at coordinates.
+     */
+    default float getSampleFloat(long seed, double x, double y, double z) {
+        return (float) getSample(seed, x, y, z);
+    }
+
+    /**
+     * Fill a buffer with 2D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The lattice point {@code (i, j)} is located at {@code (x + i * xStep, y + j * yStep)} and its value is written to
+     * {@code out[offset + i * ySize + j]}, so Y is the innermost axis.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param out    the buffer to write to, must hold at least {@code offset + xSize * ySize} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                               int offset) {
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = getSample(seed, xi, y + j * yStep);
+            }
+        }
+    }
+
+    /**
+     * Fill a buffer with 3D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The lattice point {@code (i, j, k)} is located at {@code (x + i * xStep, y + j * yStep, z + k * zStep)} and its value is written to
+     * {@code out[offset + (i * ySize + j) * zSize + k]}, so Z is the innermost axis and X the outermost.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param z      Z coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param zStep  distance between lattice points along the Z axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param zSize  number of lattice points along the Z axis.
+     * @param out    the buffer to write to, must hold at least {@code offset + xSize * ySize * zSize} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                               int zSize, double[] out, int offset) {
+        if(Sampler.getYInvariantSampleGrid(this, seed, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize, out, offset)) return;
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            double xi = x + i * xStep;
+            for(int j = 0; j < ySize; j++) {
+                double yj = y + j * yStep;
+                for(int k = 0; k < zSize; k++) {
+                    out[index++] = getSample(seed, xi, yj, z + k * zStep);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill a buffer with 2D noise sampled at arbitrary points, using the given seed.
+     * <p>
+     * The value at {@code (xs[n], ys[n])} is written to {@code out[offset + n]}. Implementations may evaluate the points in any order.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates of the points.
+     * @param ys     Y coordinates of the points.
+     * @param count  number of points, read from the start of the coordinate arrays.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSamples(long seed, double[] xs, double[] ys, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getSample(seed, xs[n], ys[n]);
+        }
+    }
+
+    /**
+     * Fill a buffer with 3D noise sampled at arbitrary points, using the given seed.
+     * <p>
+     * The value at {@code (xs[n], ys[n], zs[n])} is written to {@code out[offset + n]}. Implementations may evaluate the points in any
+     * order.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates of the points.
+     * @param ys     Y coordinates of the points.
+     * @param zs     Z coordinates of the points.
+     * @param count  number of points, read from the start of the coordinate arrays.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getSample(seed, xs[n], ys[n], zs[n]);
+        }
+    }
+
+    /**
+     * Sample 2D noise at a single point for several consecutive seeds.
+     * <p>
+     * The value for seed {@code seed + n} is written to {@code out[offset + n]}. Samplers which spend most of their time locating the
+     * point on their lattice may share that work between the seeds.
+     *
+     * @param seed   the first seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param count  number of seeds.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the value for the first seed.
+     */
+    default void getSampleSeeds(long seed, double x, double y, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getSample(seed + n, x, y);
+        }
+    }
+
+    /**
+     * Sample 3D noise at a single point for several consecutive seeds.
+     * <p>
+     * The value for seed {@code seed + n} is written to {@code out[offset + n]}. Samplers which spend most of their time locating the
+     * point on their lattice may share that work between the seeds.
+     *
+     * @param seed   the first seed.
+     * @param x      X coordinate.
+     * @param y      Y coordinate.
+     * @param z      Z coordinate.
+     * @param count  number of seeds.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the value for the first seed.
+     */
+    default void getSampleSeeds(long seed, double x, double y, double z, int count, double[] out, int offset) {
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = getSample(seed + n, x, y, z);
+        }
+    }
+
+    /**
+     * Fill a {@code float} buffer with 2D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The layout is the same as {@link #getSampleGrid(long, double, double, double, double, int, int, double[], int)}. Values are
+     * {@code float} precision, see {@link #getSampleFloat(long, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param out    the buffer to write to, must hold at least {@code offset + xSize * ySize} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSampleGrid(long seed, double x, double y, double xStep, double yStep, int xSize, int ySize, float[] out,
+                               int offset) {
+        // Sample one row at a time so the double grid path is used without a full size double buffer
+        double[] row = new double[ySize];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            getSampleGrid(seed, x + i * xStep, y, xStep, yStep, 1, ySize, row, 0);
+            for(int j = 0; j < ySize; j++) {
+                out[index++] = (float) row[j];
+            }
+        }
+    }
+
+    /**
+     * Fill a {@code float} buffer with 3D noise sampled on a regular lattice, using the given seed.
+     * <p>
+     * The layout is the same as
+     * {@link #getSampleGrid(long, double, double, double, double, double, double, int, int, int, double[], int)}. Values are
+     * {@code float} precision, see {@link #getSampleFloat(long, double, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param x      X coordinate of the lattice origin.
+     * @param y      Y coordinate of the lattice origin.
+     * @param z      Z coordinate of the lattice origin.
+     * @param xStep  distance between lattice points along the X axis.
+     * @param yStep  distance between lattice points along the Y axis.
+     * @param zStep  distance between lattice points along the Z axis.
+     * @param xSize  number of lattice points along the X axis.
+     * @param ySize  number of lattice points along the Y axis.
+     * @param zSize  number of lattice points along the Z axis.
+     * @param out    the buffer to write to, must hold at least {@code offset + xSize * ySize * zSize} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSampleGrid(long seed, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize,
+                               int zSize, float[] out, int offset) {
+        double[] slice = new double[ySize * zSize];
+        int index = offset;
+        for(int i = 0; i < xSize; i++) {
+            getSampleGrid(seed, x + i * xStep, y, z, xStep, yStep, zStep, 1, ySize, zSize, slice, 0);
+            for(double value : slice) {
+                out[index++] = (float) value;
+            }
+        }
+    }
+
+    /**
+     * Fill a {@code float} buffer with 2D noise sampled at arbitrary points, using the given seed.
+     * <p>
+     * The layout is the same as {@link #getSamples(long, double[], double[], int, double[], int)}. Values are {@code float}
+     * precision, see {@link #getSampleFloat(long, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates of the points.
+     * @param ys     Y coordinates of the points.
+     * @param count  number of points, read from the start of the coordinate arrays.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSamples(long seed, double[] xs, double[] ys, int count, float[] out, int offset) {
+        double[] values = new double[count];
+        getSamples(seed, xs, ys, count, values, 0);
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = (float) values[n];
+        }
+    }
+
+    /**
+     * Fill a {@code float} buffer with 3D noise sampled at arbitrary points, using the given seed.
+     * <p>
+     * The layout is the same as {@link #getSamples(long, double[], double[], double[], int, double[], int)}. Values are {@code float}
+     * precision, see {@link #getSampleFloat(long, double, double, double)}.
+     *
+     * @param seed   a seed.
+     * @param xs     X coordinates of the points.
+     * @param ys     Y coordinates of the points.
+     * @param zs     Z coordinates of the points.
+     * @param count  number of points, read from the start of the coordinate arrays.
+     * @param out    the buffer to write to, must hold at least {@code offset + count} values.
+     * @param offset index in {@code out} of the first value.
+     */
+    default void getSamples(long seed, double[] xs, double[] ys, double[] zs, int count, float[] out, int offset) {
+        double[] values = new double[count];
+        getSamples(seed, xs, ys, zs, count, values, 0);
+        for(int n = 0; n < count; n++) {
+            out[offset + n] = (float) values[n];
+        }
+    }
 }
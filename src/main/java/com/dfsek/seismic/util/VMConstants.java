@@ -124,6 +124,10 @@ public final class VMConstants {
      *
      */
     private static final boolean HAS_SVE = HotspotVMOptionsUtils.get("UseSVE").map(Integer::valueOf).orElse(0) >= 1;
+    /**
+     * true if vector units are wide enough for the Vector API kernels to beat scalar code.
+     */
+    public static final boolean HAS_FAST_VECTOR_KERNELS = VMConstants.hasFastVectorKernels();
     /**
      * true if we know Compress and Cast has fast throughput.
      *
@@ -191,6 +195,16 @@ public final class VMConstants {
         return false;
     }
 
+    private static boolean hasFastVectorKernels() {
+        String value = VMConstants.getSysProp("seismic.useVectorAPI", "auto");
+        if("auto".equals(value)) {
+            // the noise kernels lean on gathers, which only pay off with at least four double lanes
+            return !VMConstants.IS_CLIENT_VM && VMConstants.MAX_VECTOR_SIZE >= 32 && (VMConstants.HAS_AVX2 || VMConstants.HAS_SVE);
+        } else {
+            return Boolean.parseBoolean(value);
+        }
+    }
+
     private static boolean hasFastCompressMaskCast() {
         return (VMConstants.OS_ARCH.equals("aarch64") && VMConstants.HAS_SVE) || (VMConstants.OS_ARCH.equals("amd64") &&
                                                                                   VMConstants.HAS_AVX2);
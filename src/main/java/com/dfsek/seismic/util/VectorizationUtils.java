@@ -0,0 +1,58 @@
+package com.dfsek.seismic.util;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Locates optional Vector API implementations.
+ * <p>
+ * Vectorized kernels are compiled separately against {@code jdk.incubator.vector} and only loaded when that module is part of the boot
+ * layer (i.e. the JVM was started with {@code --add-modules jdk.incubator.vector}) and {@link VMConstants#HAS_FAST_VECTOR_KERNELS}
+ * is set. Otherwise callers keep using their scalar code.
+ */
+public final class VectorizationUtils {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VectorizationUtils.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    /**
+     * True if Vector API kernels may be loaded.
+     */
+    public static final boolean VECTORIZATION_ENABLED = VectorizationUtils.isVectorizationEnabled();
+
+    private VectorizationUtils() {
+    } // can't construct
+
+    private static boolean isVectorizationEnabled() {
+        if(!VMConstants.HAS_FAST_VECTOR_KERNELS) {
+            return false;
+        }
+        if(ModuleLayer.boot().findModule(VectorizationUtils.VECTOR_MODULE).isEmpty()) {
+            VectorizationUtils.LOGGER.debug("Vector API is not available, add --add-modules {} to enable vectorized kernels",
+                VectorizationUtils.VECTOR_MODULE);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Instantiates a vectorized implementation of the given type, if vectorization is enabled.
+     *
+     * @param <T>       the implemented type.
+     * @param type      the implemented type.
+     * @param className fully qualified name of the implementation, which must have a public no-argument constructor.
+     *
+     * @return the implementation, or {@code null} if vectorization is disabled or the implementation could not be loaded.
+     */
+    public static <T> @Nullable T load(Class<T> type, String className) {
+        if(!VectorizationUtils.VECTORIZATION_ENABLED) {
+            return null;
+        }
+        try {
+            return Class.forName(className, true, type.getClassLoader()).asSubclass(type).getConstructor().newInstance();
+        } catch(ReflectiveOperationException | LinkageError | ClassCastException e) {
+            VectorizationUtils.LOGGER.warn("Failed to load vectorized implementation {}, falling back to scalar code", className, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.AdaptiveGridSampler.Statistics;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class AdaptiveGridSamplerTest {
+    private static final DerivativeSampler WAVES = new DerivativeSampler() {
+        @Override
+        public boolean isDifferentiable() {
+            return true;
+        }
+
+        @Override
+        public double[] getSampleDerivative(long seed, double x, double y) {
+            return new double[]{ Math.sin(x * 0.05) * Math.cos(y * 0.03), Math.cos(x * 0.05) * Math.cos(y * 0.03) * 0.05,
+                -Math.sin(x * 0.05) * Math.sin(y * 0.03) * 0.03 };
+        }
+
+        @Override
+        public double[] getSampleDerivative(long seed, double x, double y, double z) {
+            double[] horizontal = getSampleDerivative(seed, x, z);
+            double vertical = Math.sin(y * 0.04);
+            return new double[]{ horizontal[0] + vertical, horizontal[1], Math.cos(y * 0.04) * 0.04, horizontal[2] };
+        }
+
+        @Override
+        public double getSample(long seed, double x, double y) {
+            return getSampleDerivative(seed, x, y)[0];
+        }
+
+        @Override
+        public double getSample(long seed, double x, double y, double z) {
+            return getSampleDerivative(seed, x, y, z)[0];
+        }
+    };
+
+    // Hides the derivatives, so errors are estimated from samples
+    private static final Sampler WAVE_VALUES = new Sampler() {
+        @Override
+        public double getSample(long seed, double x, double y) {
+            return WAVES.getSample(seed, x, y);
+        }
+
+        @Override
+        public double getSample(long seed, double x, double y, double z) {
+            return WAVES.getSample(seed, x, y, z);
+        }
+    };
+
+    @Test
+    void zeroToleranceMatchesSampler() {
+        Sampler rough = new OpenSimplex2Sampler(0.3d, 4);
+        for(Sampler sampler : new Sampler[]{ rough, WAVES, WAVE_VALUES }) {
+            AdaptiveGridSampler adaptive = new AdaptiveGridSampler(sampler, 8, 0);
+            int xSize = 21, ySize = 18, zSize = 11;
+            double[] out = new double[xSize * ySize * zSize];
+            double[] expected = new double[out.length];
+            Statistics statistics = adaptive.getSampleGrid(3, -5, 7, 1, 1, xSize, ySize, out, 0);
+            sampler.getSampleGrid(3, -5, 7, 1, 1, xSize, ySize, expected, 0);
+            assertArrayEquals(expected, out, 1.0E-15);
+            if(sampler == rough) assertEquals(xSize * ySize, statistics.evaluations());
+
+            statistics = adaptive.getSampleGrid(3, -5, 2, 7, 1, 2, 1, xSize, ySize, zSize, out, 0);
+            sampler.getSampleGrid(3, -5, 2, 7, 1, 2, 1, xSize, ySize, zSize, expected, 0);
+            assertArrayEquals(expected, out, 1.0E-15);
+            if(sampler == rough) assertEquals(out.length, statistics.evaluations());
+        }
+    }
+
+    @Test
+    void constantSamplesOnlyInitialCells() {
+        AdaptiveGridSampler adaptive = new AdaptiveGridSampler(new ConstantSampler(2.5), 16, 0);
+        double[] out = new double[33 * 17];
+        Statistics statistics = adaptive.getSampleGrid(0, 0, 0, 1, 1, 33, 17, out, 0);
+        // The corners of the two initial cells, and the edge midpoints and centres which estimate their error
+        assertEquals(6 + 7 + 2, statistics.evaluations());
+        for(double value : out) {
+            assertEquals(2.5, value);
+        }
+    }
+
+    @Test
+    void samplesSmoothSamplersSparsely() {
+        for(Sampler sampler : new Sampler[]{ WAVES, WAVE_VALUES }) {
+            AdaptiveGridSampler adaptive = new AdaptiveGridSampler(sampler, 16, 0.01);
+            int size = 65;
+            double[] out = new double[size * size * size];
+            Statistics statistics = adaptive.getSampleGrid(8, 100, -40, 30, 1, 1, 1, size, size, size, out, 0);
+            assertTrue(statistics.evaluatedFraction() < 0.1, "evaluated " + statistics.evaluatedFraction());
+            for(int i = 0; i < size; i += 3) {
+                for(int j = 0; j < size; j += 5) {
+                    for(int k = 0; k < size; k += 7) {
+                        assertEquals(WAVES.getSample(8, 100 + i, -40 + j, 30 + k), out[(i * size + j) * size + k], 0.02);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void estimatesErrorInGridCoordinates() {
+        // Noise functions report derivatives per unit of their scaled coordinates, which must be scaled back by the frequency
+        Sampler noise = new OpenSimplex2Sampler(0.005d, 9);
+        Sampler values = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                return noise.getSample(seed, x, y);
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                return noise.getSample(seed, x, y, z);
+            }
+        };
+        int size = 129;
+        double[] out = new double[size * size];
+        Statistics fromDerivatives = new AdaptiveGridSampler(noise, 16, 0.01).getSampleGrid(1, -300, 450, 1, 1, size, size, out, 0);
+        for(int i = 0; i < size; i += 3) {
+            for(int j = 0; j < size; j += 5) {
+                assertEquals(noise.getSample(1, -300 + i, 450 + j), out[i * size + j], 0.02);
+            }
+        }
+        Statistics fromSamples = new AdaptiveGridSampler(values, 16, 0.01).getSampleGrid(1, -300, 450, 1, 1, size, size, out, 0);
+        assertTrue(fromDerivatives.evaluatedFraction() < 0.05, "evaluated " + fromDerivatives.evaluatedFraction());
+        assertTrue(fromDerivatives.evaluatedFraction() < fromSamples.evaluatedFraction(),
+            "evaluated " + fromDerivatives.evaluatedFraction() + " against " + fromSamples.evaluatedFraction());
+    }
+}
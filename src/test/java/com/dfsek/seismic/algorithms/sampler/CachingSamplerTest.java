@@ -0,0 +1,107 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CachingSamplerTest {
+    private static final class CountingSampler implements Sampler {
+        private final Sampler sampler = new OpenSimplex2Sampler(0.03d, 5);
+        private int count;
+
+        @Override
+        public double getSample(long seed, double x, double y) {
+            count++;
+            return sampler.getSample(seed, x, y);
+        }
+
+        @Override
+        public double getSample(long seed, double x, double y, double z) {
+            count++;
+            return sampler.getSample(seed, x, y, z);
+        }
+    }
+
+    @Test
+    void cachesUntilInvalidated() {
+        CountingSampler counting = new CountingSampler();
+        CachedSampler cached = new CachedSampler(counting, 1024);
+        for(int pass = 0; pass < 3; pass++) {
+            for(int x = 0; x < 16; x++) {
+                for(int z = 0; z < 16; z++) {
+                    assertEquals(counting.sampler.getSample(9, x, z), cached.getSample(9, x, z));
+                    assertEquals(counting.sampler.getSample(9, x, 4, z), cached.getSample(9, x, 4, z));
+                }
+            }
+        }
+        assertEquals(512, counting.count);
+
+        cached.getSample(10, 0, 0);
+        assertEquals(513, counting.count);
+
+        cached.invalidate();
+        cached.getSample(9, 0, 0);
+        assertEquals(514, counting.count);
+    }
+
+    @Test
+    void capacityIsBounded() {
+        CountingSampler counting = new CountingSampler();
+        CachedSampler cached = new CachedSampler(counting, 64);
+        for(int pass = 0; pass < 2; pass++) {
+            for(int x = 0; x < 1000; x++) {
+                assertEquals(counting.sampler.getSample(1, x, -x), cached.getSample(1, x, -x));
+            }
+        }
+        // at most 64 of the first pass can survive into the second
+        assertTrue(counting.count >= 2000 - 64);
+    }
+
+    @Test
+    void gridUsesCache() {
+        CountingSampler counting = new CountingSampler();
+        CachedSampler cached = new CachedSampler(counting, 4096);
+        int xSize = 8, ySize = 4, zSize = 8;
+        double[] first = new double[xSize * ySize * zSize];
+        double[] second = new double[first.length];
+        cached.getSampleGrid(3, 0, 60, 0, 1, 1, 1, xSize, ySize, zSize, first, 0);
+        int count = counting.count;
+        cached.getSampleGrid(3, 0, 60, 0, 1, 1, 1, xSize, ySize, zSize, second, 0);
+        assertEquals(count, counting.count);
+        assertArrayEquals(first, second);
+        assertEquals(counting.sampler.getSample(3, 7, 63, 5), first[(7 * ySize + 3) * zSize + 5]);
+    }
+
+    @Test
+    void concurrent() throws Exception {
+        Sampler sampler = new OpenSimplex2Sampler(0.03d, 5);
+        ConcurrentCachedSampler cached = new ConcurrentCachedSampler(sampler, 1 << 12, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for(int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for(int pass = 0; pass < 4; pass++) {
+                        for(int x = 0; x < 40; x++) {
+                            for(int z = 0; z < 40; z++) {
+                                assertEquals(sampler.getSample(2, x, 7, z), cached.getSample(2, x, 7, z));
+                            }
+                        }
+                    }
+                });
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
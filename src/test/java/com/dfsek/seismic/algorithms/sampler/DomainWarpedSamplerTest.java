@@ -0,0 +1,72 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.compiler.SamplerTape;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.random.WhiteNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueCubicSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class DomainWarpedSamplerTest {
+    @Test
+    void getSample() {
+        Sampler function = new OpenSimplex2Sampler(0.01d, 4);
+        Sampler warp = new ScaleNormalizer(new BrownianMotionSampler(2, new OpenSimplex2Sampler(0.03d, 9), 0.5, 2, 0.3, 3), 1.5);
+        DomainWarpedSampler sampler = new DomainWarpedSampler(function, warp, 12);
+        DomainWarpedSampler fused = new DomainWarpedSampler(function, warp, 12, true);
+        Random random = new Random(2);
+        for(int n = 0; n < 200; n++) {
+            double x = random.nextDouble() * 2000 - 1000, y = random.nextDouble() * 2000 - 1000, z = random.nextDouble() * 2000 - 1000;
+            // Warp components are taken from the seeds following the function's seed, one per axis
+            double expected = function.getSample(17, x + warp.getSample(18, x, y) * 12, y + warp.getSample(19, x, y) * 12);
+            assertEquals(expected, sampler.getSample(17, x, y));
+            assertEquals(expected, fused.getSample(17, x, y));
+            expected = function.getSample(17, x + warp.getSample(18, x, y, z) * 12, y + warp.getSample(19, x, y, z) * 12,
+                z + warp.getSample(20, x, y, z) * 12);
+            assertEquals(expected, sampler.getSample(17, x, y, z));
+            assertEquals(expected, fused.getSample(17, x, y, z));
+        }
+    }
+
+    @Test
+    void getSampleDerivative() {
+        // Unit function frequencies, so the derivatives of the function are taken in the sampled coordinates
+        DerivativeSampler[] samplers = {
+            new DomainWarpedSampler(new ValueCubicSampler(1, 3), new ScaleNormalizer(new PerlinSampler(1, 8), 0.7), 0.9),
+            new DomainWarpedSampler(new PerlinSampler(1, 3), new TranslateSampler(new ValueCubicSampler(1, 5), 0.5, 2, -3), 0.6),
+            new DomainWarpedSampler(new PerlinSampler(1, 3), new ScaleNormalizer(new OpenSimplex2Sampler(0.1, 5), 4), 2.5, true),
+            new DomainWarpedSampler(new ValueCubicSampler(1, 3),
+                new BrownianMotionSampler(2, new PerlinSampler(0.2, 8), 0.5, 2, 0, 3), 3)
+        };
+        Random random = new Random(5);
+        double h = 1e-6;
+        for(DerivativeSampler sampler : samplers) {
+            assertTrue(sampler.isDifferentiable());
+            SamplerTape tape = new SamplerTape(sampler);
+            for(int n = 0; n < 200; n++) {
+                double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50, z = random.nextDouble() * 100 - 50;
+                double[] derivative = sampler.getSampleDerivative(6, x, y);
+                assertEquals(sampler.getSample(6, x, y), derivative[0], 1e-12);
+                assertEquals((sampler.getSample(6, x + h, y) - sampler.getSample(6, x - h, y)) / (2 * h), derivative[1], 1e-4);
+                assertEquals((sampler.getSample(6, x, y + h) - sampler.getSample(6, x, y - h)) / (2 * h), derivative[2], 1e-4);
+
+                derivative = sampler.getSampleDerivative(6, x, y, z);
+                assertEquals(sampler.getSample(6, x, y, z), derivative[0], 1e-12);
+                assertEquals((sampler.getSample(6, x + h, y, z) - sampler.getSample(6, x - h, y, z)) / (2 * h), derivative[1], 1e-4);
+                assertEquals((sampler.getSample(6, x, y + h, z) - sampler.getSample(6, x, y - h, z)) / (2 * h), derivative[2], 1e-4);
+                assertEquals((sampler.getSample(6, x, y, z + h) - sampler.getSample(6, x, y, z - h)) / (2 * h), derivative[3], 1e-4);
+                assertArrayEquals(tape.getSampleDerivative(6, x, y, z), derivative, 1e-9);
+            }
+        }
+        assertFalse(new DomainWarpedSampler(new PerlinSampler(1, 3), new WhiteNoiseSampler(1, 2), 1).isDifferentiable());
+    }
+}
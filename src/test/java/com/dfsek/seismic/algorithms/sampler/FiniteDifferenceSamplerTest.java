@@ -0,0 +1,124 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.FiniteDifferenceSampler.Difference;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FiniteDifferenceSamplerTest {
+    @Test
+    void getSampleDerivative() {
+        // Unit frequency, so the analytic derivative is taken in the same coordinates as the differences
+        PerlinSampler perlin = new PerlinSampler(1, 4);
+        FiniteDifferenceSampler central = new FiniteDifferenceSampler(perlin, Difference.CENTRAL, 1e-5);
+        FiniteDifferenceSampler forward = new FiniteDifferenceSampler(perlin, Difference.FORWARD, 1e-7);
+        Random random = new Random(3);
+        for(int n = 0; n < 200; n++) {
+            double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50, z = random.nextDouble() * 100 - 50;
+            double[] expected = perlin.getSampleDerivative(9, x, y);
+            assertArrayEquals(expected, central.getSampleDerivative(9, x, y), 1e-6);
+            assertArrayEquals(expected, forward.getSampleDerivative(9, x, y), 1e-5);
+
+            expected = perlin.getSampleDerivative(9, x, y, z);
+            assertArrayEquals(expected, central.getSampleDerivative(9, x, y, z), 1e-6);
+            assertArrayEquals(expected, forward.getSampleDerivative(9, x, y, z), 1e-5);
+        }
+    }
+
+    @Test
+    void getSampleDerivativeGrid() {
+        Sampler perlin = new PerlinSampler(0.05, 4);
+        int xSize = 6, ySize = 5, zSize = 7;
+        double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        for(Difference difference : Difference.values()) {
+            // With the lattice spacing as the step, grid derivatives take the same differences as point derivatives
+            FiniteDifferenceSampler sampler = new FiniteDifferenceSampler(perlin, difference, 0.5);
+            sampler.getSampleDerivativeGrid(2, -30, 17, 0.5, 0.5, xSize, ySize, values, dx, dy, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    int index = i * ySize + j;
+                    assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 0.5, 17 + j * 0.5),
+                        new double[]{ values[index], dx[index], dy[index] }, 1e-9);
+                }
+            }
+            sampler.getSampleDerivativeGrid(2, -30, 5, 17, 0.5, 0.5, 0.5, xSize, ySize, zSize, values, dx, dy, dz, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        int index = (i * ySize + j) * zSize + k;
+                        assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 0.5, 5 + j * 0.5, 17 + k * 0.5),
+                            new double[]{ values[index], dx[index], dy[index], dz[index] }, 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSampleDerivativeGridNegativeSteps() {
+        Sampler perlin = new PerlinSampler(0.05, 4);
+        int xSize = 6, ySize = 5, zSize = 7;
+        double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        for(Difference difference : Difference.values()) {
+            // Forward differences still take the next point in sampled coordinates when the lattice runs backwards
+            FiniteDifferenceSampler sampler = new FiniteDifferenceSampler(perlin, difference, 0.5);
+            sampler.getSampleDerivativeGrid(2, -30, 17, -0.5, 0.5, xSize, ySize, values, dx, dy, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    int index = i * ySize + j;
+                    assertArrayEquals(sampler.getSampleDerivative(2, -30 - i * 0.5, 17 + j * 0.5),
+                        new double[]{ values[index], dx[index], dy[index] }, 1e-9);
+                }
+            }
+            sampler.getSampleDerivativeGrid(2, -30, 5, 17, 0.5, -0.5, -0.5, xSize, ySize, zSize, values, dx, dy, dz, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        int index = (i * ySize + j) * zSize + k;
+                        assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 0.5, 5 - j * 0.5, 17 - k * 0.5),
+                            new double[]{ values[index], dx[index], dy[index], dz[index] }, 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharesStencilSamples() {
+        AtomicInteger samples = new AtomicInteger();
+        Sampler counting = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                samples.incrementAndGet();
+                return x * y;
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                samples.incrementAndGet();
+                return x * y * z;
+            }
+        };
+        int size = 16;
+        double[] values = new double[size * size], dx = new double[values.length], dy = new double[values.length];
+        new FiniteDifferenceSampler(counting, Difference.FORWARD, 1).getSampleDerivativeGrid(0, 0, 0, 1, 1, size, size, values, dx, dy, 0);
+        assertEquals((size + 1) * (size + 1), samples.get());
+        // Differences of a bilinear sampler are exact
+        assertEquals(3, dx[15 * size + 3]);
+        assertEquals(15, dy[15 * size + 3]);
+
+        samples.set(0);
+        new FiniteDifferenceSampler(counting, Difference.CENTRAL, 1).getSampleDerivativeGrid(0, 0, 0, 1, 1, size, size, values, dx, dy, 0);
+        assertEquals((size + 2) * (size + 2), samples.get());
+        assertEquals(3, dx[15 * size + 3]);
+        assertEquals(15, dy[15 * size + 3]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.InterpolatedSampler.Interpolation;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class InterpolatedSamplerTest {
+    private static final Sampler NOISE = new OpenSimplex2Sampler(0.02d, 3);
+
+    @Test
+    void matchesSamplerOnLattice() {
+        for(Interpolation interpolation : Interpolation.values()) {
+            InterpolatedSampler interpolated = new InterpolatedSampler(NOISE, interpolation, 4, 8, 4);
+            for(int x = -12; x <= 12; x += 4) {
+                for(int z = -8; z <= 8; z += 4) {
+                    assertEquals(NOISE.getSample(6, x, z), interpolated.getSample(6, x, z));
+                    assertEquals(NOISE.getSample(6, x, -16, z), interpolated.getSample(6, x, -16, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    void gridMatchesSingleSamples() {
+        for(Interpolation interpolation : Interpolation.values()) {
+            InterpolatedSampler interpolated = new InterpolatedSampler(NOISE, interpolation, 4, 8, 4);
+            int xSize = 9, ySize = 13, zSize = 7;
+            double[] out = new double[xSize * ySize * zSize];
+            interpolated.getSampleGrid(2, -17, 5, 1, 1.5, xSize, ySize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    assertEquals(interpolated.getSample(2, -17 + i, 5 + j * 1.5), out[i * ySize + j]);
+                }
+            }
+            interpolated.getSampleGrid(2, -17, -30, 5, 1, 3, 1.5, xSize, ySize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        assertEquals(interpolated.getSample(2, -17 + i, -30 + j * 3, 5 + k * 1.5), out[(i * ySize + j) * zSize + k]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void samplesEachLatticePointOnce() {
+        int[] samples = new int[1];
+        Sampler counting = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                samples[0]++;
+                return NOISE.getSample(seed, x, y);
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                samples[0]++;
+                return NOISE.getSample(seed, x, y, z);
+            }
+        };
+        InterpolatedSampler interpolated = new InterpolatedSampler(counting, Interpolation.LINEAR, 4, 8, 4);
+        // A 16x64x16 region covers 5x9x5 lattice points
+        interpolated.getSampleGrid(0, 16, 0, -32, 1, 1, 1, 16, 64, 16, new double[16 * 64 * 16], 0);
+        assertEquals(5 * 9 * 5, samples[0]);
+    }
+
+    @Test
+    void rejectsNonPositiveStrides() {
+        assertThrows(IllegalArgumentException.class, () -> new InterpolatedSampler(NOISE, Interpolation.LINEAR, 4, 0, 4));
+    }
+}
@@ -0,0 +1,111 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.compiler.SamplerTape;
+import com.dfsek.seismic.algorithms.sampler.noise.random.WhiteNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.CubicSplineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.Normalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.CubicSpline;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class NormalizerDerivativeTest {
+    private static final double FREQUENCY = 0.05;
+
+    private static DerivativeSampler graph() {
+        CubicSpline spline = new CubicSpline(new ArrayList<>(List.of(
+            new CubicSpline.Point(-1, -0.5, 0.3),
+            new CubicSpline.Point(0, 0.2, 1.5),
+            new CubicSpline.Point(0.6, 0.4, -0.2),
+            new CubicSpline.Point(1, 1, 2))));
+        return new TranslateSampler(
+            new AffineNormalizer(new ClampNormalizer(new CubicSplineNormalizer(new LinearMapNormalizer(new ProbabilityNormalizer(
+                new ScaleNormalizer(new LinearNormalizer(new PerlinSampler(FREQUENCY, 3), -0.9, 1.1), 1.3)), 0, 1, -1, 1), spline), -0.4,
+                0.9), 2, 0.5, -1, 2),
+            12.5, -3, 40);
+    }
+
+    @Test
+    void getSampleDerivative() {
+        DerivativeSampler sampler = graph();
+        assertTrue(sampler.isDifferentiable());
+        Random random = new Random(31);
+        double h = 1e-6;
+        for(int n = 0; n < 500; n++) {
+            double x = random.nextDouble() * 400 - 200, y = random.nextDouble() * 400 - 200, z = random.nextDouble() * 400 - 200;
+            double[] derivative = sampler.getSampleDerivative(8, x, y);
+            assertEquals(sampler.getSample(8, x, y), derivative[0]);
+            // Central differences, scaled to the raw coordinates the derivative is taken in
+            double dx = (sampler.getSample(8, x + h, y) - sampler.getSample(8, x - h, y)) / (2 * h * FREQUENCY);
+            double dy = (sampler.getSample(8, x, y + h) - sampler.getSample(8, x, y - h)) / (2 * h * FREQUENCY);
+            assertEquals(dx, derivative[1], 1e-3);
+            assertEquals(dy, derivative[2], 1e-3);
+
+            derivative = sampler.getSampleDerivative(8, x, y, z);
+            assertEquals(sampler.getSample(8, x, y, z), derivative[0]);
+            dx = (sampler.getSample(8, x + h, y, z) - sampler.getSample(8, x - h, y, z)) / (2 * h * FREQUENCY);
+            dy = (sampler.getSample(8, x, y + h, z) - sampler.getSample(8, x, y - h, z)) / (2 * h * FREQUENCY);
+            double dz = (sampler.getSample(8, x, y, z + h) - sampler.getSample(8, x, y, z - h)) / (2 * h * FREQUENCY);
+            assertEquals(dx, derivative[1], 1e-3);
+            assertEquals(dy, derivative[2], 1e-3);
+            assertEquals(dz, derivative[3], 1e-3);
+        }
+    }
+
+    @Test
+    void getSampleDerivativeGrid() {
+        DerivativeSampler sampler = graph();
+        int xSize = 6, ySize = 5, zSize = 7;
+        double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        sampler.getSampleDerivativeGrid(2, -30, 17, 4.5, 3, xSize, ySize, values, dx, dy, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                int index = i * ySize + j;
+                assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 4.5, 17 + j * 3),
+                    new double[]{ values[index], dx[index], dy[index] }, 1e-12);
+            }
+        }
+        sampler.getSampleDerivativeGrid(2, -30, 5, 17, 4.5, 2, 3, xSize, ySize, zSize, values, dx, dy, dz, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    int index = (i * ySize + j) * zSize + k;
+                    assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 4.5, 5 + j * 2, 17 + k * 3),
+                        new double[]{ values[index], dx[index], dy[index], dz[index] }, 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void followsInput() {
+        assertFalse(new TranslateSampler(new ScaleNormalizer(new WhiteNoiseSampler(0.1, 0), 2), 1, 2, 3).isDifferentiable());
+    }
+
+    @Test
+    void optIn() {
+        Normalizer normalizer = new Normalizer(new PerlinSampler(FREQUENCY, 3)) {
+            @Override
+            public double normalize(double in) {
+                return in * in;
+            }
+        };
+        assertFalse(normalizer.isDifferentiable());
+        assertFalse(new SamplerTape(new ScaleNormalizer(normalizer, 2)).isDifferentiable());
+        assertTrue(new SamplerTape(new ScaleNormalizer(new PerlinSampler(FREQUENCY, 3), 2)).isDifferentiable());
+    }
+}
@@ -0,0 +1,98 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.GaborSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.math.floatingpoint.FloatingPointConstants;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SampleGridTest {
+    private static final long SEED = 8219347L;
+
+    private static Sampler composite() {
+        Sampler base = new BrownianMotionSampler(3, new OpenSimplex2Sampler(0.013d, 17), 0.5, 2, 0, 4);
+        Sampler warped = new DomainWarpedSampler(base, new ValueSampler(0.05d, 4), 6);
+        return new ClampNormalizer(new AdditionSampler(new TranslateSampler(warped, 12.5, -3, 40), base), -0.75, 0.75);
+    }
+
+    @Test
+    void grid2DMatchesSample() {
+        Sampler sampler = composite();
+        int xSize = 7, ySize = 9;
+        double[] out = new double[xSize * ySize + 3];
+        sampler.getSampleGrid(SEED, -31.25, 102.5, 1.5, 0.75, xSize, ySize, out, 3);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                assertEquals(sampler.getSample(SEED, -31.25 + i * 1.5, 102.5 + j * 0.75), out[3 + i * ySize + j],
+                    FloatingPointConstants.EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void grid3DMatchesSample() {
+        Sampler sampler = composite();
+        int xSize = 5, ySize = 6, zSize = 4;
+        double[] out = new double[xSize * ySize * zSize];
+        sampler.getSampleGrid(SEED, 16, -64, 48, 1, 2, 1, xSize, ySize, zSize, out, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    assertEquals(sampler.getSample(SEED, 16 + i, -64 + j * 2, 48 + k), out[(i * ySize + j) * zSize + k],
+                        FloatingPointConstants.EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    void samplesMatchSample() {
+        Sampler sampler = composite();
+        int count = 23;
+        double[] xs = new double[count], ys = new double[count], zs = new double[count];
+        for(int n = 0; n < count; n++) {
+            xs[n] = n * 7.25 - 80;
+            ys[n] = (n * 37 % 23) * 1.5;
+            zs[n] = n * -3.5 + 12;
+        }
+        double[] out = new double[count + 2];
+        sampler.getSamples(SEED, xs, ys, count, out, 2);
+        for(int n = 0; n < count; n++) {
+            assertEquals(sampler.getSample(SEED, xs[n], ys[n]), out[2 + n], FloatingPointConstants.EPSILON);
+        }
+        sampler.getSamples(SEED, xs, ys, zs, count, out, 2);
+        for(int n = 0; n < count; n++) {
+            assertEquals(sampler.getSample(SEED, xs[n], ys[n], zs[n]), out[2 + n], FloatingPointConstants.EPSILON);
+        }
+    }
+
+    @Test
+    void yInvariantGridMatchesSample() {
+        Sampler gabor = new GaborSampler(0.02d, 3, 0.0625, 1, 0.25, 8, 0.5, false);
+        Sampler heightmap = new ClampNormalizer(new AdditionSampler(new BrownianMotionSampler(1, gabor, 0.5, 2, 0, 3),
+            new TranslateSampler(gabor, 3, 50, -2)), -0.9, 0.9);
+        assertEquals(Sampler.AXIS_X | Sampler.AXIS_Z, heightmap.getAxisDependencies());
+        assertEquals(Sampler.ALL_AXES, new AdditionSampler(heightmap, new OpenSimplex2Sampler(0.01d, 2)).getAxisDependencies());
+
+        Sampler[] samplers = { heightmap, new LinearHeightmapSampler(heightmap, 20, 64) };
+        int xSize = 3, ySize = 11, zSize = 4;
+        for(Sampler sampler : samplers) {
+            double[] out = new double[xSize * ySize * zSize + 1];
+            sampler.getSampleGrid(SEED, -7, 40, 12.5, 2, 1, 3, xSize, ySize, zSize, out, 1);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        assertEquals(sampler.getSample(SEED, -7 + i * 2, 40 + j, 12.5 + k * 3), out[1 + (i * ySize + j) * zSize + k]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dfsek.seismic.algorithms.sampler;
+
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.Normalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.PosterizationNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SamplerOptimizerTest {
+    private static final Sampler NOISE = new OpenSimplex2Sampler(0.02d, 3);
+
+    private static void assertEquivalent(Sampler expected, Sampler actual) {
+        for(int x = -20; x < 20; x += 3) {
+            for(int z = -20; z < 20; z += 3) {
+                double sample = expected.getSample(11, x, z);
+                assertEquals(sample, actual.getSample(11, x, z), SamplerOptimizer.TOLERANCE * Math.max(1, Math.abs(sample)));
+                sample = expected.getSample(11, x, 7, z);
+                assertEquals(sample, actual.getSample(11, x, 7, z), SamplerOptimizer.TOLERANCE * Math.max(1, Math.abs(sample)));
+            }
+        }
+    }
+
+    @Test
+    void removesIdentities() {
+        Sampler sampler = new MultiplicationSampler(new ConstantSampler(1),
+            new AdditionSampler(new TranslateSampler(NOISE, 0, 0, 0), new ConstantSampler(0)));
+        assertSame(NOISE, SamplerOptimizer.optimize(sampler));
+        assertSame(NOISE, SamplerOptimizer.optimize(new ScaleNormalizer(new DivisionSampler(NOISE, new ConstantSampler(1)), 1)));
+    }
+
+    @Test
+    void foldsConstants() {
+        Sampler sampler = new SubtractionSampler(new ProbabilityNormalizer(new ConstantSampler(0.5)),
+            new TranslateSampler(new ConstantSampler(0.25), 10, 4, -3));
+        Sampler optimized = SamplerOptimizer.optimize(sampler);
+        assertInstanceOf(ConstantSampler.class, optimized);
+        assertEquals(0.5, ((ConstantSampler) optimized).getConstant());
+    }
+
+    @Test
+    void mergesAffineChains() {
+        Sampler sampler = new ClampNormalizer(
+            new ScaleNormalizer(new LinearMapNormalizer(new AdditionSampler(new ConstantSampler(0), NOISE), -1, 1, 0.2, 0.9), -3), -1.5, 2);
+        Sampler optimized = SamplerOptimizer.optimize(sampler);
+        assertInstanceOf(AffineNormalizer.class, optimized);
+        assertSame(NOISE, ((AffineNormalizer) optimized).getSampler());
+        assertEquivalent(sampler, optimized);
+
+        sampler = new MaxSampler(new LinearNormalizer(new ClampNormalizer(NOISE, -0.5, 0.5), -2, 6), new ConstantSampler(-0.9));
+        optimized = SamplerOptimizer.optimize(sampler);
+        assertSame(NOISE, ((AffineNormalizer) optimized).getSampler());
+        assertEquivalent(sampler, optimized);
+    }
+
+    @Test
+    void collapsesTranslations() {
+        Sampler sampler = new TranslateSampler(new TranslateSampler(NOISE, 1.5, -2, 4), -0.5, 3, 1);
+        Sampler optimized = SamplerOptimizer.optimize(sampler);
+        assertInstanceOf(TranslateSampler.class, optimized);
+        assertSame(NOISE, ((TranslateSampler) optimized).getSampler());
+        assertEquivalent(sampler, optimized);
+    }
+
+    @Test
+    void preservesSharing() {
+        Sampler shared = new ScaleNormalizer(new ScaleNormalizer(NOISE, 2), 0.25);
+        Sampler sampler = new DomainWarpedSampler(new PosterizationNormalizer(shared, 4), shared, 2);
+        DomainWarpedSampler optimized = (DomainWarpedSampler) SamplerOptimizer.optimize(sampler);
+        Sampler warp = optimized.getWarp();
+        assertInstanceOf(AffineNormalizer.class, warp);
+        assertSame(warp, ((Normalizer) optimized.getFunction()).getSampler());
+        assertEquivalent(sampler, optimized);
+    }
+
+    @Test
+    void preservesTypes() {
+        Sampler input = new ScaleNormalizer(new ScaleNormalizer(NOISE, 2), 0.25);
+        Sampler sampler = new PosterizationNormalizer(input, 4);
+        Sampler optimized = SamplerOptimizer.optimize(sampler);
+        assertInstanceOf(PosterizationNormalizer.class, optimized);
+        assertInstanceOf(AffineNormalizer.class, ((Normalizer) optimized).getSampler());
+        assertEquivalent(sampler, optimized);
+
+        // Subclasses which do not copy themselves are kept with their original input rather than replaced by their parent type
+        sampler = new ScaleNormalizer(input, 3) {
+        };
+        assertSame(sampler, SamplerOptimizer.optimize(sampler));
+        sampler = new AdditionSampler(input, NOISE) {
+        };
+        assertSame(sampler, SamplerOptimizer.optimize(sampler));
+    }
+}
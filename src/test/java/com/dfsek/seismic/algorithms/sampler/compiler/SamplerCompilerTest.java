@@ -0,0 +1,102 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+import com.dfsek.seismic.algorithms.sampler.DomainWarpedSampler;
+import com.dfsek.seismic.algorithms.sampler.TranslateSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.PosterizationNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SamplerCompilerTest {
+    private static void assertCompiledEquals(Sampler sampler) {
+        CompiledSampler compiled = SamplerCompiler.compile(sampler);
+        assertSame(sampler, compiled.getSource());
+        for(double x = -40.5; x < 40; x += 7.25) {
+            for(double z = -40; z < 40; z += 6.5) {
+                assertEquals(sampler.getSample(29, x, z), compiled.getSample(29, x, z));
+                for(double y = -10; y < 10; y += 9.75) {
+                    assertEquals(sampler.getSample(29, x, y, z), compiled.getSample(29, x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    void inlinesLibrarySamplers() {
+        assertCompiledEquals(SamplerGraphs.librarySamplers());
+    }
+
+    @Test
+    void callsUnknownSamplers() {
+        Sampler custom = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                return Math.sin(x + seed) * y;
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                return Math.sin(x + seed) * y - z;
+            }
+        };
+        Sampler arithmetic = new BinaryArithmeticSampler(custom, new PosterizationNormalizer(custom, 5)) {
+            @Override
+            public double operate(double left, double right) {
+                return left * 2 - right;
+            }
+
+            @Override
+            public double[] operateDerivative(double[] left, double[] right) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        assertCompiledEquals(arithmetic);
+    }
+
+    @Test
+    void callsOversizedSubgraphs() {
+        // Nested domain warps triple in size per level, far past what fits in a single method
+        Sampler sampler = new BrownianMotionSampler(0, new OpenSimplex2Sampler(0.02d, 0), 0.5, 2, 0, 6);
+        for(int i = 0; i < 6; i++) {
+            sampler = new DomainWarpedSampler(sampler, new ScaleNormalizer(sampler, 0.5), 4);
+        }
+        assertCompiledEquals(sampler);
+    }
+
+    @Test
+    void sharesCommonSubexpressions() {
+        AtomicInteger samples = new AtomicInteger();
+        Sampler counting = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                samples.incrementAndGet();
+                return Math.sin(x * 0.1 + seed) * y;
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                samples.incrementAndGet();
+                return Math.sin(x * 0.1 + seed) * y - z;
+            }
+        };
+        Sampler branch = new TranslateSampler(new ScaleNormalizer(counting, 2), 1, 2, 3);
+        // Structurally identical branches share their samples, the warp is sampled at other seeds and coordinates and must not be shared
+        Sampler shared = new DomainWarpedSampler(
+            new AdditionSampler(branch, new TranslateSampler(new ScaleNormalizer(counting, 2), 1, 2, 3)), branch, 3);
+        CompiledSampler compiled = SamplerCompiler.compile(shared);
+        samples.set(0);
+        double sample = compiled.getSample(4, 1.5, -2, 8);
+        assertEquals(4, samples.get());
+        assertEquals(shared.getSample(4, 1.5, -2, 8), sample);
+        assertCompiledEquals(shared);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+import com.dfsek.seismic.algorithms.sampler.DomainWarpedSampler;
+import com.dfsek.seismic.algorithms.sampler.LinearHeightmapSampler;
+import com.dfsek.seismic.algorithms.sampler.TranslateSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MinSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.PingPongSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.random.WhiteNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.PosterizationNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.sampler.Sampler;
+
+
+/**
+ * Sampler graphs shared by the compiler and tape tests.
+ */
+final class SamplerGraphs {
+    private SamplerGraphs() {
+    }
+
+    /**
+     * A graph using every library sampler the compiler and tape lower, with shared nodes, repeated subexpressions and a non-differentiable
+     * warp.
+     */
+    static Sampler librarySamplers() {
+        Sampler simplex = new OpenSimplex2Sampler(0.013d, 7);
+        Sampler fractal = new BrownianMotionSampler(3, simplex, 0.5, 2, 0.25, 4);
+        Sampler ridged = new RidgedFractalSampler(-4, new PerlinSampler(0.02d, 1), 0.6, 1.9, 0.5, 3);
+        Sampler pingPong = new PingPongSampler(8, simplex, 0.5, 2.1, 0.1, 3, 2);
+        Sampler normalized = new ClampNormalizer(new LinearMapNormalizer(new LinearNormalizer(fractal, -0.8, 0.9), -1, 1, 0, 4), 0.5, 3);
+        Sampler arithmetic = new MaxSampler(
+            new DivisionSampler(new SubtractionSampler(ridged, new ScaleNormalizer(pingPong, 0.3)), new ConstantSampler(1.5)),
+            new MinSampler(new MultiplicationSampler(normalized, new ProbabilityNormalizer(simplex)),
+                new AffineNormalizer(new PosterizationNormalizer(ridged, 6), 2, 0.1, -0.5, 0.5)));
+        Sampler warped = new DomainWarpedSampler(new TranslateSampler(arithmetic, 3.5, -2, 11), new WhiteNoiseSampler(0.05d, 2), 20);
+        return new AdditionSampler(warped, new LinearHeightmapSampler(simplex, 0.5, 64));
+    }
+}
@@ -0,0 +1,209 @@
+package com.dfsek.seismic.algorithms.sampler.compiler;
+
+import com.dfsek.seismic.algorithms.sampler.DomainWarpedSampler;
+import com.dfsek.seismic.algorithms.sampler.LinearHeightmapSampler;
+import com.dfsek.seismic.algorithms.sampler.TranslateSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.AdditionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.BinaryArithmeticSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.DivisionSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MaxSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MinSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
+import com.dfsek.seismic.algorithms.sampler.arithmetic.SubtractionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.ConstantSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.PingPongSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.normalizer.AffineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ClampNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.CubicSplineNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearMapNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.LinearNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ProbabilityNormalizer;
+import com.dfsek.seismic.algorithms.sampler.normalizer.ScaleNormalizer;
+import com.dfsek.seismic.type.CubicSpline;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SamplerTapeTest {
+    private static Sampler differentiableGraph() {
+        Sampler simplex = new OpenSimplex2Sampler(0.013d, 7);
+        Sampler fractal = new BrownianMotionSampler(3, simplex, 0.5, 2, 0.25, 4);
+        Sampler ridged = new RidgedFractalSampler(-4, new PerlinSampler(0.02d, 1), 0.6, 1.9, 0.5, 3);
+        Sampler pingPong = new PingPongSampler(8, simplex, 0.5, 2.1, 0.1, 3, 2);
+        Sampler spline = new CubicSplineNormalizer(ridged, new CubicSpline(new ArrayList<>(List.of(
+            new CubicSpline.Point(-1, -0.5, 0.3),
+            new CubicSpline.Point(0, 0.2, 1.5),
+            new CubicSpline.Point(1, 1, 2)))));
+        Sampler custom = new BinaryArithmeticSampler(spline, pingPong) {
+            @Override
+            public double operate(double left, double right) {
+                return left * 2 - right;
+            }
+
+            @Override
+            public double[] operateDerivative(double[] left, double[] right) {
+                double[] out = new double[left.length];
+                for(int i = 0; i < left.length; i++) out[i] = left[i] * 2 - right[i];
+                return out;
+            }
+        };
+        Sampler normalized = new ClampNormalizer(new LinearMapNormalizer(new LinearNormalizer(fractal, -0.8, 0.9), -1, 1, 0, 4), 0.5, 3);
+        Sampler arithmetic = new MaxSampler(
+            new DivisionSampler(new SubtractionSampler(custom, new ScaleNormalizer(pingPong, 0.3)),
+                new AdditionSampler(new ConstantSampler(1.5), new ProbabilityNormalizer(simplex))),
+            new MinSampler(new MultiplicationSampler(normalized, new ProbabilityNormalizer(simplex)), new AffineNormalizer(ridged, 2, 0.1,
+                -0.5, 0.5)));
+        Sampler warped = new DomainWarpedSampler(new TranslateSampler(arithmetic, 3.5, 0, 11), new PerlinSampler(0.05d, 2), 20);
+        return new AdditionSampler(warped, new LinearHeightmapSampler(simplex, 0.5, 64));
+    }
+
+    @Test
+    void getSamples() {
+        Sampler sampler = SamplerGraphs.librarySamplers();
+        SamplerTape tape = new SamplerTape(sampler);
+        // More points than fit in one block, so the tail block is covered too
+        int count = SamplerTape.BLOCK_SIZE * 2 + 37;
+        Random random = new Random(4);
+        double[] xs = new double[count], ys = new double[count], zs = new double[count];
+        for(int i = 0; i < count; i++) {
+            xs[i] = (random.nextDouble() - 0.5) * 1000;
+            ys[i] = (random.nextDouble() - 0.5) * 1000;
+            zs[i] = (random.nextDouble() - 0.5) * 1000;
+        }
+        double[] out = new double[count + 1];
+        tape.getSamples(-6, xs, ys, count, out, 1);
+        for(int i = 0; i < count; i++) {
+            assertEquals(sampler.getSample(-6, xs[i], ys[i]), out[i + 1]);
+        }
+        tape.getSamples(-6, xs, ys, zs, count, out, 1);
+        for(int i = 0; i < count; i++) {
+            assertEquals(sampler.getSample(-6, xs[i], ys[i], zs[i]), out[i + 1]);
+        }
+    }
+
+    @Test
+    void getSampleGrid() {
+        Sampler sampler = SamplerGraphs.librarySamplers();
+        SamplerTape tape = new SamplerTape(sampler);
+        int xSize = 5, ySize = 23, zSize = 9;
+        double[] out = new double[xSize * ySize * zSize];
+        tape.getSampleGrid(10, -3.5, 7, 0.75, 1.25, xSize, ySize, out, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                assertEquals(sampler.getSample(10, -3.5 + i * 0.75, 7 + j * 1.25), out[i * ySize + j]);
+            }
+        }
+        tape.getSampleGrid(10, -3.5, 60, 7, 0.75, 0.5, 1.25, xSize, ySize, zSize, out, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    assertEquals(sampler.getSample(10, -3.5 + i * 0.75, 60 + j * 0.5, 7 + k * 1.25), out[(i * ySize + j) * zSize + k]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharesCommonSubexpressions() {
+        AtomicInteger samples = new AtomicInteger();
+        Sampler counting = new Sampler() {
+            @Override
+            public double getSample(long seed, double x, double y) {
+                samples.incrementAndGet();
+                return Math.sin(x * 0.1 + seed) * y;
+            }
+
+            @Override
+            public double getSample(long seed, double x, double y, double z) {
+                samples.incrementAndGet();
+                return Math.sin(x * 0.1 + seed) * y - z;
+            }
+        };
+        // Separate but structurally identical subgraphs over the same leaf, next to a translated copy that must not be shared
+        Sampler branch = new ClampNormalizer(new ScaleNormalizer(counting, 2), -1, 1);
+        Sampler shared = new AdditionSampler(
+            new MultiplicationSampler(branch, new ClampNormalizer(new ScaleNormalizer(counting, 2), -1, 1)),
+            new TranslateSampler(branch, 1, 0, 0));
+        SamplerTape tape = new SamplerTape(shared);
+        assertTrue(tape.getInstructionCount() < new SamplerTape(new AdditionSampler(
+            new MultiplicationSampler(branch, new TranslateSampler(branch, 0, 0, 2)), new TranslateSampler(branch, 1, 0, 0)))
+            .getInstructionCount());
+
+        int count = SamplerTape.BLOCK_SIZE + 3;
+        double[] xs = new double[count], ys = new double[count], zs = new double[count];
+        for(int i = 0; i < count; i++) {
+            xs[i] = i * 0.7;
+            ys[i] = i * -1.3;
+            zs[i] = i * 0.2;
+        }
+        double[] out = new double[count];
+        tape.getSamples(5, xs, ys, zs, count, out, 0);
+        // The identical subgraphs are sampled once, the translated one once more
+        assertEquals(count * 2, samples.get());
+        for(int i = 0; i < count; i++) {
+            assertEquals(shared.getSample(5, xs[i], ys[i], zs[i]), out[i]);
+        }
+    }
+
+    @Test
+    void getSampleDerivative() {
+        Sampler sampler = differentiableGraph();
+        SamplerTape tape = new SamplerTape(sampler);
+        assertTrue(tape.isDifferentiable());
+        assertFalse(new SamplerTape(SamplerGraphs.librarySamplers()).isDifferentiable());
+        Random random = new Random(12);
+        double h = 1e-6;
+        for(int n = 0; n < 300; n++) {
+            double x = (random.nextDouble() - 0.5) * 1000, y = (random.nextDouble() - 0.5) * 200, z = (random.nextDouble() - 0.5) * 1000;
+            // Derivatives are taken through every frequency in the graph, so they match differences of the samples directly
+            double[] derivative = tape.getSampleDerivative(-6, x, z);
+            assertEquals(sampler.getSample(-6, x, z), derivative[0], 1e-12);
+            assertEquals((sampler.getSample(-6, x + h, z) - sampler.getSample(-6, x - h, z)) / (2 * h), derivative[1], 1e-6);
+            assertEquals((sampler.getSample(-6, x, z + h) - sampler.getSample(-6, x, z - h)) / (2 * h), derivative[2], 1e-6);
+
+            derivative = tape.getSampleDerivative(-6, x, y, z);
+            assertEquals(sampler.getSample(-6, x, y, z), derivative[0], 1e-12);
+            assertEquals((sampler.getSample(-6, x + h, y, z) - sampler.getSample(-6, x - h, y, z)) / (2 * h), derivative[1], 1e-6);
+            assertEquals((sampler.getSample(-6, x, y + h, z) - sampler.getSample(-6, x, y - h, z)) / (2 * h), derivative[2], 1e-6);
+            assertEquals((sampler.getSample(-6, x, y, z + h) - sampler.getSample(-6, x, y, z - h)) / (2 * h), derivative[3], 1e-6);
+        }
+    }
+
+    @Test
+    void getSampleDerivativeGrid() {
+        SamplerTape tape = new SamplerTape(differentiableGraph());
+        // More points than fit in one block
+        int xSize = 13, ySize = 23, zSize = 9;
+        double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        tape.getSampleDerivativeGrid(10, -3.5, 7, 0.75, 1.25, xSize, ySize, values, dx, dy, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                int index = i * ySize + j;
+                assertArrayEquals(tape.getSampleDerivative(10, -3.5 + i * 0.75, 7 + j * 1.25),
+                    new double[]{ values[index], dx[index], dy[index] }, 0);
+            }
+        }
+        tape.getSampleDerivativeGrid(10, -3.5, 60, 7, 0.75, 0.5, 1.25, xSize, ySize, zSize, values, dx, dy, dz, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    int index = (i * ySize + j) * zSize + k;
+                    assertArrayEquals(tape.getSampleDerivative(10, -3.5 + i * 0.75, 60 + j * 0.5, 7 + k * 1.25),
+                        new double[]{ values[index], dx[index], dy[index], dz[index] }, 0);
+                }
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.dfsek.seismic.math.floatingpoint.FloatingPointConstants;
 import com.dfsek.seismic.type.DistanceFunction;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -25,4 +27,100 @@ class CellularSamplerTest {
             CellularStyleSampler.CellularReturnType.Distance, 1.0d, true);
         assertEquals(-0.8430703036518714, sampler.getNoiseRaw(0, 5674, 43, 423), FloatingPointConstants.EPSILON);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSampleGrid() {
+        for(CellularStyleSampler.CellularReturnType returnType : CellularStyleSampler.CellularReturnType.values()) {
+            for(DistanceFunction distanceFunction : DistanceFunction.values()) {
+                NoiseFunction sampler = new CellularSampler(0.09d, 123123, new OpenSimplex2Sampler(0.2d, 12372834), distanceFunction,
+                    returnType, 0.8d, false);
+                int xSize = 11, ySize = 13;
+                double[] out = new double[xSize * ySize];
+                sampler.getSampleGrid(77, -20.5, 311, 1.5, -0.75, xSize, ySize, out, 0);
+                for(int i = 0; i < xSize; i++) {
+                    for(int j = 0; j < ySize; j++) {
+                        assertEquals(sampler.getSample(77, -20.5 + i * 1.5, 311 + j * -0.75), out[i * ySize + j]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSampleGrid3D() {
+        for(CellularStyleSampler.CellularReturnType returnType : CellularStyleSampler.CellularReturnType.values()) {
+            for(DistanceFunction distanceFunction : DistanceFunction.values()) {
+                NoiseFunction sampler = new CellularSampler(0.13d, 123123, new OpenSimplex2Sampler(0.2d, 12372834), distanceFunction,
+                    returnType, 1.0d, true);
+                int xSize = 6, ySize = 9, zSize = 7;
+                double[] out = new double[xSize * ySize * zSize];
+                sampler.getSampleGrid(-5, 40, -12, 3.25, 1, 1.5, 1, xSize, ySize, zSize, out, 0);
+                for(int i = 0; i < xSize; i++) {
+                    for(int j = 0; j < ySize; j++) {
+                        for(int k = 0; k < zSize; k++) {
+                            assertEquals(sampler.getSample(-5, 40 + i, -12 + j * 1.5, 3.25 + k), out[(i * ySize + j) * zSize + k]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSamples() {
+        Random random = new Random(31);
+        int count = 97;
+        double[] xs = new double[count], ys = new double[count], zs = new double[count];
+        for(int n = 0; n < count; n++) {
+            xs[n] = random.nextDouble() * 60 - 30;
+            ys[n] = random.nextDouble() * 60 + 200;
+            zs[n] = random.nextDouble() * 60 - 500;
+        }
+        for(CellularStyleSampler.CellularReturnType returnType : CellularStyleSampler.CellularReturnType.values()) {
+            NoiseFunction sampler = new CellularSampler(0.11d, 123123, new OpenSimplex2Sampler(0.2d, 12372834), DistanceFunction.Euclidean,
+                returnType, 0.9d, false);
+            double[] out = new double[count + 1];
+            sampler.getSamples(9, xs, ys, count, out, 1);
+            for(int n = 0; n < count; n++) {
+                assertEquals(sampler.getSample(9, xs[n], ys[n]), out[n + 1]);
+            }
+            sampler.getSamples(9, xs, ys, zs, count, out, 1);
+            for(int n = 0; n < count; n++) {
+                assertEquals(sampler.getSample(9, xs[n], ys[n], zs[n]), out[n + 1]);
+            }
+        }
+    }
+
+    @Test
+    void getSampleDerivative() {
+        Random random = new Random(12);
+        double h = 1e-6;
+        for(CellularStyleSampler.CellularReturnType returnType : CellularStyleSampler.CellularReturnType.values()) {
+            for(DistanceFunction distanceFunction : DistanceFunction.values()) {
+                CellularSampler sampler = new CellularSampler(0.07d, 123123, new OpenSimplex2Sampler(0.2d, 12372834), distanceFunction,
+                    returnType, 0.9d, false);
+                assertEquals(returnType.isDifferentiable(), sampler.isDifferentiable());
+                if(!sampler.isDifferentiable()) continue;
+                for(int n = 0; n < 20; n++) {
+                    double x = random.nextDouble() * 200 - 100, y = random.nextDouble() * 200 - 100, z = random.nextDouble() * 200 - 100;
+                    double[] derivative = sampler.getSampleDerivative(4, x, y);
+                    assertEquals(sampler.getSample(4, x, y), derivative[0], 1e-12);
+                    // Central differences, scaled to the raw coordinates the derivative is taken in
+                    double dx = (sampler.getSample(4, x + h, y) - sampler.getSample(4, x - h, y)) / (2 * h * 0.07);
+                    double dy = (sampler.getSample(4, x, y + h) - sampler.getSample(4, x, y - h)) / (2 * h * 0.07);
+                    assertEquals(dx, derivative[1], 1e-4, returnType + " " + distanceFunction);
+                    assertEquals(dy, derivative[2], 1e-4, returnType + " " + distanceFunction);
+
+                    derivative = sampler.getSampleDerivative(4, x, y, z);
+                    assertEquals(sampler.getSample(4, x, y, z), derivative[0], 1e-12);
+                    dx = (sampler.getSample(4, x + h, y, z) - sampler.getSample(4, x - h, y, z)) / (2 * h * 0.07);
+                    dy = (sampler.getSample(4, x, y + h, z) - sampler.getSample(4, x, y - h, z)) / (2 * h * 0.07);
+                    double dz = (sampler.getSample(4, x, y, z + h) - sampler.getSample(4, x, y, z - h)) / (2 * h * 0.07);
+                    assertEquals(dx, derivative[1], 1e-4, returnType + " " + distanceFunction);
+                    assertEquals(dy, derivative[2], 1e-4, returnType + " " + distanceFunction);
+                    assertEquals(dz, derivative[3], 1e-4, returnType + " " + distanceFunction);
+                }
+            }
+        }
+    }
+}
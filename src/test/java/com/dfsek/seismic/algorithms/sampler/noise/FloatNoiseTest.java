@@ -0,0 +1,92 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.sampler.noise.cellular.CellularSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.cellular.CellularStyleSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueSampler;
+import com.dfsek.seismic.type.DistanceFunction;
+import com.dfsek.seismic.type.sampler.Sampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FloatNoiseTest {
+    private static NoiseFunction[] samplers() {
+        return new NoiseFunction[]{
+            new OpenSimplex2Sampler(0.031d, 7),
+            new PerlinSampler(0.031d, 7),
+            new ValueSampler(0.031d, 7),
+            new CellularSampler(0.031d, 7, new OpenSimplex2Sampler(0.2d, 12372834), DistanceFunction.Euclidean,
+                CellularStyleSampler.CellularReturnType.Distance, 1.0d, false)
+        };
+    }
+
+    @Test
+    void floatMatchesDouble() {
+        Random random = new Random(5);
+        for(NoiseFunction sampler : samplers()) {
+            for(int n = 0; n < 2000; n++) {
+                // far from the origin too, where float coordinates alone would have lost the fraction
+                double scale = n % 2 == 0 ? 1000 : 50000000;
+                double x = (random.nextDouble() - 0.5) * scale;
+                double y = (random.nextDouble() - 0.5) * scale;
+                double z = (random.nextDouble() - 0.5) * scale;
+                double expected2D = sampler.getSample(3, x, y);
+                double expected3D = sampler.getSample(3, x, y, z);
+                assertEquals(expected2D, sampler.getSampleFloat(3, x, y), 1e-4 * Math.max(1, Math.abs(expected2D)),
+                    sampler.getClass().getSimpleName());
+                assertEquals(expected3D, sampler.getSampleFloat(3, x, y, z), 1e-4 * Math.max(1, Math.abs(expected3D)),
+                    sampler.getClass().getSimpleName());
+            }
+        }
+    }
+
+    @Test
+    void floatGridMatchesFloatSample() {
+        int xSize = 6, ySize = 5, zSize = 7;
+        for(NoiseFunction sampler : samplers()) {
+            float[] out = new float[xSize * zSize];
+            sampler.getSampleGrid(11, -40.5, 18, 0.5, 2, xSize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int k = 0; k < zSize; k++) {
+                    assertEquals(sampler.getSampleFloat(11, -40.5 + i * 0.5, 18 + k * 2), out[i * zSize + k]);
+                }
+            }
+
+            out = new float[xSize * ySize * zSize];
+            sampler.getSampleGrid(11, -40.5, 64, 18, 0.5, 1, 2, xSize, ySize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        assertEquals(sampler.getSampleFloat(11, -40.5 + i * 0.5, 64 + j, 18 + k * 2), out[(i * ySize + j) * zSize + k]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void floatGridNarrowsComposites() {
+        Sampler sampler = new BrownianMotionSampler(3, new OpenSimplex2Sampler(0.02d, 4), 0.5, 2, 0, 3);
+        int xSize = 4, ySize = 9;
+        double[] expected = new double[xSize * ySize];
+        float[] out = new float[xSize * ySize + 1];
+        sampler.getSampleGrid(2, 10, -3, 1.5, 0.75, xSize, ySize, expected, 0);
+        sampler.getSampleGrid(2, 10, -3, 1.5, 0.75, xSize, ySize, out, 1);
+        for(int n = 0; n < expected.length; n++) {
+            assertEquals((float) expected[n], out[n + 1]);
+        }
+
+        double[] xs = {1, -7.5, 300}, ys = {0, 2.25, -80};
+        float[] values = new float[3];
+        sampler.getSamples(2, xs, ys, 3, values, 0);
+        for(int n = 0; n < 3; n++) {
+            assertEquals((float) sampler.getSample(2, xs[n], ys[n]), values[n]);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.FractalNoiseFunction;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.PingPongSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.random.WhiteNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueCubicSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FractalDerivativeTest {
+    @Test
+    void getSampleDerivative() {
+        // Unit input frequency, so octave derivatives are taken in the same coordinates as the fractal
+        FractalNoiseFunction[] samplers = {
+            new BrownianMotionSampler(1, new PerlinSampler(1, 2), 0.5, 2, 0.7, 4),
+            new BrownianMotionSampler(2, new ValueCubicSampler(1, 6), 0.6, 1.7, 0, 3),
+            new RidgedFractalSampler(3, new PerlinSampler(1, 2), 0.5, 2, 0.7, 4),
+            new RidgedFractalSampler(-1, new ValueCubicSampler(1, 6), 0.6, 1.7, 0, 3),
+            new PingPongSampler(5, new PerlinSampler(1, 2), 0.5, 2, 0.7, 4, 2),
+            new PingPongSampler(0, new ValueCubicSampler(1, 6), 0.4, 2.3, 0.3, 3, 1.5)
+        };
+        Random random = new Random(13);
+        double h = 1e-7;
+        for(FractalNoiseFunction sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            assertTrue(sampler.isDifferentiable(), name);
+            for(int n = 0; n < 200; n++) {
+                double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50, z = random.nextDouble() * 100 - 50;
+                double[] derivative = sampler.getSampleDerivative(4, x, y);
+                assertEquals(sampler.getSample(4, x, y), derivative[0], name);
+                assertEquals((sampler.getSample(4, x + h, y) - sampler.getSample(4, x - h, y)) / (2 * h), derivative[1], 1e-4, name);
+                assertEquals((sampler.getSample(4, x, y + h) - sampler.getSample(4, x, y - h)) / (2 * h), derivative[2], 1e-4, name);
+
+                derivative = sampler.getSampleDerivative(4, x, y, z);
+                assertEquals(sampler.getSample(4, x, y, z), derivative[0], name);
+                assertEquals((sampler.getSample(4, x + h, y, z) - sampler.getSample(4, x - h, y, z)) / (2 * h), derivative[1], 1e-4, name);
+                assertEquals((sampler.getSample(4, x, y + h, z) - sampler.getSample(4, x, y - h, z)) / (2 * h), derivative[2], 1e-4, name);
+                assertEquals((sampler.getSample(4, x, y, z + h) - sampler.getSample(4, x, y, z - h)) / (2 * h), derivative[3], 1e-4, name);
+            }
+        }
+        assertFalse(new PingPongSampler(0, new WhiteNoiseSampler(1, 0), 0.5, 2, 0, 3, 2).isDifferentiable());
+    }
+
+    @Test
+    void getSampleDerivativeGrid() {
+        RidgedFractalSampler sampler = new RidgedFractalSampler(3, new PerlinSampler(0.05, 2), 0.5, 2, 0.7, 4);
+        int xSize = 6, ySize = 5, zSize = 7;
+        double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        sampler.getSampleDerivativeGrid(2, -30, 17, 4.5, 3, xSize, ySize, values, dx, dy, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                int index = i * ySize + j;
+                assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 4.5, 17 + j * 3),
+                    new double[]{ values[index], dx[index], dy[index] }, 1e-12);
+            }
+        }
+        sampler.getSampleDerivativeGrid(2, -30, 5, 17, 4.5, 2, 3, xSize, ySize, zSize, values, dx, dy, dz, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    int index = (i * ySize + j) * zSize + k;
+                    assertArrayEquals(sampler.getSampleDerivative(2, -30 + i * 4.5, 5 + j * 2, 17 + k * 3),
+                        new double[]{ values[index], dx[index], dy[index], dz[index] }, 1e-12);
+                }
+            }
+        }
+    }
+}
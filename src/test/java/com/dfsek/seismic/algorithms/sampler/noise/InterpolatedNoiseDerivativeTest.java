@@ -0,0 +1,69 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.SimplexSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueCubicSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueStyleNoise;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class InterpolatedNoiseDerivativeTest {
+    @Test
+    void getSampleDerivative() {
+        double frequency = 0.09, h = 1e-6;
+        DerivativeNoiseFunction[] samplers = {
+            new ValueSampler(frequency, 41),
+            new ValueCubicSampler(frequency, 41),
+            new PerlinSampler(frequency, 41),
+            new SimplexSampler(frequency, 41)
+        };
+        Random random = new Random(7);
+        for(DerivativeNoiseFunction sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            assertTrue(sampler.isDifferentiable(), name);
+            for(int n = 0; n < 200; n++) {
+                double x = random.nextDouble() * 400 - 200, y = random.nextDouble() * 400 - 200, z = random.nextDouble() * 400 - 200;
+                double[] derivative = sampler.getSampleDerivative(-9, x, y);
+                assertEquals(sampler.getSample(-9, x, y), derivative[0], name);
+                // Central differences, scaled to the raw coordinates the derivative is taken in
+                double dx = (sampler.getSample(-9, x + h, y) - sampler.getSample(-9, x - h, y)) / (2 * h * frequency);
+                double dy = (sampler.getSample(-9, x, y + h) - sampler.getSample(-9, x, y - h)) / (2 * h * frequency);
+                assertEquals(dx, derivative[1], 1e-4, name);
+                assertEquals(dy, derivative[2], 1e-4, name);
+
+                derivative = sampler.getSampleDerivative(-9, x, y, z);
+                assertEquals(sampler.getSample(-9, x, y, z), derivative[0], name);
+                dx = (sampler.getSample(-9, x + h, y, z) - sampler.getSample(-9, x - h, y, z)) / (2 * h * frequency);
+                dy = (sampler.getSample(-9, x, y + h, z) - sampler.getSample(-9, x, y - h, z)) / (2 * h * frequency);
+                double dz = (sampler.getSample(-9, x, y, z + h) - sampler.getSample(-9, x, y, z - h)) / (2 * h * frequency);
+                assertEquals(dx, derivative[1], 1e-4, name);
+                assertEquals(dy, derivative[2], 1e-4, name);
+                assertEquals(dz, derivative[3], 1e-4, name);
+            }
+        }
+    }
+
+    @Test
+    void valueStyleNoiseOptsIn() {
+        // Subclasses without derivatives of their own are not differentiable
+        ValueStyleNoise noise = new ValueStyleNoise(1, 0) {
+            @Override
+            public double getNoiseRaw(long seed, double x, double y) {
+                return ValueStyleNoise.valCoord((int) seed, (int) x, (int) y);
+            }
+
+            @Override
+            public double getNoiseRaw(long seed, double x, double y, double z) {
+                return ValueStyleNoise.valCoord((int) seed, (int) x, (int) y, (int) z);
+            }
+        };
+        assertFalse(noise.isDifferentiable());
+        assertThrows(UnsupportedOperationException.class, () -> noise.getSampleDerivative(0, 1, 2));
+        assertThrows(UnsupportedOperationException.class, () -> noise.getSampleDerivative(0, 1, 2, 3, new double[4], 0));
+    }
+}
@@ -1,12 +1,20 @@
 package com.dfsek.seismic.algorithms.sampler.noise;
 
+import com.dfsek.seismic.algorithms.sampler.arithmetic.MultiplicationSampler;
 import com.dfsek.seismic.algorithms.sampler.noise.cellular.CellularSampler;
 import com.dfsek.seismic.algorithms.sampler.noise.cellular.CellularStyleSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.BrownianMotionSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.fractal.RidgedFractalSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2SSampler;
 import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
 import com.dfsek.seismic.math.floatingpoint.FloatingPointConstants;
 import com.dfsek.seismic.type.DistanceFunction;
+import com.dfsek.seismic.type.sampler.DerivativeSampler;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -23,4 +31,285 @@ class OpenSimplex2SamplerTest {
         NoiseFunction sampler = new OpenSimplex2Sampler(0.2d, 12372835);
         assertEquals(-0.11021875000090221, sampler.getNoiseRaw(123, 5674, 43, 423), FloatingPointConstants.EPSILON);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSampleGrid() {
+        NoiseFunction sampler = new OpenSimplex2Sampler(0.037d, 12372834);
+        int xSize = 19, ySize = 23;
+        double[] out = new double[xSize * ySize];
+        sampler.getSampleGrid(941, -40.5, 17.25, 0.5, 1.25, xSize, ySize, out, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                assertEquals(sampler.getSample(941, -40.5 + i * 0.5, 17.25 + j * 1.25), out[i * ySize + j]);
+            }
+        }
+    }
+
+    @Test
+    void getSampleGrid3D() {
+        NoiseFunction sampler = new OpenSimplex2Sampler(0.071d, 12372835);
+        int xSize = 13, ySize = 17, zSize = 11;
+        double[] out = new double[xSize * ySize * zSize];
+        sampler.getSampleGrid(-77, 3, -64, 1000.5, 1, 0.75, 1.5, xSize, ySize, zSize, out, 0);
+        for(int i = 0; i < xSize; i++) {
+            for(int j = 0; j < ySize; j++) {
+                for(int k = 0; k < zSize; k++) {
+                    assertEquals(sampler.getSample(-77, 3 + i, -64 + j * 0.75, 1000.5 + k * 1.5), out[(i * ySize + j) * zSize + k]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSampleDerivativeIntoBuffer() {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler(0.03d, 12372834);
+        BrownianMotionSampler fractal = new BrownianMotionSampler(5, simplex, 0.5, 2, 0.25, 3);
+        MultiplicationSampler product = new MultiplicationSampler(fractal, simplex);
+        double[] out = { 7, 7, 7, 7, 7, 7 };
+        product.getSampleDerivative(3, 12.5, -40, out, 1);
+        double[] left = fractal.getSampleDerivative(3, 12.5, -40), right = simplex.getSampleDerivative(3, 12.5, -40);
+        assertEquals(7, out[0]);
+        assertEquals(product.getSample(3, 12.5, -40), out[1], FloatingPointConstants.EPSILON);
+        assertEquals(left[1] * right[0] + left[0] * right[1], out[2], FloatingPointConstants.EPSILON);
+        assertEquals(left[2] * right[0] + left[0] * right[2], out[3], FloatingPointConstants.EPSILON);
+        assertEquals(7, out[4]);
+
+        product.getSampleDerivative(3, 12.5, 8, -40, out, 2);
+        left = fractal.getSampleDerivative(3, 12.5, 8, -40);
+        right = simplex.getSampleDerivative(3, 12.5, 8, -40);
+        assertEquals(product.getSample(3, 12.5, 8, -40), out[2], FloatingPointConstants.EPSILON);
+        for(int i = 1; i < 4; i++) {
+            assertEquals(left[i] * right[0] + left[0] * right[i], out[2 + i], FloatingPointConstants.EPSILON);
+        }
+    }
+
+    @Test
+    void getSampleDerivativeIntoBufferFromArrays() {
+        // Functions which only implement the array-returning raw derivatives are written into buffers through them
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler(1, 0);
+        DerivativeNoiseFunction function = new DerivativeNoiseFunction(0.03d, 12372834) {
+            @Override
+            public double getNoiseRaw(long seed, double x, double y) {
+                return simplex.getNoiseRaw(seed, x, y);
+            }
+
+            @Override
+            public double getNoiseRaw(long seed, double x, double y, double z) {
+                return simplex.getNoiseRaw(seed, x, y, z);
+            }
+
+            @Override
+            public double[] getNoiseDerivativeRaw(long seed, double x, double y) {
+                return simplex.getNoiseDerivativeRaw(seed, x, y);
+            }
+
+            @Override
+            public double[] getNoiseDerivativeRaw(long seed, double x, double y, double z) {
+                return simplex.getNoiseDerivativeRaw(seed, x, y, z);
+            }
+        };
+        double[] out = { 7, 7, 7, 7, 7, 7 };
+        function.getSampleDerivative(3, 12.5, -40, out, 1);
+        assertEquals(7, out[0]);
+        assertArrayEquals(function.getSampleDerivative(3, 12.5, -40), Arrays.copyOfRange(out, 1, 4));
+        assertEquals(7, out[4]);
+        function.getSampleDerivative(3, 12.5, 8, -40, out, 2);
+        assertArrayEquals(function.getSampleDerivative(3, 12.5, 8, -40), Arrays.copyOfRange(out, 2, 6));
+    }
+
+    @Test
+    void getSampleDerivative2D() {
+        DerivativeNoiseFunction[] samplers = { new OpenSimplex2Sampler(1, 5), new OpenSimplex2SSampler(1, 5) };
+        Random random = new Random(4);
+        for(DerivativeNoiseFunction sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            for(int n = 0; n < 500; n++) {
+                double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50;
+                double[] derivative = sampler.getSampleDerivative(2, x, y);
+                assertEquals(sampler.getSample(2, x, y), derivative[0], 1e-12, name);
+                assertArrayEquals(differences(sampler, x, y), Arrays.copyOfRange(derivative, 1, 3), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void getSampleDerivative3D() {
+        // The 3D lattices are rotated, so every derivative path maps its gradient back through the rotation. Unit frequency, so the
+        // gradients can be checked against differences in the sampled coordinates
+        DerivativeNoiseFunction[] samplers = { new OpenSimplex2Sampler(1, 5), new OpenSimplex2SSampler(1, 5) };
+        Random random = new Random(8);
+        double[] seeds = new double[12];
+        for(DerivativeNoiseFunction sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            for(int n = 0; n < 200; n++) {
+                double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50, z = random.nextDouble() * 100 - 50;
+                double[] derivative = sampler.getSampleDerivative(2, x, y, z);
+                assertArrayEquals(differences(sampler, x, y, z), Arrays.copyOfRange(derivative, 1, 4), 1e-6);
+
+                sampler.getSampleDerivativeSeeds(1, x, y, z, 3, seeds, 0);
+                for(int i = 0; i < 3; i++) {
+                    assertArrayEquals(sampler.getSampleDerivative(1 + i, x, y, z), Arrays.copyOfRange(seeds, i * 4, i * 4 + 4), 1e-12);
+                }
+            }
+
+            int xSize = 5, ySize = 4, zSize = 6;
+            double[] values = new double[xSize * ySize * zSize], dx = new double[values.length], dy = new double[values.length],
+                dz = new double[values.length];
+            sampler.getSampleDerivativeGrid(2, -12.31, 4.137, 30.73, 0.71, 1.29, 0.453, xSize, ySize, zSize, values, dx, dy, dz, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        int index = (i * ySize + j) * zSize + k;
+                        double x = -12.31 + i * 0.71, y = 4.137 + j * 1.29, z = 30.73 + k * 0.453;
+                        assertEquals(sampler.getSample(2, x, y, z), values[index], 1e-12, name);
+                        assertArrayEquals(differences(sampler, x, y, z), new double[]{ dx[index], dy[index], dz[index] }, 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Central differences of a sample along each axis.
+     */
+    private static double[] differences(DerivativeNoiseFunction sampler, double x, double y) {
+        double h = 1e-6;
+        return new double[]{
+            (sampler.getSample(2, x + h, y) - sampler.getSample(2, x - h, y)) / (2 * h),
+            (sampler.getSample(2, x, y + h) - sampler.getSample(2, x, y - h)) / (2 * h)
+        };
+    }
+
+    private static double[] differences(DerivativeNoiseFunction sampler, double x, double y, double z) {
+        double h = 1e-6;
+        return new double[]{
+            (sampler.getSample(2, x + h, y, z) - sampler.getSample(2, x - h, y, z)) / (2 * h),
+            (sampler.getSample(2, x, y + h, z) - sampler.getSample(2, x, y - h, z)) / (2 * h),
+            (sampler.getSample(2, x, y, z + h) - sampler.getSample(2, x, y, z - h)) / (2 * h)
+        };
+    }
+
+    @Test
+    void getSampleHessian() {
+        // Unit frequency, so both orders of derivative can be checked against differences in the sampled coordinates
+        DerivativeSampler[] samplers = {
+            new OpenSimplex2Sampler(1, 5),
+            new OpenSimplex2SSampler(1, 5),
+            new BrownianMotionSampler(3, new OpenSimplex2Sampler(1, 5), 0.5, 2, 0.6, 3)
+        };
+        Random random = new Random(21);
+        double h = 1e-6;
+        for(DerivativeSampler sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            assertTrue(sampler.isTwiceDifferentiable(), name);
+            for(int n = 0; n < 200; n++) {
+                double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 50, z = random.nextDouble() * 100 - 50;
+                double[] hessian = hessian(sampler, x, y);
+                assertEquals(sampler.getSample(2, x, y), hessian[0], 1e-12, name);
+                assertEquals((sampler.getSample(2, x + h, y) - sampler.getSample(2, x - h, y)) / (2 * h), hessian[1], 1e-4, name);
+                assertEquals((sampler.getSample(2, x, y + h) - sampler.getSample(2, x, y - h)) / (2 * h), hessian[2], 1e-4, name);
+                double[] xHigh = hessian(sampler, x + h, y), xLow = hessian(sampler, x - h, y);
+                double[] yHigh = hessian(sampler, x, y + h), yLow = hessian(sampler, x, y - h);
+                assertEquals((xHigh[1] - xLow[1]) / (2 * h), hessian[3], 1e-5, name);
+                assertEquals((xHigh[2] - xLow[2]) / (2 * h), hessian[4], 1e-5, name);
+                assertEquals((yHigh[1] - yLow[1]) / (2 * h), hessian[4], 1e-5, name);
+                assertEquals((yHigh[2] - yLow[2]) / (2 * h), hessian[5], 1e-5, name);
+
+                hessian = hessian(sampler, x, y, z);
+                assertEquals(sampler.getSample(2, x, y, z), hessian[0], 1e-12, name);
+                assertEquals((sampler.getSample(2, x + h, y, z) - sampler.getSample(2, x - h, y, z)) / (2 * h), hessian[1], 1e-4, name);
+                assertEquals((sampler.getSample(2, x, y + h, z) - sampler.getSample(2, x, y - h, z)) / (2 * h), hessian[2], 1e-4, name);
+                assertEquals((sampler.getSample(2, x, y, z + h) - sampler.getSample(2, x, y, z - h)) / (2 * h), hessian[3], 1e-4, name);
+                double[][] high = { hessian(sampler, x + h, y, z), hessian(sampler, x, y + h, z), hessian(sampler, x, y, z + h) };
+                double[][] low = { hessian(sampler, x - h, y, z), hessian(sampler, x, y - h, z), hessian(sampler, x, y, z - h) };
+                int[] rows = { 0, 0, 0, 1, 1, 2 }, columns = { 0, 1, 2, 1, 2, 2 };
+                for(int e = 0; e < 6; e++) {
+                    int r = rows[e], c = columns[e];
+                    assertEquals((high[r][1 + c] - low[r][1 + c]) / (2 * h), hessian[4 + e], 1e-5, name);
+                    assertEquals((high[c][1 + r] - low[c][1 + r]) / (2 * h), hessian[4 + e], 1e-5, name);
+                }
+            }
+        }
+    }
+
+    private static double[] hessian(DerivativeSampler sampler, double x, double y) {
+        double[] out = new double[6];
+        sampler.getSampleHessian(2, x, y, out, 0);
+        return out;
+    }
+
+    private static double[] hessian(DerivativeSampler sampler, double x, double y, double z) {
+        double[] out = new double[10];
+        sampler.getSampleHessian(2, x, y, z, out, 0);
+        return out;
+    }
+
+    @Test
+    void getSampleDerivativeGrid() {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler(0.037d, 12372834);
+        DerivativeSampler[] samplers = {
+            simplex,
+            new OpenSimplex2SSampler(0.037d, 12372834),
+            new BrownianMotionSampler(3, simplex, 0.5, 2, 0.25, 4),
+            new RidgedFractalSampler(3, simplex, 0.5, 2, 0.25, 4)
+        };
+        int xSize = 13, ySize = 17, zSize = 11;
+        double[] values = new double[xSize * ySize * zSize + 1], dx = new double[values.length], dy = new double[values.length],
+            dz = new double[values.length];
+        for(DerivativeSampler sampler : samplers) {
+            sampler.getSampleDerivativeGrid(941, -40.5, 17.25, 0.5, 1.25, xSize, ySize, values, dx, dy, 1);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    int index = 1 + i * ySize + j;
+                    double[] expected = sampler.getSampleDerivative(941, -40.5 + i * 0.5, 17.25 + j * 1.25);
+                    assertArrayEquals(expected, new double[]{ values[index], dx[index], dy[index] }, 1e-9);
+                }
+            }
+
+            sampler.getSampleDerivativeGrid(-77, 3, -64, 1000.5, 1, 0.75, 1.5, xSize, ySize, zSize, values, dx, dy, dz, 1);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        int index = 1 + (i * ySize + j) * zSize + k;
+                        double[] expected = sampler.getSampleDerivative(-77, 3 + i, -64 + j * 0.75, 1000.5 + k * 1.5);
+                        assertArrayEquals(expected, new double[]{ values[index], dx[index], dy[index], dz[index] }, 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSampleSeeds() {
+        OpenSimplex2Sampler simplex = new OpenSimplex2Sampler(0.031d, 12372834);
+        DerivativeSampler[] samplers = {
+            simplex,
+            new BrownianMotionSampler(3, simplex, 0.5, 2, 0.25, 4)
+        };
+        double[] values = new double[4], derivatives = new double[13];
+        for(DerivativeSampler sampler : samplers) {
+            for(double x = -60.5; x < 60; x += 7.3) {
+                for(double y = -60; y < 60; y += 9.1) {
+                    sampler.getSampleSeeds(Long.MAX_VALUE - 1, x, y, 3, values, 1);
+                    sampler.getSampleDerivativeSeeds(Long.MAX_VALUE - 1, x, y, 3, derivatives, 1);
+                    for(int n = 0; n < 3; n++) {
+                        // The seeds overflow part way through
+                        assertEquals(sampler.getSample(Long.MAX_VALUE - 1 + n, x, y), values[1 + n]);
+                        assertArrayEquals(sampler.getSampleDerivative(Long.MAX_VALUE - 1 + n, x, y),
+                            new double[]{ derivatives[1 + n * 3], derivatives[2 + n * 3], derivatives[3 + n * 3] }, 0);
+                    }
+
+                    double z = x * 0.7 - y;
+                    sampler.getSampleSeeds(-5, x, y, z, 3, values, 1);
+                    sampler.getSampleDerivativeSeeds(-5, x, y, z, 3, derivatives, 1);
+                    for(int n = 0; n < 3; n++) {
+                        assertEquals(sampler.getSample(-5 + n, x, y, z), values[1 + n]);
+                        assertArrayEquals(sampler.getSampleDerivative(-5 + n, x, y, z),
+                            new double[]{ derivatives[1 + n * 4], derivatives[2 + n * 4], derivatives[3 + n * 4], derivatives[4 + n * 4] },
+                            0);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2SSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.OpenSimplex2Sampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.PerlinSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.simplex.SimplexSampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SimplexStyleSamplerGridTest {
+    private static NoiseFunction[] samplers(double frequency, long salt) {
+        return new NoiseFunction[]{
+            new OpenSimplex2Sampler(frequency, salt),
+            new OpenSimplex2SSampler(frequency, salt),
+            new SimplexSampler(frequency, salt),
+            new PerlinSampler(frequency, salt)
+        };
+    }
+
+    @Test
+    void getSampleGrid() {
+        // 37 is not a multiple of any vector length, so the tail of every row is covered as well
+        int xSize = 7, ySize = 37;
+        for(NoiseFunction sampler : samplers(0.043d, 2983475)) {
+            double[] out = new double[2 + xSize * ySize];
+            sampler.getSampleGrid(-3, -120.25, 64.5, 0.75, 1.5, xSize, ySize, out, 2);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    assertEquals(sampler.getSample(-3, -120.25 + i * 0.75, 64.5 + j * 1.5), out[2 + i * ySize + j],
+                        sampler.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSampleGrid3D() {
+        int xSize = 5, ySize = 6, zSize = 19;
+        for(NoiseFunction sampler : samplers(0.067d, -5523)) {
+            double[] out = new double[xSize * ySize * zSize];
+            sampler.getSampleGrid(1234, 17.5, -8, -300.25, 2, 0.5, 1.25, xSize, ySize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        assertEquals(sampler.getSample(1234, 17.5 + i * 2, -8 + j * 0.5, -300.25 + k * 1.25),
+                            out[(i * ySize + j) * zSize + k], sampler.getClass().getSimpleName());
+                    }
+                }
+            }
+        }
+    }
+}
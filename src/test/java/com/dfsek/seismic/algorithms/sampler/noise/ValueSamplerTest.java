@@ -0,0 +1,30 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.sampler.noise.value.ValueSampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ValueSamplerTest {
+    private static final ValueSampler SAMPLER = new ValueSampler(1, 0);
+
+    @Test
+    void getSample3D() {
+        assertEquals(0.09092264293576591, SAMPLER.getSample(1337, 0.25, 0.5, 0.75));
+        assertEquals(0.2131435875959164, SAMPLER.getSample(1337, -3.6, 12.2, 7.9));
+        assertEquals(-0.03219840975270927, SAMPLER.getSample(1337, 101.125, -40.5, -7.25));
+    }
+
+    @Test
+    void continuousAcrossCells3D() {
+        for(int x = -20; x <= 20; x++) {
+            double y = x * 0.37 + 0.2, z = 5.6 - x * 0.81;
+            double before = SAMPLER.getSample(1337, x - 1e-9, y, z), after = SAMPLER.getSample(1337, x, y, z);
+            assertTrue(Math.abs(after) <= 1);
+            assertEquals(before, after, 1e-6);
+            assertEquals(after, SAMPLER.getSampleFloat(1337, x, y, z), 1e-5);
+            assertEquals(SAMPLER.getSampleFloat(1337, x - 1e-9, y, z), SAMPLER.getSampleFloat(1337, x, y, z), 1e-5);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dfsek.seismic.algorithms.sampler.noise;
+
+import com.dfsek.seismic.algorithms.hashing.HashingFunctions;
+import com.dfsek.seismic.algorithms.sampler.noise.random.GaussianNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.random.PositiveWhiteNoiseSampler;
+import com.dfsek.seismic.algorithms.sampler.noise.random.WhiteNoiseSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WhiteNoiseSamplerTest {
+    private static final int COUNT = 131;
+
+    private static double[] coordinates(Random random) {
+        double[] values = new double[COUNT];
+        for(int i = 0; i < COUNT; i++) {
+            values[i] = (random.nextDouble() - 0.5) * 100000;
+        }
+        return values;
+    }
+
+    @Test
+    void murmur64() {
+        Random random = new Random(8);
+        long[] values = new long[COUNT];
+        for(int i = 0; i < COUNT; i++) {
+            values[i] = random.nextLong();
+        }
+        long[] out = new long[COUNT];
+        HashingFunctions.murmur64(values, out, 3, COUNT - 3);
+        for(int i = 3; i < COUNT; i++) {
+            assertEquals(HashingFunctions.murmur64(values[i]), out[i]);
+        }
+    }
+
+    @Test
+    void randomBits() {
+        Random random = new Random(12);
+        double[] xs = coordinates(random), ys = coordinates(random), zs = coordinates(random);
+        long[] bits2D = new long[COUNT];
+        long[] bits3D = new long[COUNT];
+        WhiteNoiseSampler.randomBits(2384, xs, ys, bits2D, 0, COUNT);
+        WhiteNoiseSampler.randomBits(2384, xs, ys, zs, bits3D, 0, COUNT);
+        for(int i = 0; i < COUNT; i++) {
+            assertEquals(WhiteNoiseSampler.randomBits(2384, xs[i], ys[i]), bits2D[i]);
+            assertEquals(WhiteNoiseSampler.randomBits(2384, xs[i], ys[i], zs[i]), bits3D[i]);
+        }
+    }
+
+    @Test
+    void getNoiseUnmapped() {
+        Random random = new Random(13);
+        double[] xs = coordinates(random), ys = coordinates(random), zs = coordinates(random);
+        double[] noise2D = new double[COUNT];
+        double[] noise3D = new double[COUNT];
+        WhiteNoiseSampler.getNoiseUnmapped(-9, xs, ys, noise2D, 1, COUNT - 1);
+        WhiteNoiseSampler.getNoiseUnmapped(-9, xs, ys, zs, noise3D, 1, COUNT - 1);
+        for(int i = 1; i < COUNT; i++) {
+            assertEquals(WhiteNoiseSampler.getNoiseUnmapped(-9, xs[i], ys[i]), noise2D[i]);
+            assertEquals(WhiteNoiseSampler.getNoiseUnmapped(-9, xs[i], ys[i], zs[i]), noise3D[i]);
+        }
+    }
+
+    @Test
+    void getSampleGrid() {
+        NoiseFunction[] samplers = {
+            new WhiteNoiseSampler(0.5d, 123), new PositiveWhiteNoiseSampler(0.5d, 123), new GaussianNoiseSampler(0.5d, 123)
+        };
+        int xSize = 9, ySize = 7, zSize = 13;
+        for(NoiseFunction sampler : samplers) {
+            double[] out = new double[xSize * zSize];
+            sampler.getSampleGrid(77, -12.5, 40, 0.25, 1, xSize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int k = 0; k < zSize; k++) {
+                    assertEquals(sampler.getSample(77, -12.5 + i * 0.25, 40 + k), out[i * zSize + k], sampler.getClass().getSimpleName());
+                }
+            }
+
+            out = new double[xSize * ySize * zSize];
+            sampler.getSampleGrid(77, -12.5, 3, 40, 0.25, 2, 1, xSize, ySize, zSize, out, 0);
+            for(int i = 0; i < xSize; i++) {
+                for(int j = 0; j < ySize; j++) {
+                    for(int k = 0; k < zSize; k++) {
+                        assertEquals(sampler.getSample(77, -12.5 + i * 0.25, 3 + j * 2, 40 + k), out[(i * ySize + j) * zSize + k],
+                            sampler.getClass().getSimpleName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSamples() {
+        Random random = new Random(14);
+        double[] xs = coordinates(random), ys = coordinates(random), zs = coordinates(random);
+        NoiseFunction[] samplers = { new WhiteNoiseSampler(0.5d, 123), new PositiveWhiteNoiseSampler(0.5d, 123) };
+        for(NoiseFunction sampler : samplers) {
+            double[] out = new double[COUNT];
+            sampler.getSamples(5, xs, ys, COUNT, out, 0);
+            for(int i = 0; i < COUNT; i++) {
+                assertEquals(sampler.getSample(5, xs[i], ys[i]), out[i], sampler.getClass().getSimpleName());
+            }
+            sampler.getSamples(5, xs, ys, zs, COUNT, out, 0);
+            for(int i = 0; i < COUNT; i++) {
+                assertEquals(sampler.getSample(5, xs[i], ys[i], zs[i]), out[i], sampler.getClass().getSimpleName());
+            }
+        }
+    }
+}
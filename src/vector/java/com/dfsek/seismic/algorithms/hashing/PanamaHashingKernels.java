@@ -0,0 +1,41 @@
+package com.dfsek.seismic.algorithms.hashing;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Vector API implementation of {@link HashingKernels}.
+ * <p>
+ * Loaded reflectively by {@link HashingKernels#VECTORIZED}; not part of the public API.
+ */
+public final class PanamaHashingKernels implements HashingKernels {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Lane-wise {@link HashingFunctions#murmur64(long)}.
+     *
+     * @param h the values to hash.
+     *
+     * @return the hashed values.
+     */
+    public static LongVector murmur64(LongVector h) {
+        h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 33));
+        h = h.mul(0xff51afd7ed558ccdL);
+        h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 33));
+        h = h.mul(0xc4ceb9fe1a85ec53L);
+        return h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 33));
+    }
+
+    @Override
+    public void murmur64(long[] values, long[] out, int offset, int length) {
+        int i = offset;
+        for(int bound = offset + PanamaHashingKernels.LONGS.loopBound(length); i < bound; i += PanamaHashingKernels.LONGS.length()) {
+            PanamaHashingKernels.murmur64(LongVector.fromArray(PanamaHashingKernels.LONGS, values, i)).intoArray(out, i);
+        }
+        for(int end = offset + length; i < end; i++) {
+            out[i] = HashingFunctions.murmur64(values[i]);
+        }
+    }
+}
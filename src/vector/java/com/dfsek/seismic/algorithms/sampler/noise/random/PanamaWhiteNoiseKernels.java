@@ -0,0 +1,100 @@
+package com.dfsek.seismic.algorithms.sampler.noise.random;
+
+import com.dfsek.seismic.algorithms.hashing.PanamaHashingKernels;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Vector API implementation of {@link WhiteNoiseKernels}.
+ * <p>
+ * Loaded reflectively by {@link WhiteNoiseKernels#VECTORIZED}; not part of the public API.
+ */
+public final class PanamaWhiteNoiseKernels implements WhiteNoiseKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = PanamaWhiteNoiseKernels.DOUBLES.length();
+
+    private static LongVector fold(long seed, DoubleVector v) {
+        LongVector hash = v.reinterpretAsLongs().lanewise(VectorOperators.XOR, seed);
+        return hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 32));
+    }
+
+    /**
+     * Lane-wise {@link WhiteNoiseSampler#randomBits(long, double, double)}.
+     */
+    private static LongVector randomBits(long seed, DoubleVector x, DoubleVector y) {
+        LongVector hash = PanamaWhiteNoiseKernels.fold(seed, x)
+            .add(PanamaWhiteNoiseKernels.fold(seed, y).lanewise(VectorOperators.LSHL, 32))
+            .lanewise(VectorOperators.XOR, seed);
+        return PanamaHashingKernels.murmur64(hash);
+    }
+
+    /**
+     * Lane-wise {@link WhiteNoiseSampler#randomBits(long, double, double, double)}.
+     */
+    private static LongVector randomBits(long seed, DoubleVector x, DoubleVector y, DoubleVector z) {
+        LongVector hash = PanamaWhiteNoiseKernels.fold(seed, x)
+            .add(PanamaWhiteNoiseKernels.fold(seed, y).lanewise(VectorOperators.LSHL, 32))
+            .lanewise(VectorOperators.XOR, seed)
+            .add(z.reinterpretAsLongs());
+        return PanamaHashingKernels.murmur64(hash);
+    }
+
+    private static DoubleVector unmapped(LongVector bits) {
+        return bits.and(0x000fffffffffffffL).or(WhiteNoiseSampler.POSITIVE_POW1).reinterpretAsDoubles();
+    }
+
+    @Override
+    public void randomBits(long seed, double[] xs, double[] ys, long[] out, int offset, int length) {
+        int i = offset;
+        for(int bound = offset + PanamaWhiteNoiseKernels.DOUBLES.loopBound(length); i < bound; i += PanamaWhiteNoiseKernels.LANES) {
+            PanamaWhiteNoiseKernels.randomBits(seed, DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, xs, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, ys, i)).intoArray(out, i);
+        }
+        for(int end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.randomBits(seed, xs[i], ys[i]);
+        }
+    }
+
+    @Override
+    public void randomBits(long seed, double[] xs, double[] ys, double[] zs, long[] out, int offset, int length) {
+        int i = offset;
+        for(int bound = offset + PanamaWhiteNoiseKernels.DOUBLES.loopBound(length); i < bound; i += PanamaWhiteNoiseKernels.LANES) {
+            PanamaWhiteNoiseKernels.randomBits(seed, DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, xs, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, ys, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, zs, i)).intoArray(out, i);
+        }
+        for(int end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.randomBits(seed, xs[i], ys[i], zs[i]);
+        }
+    }
+
+    @Override
+    public void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] out, int offset, int length) {
+        int i = offset;
+        for(int bound = offset + PanamaWhiteNoiseKernels.DOUBLES.loopBound(length); i < bound; i += PanamaWhiteNoiseKernels.LANES) {
+            PanamaWhiteNoiseKernels.unmapped(PanamaWhiteNoiseKernels.randomBits(seed,
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, xs, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, ys, i))).intoArray(out, i);
+        }
+        for(int end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.getNoiseUnmapped(seed, xs[i], ys[i]);
+        }
+    }
+
+    @Override
+    public void getNoiseUnmapped(long seed, double[] xs, double[] ys, double[] zs, double[] out, int offset, int length) {
+        int i = offset;
+        for(int bound = offset + PanamaWhiteNoiseKernels.DOUBLES.loopBound(length); i < bound; i += PanamaWhiteNoiseKernels.LANES) {
+            PanamaWhiteNoiseKernels.unmapped(PanamaWhiteNoiseKernels.randomBits(seed,
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, xs, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, ys, i),
+                DoubleVector.fromArray(PanamaWhiteNoiseKernels.DOUBLES, zs, i))).intoArray(out, i);
+        }
+        for(int end = offset + length; i < end; i++) {
+            out[i] = WhiteNoiseSampler.getNoiseUnmapped(seed, xs[i], ys[i], zs[i]);
+        }
+    }
+}
@@ -0,0 +1,823 @@
+package com.dfsek.seismic.algorithms.sampler.noise.simplex;
+
+import com.dfsek.seismic.algorithms.sampler.noise.NoiseFunction;
+import com.dfsek.seismic.math.floatingpoint.FloatingPointFunctions;
+import com.dfsek.seismic.math.numericanalysis.interpolation.sigmoid.SmoothstepFunctions;
+import com.dfsek.seismic.util.VMConstants;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Vector API implementation of {@link SimplexKernels}.
+ * <p>
+ * Samples along the innermost grid axis are packed into lanes. Branches of the scalar code become lane masks, and every lane performs
+ * the same floating point operations in the same order as the scalar code, so results are bit-identical. Loaded reflectively by
+ * {@link SimplexKernels#VECTORIZED}; not part of the public API.
+ */
+public final class PanamaSimplexKernels implements SimplexKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+        VectorShape.forBitSize(PanamaSimplexKernels.DOUBLES.vectorBitSize() / 2));
+    private static final int LANES = PanamaSimplexKernels.DOUBLES.length();
+    private static final DoubleVector IOTA = DoubleVector.zero(PanamaSimplexKernels.DOUBLES).addIndex(1);
+    private static final DoubleVector ZERO = DoubleVector.zero(PanamaSimplexKernels.DOUBLES);
+    /**
+     * Mirrors {@link com.dfsek.seismic.math.arithmetic.ArithmeticFunctions#fma} so lanes round exactly like the scalar code.
+     */
+    private static final boolean USE_FMA = VMConstants.HAS_FAST_SCALAR_FMA;
+
+    public PanamaSimplexKernels() {
+        if(PanamaSimplexKernels.LANES < 2) {
+            throw new UnsupportedOperationException("Preferred vector species is too narrow: " + PanamaSimplexKernels.DOUBLES);
+        }
+    }
+
+    private static DoubleVector fma(DoubleVector a, DoubleVector b, DoubleVector c) {
+        return PanamaSimplexKernels.USE_FMA ? a.fma(b, c) : a.mul(b).add(c);
+    }
+
+    private static DoubleVector toDouble(IntVector v) {
+        return (DoubleVector) v.convertShape(VectorOperators.I2D, PanamaSimplexKernels.DOUBLES, 0);
+    }
+
+    private static IntVector toInt(DoubleVector v) {
+        return (IntVector) v.convertShape(VectorOperators.D2I, PanamaSimplexKernels.INTS, 0);
+    }
+
+    private static VectorMask<Integer> toInt(VectorMask<Double> mask) {
+        return mask.cast(PanamaSimplexKernels.INTS);
+    }
+
+    /**
+     * Lane-wise {@link FloatingPointFunctions#floor}.
+     */
+    private static IntVector floor(DoubleVector n) {
+        IntVector ni = PanamaSimplexKernels.toInt(n);
+        return ni.sub(1, PanamaSimplexKernels.toInt(n.lt(PanamaSimplexKernels.toDouble(ni))));
+    }
+
+    /**
+     * Lane-wise {@link FloatingPointFunctions#round}.
+     */
+    private static IntVector round(DoubleVector n) {
+        return PanamaSimplexKernels.toInt(n.add(0.5).blend(n.sub(0.5), n.lt(0)));
+    }
+
+    /**
+     * Lane-wise {@link SmoothstepFunctions#quinticPolynomialSmoothstep}.
+     */
+    private static DoubleVector quintic(DoubleVector x) {
+        DoubleVector inner = PanamaSimplexKernels.fma(x, DoubleVector.broadcast(PanamaSimplexKernels.DOUBLES, 6.0),
+            DoubleVector.broadcast(PanamaSimplexKernels.DOUBLES, -15.0));
+        return x.mul(x).mul(x).mul(PanamaSimplexKernels.fma(x, inner, DoubleVector.broadcast(PanamaSimplexKernels.DOUBLES, 10.0)));
+    }
+
+    /**
+     * Lane-wise {@code InterpolationFunctions.lerp}.
+     */
+    private static DoubleVector lerp(DoubleVector v0, DoubleVector v1, DoubleVector t) {
+        return PanamaSimplexKernels.fma(v1.sub(v0), t, v0);
+    }
+
+    /**
+     * Coordinates {@code (start + index * step) * frequency} of the lanes starting at {@code index}, as computed by the scalar grid loop.
+     */
+    private static DoubleVector coordinates(double start, double step, double frequency, int index) {
+        return PanamaSimplexKernels.IOTA.add(index).mul(step).add(start).mul(frequency);
+    }
+
+    private static DoubleVector broadcast(double value) {
+        return DoubleVector.broadcast(PanamaSimplexKernels.DOUBLES, value);
+    }
+
+    /**
+     * Lane-wise {@code SimplexStyleSampler.gradCoord} for 2D.
+     */
+    private static DoubleVector gradient(double[] grads, int[] indices, int seed, IntVector xPrimed, IntVector yPrimed, DoubleVector xd,
+                                         DoubleVector yd) {
+        IntVector hash = xPrimed.lanewise(VectorOperators.XOR, yPrimed).lanewise(VectorOperators.XOR, seed).mul(0x27d4eb2d);
+        hash = hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.ASHR, 15)).and(127 << 1);
+        hash.intoArray(indices, 0);
+        DoubleVector xg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, grads, 0, indices, 0);
+        DoubleVector yg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, grads, 1, indices, 0);
+        return PanamaSimplexKernels.fma(xd, xg, yd.mul(yg));
+    }
+
+    /**
+     * Lane-wise {@code SimplexStyleSampler.gradCoord} for 3D.
+     */
+    private static DoubleVector gradient(double[] grads, int[] indices, int seed, IntVector xPrimed, IntVector yPrimed,
+                                         IntVector zPrimed, DoubleVector xd, DoubleVector yd, DoubleVector zd) {
+        IntVector hash = xPrimed.lanewise(VectorOperators.XOR, yPrimed)
+            .lanewise(VectorOperators.XOR, zPrimed)
+            .lanewise(VectorOperators.XOR, seed)
+            .mul(0x27d4eb2d);
+        hash = hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.ASHR, 15)).and(63 << 2);
+        hash.intoArray(indices, 0);
+        DoubleVector xg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, grads, 0, indices, 0);
+        DoubleVector yg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, grads, 1, indices, 0);
+        DoubleVector zg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, grads, 2, indices, 0);
+        return PanamaSimplexKernels.fma(xd, xg, PanamaSimplexKernels.fma(yd, yg, zd.mul(zg)));
+    }
+
+    /**
+     * Adds {@code a^4 * gradient} to the lanes of {@code value} selected by {@code mask}, as the OpenSimplex2S kernels do.
+     */
+    private static DoubleVector accumulate(DoubleVector value, DoubleVector a, DoubleVector gradient, VectorMask<Double> mask) {
+        DoubleVector aa = a.mul(a);
+        return value.add(aa.mul(aa).mul(gradient), mask);
+    }
+
+    @Override
+    public boolean accepts(int innerSize) {
+        return innerSize >= PanamaSimplexKernels.LANES;
+    }
+
+    @Override
+    public void openSimplex2(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize,
+                             double[] out, int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int row = offset + i * ySize;
+            for(int j = 0; j < ySize; j += PanamaSimplexKernels.LANES) {
+                DoubleVector yf = PanamaSimplexKernels.coordinates(y, yStep, frequency, j);
+
+                DoubleVector s = yf.add(xf).mul(OpenSimplex2StyleSampler.SKEW_2D);
+                DoubleVector xs = s.add(xf);
+                DoubleVector ys = yf.add(s);
+
+                IntVector xi0 = PanamaSimplexKernels.floor(xs);
+                IntVector yi0 = PanamaSimplexKernels.floor(ys);
+                DoubleVector xi = xs.sub(PanamaSimplexKernels.toDouble(xi0));
+                DoubleVector yi = ys.sub(PanamaSimplexKernels.toDouble(yi0));
+
+                DoubleVector t = xi.add(yi).mul(OpenSimplex2StyleSampler.UNSKEW_2D);
+                DoubleVector x0 = xi.sub(t);
+                DoubleVector y0 = yi.sub(t);
+
+                IntVector xPrimed = xi0.mul(NoiseFunction.PRIME_X);
+                IntVector yPrimed = yi0.mul(NoiseFunction.PRIME_Y);
+
+                DoubleVector a = PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.RSQUARED_2D).sub(x0.mul(x0)).sub(y0.mul(y0));
+                DoubleVector aa = a.mul(a);
+                DoubleVector value = PanamaSimplexKernels.ZERO.blend(
+                    aa.mul(aa).mul(PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed, yPrimed, x0, y0)), a.compare(
+                        VectorOperators.GT, 0));
+
+                DoubleVector c = PanamaSimplexKernels.fma(
+                    PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY), t,
+                    a.add(OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY));
+                VectorMask<Double> cMask = c.compare(VectorOperators.GT, 0);
+                if(cMask.anyTrue()) {
+                    DoubleVector x2 = x0.add(OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1);
+                    DoubleVector y2 = y0.add(OpenSimplex2StyleSampler.DOUBLE_UNSKEW_2D_MINUS_1);
+                    DoubleVector cc = c.mul(c);
+                    value = value.blend(PanamaSimplexKernels.fma(cc.mul(cc),
+                        PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed.add(NoiseFunction.PRIME_X),
+                            yPrimed.add(NoiseFunction.PRIME_Y), x2, y2), value), cMask);
+                }
+
+                VectorMask<Double> upper = y0.compare(VectorOperators.GT, x0);
+                DoubleVector x1 = x0.add(PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1)
+                    .blend(OpenSimplex2StyleSampler.UNSKEW_2D, upper));
+                DoubleVector y1 = y0.add(PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.UNSKEW_2D)
+                    .blend(OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1, upper));
+                DoubleVector b = PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.RSQUARED_2D).sub(x1.mul(x1)).sub(y1.mul(y1));
+                VectorMask<Double> bMask = b.compare(VectorOperators.GT, 0);
+                if(bMask.anyTrue()) {
+                    VectorMask<Integer> upperInt = PanamaSimplexKernels.toInt(upper);
+                    DoubleVector bb = b.mul(b);
+                    value = value.blend(PanamaSimplexKernels.fma(bb.mul(bb),
+                        PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed.add(NoiseFunction.PRIME_X, upperInt.not()),
+                            yPrimed.add(NoiseFunction.PRIME_Y, upperInt), x1, y1), value), bMask);
+                }
+
+                value.mul(99.83685446303647f).intoArray(out, row + j, PanamaSimplexKernels.DOUBLES.indexInRange(j, ySize));
+            }
+        }
+    }
+
+    @Override
+    public void openSimplex2(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep,
+                             int xSize, int ySize, int zSize, double[] out, int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                double xy = xf + yf;
+                int row = offset + (i * ySize + j) * zSize;
+                for(int k = 0; k < zSize; k += PanamaSimplexKernels.LANES) {
+                    DoubleVector zf = PanamaSimplexKernels.coordinates(z, zStep, frequency, k);
+
+                    DoubleVector r = zf.add(xy).mul(OpenSimplex2StyleSampler.ROTATE_3D);
+                    DoubleVector xr = r.sub(xf);
+                    DoubleVector yr = r.sub(yf);
+                    DoubleVector zr = r.sub(zf);
+
+                    IntVector xi = PanamaSimplexKernels.round(xr);
+                    IntVector yi = PanamaSimplexKernels.round(yr);
+                    IntVector zi = PanamaSimplexKernels.round(zr);
+                    DoubleVector x0 = xr.sub(PanamaSimplexKernels.toDouble(xi));
+                    DoubleVector y0 = yr.sub(PanamaSimplexKernels.toDouble(yi));
+                    DoubleVector z0 = zr.sub(PanamaSimplexKernels.toDouble(zi));
+
+                    IntVector xNSign = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-1.0).sub(x0)).or(1);
+                    IntVector yNSign = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-1.0).sub(y0)).or(1);
+                    IntVector zNSign = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-1.0).sub(z0)).or(1);
+
+                    DoubleVector ax0 = PanamaSimplexKernels.toDouble(xNSign).mul(x0.neg());
+                    DoubleVector ay0 = PanamaSimplexKernels.toDouble(yNSign).mul(y0.neg());
+                    DoubleVector az0 = PanamaSimplexKernels.toDouble(zNSign).mul(z0.neg());
+
+                    xi = xi.mul(NoiseFunction.PRIME_X);
+                    yi = yi.mul(NoiseFunction.PRIME_Y);
+                    zi = zi.mul(NoiseFunction.PRIME_Z);
+
+                    DoubleVector value = PanamaSimplexKernels.ZERO;
+                    DoubleVector a = PanamaSimplexKernels.broadcast(OpenSimplex2StyleSampler.RSQUARED_3D).sub(x0.mul(x0))
+                        .sub(PanamaSimplexKernels.fma(y0, y0, z0.mul(z0)));
+
+                    int latticeSeed = seed;
+                    for(int l = 0; ; l++) {
+                        VectorMask<Double> aMask = a.compare(VectorOperators.GT, 0);
+                        if(aMask.anyTrue()) {
+                            DoubleVector aa = a.mul(a);
+                            value = value.blend(PanamaSimplexKernels.fma(aa.mul(aa),
+                                PanamaSimplexKernels.gradient(grads, indices, latticeSeed, xi, yi, zi, x0, y0, z0), value), aMask);
+                        }
+
+                        VectorMask<Double> xAxis = ax0.compare(VectorOperators.GE, ay0).and(ax0.compare(VectorOperators.GE, az0));
+                        VectorMask<Double> yAxis = xAxis.not()
+                            .and(ay0.compare(VectorOperators.GT, ax0))
+                            .and(ay0.compare(VectorOperators.GE, az0));
+                        VectorMask<Double> zAxis = xAxis.or(yAxis).not();
+                        DoubleVector axis = az0.blend(ay0, yAxis).blend(ax0, xAxis);
+                        DoubleVector b = a.add(axis).add(axis);
+                        VectorMask<Double> bMask = b.compare(VectorOperators.GT, 1);
+                        if(bMask.anyTrue()) {
+                            b = b.sub(1);
+                            DoubleVector bb = b.mul(b);
+                            value = value.blend(PanamaSimplexKernels.fma(bb.mul(bb), PanamaSimplexKernels.gradient(grads, indices,
+                                latticeSeed,
+                                xi.sub(xNSign.mul(NoiseFunction.PRIME_X), PanamaSimplexKernels.toInt(xAxis)),
+                                yi.sub(yNSign.mul(NoiseFunction.PRIME_Y), PanamaSimplexKernels.toInt(yAxis)),
+                                zi.sub(zNSign.mul(NoiseFunction.PRIME_Z), PanamaSimplexKernels.toInt(zAxis)),
+                                x0.add(PanamaSimplexKernels.toDouble(xNSign), xAxis),
+                                y0.add(PanamaSimplexKernels.toDouble(yNSign), yAxis),
+                                z0.add(PanamaSimplexKernels.toDouble(zNSign), zAxis)), value), bMask);
+                        }
+
+                        if(l == 1) break;
+
+                        ax0 = PanamaSimplexKernels.broadcast(0.5).sub(ax0);
+                        ay0 = PanamaSimplexKernels.broadcast(0.5).sub(ay0);
+                        az0 = PanamaSimplexKernels.broadcast(0.5).sub(az0);
+
+                        x0 = PanamaSimplexKernels.toDouble(xNSign).mul(ax0);
+                        y0 = PanamaSimplexKernels.toDouble(yNSign).mul(ay0);
+                        z0 = PanamaSimplexKernels.toDouble(zNSign).mul(az0);
+
+                        a = a.add(PanamaSimplexKernels.broadcast(0.75).sub(ax0).sub(ay0.add(az0)));
+
+                        xi = xi.add(xNSign.lanewise(VectorOperators.ASHR, 1).and(NoiseFunction.PRIME_X));
+                        yi = yi.add(yNSign.lanewise(VectorOperators.ASHR, 1).and(NoiseFunction.PRIME_Y));
+                        zi = zi.add(zNSign.lanewise(VectorOperators.ASHR, 1).and(NoiseFunction.PRIME_Z));
+
+                        xNSign = xNSign.neg();
+                        yNSign = yNSign.neg();
+                        zNSign = zNSign.neg();
+
+                        latticeSeed = ~latticeSeed;
+                    }
+
+                    value.mul(32.69428253173828125).intoArray(out, row + k, PanamaSimplexKernels.DOUBLES.indexInRange(k, zSize));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void openSimplex2S(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize,
+                              double[] out, int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        double unskew = OpenSimplex2StyleSampler.UNSKEW_2D;
+        double unskewMinus1 = OpenSimplex2StyleSampler.UNSKEW_2D_MINUS_1;
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int row = offset + i * ySize;
+            for(int j = 0; j < ySize; j += PanamaSimplexKernels.LANES) {
+                DoubleVector yf = PanamaSimplexKernels.coordinates(y, yStep, frequency, j);
+
+                DoubleVector s = yf.add(xf).mul(OpenSimplex2StyleSampler.SKEW_2D);
+                DoubleVector xs = s.add(xf);
+                DoubleVector ys = yf.add(s);
+
+                IntVector xi0 = PanamaSimplexKernels.floor(xs);
+                IntVector yi0 = PanamaSimplexKernels.floor(ys);
+                DoubleVector xi = xs.sub(PanamaSimplexKernels.toDouble(xi0));
+                DoubleVector yi = ys.sub(PanamaSimplexKernels.toDouble(yi0));
+
+                IntVector xPrimed = xi0.mul(NoiseFunction.PRIME_X);
+                IntVector yPrimed = yi0.mul(NoiseFunction.PRIME_Y);
+
+                DoubleVector t = xi.add(yi).mul(unskew);
+                DoubleVector x0 = xi.sub(t);
+                DoubleVector y0 = yi.sub(t);
+
+                DoubleVector a0 = PanamaSimplexKernels.broadcast(2.0 / 3.0).sub(x0.mul(x0)).sub(y0.mul(y0));
+                DoubleVector a0a0 = a0.mul(a0);
+                DoubleVector value = a0a0.mul(a0a0).mul(PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed, yPrimed, x0, y0));
+
+                DoubleVector a1 = t.mul(OpenSimplex2StyleSampler.GRADIENT_SCALE_PRIMARY)
+                    .add(OpenSimplex2StyleSampler.GRADIENT_SCALE_SECONDARY);
+                DoubleVector x1 = x0.sub(OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D);
+                DoubleVector y1 = y0.sub(OpenSimplex2StyleSampler.ONE_MINUS_DOUBLE_UNSKEW_2D);
+                DoubleVector a1a1 = a1.mul(a1);
+                value = value.add(a1a1.mul(a1a1).mul(PanamaSimplexKernels.gradient(grads, indices, seed,
+                    xPrimed.add(NoiseFunction.PRIME_X), yPrimed.add(NoiseFunction.PRIME_Y), x1, y1)));
+
+                DoubleVector xmyi = xi.sub(yi);
+                VectorMask<Double> high = t.compare(VectorOperators.GT, unskew);
+                VectorMask<Integer> highInt = PanamaSimplexKernels.toInt(high);
+
+                // Third vertex: (2, 1) or (0, 1) above the diagonal, (-1, 0) or (1, 0) below it.
+                VectorMask<Double> farHigh = high.and(xi.add(xmyi).compare(VectorOperators.GT, 1));
+                VectorMask<Double> farLow = high.not().and(xi.add(xmyi).compare(VectorOperators.LT, 0));
+                DoubleVector dx2 = PanamaSimplexKernels.broadcast(unskewMinus1)
+                    .blend(unskew, high)
+                    .blend(3 * unskew - 2, farHigh)
+                    .blend(1 - unskew, farLow);
+                DoubleVector dy2 = PanamaSimplexKernels.broadcast(unskew)
+                    .blend(3 * unskew - 1, farHigh)
+                    .blend(-unskew, farLow);
+                IntVector di2 = PanamaSimplexKernels.broadcastInt(NoiseFunction.PRIME_X)
+                    .blend(0, highInt)
+                    .blend(NoiseFunction.PRIME_X << 1, PanamaSimplexKernels.toInt(farHigh))
+                    .blend(-NoiseFunction.PRIME_X, PanamaSimplexKernels.toInt(farLow));
+                IntVector dj2 = PanamaSimplexKernels.broadcastInt(0).blend(NoiseFunction.PRIME_Y, highInt);
+                DoubleVector x2 = x0.add(dx2);
+                DoubleVector y2 = y0.add(dy2);
+                DoubleVector a2 = PanamaSimplexKernels.broadcast(2.0 / 3.0).sub(x2.mul(x2)).sub(y2.mul(y2));
+                VectorMask<Double> a2Mask = a2.compare(VectorOperators.GT, 0);
+                if(a2Mask.anyTrue()) {
+                    value = PanamaSimplexKernels.accumulate(value, a2, PanamaSimplexKernels.gradient(grads, indices, seed,
+                        xPrimed.add(di2), yPrimed.add(dj2), x2, y2), a2Mask);
+                }
+
+                // Fourth vertex: (1, 2) or (1, 0) above the diagonal, (0, -1) or (0, 1) below it.
+                VectorMask<Double> farHigh3 = high.and(yi.sub(xmyi).compare(VectorOperators.GT, 1));
+                VectorMask<Double> farLow3 = high.not().and(yi.compare(VectorOperators.LT, xmyi));
+                DoubleVector dx3 = PanamaSimplexKernels.broadcast(unskew)
+                    .blend(unskewMinus1, high)
+                    .blend(3 * unskew - 1, farHigh3)
+                    .blend(-unskew, farLow3);
+                DoubleVector dy3 = PanamaSimplexKernels.broadcast(unskewMinus1)
+                    .blend(unskew, high)
+                    .blend(3 * unskew - 2, farHigh3)
+                    .blend(-unskewMinus1, farLow3);
+                IntVector di3 = PanamaSimplexKernels.broadcastInt(0).blend(NoiseFunction.PRIME_X, highInt);
+                IntVector dj3 = PanamaSimplexKernels.broadcastInt(NoiseFunction.PRIME_Y)
+                    .blend(0, highInt)
+                    .blend(NoiseFunction.PRIME_Y << 1, PanamaSimplexKernels.toInt(farHigh3))
+                    .blend(-NoiseFunction.PRIME_Y, PanamaSimplexKernels.toInt(farLow3));
+                DoubleVector x3 = x0.add(dx3);
+                DoubleVector y3 = y0.add(dy3);
+                DoubleVector a3 = PanamaSimplexKernels.broadcast(2.0 / 3.0).sub(x3.mul(x3)).sub(y3.mul(y3));
+                VectorMask<Double> a3Mask = a3.compare(VectorOperators.GT, 0);
+                if(a3Mask.anyTrue()) {
+                    value = PanamaSimplexKernels.accumulate(value, a3, PanamaSimplexKernels.gradient(grads, indices, seed,
+                        xPrimed.add(di3), yPrimed.add(dj3), x3, y3), a3Mask);
+                }
+
+                value.mul(18.24196194486065).intoArray(out, row + j, PanamaSimplexKernels.DOUBLES.indexInRange(j, ySize));
+            }
+        }
+    }
+
+    @Override
+    public void openSimplex2S(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep,
+                              int xSize, int ySize, int zSize, double[] out, int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        int seed2 = seed + 1293373;
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                double xy = xf + yf;
+                int row = offset + (i * ySize + j) * zSize;
+                for(int k = 0; k < zSize; k += PanamaSimplexKernels.LANES) {
+                    DoubleVector zf = PanamaSimplexKernels.coordinates(z, zStep, frequency, k);
+
+                    DoubleVector r = zf.add(xy).mul(OpenSimplex2StyleSampler.ROTATE_3D);
+                    DoubleVector xr = r.sub(xf);
+                    DoubleVector yr = r.sub(yf);
+                    DoubleVector zr = r.sub(zf);
+
+                    IntVector xb = PanamaSimplexKernels.floor(xr);
+                    IntVector yb = PanamaSimplexKernels.floor(yr);
+                    IntVector zb = PanamaSimplexKernels.floor(zr);
+                    DoubleVector xi = xr.sub(PanamaSimplexKernels.toDouble(xb));
+                    DoubleVector yi = yr.sub(PanamaSimplexKernels.toDouble(yb));
+                    DoubleVector zi = zr.sub(PanamaSimplexKernels.toDouble(zb));
+
+                    xb = xb.mul(NoiseFunction.PRIME_X);
+                    yb = yb.mul(NoiseFunction.PRIME_Y);
+                    zb = zb.mul(NoiseFunction.PRIME_Z);
+
+                    IntVector xNMask = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-0.5).sub(xi));
+                    IntVector yNMask = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-0.5).sub(yi));
+                    IntVector zNMask = PanamaSimplexKernels.toInt(PanamaSimplexKernels.broadcast(-0.5).sub(zi));
+
+                    // Lattice offsets shared by several vertices.
+                    IntVector xNear = xb.add(xNMask.and(NoiseFunction.PRIME_X));
+                    IntVector yNear = yb.add(yNMask.and(NoiseFunction.PRIME_Y));
+                    IntVector zNear = zb.add(zNMask.and(NoiseFunction.PRIME_Z));
+                    IntVector xFar = xb.add(xNMask.not().and(NoiseFunction.PRIME_X));
+                    IntVector yFar = yb.add(yNMask.not().and(NoiseFunction.PRIME_Y));
+                    IntVector zFar = zb.add(zNMask.not().and(NoiseFunction.PRIME_Z));
+                    IntVector xOne = xb.add(NoiseFunction.PRIME_X);
+                    IntVector yOne = yb.add(NoiseFunction.PRIME_Y);
+                    IntVector zOne = zb.add(NoiseFunction.PRIME_Z);
+                    IntVector xTwo = xb.add(xNMask.and(NoiseFunction.PRIME_X << 1));
+                    IntVector yTwo = yb.add(yNMask.and(NoiseFunction.PRIME_Y << 1));
+                    IntVector zTwo = zb.add(zNMask.and(NoiseFunction.PRIME_Z << 1));
+
+                    DoubleVector xSign = PanamaSimplexKernels.toDouble(xNMask.or(1));
+                    DoubleVector ySign = PanamaSimplexKernels.toDouble(yNMask.or(1));
+                    DoubleVector zSign = PanamaSimplexKernels.toDouble(zNMask.or(1));
+
+                    DoubleVector x0 = xi.add(PanamaSimplexKernels.toDouble(xNMask));
+                    DoubleVector y0 = yi.add(PanamaSimplexKernels.toDouble(yNMask));
+                    DoubleVector z0 = zi.add(PanamaSimplexKernels.toDouble(zNMask));
+                    DoubleVector a0 = PanamaSimplexKernels.broadcast(0.75).sub(x0.mul(x0)).sub(y0.mul(y0)).sub(z0.mul(z0));
+                    DoubleVector a0a0 = a0.mul(a0);
+                    DoubleVector value = a0a0.mul(a0a0).mul(PanamaSimplexKernels.gradient(grads, indices, seed, xNear, yNear, zNear,
+                        x0, y0, z0));
+
+                    DoubleVector x1 = xi.sub(0.5);
+                    DoubleVector y1 = yi.sub(0.5);
+                    DoubleVector z1 = zi.sub(0.5);
+                    DoubleVector a1 = PanamaSimplexKernels.broadcast(0.75).sub(x1.mul(x1)).sub(y1.mul(y1)).sub(z1.mul(z1));
+                    DoubleVector a1a1 = a1.mul(a1);
+                    value = value.add(a1a1.mul(a1a1).mul(PanamaSimplexKernels.gradient(grads, indices, seed2, xOne, yOne, zOne,
+                        x1, y1, z1)));
+
+                    DoubleVector xAFlipMask0 = PanamaSimplexKernels.toDouble(xNMask.or(1).lanewise(VectorOperators.LSHL, 1)).mul(x1);
+                    DoubleVector yAFlipMask0 = PanamaSimplexKernels.toDouble(yNMask.or(1).lanewise(VectorOperators.LSHL, 1)).mul(y1);
+                    DoubleVector zAFlipMask0 = PanamaSimplexKernels.toDouble(zNMask.or(1).lanewise(VectorOperators.LSHL, 1)).mul(z1);
+                    DoubleVector xAFlipMask1 = PanamaSimplexKernels.toDouble(
+                        PanamaSimplexKernels.broadcastInt(-2).sub(xNMask.lanewise(VectorOperators.LSHL, 2))).mul(x1).sub(1.0);
+                    DoubleVector yAFlipMask1 = PanamaSimplexKernels.toDouble(
+                        PanamaSimplexKernels.broadcastInt(-2).sub(yNMask.lanewise(VectorOperators.LSHL, 2))).mul(y1).sub(1.0);
+                    DoubleVector zAFlipMask1 = PanamaSimplexKernels.toDouble(
+                        PanamaSimplexKernels.broadcastInt(-2).sub(zNMask.lanewise(VectorOperators.LSHL, 2))).mul(z1).sub(1.0);
+
+                    // X axis flip, falling back to the YZ flip and the second lattice X flip.
+                    DoubleVector a2 = xAFlipMask0.add(a0);
+                    VectorMask<Double> a2Mask = a2.compare(VectorOperators.GT, 0);
+                    if(a2Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a2, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xFar, yNear, zNear, x0.sub(xSign), y0, z0), a2Mask);
+                    }
+                    DoubleVector a3 = yAFlipMask0.add(zAFlipMask0).add(a0);
+                    VectorMask<Double> a3Mask = a2Mask.not().and(a3.compare(VectorOperators.GT, 0));
+                    if(a3Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a3, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xNear, yFar, zFar, x0, y0.sub(ySign), z0.sub(zSign)), a3Mask);
+                    }
+                    DoubleVector a4 = xAFlipMask1.add(a1);
+                    VectorMask<Double> skip5 = a2Mask.not().and(a4.compare(VectorOperators.GT, 0));
+                    if(skip5.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a4, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xTwo, yOne, zOne, xSign.add(x1), y1, z1), skip5);
+                    }
+
+                    // Y axis flip, falling back to the XZ flip and the second lattice Y flip.
+                    DoubleVector a6 = yAFlipMask0.add(a0);
+                    VectorMask<Double> a6Mask = a6.compare(VectorOperators.GT, 0);
+                    if(a6Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a6, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xNear, yFar, zNear, x0, y0.sub(ySign), z0), a6Mask);
+                    }
+                    DoubleVector a7 = xAFlipMask0.add(zAFlipMask0).add(a0);
+                    VectorMask<Double> a7Mask = a6Mask.not().and(a7.compare(VectorOperators.GT, 0));
+                    if(a7Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a7, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xFar, yNear, zFar, x0.sub(xSign), y0, z0.sub(zSign)), a7Mask);
+                    }
+                    DoubleVector a8 = yAFlipMask1.add(a1);
+                    VectorMask<Double> skip9 = a6Mask.not().and(a8.compare(VectorOperators.GT, 0));
+                    if(skip9.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a8, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xOne, yTwo, zOne, x1, ySign.add(y1), z1), skip9);
+                    }
+
+                    // Z axis flip, falling back to the XY flip and the second lattice Z flip.
+                    DoubleVector aA = zAFlipMask0.add(a0);
+                    VectorMask<Double> aAMask = aA.compare(VectorOperators.GT, 0);
+                    if(aAMask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, aA, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xNear, yNear, zFar, x0, y0, z0.sub(zSign)), aAMask);
+                    }
+                    DoubleVector aB = xAFlipMask0.add(yAFlipMask0).add(a0);
+                    VectorMask<Double> aBMask = aAMask.not().and(aB.compare(VectorOperators.GT, 0));
+                    if(aBMask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, aB, PanamaSimplexKernels.gradient(grads, indices, seed,
+                            xFar, yFar, zNear, x0.sub(xSign), y0.sub(ySign), z0), aBMask);
+                    }
+                    DoubleVector aC = zAFlipMask1.add(a1);
+                    VectorMask<Double> skipD = aAMask.not().and(aC.compare(VectorOperators.GT, 0));
+                    if(skipD.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, aC, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xOne, yOne, zTwo, x1, y1, zSign.add(z1)), skipD);
+                    }
+
+                    DoubleVector a5 = yAFlipMask1.add(zAFlipMask1).add(a1);
+                    VectorMask<Double> a5Mask = skip5.not().and(a5.compare(VectorOperators.GT, 0));
+                    if(a5Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a5, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xOne, yTwo, zTwo, x1, ySign.add(y1), zSign.add(z1)), a5Mask);
+                    }
+
+                    DoubleVector a9 = xAFlipMask1.add(zAFlipMask1).add(a1);
+                    VectorMask<Double> a9Mask = skip9.not().and(a9.compare(VectorOperators.GT, 0));
+                    if(a9Mask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, a9, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xTwo, yOne, zTwo, xSign.add(x1), y1, zSign.add(z1)), a9Mask);
+                    }
+
+                    DoubleVector aD = xAFlipMask1.add(yAFlipMask1).add(a1);
+                    VectorMask<Double> aDMask = skipD.not().and(aD.compare(VectorOperators.GT, 0));
+                    if(aDMask.anyTrue()) {
+                        value = PanamaSimplexKernels.accumulate(value, aD, PanamaSimplexKernels.gradient(grads, indices, seed2,
+                            xTwo, yTwo, zOne, xSign.add(x1), ySign.add(y1), z1), aDMask);
+                    }
+
+                    value.mul(9.046026385208288).intoArray(out, row + k, PanamaSimplexKernels.DOUBLES.indexInRange(k, zSize));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lane-wise {@code SimplexSampler.gradCoord2D}.
+     */
+    private static DoubleVector simplexGradient(int[] indices, int seed, IntVector x, IntVector y, DoubleVector xd, DoubleVector yd) {
+        IntVector hash = x.mul(SimplexSampler.X_PRIME)
+            .lanewise(VectorOperators.XOR, y.mul(SimplexSampler.Y_PRIME))
+            .lanewise(VectorOperators.XOR, seed);
+        hash = hash.mul(hash).mul(hash).mul(60493);
+        hash = hash.lanewise(VectorOperators.ASHR, 13).lanewise(VectorOperators.XOR, hash).and(7).lanewise(VectorOperators.LSHL, 1);
+        hash.intoArray(indices, 0);
+        DoubleVector xg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, SimplexSampler.GRAD_2D, 0, indices, 0);
+        DoubleVector yg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, SimplexSampler.GRAD_2D, 1, indices, 0);
+        return xd.mul(xg).add(yd.mul(yg));
+    }
+
+    /**
+     * Lane-wise {@code SimplexSampler.gradCoord3D}.
+     */
+    private static DoubleVector simplexGradient(int[] indices, int seed, IntVector x, IntVector y, IntVector z, DoubleVector xd,
+                                                DoubleVector yd, DoubleVector zd) {
+        IntVector hash = x.mul(SimplexSampler.X_PRIME)
+            .lanewise(VectorOperators.XOR, y.mul(SimplexSampler.Y_PRIME))
+            .lanewise(VectorOperators.XOR, z.mul(SimplexSampler.Z_PRIME))
+            .lanewise(VectorOperators.XOR, seed);
+        hash = hash.mul(hash).mul(hash).mul(60493);
+        hash = hash.lanewise(VectorOperators.ASHR, 13).lanewise(VectorOperators.XOR, hash).and(15).mul(3);
+        hash.intoArray(indices, 0);
+        DoubleVector xg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, SimplexSampler.GRAD_3D, 0, indices, 0);
+        DoubleVector yg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, SimplexSampler.GRAD_3D, 1, indices, 0);
+        DoubleVector zg = DoubleVector.fromArray(PanamaSimplexKernels.DOUBLES, SimplexSampler.GRAD_3D, 2, indices, 0);
+        return xd.mul(xg).add(yd.mul(yg)).add(zd.mul(zg));
+    }
+
+    /**
+     * {@code t^4 * gradient}, or zero where {@code t} is negative, as the SimplexSampler kernels do.
+     */
+    private static DoubleVector falloff(DoubleVector t, DoubleVector gradient) {
+        DoubleVector tt = t.mul(t);
+        return tt.mul(tt).mul(gradient).blend(0, t.compare(VectorOperators.LT, 0));
+    }
+
+    @Override
+    public void simplex(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                        int offset) {
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        IntVector one = PanamaSimplexKernels.broadcastInt(1);
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int row = offset + i * ySize;
+            for(int j = 0; j < ySize; j += PanamaSimplexKernels.LANES) {
+                DoubleVector yf = PanamaSimplexKernels.coordinates(y, yStep, frequency, j);
+
+                DoubleVector t = yf.add(xf).mul(SimplexSampler.F2);
+                IntVector xi = PanamaSimplexKernels.floor(t.add(xf));
+                IntVector yi = PanamaSimplexKernels.floor(yf.add(t));
+
+                t = PanamaSimplexKernels.toDouble(xi.add(yi)).mul(SimplexSampler.G2);
+                DoubleVector x0 = PanamaSimplexKernels.broadcast(xf).sub(PanamaSimplexKernels.toDouble(xi).sub(t));
+                DoubleVector y0 = yf.sub(PanamaSimplexKernels.toDouble(yi).sub(t));
+
+                VectorMask<Double> lower = x0.compare(VectorOperators.GT, y0);
+                VectorMask<Integer> lowerInt = PanamaSimplexKernels.toInt(lower);
+                DoubleVector i1 = PanamaSimplexKernels.ZERO.blend(1, lower);
+                DoubleVector j1 = PanamaSimplexKernels.broadcast(1).blend(0, lower);
+
+                DoubleVector x1 = x0.sub(i1).add(SimplexSampler.G2);
+                DoubleVector y1 = y0.sub(j1).add(SimplexSampler.G2);
+                DoubleVector x2 = x0.sub(1).add(SimplexSampler.F2);
+                DoubleVector y2 = y0.sub(1).add(SimplexSampler.F2);
+
+                DoubleVector n0 = PanamaSimplexKernels.falloff(
+                    PanamaSimplexKernels.broadcast(0.5).sub(x0.mul(x0)).sub(y0.mul(y0)),
+                    PanamaSimplexKernels.simplexGradient(indices, seed, xi, yi, x0, y0));
+                DoubleVector n1 = PanamaSimplexKernels.falloff(
+                    PanamaSimplexKernels.broadcast(0.5).sub(x1.mul(x1)).sub(y1.mul(y1)),
+                    PanamaSimplexKernels.simplexGradient(indices, seed, xi.add(1, lowerInt), yi.add(1, lowerInt.not()), x1, y1));
+                DoubleVector n2 = PanamaSimplexKernels.falloff(
+                    PanamaSimplexKernels.broadcast(0.5).sub(x2.mul(x2)).sub(y2.mul(y2)),
+                    PanamaSimplexKernels.simplexGradient(indices, seed, xi.add(one), yi.add(one), x2, y2));
+
+                n0.add(n1).add(n2).mul(50).intoArray(out, row + j, PanamaSimplexKernels.DOUBLES.indexInRange(j, ySize));
+            }
+        }
+    }
+
+    @Override
+    public void simplex(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                        int ySize, int zSize, double[] out, int offset) {
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                double xy = xf + yf;
+                int row = offset + (i * ySize + j) * zSize;
+                for(int k = 0; k < zSize; k += PanamaSimplexKernels.LANES) {
+                    DoubleVector zf = PanamaSimplexKernels.coordinates(z, zStep, frequency, k);
+
+                    DoubleVector t = zf.add(xy).mul(SimplexSampler.F3);
+                    IntVector xi = PanamaSimplexKernels.floor(t.add(xf));
+                    IntVector yi = PanamaSimplexKernels.floor(t.add(yf));
+                    IntVector zi = PanamaSimplexKernels.floor(zf.add(t));
+
+                    t = PanamaSimplexKernels.toDouble(xi.add(yi).add(zi)).mul(SimplexSampler.G3);
+                    DoubleVector x0 = PanamaSimplexKernels.broadcast(xf).sub(PanamaSimplexKernels.toDouble(xi).sub(t));
+                    DoubleVector y0 = PanamaSimplexKernels.broadcast(yf).sub(PanamaSimplexKernels.toDouble(yi).sub(t));
+                    DoubleVector z0 = zf.sub(PanamaSimplexKernels.toDouble(zi).sub(t));
+
+                    // The six orderings of x0, y0 and z0, following the branches of the scalar code.
+                    VectorMask<Double> xy0 = x0.compare(VectorOperators.GE, y0);
+                    VectorMask<Double> caseA = xy0.and(y0.compare(VectorOperators.GE, z0));
+                    VectorMask<Double> caseB = xy0.andNot(caseA).and(x0.compare(VectorOperators.GE, z0));
+                    VectorMask<Double> caseC = xy0.andNot(caseA).andNot(caseB);
+                    VectorMask<Double> caseD = xy0.not().and(y0.compare(VectorOperators.LT, z0));
+                    VectorMask<Double> caseE = xy0.not().andNot(caseD).and(x0.compare(VectorOperators.LT, z0));
+                    VectorMask<Double> caseF = xy0.not().andNot(caseD).andNot(caseE);
+
+                    VectorMask<Double> i1 = caseA.or(caseB);
+                    VectorMask<Double> j1 = caseE.or(caseF);
+                    VectorMask<Double> k1 = caseC.or(caseD);
+                    VectorMask<Double> i2 = i1.or(caseC).or(caseF);
+                    VectorMask<Double> j2 = caseA.or(caseD).or(j1);
+                    VectorMask<Double> k2 = caseB.or(k1).or(caseE);
+
+                    DoubleVector x1 = x0.sub(PanamaSimplexKernels.ZERO.blend(1, i1)).add(SimplexSampler.G3);
+                    DoubleVector y1 = y0.sub(PanamaSimplexKernels.ZERO.blend(1, j1)).add(SimplexSampler.G3);
+                    DoubleVector z1 = z0.sub(PanamaSimplexKernels.ZERO.blend(1, k1)).add(SimplexSampler.G3);
+                    DoubleVector x2 = x0.sub(PanamaSimplexKernels.ZERO.blend(1, i2)).add(SimplexSampler.F3);
+                    DoubleVector y2 = y0.sub(PanamaSimplexKernels.ZERO.blend(1, j2)).add(SimplexSampler.F3);
+                    DoubleVector z2 = z0.sub(PanamaSimplexKernels.ZERO.blend(1, k2)).add(SimplexSampler.F3);
+                    DoubleVector x3 = x0.add(SimplexSampler.G33);
+                    DoubleVector y3 = y0.add(SimplexSampler.G33);
+                    DoubleVector z3 = z0.add(SimplexSampler.G33);
+
+                    DoubleVector n0 = PanamaSimplexKernels.falloff(
+                        PanamaSimplexKernels.broadcast(0.6).sub(x0.mul(x0)).sub(y0.mul(y0)).sub(z0.mul(z0)),
+                        PanamaSimplexKernels.simplexGradient(indices, seed, xi, yi, zi, x0, y0, z0));
+                    DoubleVector n1 = PanamaSimplexKernels.falloff(
+                        PanamaSimplexKernels.broadcast(0.6).sub(x1.mul(x1)).sub(y1.mul(y1)).sub(z1.mul(z1)),
+                        PanamaSimplexKernels.simplexGradient(indices, seed, xi.add(1, PanamaSimplexKernels.toInt(i1)),
+                            yi.add(1, PanamaSimplexKernels.toInt(j1)), zi.add(1, PanamaSimplexKernels.toInt(k1)), x1, y1, z1));
+                    DoubleVector n2 = PanamaSimplexKernels.falloff(
+                        PanamaSimplexKernels.broadcast(0.6).sub(x2.mul(x2)).sub(y2.mul(y2)).sub(z2.mul(z2)),
+                        PanamaSimplexKernels.simplexGradient(indices, seed, xi.add(1, PanamaSimplexKernels.toInt(i2)),
+                            yi.add(1, PanamaSimplexKernels.toInt(j2)), zi.add(1, PanamaSimplexKernels.toInt(k2)), x2, y2, z2));
+                    DoubleVector n3 = PanamaSimplexKernels.falloff(
+                        PanamaSimplexKernels.broadcast(0.6).sub(x3.mul(x3)).sub(y3.mul(y3)).sub(z3.mul(z3)),
+                        PanamaSimplexKernels.simplexGradient(indices, seed, xi.add(1), yi.add(1), zi.add(1), x3, y3, z3));
+
+                    n0.add(n1).add(n2).add(n3).mul(32).intoArray(out, row + k, PanamaSimplexKernels.DOUBLES.indexInRange(k, zSize));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void perlin(int seed, double frequency, double x, double y, double xStep, double yStep, int xSize, int ySize, double[] out,
+                       int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_2D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int x0 = FloatingPointFunctions.floor(xf);
+            double xd0 = xf - x0;
+            DoubleVector xd0v = PanamaSimplexKernels.broadcast(xd0);
+            DoubleVector xd1v = PanamaSimplexKernels.broadcast(xd0 - 1);
+            DoubleVector xs = PanamaSimplexKernels.broadcast(SmoothstepFunctions.quinticPolynomialSmoothstep(xd0));
+            IntVector xPrimed0 = PanamaSimplexKernels.broadcastInt(x0 * NoiseFunction.PRIME_X);
+            IntVector xPrimed1 = xPrimed0.add(NoiseFunction.PRIME_X);
+            int row = offset + i * ySize;
+            for(int j = 0; j < ySize; j += PanamaSimplexKernels.LANES) {
+                DoubleVector yf = PanamaSimplexKernels.coordinates(y, yStep, frequency, j);
+                IntVector y0 = PanamaSimplexKernels.floor(yf);
+                DoubleVector yd0 = yf.sub(PanamaSimplexKernels.toDouble(y0));
+                DoubleVector yd1 = yd0.sub(1);
+                DoubleVector ys = PanamaSimplexKernels.quintic(yd0);
+
+                IntVector yPrimed0 = y0.mul(NoiseFunction.PRIME_Y);
+                IntVector yPrimed1 = yPrimed0.add(NoiseFunction.PRIME_Y);
+
+                DoubleVector v00 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed0, xd0v, yd0);
+                DoubleVector v10 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed0, xd1v, yd0);
+                DoubleVector v01 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed1, xd0v, yd1);
+                DoubleVector v11 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed1, xd1v, yd1);
+
+                PanamaSimplexKernels.lerp(PanamaSimplexKernels.lerp(v00, v10, xs), PanamaSimplexKernels.lerp(v01, v11, xs), ys)
+                    .mul(1.4247691104677813)
+                    .intoArray(out, row + j, PanamaSimplexKernels.DOUBLES.indexInRange(j, ySize));
+            }
+        }
+    }
+
+    @Override
+    public void perlin(int seed, double frequency, double x, double y, double z, double xStep, double yStep, double zStep, int xSize,
+                       int ySize, int zSize, double[] out, int offset) {
+        double[] grads = SimplexStyleSampler.GRADIENTS_3D;
+        int[] indices = new int[PanamaSimplexKernels.LANES];
+        for(int i = 0; i < xSize; i++) {
+            double xf = (x + i * xStep) * frequency;
+            int x0 = FloatingPointFunctions.floor(xf);
+            double xd0 = xf - x0;
+            DoubleVector xd0v = PanamaSimplexKernels.broadcast(xd0);
+            DoubleVector xd1v = PanamaSimplexKernels.broadcast(xd0 - 1);
+            DoubleVector xs = PanamaSimplexKernels.broadcast(SmoothstepFunctions.quinticPolynomialSmoothstep(xd0));
+            IntVector xPrimed0 = PanamaSimplexKernels.broadcastInt(x0 * NoiseFunction.PRIME_X);
+            IntVector xPrimed1 = xPrimed0.add(NoiseFunction.PRIME_X);
+            for(int j = 0; j < ySize; j++) {
+                double yf = (y + j * yStep) * frequency;
+                int y0 = FloatingPointFunctions.floor(yf);
+                double yd0 = yf - y0;
+                DoubleVector yd0v = PanamaSimplexKernels.broadcast(yd0);
+                DoubleVector yd1v = PanamaSimplexKernels.broadcast(yd0 - 1);
+                DoubleVector ys = PanamaSimplexKernels.broadcast(SmoothstepFunctions.quinticPolynomialSmoothstep(yd0));
+                IntVector yPrimed0 = PanamaSimplexKernels.broadcastInt(y0 * NoiseFunction.PRIME_Y);
+                IntVector yPrimed1 = yPrimed0.add(NoiseFunction.PRIME_Y);
+                int row = offset + (i * ySize + j) * zSize;
+                for(int k = 0; k < zSize; k += PanamaSimplexKernels.LANES) {
+                    DoubleVector zf = PanamaSimplexKernels.coordinates(z, zStep, frequency, k);
+                    IntVector z0 = PanamaSimplexKernels.floor(zf);
+                    DoubleVector zd0 = zf.sub(PanamaSimplexKernels.toDouble(z0));
+                    DoubleVector zd1 = zd0.sub(1);
+                    DoubleVector zs = PanamaSimplexKernels.quintic(zd0);
+
+                    IntVector zPrimed0 = z0.mul(NoiseFunction.PRIME_Z);
+                    IntVector zPrimed1 = zPrimed0.add(NoiseFunction.PRIME_Z);
+
+                    DoubleVector v000 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed0, zPrimed0, xd0v, yd0v, zd0);
+                    DoubleVector v100 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed0, zPrimed0, xd1v, yd0v, zd0);
+                    DoubleVector v010 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed1, zPrimed0, xd0v, yd1v, zd0);
+                    DoubleVector v110 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed1, zPrimed0, xd1v, yd1v, zd0);
+                    DoubleVector v001 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed0, zPrimed1, xd0v, yd0v, zd1);
+                    DoubleVector v101 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed0, zPrimed1, xd1v, yd0v, zd1);
+                    DoubleVector v011 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed0, yPrimed1, zPrimed1, xd0v, yd1v, zd1);
+                    DoubleVector v111 = PanamaSimplexKernels.gradient(grads, indices, seed, xPrimed1, yPrimed1, zPrimed1, xd1v, yd1v, zd1);
+
+                    DoubleVector near = PanamaSimplexKernels.lerp(PanamaSimplexKernels.lerp(v000, v100, xs),
+                        PanamaSimplexKernels.lerp(v010, v110, xs), ys);
+                    DoubleVector far = PanamaSimplexKernels.lerp(PanamaSimplexKernels.lerp(v001, v101, xs),
+                        PanamaSimplexKernels.lerp(v011, v111, xs), ys);
+                    PanamaSimplexKernels.lerp(near, far, zs)
+                        .mul(0.964921414852142333984375)
+                        .intoArray(out, row + k, PanamaSimplexKernels.DOUBLES.indexInRange(k, zSize));
+                }
+            }
+        }
+    }
+
+    private static IntVector broadcastInt(int value) {
+        return IntVector.broadcast(PanamaSimplexKernels.INTS, value);
+    }
+}